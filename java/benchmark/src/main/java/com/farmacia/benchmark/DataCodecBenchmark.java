@@ -0,0 +1,121 @@
+package com.farmacia.benchmark;
+
+import com.farmacia.config.DataCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataCodec x leitura e escrita anteriores via DateTimeFormatter (JacksonConfig antes do DataCodec),
+ * nos formatos de data da API.
+ *
+ * Uso: java -jar target/benchmarks.jar DataCodecBenchmark -prof gc
+ * (-prof gc mostra os bytes alocados por operação, gc.alloc.rate.norm)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DataCodecBenchmark {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    private static final DateTimeFormatter FORMATO_DATA_HORA_CURTO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    /** Formato da data/hora lida: os dois brasileiros aceitos na entrada e o ISO */
+    @Param({"dd/MM/yyyy HH:mm:ss", "dd/MM/yyyy HH:mm", "ISO"})
+    public String formatoEntrada;
+
+    private LocalDateTime dataHora;
+    private String textoDataHora;
+    private char[] caracteresDataHora;
+    private String textoData;
+    private char[] caracteresData;
+
+    @Setup
+    public void preparar() {
+        dataHora = LocalDateTime.of(2024, 3, 15, 14, 30, 45);
+        textoDataHora = switch (formatoEntrada) {
+            case "dd/MM/yyyy HH:mm:ss" -> "15/03/2024 14:30:45";
+            case "dd/MM/yyyy HH:mm" -> "15/03/2024 14:30";
+            default -> "2024-03-15T14:30:45";
+        };
+        caracteresDataHora = textoDataHora.toCharArray();
+        textoData = "ISO".equals(formatoEntrada) ? "2024-03-15" : "15/03/2024";
+        caracteresData = textoData.toCharArray();
+    }
+
+    // ========================================================================
+    // Leitura
+    // ========================================================================
+
+    @Benchmark
+    public LocalDateTime lerDataHoraDataCodec() {
+        return DataCodec.lerDataHora(caracteresDataHora, 0, caracteresDataHora.length);
+    }
+
+    @Benchmark
+    public LocalDateTime lerDataHoraDateTimeFormatter() {
+        return lerDataHoraAnterior(textoDataHora);
+    }
+
+    @Benchmark
+    public LocalDate lerDataDataCodec() {
+        return DataCodec.lerData(caracteresData, 0, caracteresData.length);
+    }
+
+    @Benchmark
+    public LocalDate lerDataDateTimeFormatter() {
+        return lerDataAnterior(textoData);
+    }
+
+    // ========================================================================
+    // Escrita (não depende do formato de entrada)
+    // ========================================================================
+
+    @Benchmark
+    public String escreverDataHoraDataCodec() {
+        return DataCodec.formatarDataHora(dataHora);
+    }
+
+    @Benchmark
+    public String escreverDataHoraDateTimeFormatter() {
+        return dataHora.format(FORMATO_DATA_HORA);
+    }
+
+    // ========================================================================
+    // Implementação anterior: tentativas com exceção como controle de fluxo
+    // ========================================================================
+
+    private static LocalDateTime lerDataHoraAnterior(String texto) {
+        if (texto.contains("/")) {
+            try {
+                return LocalDateTime.parse(texto, FORMATO_DATA_HORA);
+            } catch (DateTimeParseException e1) {
+                try {
+                    return LocalDateTime.parse(texto, FORMATO_DATA_HORA_CURTO);
+                } catch (DateTimeParseException e2) {
+                    // segue para ISO
+                }
+            }
+        }
+        return LocalDateTime.parse(texto);
+    }
+
+    private static LocalDate lerDataAnterior(String texto) {
+        if (texto.contains("/")) {
+            try {
+                return LocalDate.parse(texto, FORMATO_DATA);
+            } catch (DateTimeParseException e) {
+                // segue para ISO
+            }
+        }
+        return LocalDate.parse(texto);
+    }
+}
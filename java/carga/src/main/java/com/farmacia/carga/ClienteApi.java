@@ -0,0 +1,102 @@
+package com.farmacia.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Chamadas à API REST de um terminal, medindo a latência e lendo o cabeçalho X-Consultas-SQL
+ */
+public class ClienteApi {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private String token;
+
+    public ClienteApi(HttpClient http, String baseUrl) {
+        this.http = http;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /** Faz login e guarda o token para as próximas chamadas */
+    public boolean login(String email, String senha, MetricasOperacao metricas) {
+        JsonNode resposta = post("/api/auth/login", Map.of("email", email, "password", senha), metricas);
+        if (resposta == null || !resposta.hasNonNull("token")) {
+            return false;
+        }
+        token = resposta.get("token").asText();
+        return true;
+    }
+
+    public JsonNode get(String caminho, MetricasOperacao metricas) {
+        return executar(requisicao(caminho).GET().build(), metricas);
+    }
+
+    public JsonNode post(String caminho, Object corpo, MetricasOperacao metricas) {
+        try {
+            HttpRequest requisicao = requisicao(caminho)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(corpo)))
+                    .build();
+            return executar(requisicao, metricas);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao serializar requisição para " + caminho, e);
+        }
+    }
+
+    private HttpRequest.Builder requisicao(String caminho) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    /**
+     * Executa a requisição e registra o resultado. Retorna o corpo em caso de sucesso, ou null
+     */
+    private JsonNode executar(HttpRequest requisicao, MetricasOperacao metricas) {
+        long inicio = System.nanoTime();
+        HttpResponse<byte[]> resposta;
+        try {
+            resposta = http.send(requisicao, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            metricas.erro((System.nanoTime() - inicio) / 1000);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long latencia = (System.nanoTime() - inicio) / 1000;
+
+        Long consultas = resposta.headers().firstValue("X-Consultas-SQL").map(Long::valueOf).orElse(null);
+        int status = resposta.statusCode();
+        if (status >= 500) {
+            metricas.erro(latencia);
+            return null;
+        }
+        if (status >= 400) {
+            metricas.rejeitada(latencia, consultas);
+            return null;
+        }
+        metricas.sucesso(latencia, consultas);
+        try {
+            byte[] corpo = resposta.body();
+            return corpo.length > 0 ? MAPPER.readTree(corpo) : MAPPER.nullNode();
+        } catch (IOException e) {
+            return MAPPER.nullNode();
+        }
+    }
+}
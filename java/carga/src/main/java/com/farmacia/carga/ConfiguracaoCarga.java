@@ -0,0 +1,93 @@
+package com.farmacia.carga;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parâmetros do teste de carga, lidos da linha de comando no formato --chave=valor
+ */
+public record ConfiguracaoCarga(
+        String url,
+        int terminais,
+        int duracaoSegundos,
+        int aquecimentoSegundos,
+        int pensamentoMs,
+        Map<String, Integer> mix,
+        int itensPorVendaMax,
+        double zipf,
+        String email,
+        @JsonIgnore String senha,
+        int vendedoresSeed,
+        long semente,
+        String saida
+) {
+
+    public static final String VENDA = "venda";
+    public static final String CATALOGO = "catalogo";
+    public static final String ALERTAS = "alertas";
+    public static final String ENTRADA = "entrada";
+
+    public static ConfiguracaoCarga ler(String[] args) {
+        Map<String, String> valores = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido: " + arg + " (use --chave=valor)");
+            }
+            int separador = arg.indexOf('=');
+            valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+
+        ConfiguracaoCarga configuracao = new ConfiguracaoCarga(
+                valores.getOrDefault("url", "http://localhost:8081"),
+                Integer.parseInt(valores.getOrDefault("terminais", "20")),
+                Integer.parseInt(valores.getOrDefault("duracao", "120")),
+                Integer.parseInt(valores.getOrDefault("aquecimento", "15")),
+                Integer.parseInt(valores.getOrDefault("pensamento-ms", "500")),
+                lerMix(valores.getOrDefault("mix", "venda=70,catalogo=15,alertas=10,entrada=5")),
+                Integer.parseInt(valores.getOrDefault("itens-max", "5")),
+                Double.parseDouble(valores.getOrDefault("zipf", "1.1")),
+                valores.getOrDefault("email", "admin@farmacia.com"),
+                valores.getOrDefault("senha", "admin123"),
+                Integer.parseInt(valores.getOrDefault("vendedores-seed", "0")),
+                Long.parseLong(valores.getOrDefault("semente", "42")),
+                valores.get("saida"));
+        valores.keySet().removeAll(List.of("url", "terminais", "duracao", "aquecimento", "pensamento-ms", "mix",
+                "itens-max", "zipf", "email", "senha", "vendedores-seed", "semente", "saida"));
+        if (!valores.isEmpty()) {
+            throw new IllegalArgumentException("Parâmetro(s) desconhecido(s): " + valores.keySet());
+        }
+        if (configuracao.terminais < 1 || configuracao.duracaoSegundos < 1 || configuracao.itensPorVendaMax < 1) {
+            throw new IllegalArgumentException("terminais, duracao e itens-max devem ser positivos");
+        }
+        return configuracao;
+    }
+
+    /** Pesos das operações, ex.: venda=70,catalogo=15,alertas=10,entrada=5 */
+    private static Map<String, Integer> lerMix(String texto) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String parte : texto.split(",")) {
+            String[] chaveValor = parte.trim().split("=");
+            String operacao = chaveValor[0].trim();
+            if (!operacao.equals(VENDA) && !operacao.equals(CATALOGO) && !operacao.equals(ALERTAS) && !operacao.equals(ENTRADA)) {
+                throw new IllegalArgumentException("Operação desconhecida no mix: " + operacao);
+            }
+            mix.put(operacao, Integer.parseInt(chaveValor[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("O mix precisa de ao menos uma operação com peso positivo");
+        }
+        return mix;
+    }
+
+    /** Credenciais do terminal: vendedores da base sintética em rodízio, ou o usuário informado */
+    public String emailTerminal(int terminal) {
+        return vendedoresSeed > 0 ? "vendedor" + (terminal % vendedoresSeed + 1) + ".seed@farmacia.com" : email;
+    }
+
+    public String senhaTerminal() {
+        return vendedoresSeed > 0 ? "vendedor123" : senha;
+    }
+}
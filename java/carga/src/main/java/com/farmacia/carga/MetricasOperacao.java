@@ -0,0 +1,82 @@
+package com.farmacia.carga;
+
+import java.util.Arrays;
+
+/**
+ * Latências e contadores de uma operação. Thread-safe: os terminais registram concorrentemente.
+ * Latências em microssegundos, guardadas integralmente para percentis exatos.
+ */
+public class MetricasOperacao {
+
+    private final String nome;
+    private long[] latencias = new long[1024];
+    private int total;
+    private long rejeitadas;
+    private long erros;
+    private long consultasSql;
+    private long respostasComConsultas;
+
+    public MetricasOperacao(String nome) {
+        this.nome = nome;
+    }
+
+    /** Resposta 2xx */
+    public synchronized void sucesso(long latenciaMicros, Long consultas) {
+        adicionarLatencia(latenciaMicros);
+        contarConsultas(consultas);
+    }
+
+    /** Resposta 4xx: regra de negócio (ex.: estoque insuficiente), não falha do servidor */
+    public synchronized void rejeitada(long latenciaMicros, Long consultas) {
+        adicionarLatencia(latenciaMicros);
+        contarConsultas(consultas);
+        rejeitadas++;
+    }
+
+    /** Resposta 5xx, timeout ou falha de conexão */
+    public synchronized void erro(long latenciaMicros) {
+        adicionarLatencia(latenciaMicros);
+        erros++;
+    }
+
+    private void adicionarLatencia(long latenciaMicros) {
+        if (total == latencias.length) {
+            latencias = Arrays.copyOf(latencias, total * 2);
+        }
+        latencias[total++] = latenciaMicros;
+    }
+
+    private void contarConsultas(Long consultas) {
+        if (consultas != null) {
+            consultasSql += consultas;
+            respostasComConsultas++;
+        }
+    }
+
+    public synchronized Resumo resumir(double segundos) {
+        long[] ordenadas = Arrays.copyOf(latencias, total);
+        Arrays.sort(ordenadas);
+        return new Resumo(nome, total, rejeitadas, erros,
+                segundos > 0 ? total / segundos : 0,
+                percentil(ordenadas, 50), percentil(ordenadas, 90), percentil(ordenadas, 99),
+                total > 0 ? ordenadas[total - 1] / 1000.0 : 0,
+                respostasComConsultas > 0 ? (double) consultasSql / respostasComConsultas : null);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, Math.min(indice, ordenadas.length - 1))] / 1000.0;
+    }
+
+    /** Resumo do período medido; latências em milissegundos */
+    public record Resumo(String operacao, long requisicoes, long rejeitadas, long erros, double porSegundo,
+                         double p50Ms, double p90Ms, double p99Ms, double maxMs, Double consultasSqlPorRequisicao) {
+
+        public double taxaErro() {
+            return requisicoes > 0 ? (double) erros / requisicoes : 0;
+        }
+    }
+}
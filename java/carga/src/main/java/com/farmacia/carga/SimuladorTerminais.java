@@ -0,0 +1,153 @@
+package com.farmacia.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Teste de carga ponta a ponta da API: N terminais de caixa virtuais fazendo login, consultando o
+ * catálogo e os alertas, registrando vendas e entradas de estoque contra a aplicação em execução.
+ *
+ * Uso: java -jar target/farmacia-carga-1.0.0.jar --url=http://localhost:8081 --terminais=50 --duracao=300
+ * (parâmetros em COMANDOS.md). O aquecimento é descartado das métricas.
+ */
+public class SimuladorTerminais {
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracaoCarga configuracao;
+        try {
+            configuracao = ConfiguracaoCarga.ler(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        Terminal.Catalogo catalogo = carregarCatalogo(configuracao, http);
+        System.out.println("🛒 " + configuracao.terminais() + " terminal(is) contra " + configuracao.url() + " por "
+                + configuracao.duracaoSegundos() + " s (+" + configuracao.aquecimentoSegundos() + " s de aquecimento), mix "
+                + configuracao.mix() + ", " + catalogo.medicamentos().size() + " medicamento(s), "
+                + catalogo.clientes().size() + " cliente(s)");
+
+        AtomicReference<Map<String, MetricasOperacao>> metricas = new AtomicReference<>(novasMetricas(configuracao));
+        MetricasOperacao metricasLogin = new MetricasOperacao("login");
+        long inicio = System.nanoTime();
+        long fim = inicio + TimeUnit.SECONDS.toNanos(configuracao.aquecimentoSegundos() + configuracao.duracaoSegundos());
+
+        ExecutorService executor = Executors.newFixedThreadPool(configuracao.terminais());
+        for (int i = 0; i < configuracao.terminais(); i++) {
+            executor.submit(new Terminal(i, configuracao, new ClienteApi(http, configuracao.url()), catalogo,
+                    metricas::get, metricasLogin, fim));
+        }
+
+        // Fim do aquecimento: as métricas passam a contar a partir daqui
+        Thread.sleep(TimeUnit.SECONDS.toMillis(configuracao.aquecimentoSegundos()));
+        metricas.set(novasMetricas(configuracao));
+        long inicioMedicao = System.nanoTime();
+        System.out.println("🛒 Aquecimento concluído, medindo...");
+
+        executor.shutdown();
+        if (!executor.awaitTermination(configuracao.duracaoSegundos() + 60L, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        double segundos = (System.nanoTime() - inicioMedicao) / 1e9;
+
+        List<MetricasOperacao.Resumo> resumos = new ArrayList<>();
+        resumos.add(metricasLogin.resumir(0));
+        for (MetricasOperacao operacao : metricas.get().values()) {
+            resumos.add(operacao.resumir(segundos));
+        }
+        imprimir(resumos, segundos);
+        if (configuracao.saida() != null) {
+            gravar(configuracao, resumos, segundos);
+        }
+    }
+
+    /** Catálogo ativo (embaralhado pela semente, para a popularidade não seguir a ordem alfabética) e clientes */
+    private static Terminal.Catalogo carregarCatalogo(ConfiguracaoCarga configuracao, HttpClient http) {
+        ClienteApi api = new ClienteApi(http, configuracao.url());
+        MetricasOperacao preparacao = new MetricasOperacao("preparacao");
+        if (!api.login(configuracao.email(), configuracao.senha(), preparacao)) {
+            throw new IllegalStateException("Falha no login de " + configuracao.email() + " em " + configuracao.url());
+        }
+
+        List<UUID> medicamentos = ids(api.get("/api/medicamentos/ativos", preparacao));
+        List<UUID> clientes = ids(api.get("/api/clientes", preparacao));
+        if (medicamentos.isEmpty() || clientes.isEmpty()) {
+            throw new IllegalStateException("É preciso ao menos um medicamento ativo e um cliente cadastrados "
+                    + "(veja app.seed no README para gerar uma base sintética)");
+        }
+        Collections.shuffle(medicamentos, new Random(configuracao.semente()));
+
+        double[] cdf = new double[medicamentos.size()];
+        double soma = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            soma += 1.0 / Math.pow(i + 1, configuracao.zipf());
+            cdf[i] = soma;
+        }
+        return new Terminal.Catalogo(medicamentos, cdf, clientes);
+    }
+
+    private static List<UUID> ids(JsonNode lista) {
+        List<UUID> ids = new ArrayList<>();
+        if (lista != null && lista.isArray()) {
+            for (JsonNode item : lista) {
+                ids.add(UUID.fromString(item.get("id").asText()));
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, MetricasOperacao> novasMetricas(ConfiguracaoCarga configuracao) {
+        Map<String, MetricasOperacao> metricas = new LinkedHashMap<>();
+        for (String operacao : configuracao.mix().keySet()) {
+            metricas.put(operacao, new MetricasOperacao(operacao));
+        }
+        return metricas;
+    }
+
+    private static void imprimir(List<MetricasOperacao.Resumo> resumos, double segundos) {
+        System.out.println();
+        System.out.printf("🛒 Resultado (%.1f s medidos)%n", segundos);
+        System.out.printf("%-10s %9s %9s %7s %9s %9s %9s %9s %9s %8s%n",
+                "operação", "req", "req/s", "4xx", "erros", "p50 ms", "p90 ms", "p99 ms", "max ms", "SQL/req");
+        for (MetricasOperacao.Resumo resumo : resumos) {
+            System.out.printf(Locale.ROOT, "%-10s %9d %9.1f %7d %8.2f%% %9.1f %9.1f %9.1f %9.1f %8s%n",
+                    resumo.operacao(), resumo.requisicoes(), resumo.porSegundo(), resumo.rejeitadas(),
+                    resumo.taxaErro() * 100, resumo.p50Ms(), resumo.p90Ms(), resumo.p99Ms(), resumo.maxMs(),
+                    resumo.consultasSqlPorRequisicao() != null ? String.format(Locale.ROOT, "%.1f", resumo.consultasSqlPorRequisicao()) : "-");
+        }
+        resumos.stream()
+                .filter(r -> r.operacao().equals(ConfiguracaoCarga.VENDA))
+                .findFirst()
+                .ifPresent(venda -> System.out.printf(Locale.ROOT, "🛒 Vendas concluídas por segundo: %.1f%n",
+                        (venda.requisicoes() - venda.rejeitadas() - venda.erros()) / segundos));
+    }
+
+    /** Resultado em JSON, para comparar versões */
+    private static void gravar(ConfiguracaoCarga configuracao, List<MetricasOperacao.Resumo> resumos, double segundos) throws IOException {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("data", LocalDateTime.now().toString());
+        resultado.put("configuracao", configuracao);
+        resultado.put("segundosMedidos", segundos);
+        resultado.put("operacoes", resumos);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(configuracao.saida()), resultado);
+        System.out.println("🛒 Resultado gravado em " + configuracao.saida());
+    }
+}
@@ -0,0 +1,124 @@
+package com.farmacia.carga;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Terminal de caixa virtual: faz login e executa operações sorteadas pelo mix, com tempo de
+ * pensamento exponencial entre elas, até o fim do teste.
+ */
+public class Terminal implements Runnable {
+
+    private final int numero;
+    private final ConfiguracaoCarga configuracao;
+    private final ClienteApi api;
+    private final Catalogo catalogo;
+    private final Supplier<Map<String, MetricasOperacao>> metricas;
+    private final MetricasOperacao metricasLogin;
+    private final long fimNanos;
+    private final SplittableRandom random;
+    private final String[] operacoes;
+    private final int[] pesosAcumulados;
+
+    /** Medicamentos em ordem de popularidade (CDF de Zipf) e clientes disponíveis */
+    public record Catalogo(List<UUID> medicamentos, double[] cdf, List<UUID> clientes) {
+    }
+
+    public Terminal(int numero, ConfiguracaoCarga configuracao, ClienteApi api, Catalogo catalogo,
+                    Supplier<Map<String, MetricasOperacao>> metricas, MetricasOperacao metricasLogin, long fimNanos) {
+        this.numero = numero;
+        this.configuracao = configuracao;
+        this.api = api;
+        this.catalogo = catalogo;
+        this.metricas = metricas;
+        this.metricasLogin = metricasLogin;
+        this.fimNanos = fimNanos;
+        this.random = new SplittableRandom(configuracao.semente() + numero);
+
+        this.operacoes = configuracao.mix().keySet().toArray(String[]::new);
+        this.pesosAcumulados = new int[operacoes.length];
+        int soma = 0;
+        for (int i = 0; i < operacoes.length; i++) {
+            soma += configuracao.mix().get(operacoes[i]);
+            pesosAcumulados[i] = soma;
+        }
+    }
+
+    @Override
+    public void run() {
+        if (!api.login(configuracao.emailTerminal(numero), configuracao.senhaTerminal(), metricasLogin)) {
+            System.out.println("⚠️ Terminal " + numero + ": falha no login de " + configuracao.emailTerminal(numero));
+            return;
+        }
+        while (System.nanoTime() < fimNanos && !Thread.currentThread().isInterrupted()) {
+            pensar();
+            String operacao = sortearOperacao();
+            MetricasOperacao destino = metricas.get().get(operacao);
+            switch (operacao) {
+                case ConfiguracaoCarga.VENDA -> vender(destino);
+                case ConfiguracaoCarga.CATALOGO -> api.get("/api/medicamentos/ativos", destino);
+                case ConfiguracaoCarga.ALERTAS -> api.get("/api/alertas/nao-lidos", destino);
+                case ConfiguracaoCarga.ENTRADA -> api.post("/api/estoque/entrada", Map.of(
+                        "medicamentoId", sortearMedicamento(),
+                        "quantidade", 50 + random.nextInt(151),
+                        "motivo", "Reposição (teste de carga)"), destino);
+                default -> throw new IllegalStateException("Operação desconhecida: " + operacao);
+            }
+        }
+    }
+
+    /** Venda com 1 a itens-max medicamentos distintos, escolhidos pela popularidade */
+    private void vender(MetricasOperacao destino) {
+        int quantidadeItens = 1;
+        while (quantidadeItens < configuracao.itensPorVendaMax() && random.nextDouble() < 0.45) {
+            quantidadeItens++;
+        }
+        Set<UUID> escolhidos = new LinkedHashSet<>();
+        for (int tentativas = 0; escolhidos.size() < quantidadeItens && tentativas < quantidadeItens * 4; tentativas++) {
+            escolhidos.add(sortearMedicamento());
+        }
+        List<Map<String, Object>> itens = new ArrayList<>();
+        for (UUID medicamentoId : escolhidos) {
+            itens.add(Map.of("medicamentoId", medicamentoId, "quantidade", random.nextDouble() < 0.8 ? 1 : 2 + random.nextInt(2)));
+        }
+        UUID clienteId = catalogo.clientes().get(random.nextInt(catalogo.clientes().size()));
+        api.post("/api/vendas", Map.of("clienteId", clienteId, "itens", itens), destino);
+    }
+
+    private UUID sortearMedicamento() {
+        double[] cdf = catalogo.cdf();
+        int posicao = Arrays.binarySearch(cdf, random.nextDouble() * cdf[cdf.length - 1]);
+        int indice = Math.min(posicao >= 0 ? posicao : -posicao - 1, cdf.length - 1);
+        return catalogo.medicamentos().get(indice);
+    }
+
+    private String sortearOperacao() {
+        int sorteio = random.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (sorteio < pesosAcumulados[i]) {
+                return operacoes[i];
+            }
+        }
+        return operacoes[operacoes.length - 1];
+    }
+
+    /** Tempo de pensamento exponencial com média pensamento-ms (chegadas de Poisson por terminal) */
+    private void pensar() {
+        if (configuracao.pensamentoMs() <= 0) {
+            return;
+        }
+        long espera = Math.round(-Math.log(1 - random.nextDouble()) * configuracao.pensamentoMs());
+        try {
+            Thread.sleep(Math.min(espera, configuracao.pensamentoMs() * 10L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.farmacia.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Invalidação de caches entre instâncias via LISTEN/NOTIFY do PostgreSQL. Também entrega a VersaoTabelas
+ * as notificações que o trigger de versao_listagens publica no mesmo canal a cada commit (origem "banco").
+ *
+ * As alterações de uma transação (tabela, ou tabela:id para caches por ID) são acumuladas e, após o
+ * commit, aplicadas nos caches locais e publicadas em um único NOTIFY no canal cache_invalidacao. Cada
+ * instância mantém uma conexão dedicada em LISTEN e aplica as mensagens das demais. Notificações enviadas
+ * enquanto a conexão estava caída se perdem: ao (re)conectar, a instância descarta todos os caches.
+ *
+ * O NOTIFY sai em transação própria logo após o commit; se a instância cair entre os dois, as outras
+ * só veem a alteração na próxima notificação da mesma tabela ou ao reconectar.
+ */
+@Component
+public class BarramentoInvalidacao {
+
+    private static final String CANAL = "cache_invalidacao";
+    // Limite do payload do NOTIFY é 8000 bytes; mensagens maiores são divididas
+    private static final int TAMANHO_MAXIMO_MENSAGEM = 7900;
+    // Acima disso, as chaves de uma tabela na mesma transação viram invalidação da tabela inteira
+    private static final int LIMITE_CHAVES_POR_TABELA = 200;
+    private static final long ESPERA_NOTIFICACOES_MS = 10_000;
+    private static final long ESPERA_MAXIMA_RECONEXAO_MS = 30_000;
+
+    /** Cache afetado por uma tabela; porId = as chaves do cache são os IDs da tabela */
+    private record Alvo(String cache, boolean porId) {
+    }
+
+    /** Tabelas observadas: as de origem de algum cache */
+    private static final Map<String, List<Alvo>> ALVOS = Map.of(
+            VersaoTabelas.USUARIOS, List.of(new Alvo(CacheConfig.USUARIOS, false)),
+            VersaoTabelas.ALERTAS, List.of(new Alvo(CacheConfig.ALERTAS_NAO_LIDOS, false))
+    );
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private VersaoTabelas versaoTabelas;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    // Identifica as mensagens desta instância, que já foram aplicadas localmente
+    private final String instancia = UUID.randomUUID().toString();
+    private volatile boolean ativo = true;
+    private volatile Connection conexaoEscuta;
+    private Thread escuta;
+
+    @PostConstruct
+    public void iniciar() {
+        escuta = new Thread(this::escutar, "cache-invalidacao");
+        escuta.setDaemon(true);
+        escuta.start();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        escuta.interrupt();
+        fecharConexao();
+    }
+
+    // ========================================================================
+    // Publicação
+    // ========================================================================
+
+    /** Tabela inteira alterada (ex.: UPDATE em massa ou carga via COPY) */
+    public void registrar(String tabela) {
+        registrar(tabela, null);
+    }
+
+    /**
+     * Registra a alteração para aplicar e publicar após o commit da transação atual
+     * (ou imediatamente, fora de transação). Tabelas não observadas são ignoradas.
+     */
+    public void registrar(String tabela, Object id) {
+        List<Alvo> alvos = ALVOS.get(tabela);
+        if (alvos == null) {
+            return;
+        }
+        boolean porId = id != null && alvos.stream().anyMatch(Alvo::porId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<String, Set<String>> alteracao = new HashMap<>();
+            alteracao.put(tabela, porId ? new HashSet<>(Set.of(id.toString())) : null);
+            aplicar(alteracao);
+            publicar(alteracao);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Set<String>> pendentes = (Map<String, Set<String>>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes == null) {
+            Map<String, Set<String>> novas = new HashMap<>();
+            pendentes = novas;
+            TransactionSynchronizationManager.bindResource(this, novas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(novas);
+                    publicar(novas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BarramentoInvalidacao.this);
+                }
+            });
+        }
+        // null = tabela inteira (absorve as chaves)
+        if (!porId) {
+            pendentes.put(tabela, null);
+        } else if (!pendentes.containsKey(tabela)) {
+            pendentes.put(tabela, new HashSet<>(Set.of(id.toString())));
+        } else {
+            Set<String> chaves = pendentes.get(tabela);
+            if (chaves != null) {
+                chaves.add(id.toString());
+                if (chaves.size() > LIMITE_CHAVES_POR_TABELA) {
+                    pendentes.put(tabela, null);
+                }
+            }
+        }
+    }
+
+    /** Uma linha por tabela ("tabela" ou "tabela:id,id,..."), precedidas pelo ID da instância de origem */
+    private void publicar(Map<String, Set<String>> alteracoes) {
+        List<String> mensagens = new ArrayList<>();
+        StringBuilder mensagem = new StringBuilder(instancia);
+        for (Map.Entry<String, Set<String>> alteracao : alteracoes.entrySet()) {
+            List<String> linhas = new ArrayList<>();
+            if (alteracao.getValue() == null) {
+                linhas.add(alteracao.getKey());
+            } else {
+                StringBuilder linha = new StringBuilder(alteracao.getKey()).append(':');
+                for (String chave : alteracao.getValue()) {
+                    if (linha.length() + chave.length() + 1 > TAMANHO_MAXIMO_MENSAGEM - instancia.length() - 1) {
+                        linhas.add(linha.substring(0, linha.length() - 1));
+                        linha = new StringBuilder(alteracao.getKey()).append(':');
+                    }
+                    linha.append(chave).append(',');
+                }
+                linhas.add(linha.substring(0, linha.length() - 1));
+            }
+            for (String linha : linhas) {
+                if (mensagem.length() + linha.length() + 1 > TAMANHO_MAXIMO_MENSAGEM) {
+                    mensagens.add(mensagem.toString());
+                    mensagem = new StringBuilder(instancia);
+                }
+                mensagem.append('\n').append(linha);
+            }
+        }
+        mensagens.add(mensagem.toString());
+
+        // Após o commit a conexão da transação não aceita mais comandos: NOTIFY em transação nova
+        try {
+            TransactionTemplate notificacao = new TransactionTemplate(transactionManager);
+            notificacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            notificacao.executeWithoutResult(status -> {
+                for (String texto : mensagens) {
+                    jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CANAL, texto);
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("⚠️ Falha ao publicar invalidação de cache (" + alteracoes.keySet() + "): " + e.getMessage());
+        }
+    }
+
+    // ========================================================================
+    // Aplicação (local e recebida)
+    // ========================================================================
+
+    private void aplicar(Map<String, Set<String>> alteracoes) {
+        for (Map.Entry<String, Set<String>> alteracao : alteracoes.entrySet()) {
+            versaoTabelas.descartar(alteracao.getKey());
+            for (Alvo alvo : ALVOS.getOrDefault(alteracao.getKey(), List.of())) {
+                Cache cache = cacheManager.getCache(alvo.cache());
+                if (cache == null) {
+                    continue;
+                }
+                if (alvo.porId() && alteracao.getValue() != null) {
+                    alteracao.getValue().forEach(cache::evict);
+                } else {
+                    cache.clear();
+                }
+            }
+        }
+    }
+
+    private void aplicarMensagem(String mensagem) {
+        String[] linhas = mensagem.split("\n");
+        if (linhas.length < 2 || linhas[0].equals(instancia)) {
+            return;
+        }
+        Map<String, Set<String>> alteracoes = new HashMap<>();
+        for (int i = 1; i < linhas.length; i++) {
+            int separador = linhas[i].indexOf(':');
+            if (separador < 0) {
+                alteracoes.put(linhas[i], null);
+            } else {
+                String tabela = linhas[i].substring(0, separador);
+                if (!alteracoes.containsKey(tabela)) {
+                    alteracoes.put(tabela, new HashSet<>());
+                }
+                Set<String> chaves = alteracoes.get(tabela);
+                if (chaves != null) {
+                    chaves.addAll(Arrays.asList(linhas[i].substring(separador + 1).split(",")));
+                }
+            }
+        }
+        aplicar(alteracoes);
+    }
+
+    /** Descarta todos os caches desta instância (notificações podem ter sido perdidas) */
+    private void descartarTudo() {
+        for (String nome : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(nome);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    // ========================================================================
+    // Escuta
+    // ========================================================================
+
+    private void escutar() {
+        long espera = 1000;
+        while (ativo) {
+            try {
+                Connection conexao = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                conexaoEscuta = conexao;
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute("LISTEN " + CANAL);
+                }
+                descartarTudo();
+                versaoTabelas.escuta(true);
+                System.out.println("📡 Invalidação de cache: escutando o canal " + CANAL);
+                espera = 1000;
+
+                PGConnection pg = conexao.unwrap(PGConnection.class);
+                while (ativo) {
+                    PGNotification[] notificacoes = pg.getNotifications((int) ESPERA_NOTIFICACOES_MS);
+                    if (notificacoes == null || notificacoes.length == 0) {
+                        // Sem tráfego: confirma que a conexão continua viva
+                        try (Statement statement = conexao.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notificacao : notificacoes) {
+                        aplicarMensagem(notificacao.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!ativo) {
+                    break;
+                }
+                System.err.println("⚠️ Invalidação de cache: conexão de escuta perdida (" + e.getMessage()
+                        + "), nova tentativa em " + espera + " ms");
+            } finally {
+                versaoTabelas.escuta(false);
+                fecharConexao();
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_RECONEXAO_MS);
+        }
+    }
+
+    private void fecharConexao() {
+        Connection conexao = conexaoEscuta;
+        conexaoEscuta = null;
+        if (conexao != null) {
+            try {
+                conexao.close();
+            } catch (SQLException e) {
+                // conexão já perdida
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.farmacia.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches em memória de cada instância. As entradas são descartadas pelo BarramentoInvalidacao quando a
+ * tabela de origem é alterada, nesta ou em outra instância, e expiram após app.cache.expiracao-segundos:
+ * uma leitura que começou antes da alteração e grava no cache depois da invalidação (ou uma notificação
+ * perdida) fica desatualizada no máximo por esse tempo.
+ *
+ * Dados que mudam a cada venda (estoque do medicamento) não são cacheados.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Usuário por e-mail, consultado a cada requisição autenticada (JwtFilter) */
+    public static final String USUARIOS = "usuarios";
+
+    /** Alertas não lidos (chave única) */
+    public static final String ALERTAS_NAO_LIDOS = "alertas-nao-lidos";
+
+    @Value("${app.cache.expiracao-segundos:60}")
+    private long expiracaoSegundos;
+
+    @Value("${app.cache.maximo-entradas:10000}")
+    private long maximoEntradas;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(expiracaoSegundos))
+                .maximumSize(maximoEntradas));
+        // Nomes fixos: um cache novo precisa de regra de invalidação no BarramentoInvalidacao
+        cacheManager.setCacheNames(List.of(USUARIOS, ALERTAS_NAO_LIDOS));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
@@ -0,0 +1,87 @@
+package com.farmacia.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.io.IOException;
+
+/**
+ * Contagem de comandos SQL por requisição, para investigar N+1 num ambiente (perfil contagem-sql):
+ * - o total vai no header X-Consultas-SQL de toda resposta com corpo;
+ * - requisições acima de app.sql.alerta-consultas geram um aviso no console.
+ * Os limites por endpoint que quebram o build ficam em ConsultasPorEndpointTest.
+ */
+@Configuration
+@Profile(ContadorConsultasConfig.PERFIL)
+public class ContadorConsultasConfig {
+
+    public static final String PERFIL = "contagem-sql";
+    public static final String HEADER_CONSULTAS = "X-Consultas-SQL";
+
+    @Value("${app.sql.alerta-consultas:20}")
+    private int alertaConsultas;
+
+    @Bean
+    public HibernatePropertiesCustomizer contadorConsultasHibernate() {
+        return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorConsultasSql());
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public OncePerRequestFilter contadorConsultasFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                ContadorConsultasSql.reiniciar();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    int total = ContadorConsultasSql.total();
+                    if (total > alertaConsultas) {
+                        System.out.println("⚠️ " + request.getMethod() + " " + request.getRequestURI()
+                                + " executou " + total + " comandos SQL (limite de alerta: " + alertaConsultas + ")");
+                    }
+                    ContadorConsultasSql.limpar();
+                }
+            }
+        };
+    }
+
+    /** Grava o header antes da serialização do corpo, quando a resposta ainda não foi enviada */
+    @ControllerAdvice
+    @Profile(PERFIL)
+    static class ContadorConsultasHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            response.getHeaders().set(HEADER_CONSULTAS, String.valueOf(ContadorConsultasSql.total()));
+            return body;
+        }
+    }
+}
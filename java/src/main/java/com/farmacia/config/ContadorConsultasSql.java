@@ -0,0 +1,31 @@
+package com.farmacia.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread (requisição) atual.
+ * Registrado como StatementInspector em ContadorConsultasConfig (perfil contagem-sql) e pelos testes de
+ * integração (hibernate.session_factory.statement_inspector); consultas via JdbcTemplate não entram na contagem.
+ */
+public class ContadorConsultasSql implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTADOR = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get()[0]++;
+        return sql;
+    }
+
+    public static void reiniciar() {
+        CONTADOR.get()[0] = 0;
+    }
+
+    public static int total() {
+        return CONTADOR.get()[0];
+    }
+
+    public static void limpar() {
+        CONTADOR.remove();
+    }
+}
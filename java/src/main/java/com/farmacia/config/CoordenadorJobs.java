@@ -0,0 +1,418 @@
+package com.farmacia.config;
+
+import com.farmacia.domain.dto.JobExecucaoResponse;
+import com.farmacia.domain.dto.JobResponse;
+import com.farmacia.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Garante que cada job agendado execute em uma única instância da aplicação.
+ *
+ * Todas as instâncias disparam o mesmo cron; a que adquire a linha do job em jobs_lock (lease com
+ * expiração) executa, as demais desistem. Enquanto o job roda, um heartbeat renova o lease a cada
+ * terço do seu tempo. Se a instância cair no meio da execução o lease expira com execucao_id ainda
+ * preenchido, e a verificação periódica de qualquer outra instância retoma o job.
+ * Se a renovação encontrar o lease com outra execução (a instância ficou parada além do lease e o job
+ * foi retomado em outra), a execução local é cancelada: a thread do job é interrompida e as escritas
+ * protegidas por vincularAoLease() não são confirmadas.
+ * Um job concluído não é repetido antes do seu intervalo mínimo, o que absorve diferenças de relógio
+ * entre as instâncias no disparo do cron. Toda execução fica registrada em jobs_execucoes.
+ *
+ * Os jobs executam em threads próprias (app.jobs.threads), não na thread do agendador do Spring.
+ */
+@Component
+public class CoordenadorJobs {
+
+    private static final int LIMITE_ERRO = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.jobs.instancia:}")
+    private String instanciaConfigurada;
+
+    @Value("${app.jobs.lease-segundos:60}")
+    private long leaseSegundos;
+
+    @Value("${app.jobs.historico-dias:90}")
+    private int historicoDias;
+
+    @Value("${app.jobs.threads:4}")
+    private int threads;
+
+    private String instancia;
+    private ScheduledExecutorService heartbeat;
+    private ExecutorService executor;
+
+    /** Jobs registrados nesta instância, por nome */
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /** Jobs disparados nesta instância que ainda não terminaram (na fila ou executando) */
+    private final Set<String> disparados = ConcurrentHashMap.newKeySet();
+
+    /** Execução do job na thread atual, para vincularAoLease() */
+    private static final ThreadLocal<ExecucaoLocal> EXECUCAO_ATUAL = new ThreadLocal<>();
+
+    private record Job(String nome, Duration intervaloMinimo, Runnable tarefa) {
+    }
+
+    /** Execução em andamento nesta instância; leasePerdido é marcado pela renovação (heartbeat) */
+    private static class ExecucaoLocal {
+        final Job job;
+        final long id;
+        final Thread thread;
+        volatile boolean leasePerdido;
+
+        ExecucaoLocal(Job job, long id, Thread thread) {
+            this.job = job;
+            this.id = id;
+            this.thread = thread;
+        }
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        instancia = !instanciaConfigurada.isBlank() ? instanciaConfigurada : nomeHost() + "-" + ProcessHandle.current().pid();
+        heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jobs-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "jobs-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("⏰ Coordenação de jobs: instância " + instancia + ", lease de " + leaseSegundos + " s");
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        heartbeat.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public String getInstancia() {
+        return instancia;
+    }
+
+    /**
+     * Registra um job. intervaloMinimo é o tempo mínimo entre o início de duas execuções concluídas
+     * (menor que o período do cron e maior que a diferença de relógio entre as instâncias).
+     */
+    public void registrar(String nome, Duration intervaloMinimo, Runnable tarefa) {
+        jobs.put(nome, new Job(nome, intervaloMinimo, tarefa));
+    }
+
+    /**
+     * Executa o job em uma thread dos jobs e retorna imediatamente: o agendador (@Scheduled) fica livre
+     * para os demais disparos enquanto o job roda. Ignorado se o job já foi disparado nesta instância
+     * e ainda não terminou.
+     */
+    public void disparar(String nome) {
+        if (!jobs.containsKey(nome)) {
+            throw new IllegalArgumentException("Job não registrado: " + nome);
+        }
+        if (!disparados.add(nome)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    executar(nome);
+                } finally {
+                    disparados.remove(nome);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            disparados.remove(nome); // aplicação encerrando
+        }
+    }
+
+    /**
+     * Executa o job na thread atual se esta instância conseguir o lease. Retorna false quando outra instância já está
+     * executando ou executou o job dentro do intervalo mínimo. Erros do job são registrados, não propagados.
+     */
+    public boolean executar(String nome) {
+        Job job = jobs.get(nome);
+        if (job == null) {
+            throw new IllegalArgumentException("Job não registrado: " + nome);
+        }
+        Long execucaoId;
+        try {
+            execucaoId = adquirir(job);
+        } catch (Exception e) {
+            System.err.println("❌ Job " + nome + ": falha ao adquirir o lease - " + e.getMessage());
+            return false;
+        }
+        if (execucaoId == null) {
+            return false;
+        }
+
+        ExecucaoLocal execucao = new ExecucaoLocal(job, execucaoId, Thread.currentThread());
+        ScheduledFuture<?> renovacao = heartbeat.scheduleAtFixedRate(() -> renovar(execucao),
+                leaseSegundos * 1000 / 3, leaseSegundos * 1000 / 3, TimeUnit.MILLISECONDS);
+        long inicio = System.nanoTime();
+        String erro = null;
+        System.out.println("⏰ Job " + nome + " iniciado (execução " + execucaoId + ")");
+        EXECUCAO_ATUAL.set(execucao);
+        try {
+            job.tarefa().run();
+        } catch (Exception e) {
+            erro = e.getClass().getSimpleName() + ": " + e.getMessage();
+            System.err.println("❌ Job " + nome + " falhou: " + erro);
+        } finally {
+            renovacao.cancel(false);
+            EXECUCAO_ATUAL.remove();
+            Thread.interrupted(); // descarta a interrupção do cancelamento: a thread volta para o pool
+        }
+        if (execucao.leasePerdido && erro == null) {
+            erro = "Lease perdido durante a execução";
+        }
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        try {
+            liberar(job, execucaoId, duracaoMs, erro);
+        } catch (Exception e) {
+            // O lease expira sozinho; a execução fica como interrompida e o job é retomado
+            System.err.println("❌ Job " + nome + ": falha ao registrar o fim da execução - " + e.getMessage());
+        }
+        System.out.println("⏰ Job " + nome + (erro == null ? " concluído" : " terminou com erro") + " em " + duracaoMs + " ms");
+        return true;
+    }
+
+    /**
+     * Retoma os jobs cuja instância caiu no meio da execução (lease expirado com execução em aberto).
+     * Chamado periodicamente por todas as instâncias; só uma consegue o lease de cada job.
+     */
+    public void retomarInterrompidos() {
+        List<String> interrompidos = jdbcTemplate.queryForList(
+                "SELECT nome FROM jobs_lock WHERE execucao_id IS NOT NULL AND expira_em < now()", String.class);
+        for (String nome : interrompidos) {
+            if (jobs.containsKey(nome)) {
+                disparar(nome);
+            }
+        }
+    }
+
+    /** Remove do histórico as execuções mais antigas que app.jobs.historico-dias */
+    public void limparHistorico() {
+        int removidas = jdbcTemplate.update("DELETE FROM jobs_execucoes WHERE inicio < now() - ? * INTERVAL '1 day' "
+                + "AND status <> 'EXECUTANDO'", historicoDias);
+        System.out.println("⏰ Histórico de jobs: " + removidas + " execução(ões) removida(s)");
+    }
+
+    /**
+     * Adquire o lease e abre a execução na mesma transação. Retorna o ID da execução, ou null se
+     * o lease pertence a outra instância ou o job já foi concluído dentro do intervalo mínimo.
+     */
+    private Long adquirir(Job job) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            // RETURNING devolve a execução anterior (não alterada pelo UPDATE): preenchida = interrompida
+            List<Long> anterior = jdbcTemplate.query(
+                    "INSERT INTO jobs_lock (nome, dono, adquirido_em, heartbeat_em, expira_em) "
+                            + "VALUES (?, ?, now(), now(), now() + ? * INTERVAL '1 second') "
+                            + "ON CONFLICT (nome) DO UPDATE SET dono = EXCLUDED.dono, adquirido_em = now(), "
+                            + "heartbeat_em = now(), expira_em = EXCLUDED.expira_em "
+                            + "WHERE jobs_lock.expira_em < now() AND (jobs_lock.execucao_id IS NOT NULL "
+                            + "OR jobs_lock.ultimo_sucesso_em IS NULL "
+                            + "OR jobs_lock.ultimo_sucesso_em <= now() - ? * INTERVAL '1 second') "
+                            + "RETURNING execucao_id",
+                    (rs, rowNum) -> rs.getObject(1, Long.class),
+                    job.nome(), instancia, leaseSegundos, job.intervaloMinimo().toSeconds());
+            if (anterior.isEmpty()) {
+                return null;
+            }
+            Long interrompida = anterior.get(0);
+            if (interrompida != null) {
+                jdbcTemplate.update("UPDATE jobs_execucoes SET status = 'INTERROMPIDA', fim = now(), "
+                        + "erro = 'Lease expirado sem conclusão; retomado por ' || ? WHERE id = ? AND status = 'EXECUTANDO'",
+                        instancia, interrompida);
+                System.out.println("⚠️ Job " + job.nome() + ": execução " + interrompida + " interrompida, retomando nesta instância");
+            }
+            Long execucaoId = jdbcTemplate.queryForObject(
+                    "INSERT INTO jobs_execucoes (job, instancia, status) VALUES (?, ?, 'EXECUTANDO') RETURNING id",
+                    Long.class, job.nome(), instancia);
+            jdbcTemplate.update("UPDATE jobs_lock SET execucao_id = ? WHERE nome = ?", execucaoId, job.nome());
+            return execucaoId;
+        });
+    }
+
+    private void renovar(ExecucaoLocal execucao) {
+        if (execucao.leasePerdido) {
+            return;
+        }
+        try {
+            int renovadas = jdbcTemplate.update("UPDATE jobs_lock SET heartbeat_em = now(), "
+                    + "expira_em = now() + ? * INTERVAL '1 second' WHERE nome = ? AND dono = ? AND execucao_id = ?",
+                    leaseSegundos, execucao.job.nome(), instancia, execucao.id);
+            if (renovadas == 0) {
+                cancelar(execucao);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Job " + execucao.job.nome() + ": falha ao renovar o lease - " + e.getMessage());
+        }
+    }
+
+    /** Lease assumido por outra execução: interrompe o job; as escritas vinculadas ao lease são desfeitas */
+    private void cancelar(ExecucaoLocal execucao) {
+        if (execucao.leasePerdido) {
+            return;
+        }
+        execucao.leasePerdido = true;
+        System.err.println("⚠️ Job " + execucao.job.nome() + ": lease perdido para outra instância durante a execução "
+                + execucao.id + ", cancelando");
+        execucao.thread.interrupt();
+    }
+
+    /**
+     * Fencing das escritas de um job: chamado dentro da transação de escrita do job, faz com que ela só
+     * seja confirmada se jobs_lock ainda apontar para esta execução (execucao_id como token). A
+     * verificação roda logo antes do commit e bloqueia a linha do job (FOR SHARE) até o fim da transação,
+     * de modo que nenhuma outra instância assume o job entre a verificação e o commit. Sem lease, a
+     * transação é desfeita e a execução cancelada. Fora de um job (chamada manual do serviço) não faz nada.
+     */
+    public void vincularAoLease() {
+        ExecucaoLocal execucao = EXECUCAO_ATUAL.get();
+        if (execucao == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirmarLease(execucao);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                confirmarLease(execucao);
+            }
+        });
+    }
+
+    private void confirmarLease(ExecucaoLocal execucao) {
+        List<Long> atual = execucao.leasePerdido ? List.of() : jdbcTemplate.queryForList(
+                "SELECT execucao_id FROM jobs_lock WHERE nome = ? AND dono = ? FOR SHARE",
+                Long.class, execucao.job.nome(), instancia);
+        if (atual.isEmpty() || !Objects.equals(atual.get(0), execucao.id)) {
+            cancelar(execucao);
+            throw new IllegalStateException("Lease do job " + execucao.job.nome() + " perdido: escritas da execução "
+                    + execucao.id + " desfeitas");
+        }
+    }
+
+    private void liberar(Job job, long execucaoId, long duracaoMs, String erro) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // A execução já marcada como INTERROMPIDA (retomada por outra instância) não é sobrescrita
+            jdbcTemplate.update("UPDATE jobs_execucoes SET status = ?, fim = now(), duracao_ms = ?, erro = ? "
+                            + "WHERE id = ? AND status = 'EXECUTANDO'",
+                    erro == null ? "CONCLUIDA" : "FALHOU", duracaoMs,
+                    erro != null && erro.length() > LIMITE_ERRO ? erro.substring(0, LIMITE_ERRO) : erro, execucaoId);
+            // Falha libera o lease sem marcar sucesso: o próximo disparo (de qualquer instância) tenta de novo
+            jdbcTemplate.update("UPDATE jobs_lock SET execucao_id = NULL, expira_em = now(), "
+                    + "ultimo_sucesso_em = CASE WHEN ? THEN adquirido_em ELSE ultimo_sucesso_em END "
+                    + "WHERE nome = ? AND dono = ? AND execucao_id = ?",
+                    erro == null, job.nome(), instancia, execucaoId);
+        });
+    }
+
+    // ========================================================================
+    // Consulta
+    // ========================================================================
+
+    /** Situação de cada job (registrados nesta instância ou já executados por alguma) com estatísticas de 30 dias */
+    public List<JobResponse> listar() {
+        Map<String, JobResponse> resultado = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT l.nome, l.dono, l.execucao_id IS NOT NULL AND l.expira_em >= now(), "
+                        + "l.execucao_id IS NOT NULL AND l.expira_em < now(), l.expira_em, l.heartbeat_em, l.ultimo_sucesso_em, "
+                        + "u.status, u.inicio, e.total, e.falhas, e.media_ms, e.max_ms "
+                        + "FROM jobs_lock l "
+                        + "LEFT JOIN LATERAL (SELECT status, inicio FROM jobs_execucoes WHERE job = l.nome "
+                        + "ORDER BY inicio DESC LIMIT 1) u ON true "
+                        + "LEFT JOIN LATERAL (SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE status <> 'CONCLUIDA' "
+                        + "AND status <> 'EXECUTANDO') AS falhas, "
+                        + "ROUND(AVG(duracao_ms) FILTER (WHERE status = 'CONCLUIDA'))::BIGINT AS media_ms, "
+                        + "MAX(duracao_ms) FILTER (WHERE status = 'CONCLUIDA') AS max_ms "
+                        + "FROM jobs_execucoes WHERE job = l.nome AND inicio >= now() - INTERVAL '30 days') e ON true",
+                (rs, rowNum) -> {
+                    String nome = rs.getString(1);
+                    resultado.put(nome, new JobResponse(
+                            nome,
+                            jobs.containsKey(nome),
+                            rs.getString(2),
+                            rs.getBoolean(3),
+                            rs.getBoolean(4),
+                            rs.getObject(5, LocalDateTime.class),
+                            rs.getObject(6, LocalDateTime.class),
+                            rs.getObject(7, LocalDateTime.class),
+                            rs.getString(8),
+                            rs.getObject(9, LocalDateTime.class),
+                            rs.getLong(10),
+                            rs.getLong(11),
+                            rs.getObject(12, Long.class),
+                            rs.getObject(13, Long.class)
+                    ));
+                    return null;
+                });
+        for (String nome : jobs.keySet()) {
+            resultado.putIfAbsent(nome, new JobResponse(nome, true, null, false, false, null, null, null, null, null,
+                    0L, 0L, null, null));
+        }
+        return new ArrayList<>(resultado.values());
+    }
+
+    /** Últimas execuções de um job, da mais recente para a mais antiga */
+    public List<JobExecucaoResponse> listarExecucoes(String nome, int limite) {
+        if (limite < 1 || limite > 1000) {
+            throw new BusinessException("O limite deve estar entre 1 e 1000.");
+        }
+        return jdbcTemplate.query(
+                "SELECT id, job, instancia, inicio, fim, duracao_ms, status, erro FROM jobs_execucoes "
+                        + "WHERE job = ? ORDER BY inicio DESC LIMIT ?",
+                (rs, rowNum) -> new JobExecucaoResponse(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getObject(4, LocalDateTime.class),
+                        rs.getObject(5, LocalDateTime.class),
+                        rs.getObject(6, Long.class),
+                        rs.getString(7),
+                        rs.getString(8)
+                ),
+                nome, limite);
+    }
+
+    private static String nomeHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "desconhecido";
+        }
+    }
+}
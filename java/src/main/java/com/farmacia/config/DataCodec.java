@@ -0,0 +1,211 @@
+package com.farmacia.config;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Leitura e escrita das datas da API sem DateTimeFormatter no caminho comum.
+ *
+ * Leitura: o formato é detectado pelos separadores (dd/MM/yyyy ou yyyy-MM-dd; hora HH:mm ou HH:mm:ss,
+ * no ISO também com fração de segundo), os dígitos são convertidos diretamente do char[] e uma entrada
+ * inválida devolve null, sem exceção.
+ * Escrita: dd/MM/yyyy e dd/MM/yyyy HH:mm:ss num buffer char[] reaproveitado por thread.
+ * Usado pelo JacksonConfig (toda requisição e resposta) e pelos textos de auditoria.
+ */
+public final class DataCodec {
+
+    public static final int TAMANHO_DATA = 10;
+    public static final int TAMANHO_DATA_HORA = 19;
+
+    // Anos fora de 0000-9999 (não usados na prática) ficam com o DateTimeFormatter
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[TAMANHO_DATA_HORA]);
+
+    private DataCodec() {
+    }
+
+    // ========================================================================
+    // Escrita
+    // ========================================================================
+
+    /** Buffer da thread atual com capacidade para dd/MM/yyyy HH:mm:ss */
+    public static char[] buffer() {
+        return BUFFER.get();
+    }
+
+    /** Escreve dd/MM/yyyy em destino a partir de pos; devolve o número de caracteres, ou -1 se o ano não cabe em 4 dígitos */
+    public static int escreverData(LocalDate data, char[] destino, int pos) {
+        int ano = data.getYear();
+        if (ano < 0 || ano > 9999) {
+            return -1;
+        }
+        doisDigitos(data.getDayOfMonth(), destino, pos);
+        destino[pos + 2] = '/';
+        doisDigitos(data.getMonthValue(), destino, pos + 3);
+        destino[pos + 5] = '/';
+        doisDigitos(ano / 100, destino, pos + 6);
+        doisDigitos(ano % 100, destino, pos + 8);
+        return TAMANHO_DATA;
+    }
+
+    /** Escreve dd/MM/yyyy HH:mm:ss em destino a partir de pos; devolve o número de caracteres, ou -1 se o ano não cabe em 4 dígitos */
+    public static int escreverDataHora(LocalDateTime dataHora, char[] destino, int pos) {
+        if (escreverData(dataHora.toLocalDate(), destino, pos) < 0) {
+            return -1;
+        }
+        destino[pos + 10] = ' ';
+        doisDigitos(dataHora.getHour(), destino, pos + 11);
+        destino[pos + 13] = ':';
+        doisDigitos(dataHora.getMinute(), destino, pos + 14);
+        destino[pos + 16] = ':';
+        doisDigitos(dataHora.getSecond(), destino, pos + 17);
+        return TAMANHO_DATA_HORA;
+    }
+
+    public static String formatarData(LocalDate data) {
+        char[] buffer = buffer();
+        int tamanho = escreverData(data, buffer, 0);
+        return tamanho < 0 ? data.format(FORMATO_DATA) : new String(buffer, 0, tamanho);
+    }
+
+    public static String formatarDataHora(LocalDateTime dataHora) {
+        char[] buffer = buffer();
+        int tamanho = escreverDataHora(dataHora, buffer, 0);
+        return tamanho < 0 ? dataHora.format(FORMATO_DATA_HORA) : new String(buffer, 0, tamanho);
+    }
+
+    private static void doisDigitos(int valor, char[] destino, int pos) {
+        destino[pos] = (char) ('0' + valor / 10);
+        destino[pos + 1] = (char) ('0' + valor % 10);
+    }
+
+    // ========================================================================
+    // Leitura
+    // ========================================================================
+
+    /** dd/MM/yyyy ou yyyy-MM-dd; null se o texto não for uma data válida nesses formatos */
+    public static LocalDate lerData(char[] texto, int inicio, int tamanho) {
+        int fim = inicio + tamanho;
+        while (inicio < fim && texto[inicio] <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && texto[fim - 1] <= ' ') {
+            fim--;
+        }
+        if (fim - inicio != TAMANHO_DATA) {
+            return null;
+        }
+        int data = data(texto, inicio);
+        return data < 0 ? null : LocalDate.of(data / 10000, data / 100 % 100, data % 100);
+    }
+
+    /**
+     * dd/MM/yyyy HH:mm:ss, dd/MM/yyyy HH:mm, yyyy-MM-ddTHH:mm:ss[.fração] ou yyyy-MM-ddTHH:mm;
+     * null se o texto não for uma data/hora válida nesses formatos
+     */
+    public static LocalDateTime lerDataHora(char[] texto, int inicio, int tamanho) {
+        int fim = inicio + tamanho;
+        while (inicio < fim && texto[inicio] <= ' ') {
+            inicio++;
+        }
+        while (fim > inicio && texto[fim - 1] <= ' ') {
+            fim--;
+        }
+        // Data + separador + HH:mm no mínimo
+        if (fim - inicio < 16) {
+            return null;
+        }
+        int data = data(texto, inicio);
+        if (data < 0) {
+            return null;
+        }
+        boolean brasileiro = texto[inicio + 2] == '/';
+        char separador = texto[inicio + 10];
+        if (brasileiro ? separador != ' ' : separador != 'T') {
+            return null;
+        }
+
+        int pos = inicio + 11;
+        int hora = doisDigitos(texto, pos);
+        int minuto = texto[pos + 2] == ':' ? doisDigitos(texto, pos + 3) : -1;
+        pos += 5;
+        int segundo = 0;
+        int nanos = 0;
+        if (pos < fim) {
+            if (texto[pos] != ':' || pos + 3 > fim) {
+                return null;
+            }
+            segundo = doisDigitos(texto, pos + 1);
+            pos += 3;
+            if (pos < fim) {
+                // Fração de segundo (1 a 9 dígitos), só no ISO
+                if (brasileiro || texto[pos] != '.' || fim - pos - 1 < 1 || fim - pos - 1 > 9) {
+                    return null;
+                }
+                for (int i = pos + 1; i < fim; i++) {
+                    int digito = texto[i] - '0';
+                    if (digito < 0 || digito > 9) {
+                        return null;
+                    }
+                    nanos = nanos * 10 + digito;
+                }
+                for (int i = fim - pos - 1; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+        }
+        if (hora < 0 || hora > 23 || minuto < 0 || minuto > 59 || segundo < 0 || segundo > 59) {
+            return null;
+        }
+        return LocalDateTime.of(data / 10000, data / 100 % 100, data % 100, hora, minuto, segundo, nanos);
+    }
+
+    /** 10 caracteres a partir de pos, em dd/MM/yyyy ou yyyy-MM-dd, como yyyyMMdd; -1 se inválido */
+    private static int data(char[] texto, int pos) {
+        int dia;
+        int mes;
+        int ano;
+        if (texto[pos + 2] == '/' && texto[pos + 5] == '/') {
+            dia = doisDigitos(texto, pos);
+            mes = doisDigitos(texto, pos + 3);
+            ano = quatroDigitos(texto, pos + 6);
+        } else if (texto[pos + 4] == '-' && texto[pos + 7] == '-') {
+            ano = quatroDigitos(texto, pos);
+            mes = doisDigitos(texto, pos + 5);
+            dia = doisDigitos(texto, pos + 8);
+        } else {
+            return -1;
+        }
+        if (dia < 1 || mes < 1 || mes > 12 || ano < 0 || dia > diasNoMes(mes, ano)) {
+            return -1;
+        }
+        return ano * 10000 + mes * 100 + dia;
+    }
+
+    private static int diasNoMes(int mes, int ano) {
+        return switch (mes) {
+            case 2 -> (ano % 4 == 0 && (ano % 100 != 0 || ano % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Valor de dois dígitos, ou -1 se algum caractere não for dígito */
+    private static int doisDigitos(char[] texto, int pos) {
+        int dezena = texto[pos] - '0';
+        int unidade = texto[pos + 1] - '0';
+        if (dezena < 0 || dezena > 9 || unidade < 0 || unidade > 9) {
+            return -1;
+        }
+        return dezena * 10 + unidade;
+    }
+
+    private static int quatroDigitos(char[] texto, int pos) {
+        int alta = doisDigitos(texto, pos);
+        int baixa = doisDigitos(texto, pos + 2);
+        return alta < 0 || baixa < 0 ? -1 : alta * 100 + baixa;
+    }
+}
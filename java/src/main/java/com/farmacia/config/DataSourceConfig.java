@@ -0,0 +1,130 @@
+package com.farmacia.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+/**
+ * Pools do primário (spring.datasource) e, com app.datasource.replica.enabled, da réplica de leitura.
+ * A aplicação usa o RoteamentoDataSource; o Flyway migra direto no primário.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica.enabled:false}")
+    private boolean replicaHabilitada;
+
+    @Value("${app.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${app.datasource.replica.username:}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica.password:}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica.pool-maximo:10}")
+    private int replicaPoolMaximo;
+
+    @Value("${app.datasource.replica.atraso-maximo-ms:5000}")
+    private long atrasoMaximoMs;
+
+    @Value("${app.datasource.replica.verificacao-ms:2000}")
+    private long verificacaoMs;
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean(initMethod = "iniciar", destroyMethod = "encerrar")
+    @Primary
+    public RoteamentoDataSource dataSource(HikariDataSource dataSourcePrimario, DataSourceProperties properties) {
+        if (!replicaHabilitada) {
+            return new RoteamentoDataSource(dataSourcePrimario, null, atrasoMaximoMs, verificacaoMs);
+        }
+        if (replicaUrl.isBlank()) {
+            throw new IllegalStateException("app.datasource.replica.url é obrigatório com a réplica habilitada");
+        }
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(replicaUrl);
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setUsername(replicaUsername.isBlank() ? properties.determineUsername() : replicaUsername);
+        replica.setPassword(replicaPassword.isBlank() ? properties.determinePassword() : replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolMaximo);
+        replica.setReadOnly(true);
+        // Réplica fora do ar não pode segurar a requisição: falha rápido e a leitura vai para o primário
+        replica.setConnectionTimeout(2000);
+        // Sem conexão na inicialização: a aplicação sobe com a réplica fora do ar
+        replica.setInitializationFailTimeout(-1);
+        return new RoteamentoDataSource(dataSourcePrimario, replica, atrasoMaximoMs, verificacaoMs);
+    }
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new RoteamentoTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * Marca o destino das conexões no início de cada transação nova, antes de o Hibernate obter a conexão.
+     * Transações que participam de outra herdam o destino dela; as suspensas voltam ao primário
+     * até serem retomadas.
+     */
+    static class RoteamentoTransactionManager extends JpaTransactionManager {
+
+        RoteamentoTransactionManager(EntityManagerFactory entityManagerFactory) {
+            super(entityManagerFactory);
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            // Os labels só existem nas transações declaradas com @Transactional (TransactionAttribute)
+            boolean primario = definition instanceof TransactionAttribute atributo
+                    && atributo.getLabels().contains(RoteamentoDataSource.PRIMARIO);
+            RoteamentoDataSource.entrar(definition.isReadOnly() && !primario);
+            try {
+                super.doBegin(transaction, definition);
+            } catch (RuntimeException | Error e) {
+                RoteamentoDataSource.sair();
+                throw e;
+            }
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            try {
+                super.doCleanupAfterCompletion(transaction);
+            } finally {
+                RoteamentoDataSource.sair();
+            }
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            Object suspensa = super.doSuspend(transaction);
+            RoteamentoDataSource.entrar(false);
+            return suspensa;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            RoteamentoDataSource.sair();
+            super.doResume(transaction, suspendedResources);
+        }
+    }
+}
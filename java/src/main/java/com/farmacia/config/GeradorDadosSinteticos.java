@@ -0,0 +1,749 @@
+package com.farmacia.config;
+
+import com.farmacia.domain.auditoria.EstoqueAuditoria;
+import com.farmacia.domain.auditoria.VendaAuditoria;
+import com.farmacia.service.AlertaService;
+import com.farmacia.service.PrevisaoRupturaService;
+import com.farmacia.service.ResumoClienteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Gera uma base sintética em volume de produção para testes de carga e benchmarks
+ * (app.seed.enabled=true). Só roda em banco sem vendas.
+ *
+ * Distribuições: popularidade dos medicamentos e frequência dos clientes seguem Zipf,
+ * vendas diárias têm sazonalidade anual e semanal com leve crescimento, e cada medicamento
+ * tem um prazo de validade próprio (lotes de itens pouco vendidos chegam a vencer em estoque).
+ * O estoque é simulado em ordem cronológica (reposição por lote, saída FEFO), de modo que
+ * movimentações, lotes e quantidade_estoque fecham entre si como na aplicação.
+ *
+ * As linhas são gravadas em arquivos CSV temporários e carregadas com COPY, tabela a tabela.
+ */
+@Component
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class GeradorDadosSinteticos implements CommandLineRunner {
+
+    private static final DateTimeFormatter FORMATO_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+    private static final DateTimeFormatter FORMATO_LOTE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String[] PRINCIPIOS = {
+            "Dipirona", "Paracetamol", "Ibuprofeno", "Amoxicilina", "Losartana", "Omeprazol", "Metformina",
+            "Sinvastatina", "Atenolol", "Loratadina", "Azitromicina", "Captopril", "Hidroclorotiazida",
+            "Cetirizina", "Diclofenaco", "Prednisona", "Fluoxetina", "Sertralina", "Enalapril", "Ranitidina",
+            "Clonazepam", "Levotiroxina", "Nimesulida", "Dexametasona", "Cefalexina", "Ciprofloxacino",
+            "Budesonida", "Salbutamol", "Vitamina C", "Vitamina D"
+    };
+    private static final int[] DOSES = {5, 10, 20, 25, 40, 50, 100, 200, 250, 400, 500, 750, 850, 1000};
+    private static final String[] FORMAS = {"Comprimido", "Cápsula", "Xarope", "Gotas", "Pomada", "Suspensão", "Injetável"};
+    private static final String[] LABORATORIOS = {"EMS", "Medley", "Eurofarma", "Neo Química", "Sanofi", "Aché", "Cimed", "Prati-Donaduzzi"};
+    private static final String[][] CATEGORIAS = {
+            {"Analgésicos", "20"}, {"Antibióticos", "15"}, {"Anti-hipertensivos", "30"}, {"Antialérgicos", "20"},
+            {"Anti-inflamatórios", "20"}, {"Antidepressivos", "10"}, {"Vitaminas", "25"}, {"Gastrointestinais", "20"},
+            {"Respiratórios", "15"}, {"Hormônios", "10"}, {"Antidiabéticos", "30"}, {"Dermatológicos", "10"}
+    };
+    private static final String[] NOMES = {"Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Henrique",
+            "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia", "Thiago", "Vanessa", "William"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves",
+            "Pereira", "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes"};
+    private static final String[] CIDADES = {"São Paulo - SP", "Rio de Janeiro - RJ", "Belo Horizonte - MG", "Curitiba - PR",
+            "Porto Alegre - RS", "Salvador - BA", "Recife - PE", "Fortaleza - CE", "Goiânia - GO", "Campinas - SP"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private PrevisaoRupturaService previsaoRupturaService;
+
+    @Autowired
+    private ResumoClienteService resumoClienteService;
+
+    @Autowired
+    private BarramentoInvalidacao barramentoInvalidacao;
+
+    @Value("${app.seed.clientes:100000}")
+    private int quantidadeClientes;
+
+    @Value("${app.seed.medicamentos:5000}")
+    private int quantidadeMedicamentos;
+
+    @Value("${app.seed.vendas:1000000}")
+    private int quantidadeVendas;
+
+    @Value("${app.seed.vendedores:20}")
+    private int quantidadeVendedores;
+
+    @Value("${app.seed.alertas:50000}")
+    private int quantidadeAlertas;
+
+    @Value("${app.seed.meses:24}")
+    private int meses;
+
+    @Value("${app.seed.itens-por-venda-max:6}")
+    private int itensPorVendaMax;
+
+    @Value("${app.seed.zipf-medicamentos:1.1}")
+    private double zipfMedicamentos;
+
+    @Value("${app.seed.zipf-clientes:0.7}")
+    private double zipfClientes;
+
+    @Value("${app.seed.taxa-cancelamento:0.03}")
+    private double taxaCancelamento;
+
+    @Value("${app.seed.semente:42}")
+    private long semente;
+
+    private SplittableRandom random;
+    private final Map<String, Long> linhasPorTabela = new LinkedHashMap<>();
+
+    // Estado da simulação, indexado pelo número do medicamento
+    private UUID[] medicamentoIds;
+    private String[] medicamentoNomes;
+    private long[] precoCentavos;
+    private int[] validadeDias;
+    private int[] estoque;
+    private int[] vendavel;
+    private int[] pontoReposicao;
+    private int[] quantidadeReposicao;
+    private List<ArrayDeque<Lote>> lotesComSaldo;
+    private final List<Lote> lotes = new ArrayList<>();
+
+    private UUID[] clienteIds;
+    private String[] clienteNomes;
+    private String[] clienteCpfs;
+    private UUID adminId;
+    private String adminNome;
+    private String adminEmail;
+    private UUID[] vendedorIds;
+    private String[] vendedorNomes;
+    private String[] vendedorEmails;
+
+    /** Lote gerado na simulação: o saldo final é gravado ao fim da geração */
+    private static class Lote {
+        final UUID id;
+        final int medicamento;
+        final String numero;
+        final LocalDate validade;
+        final LocalDateTime criado;
+        int saldo;
+
+        Lote(UUID id, int medicamento, String numero, LocalDate validade, LocalDateTime criado, int saldo) {
+            this.id = id;
+            this.medicamento = medicamento;
+            this.numero = numero;
+            this.validade = validade;
+            this.criado = criado;
+            this.saldo = saldo;
+        }
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        Long vendas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vendas", Long.class);
+        if (vendas != null && vendas > 0) {
+            System.out.println("🌱 Geração de dados sintéticos ignorada: o banco já possui vendas");
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        random = new SplittableRandom(semente);
+        Path diretorio = Files.createTempDirectory("farmacia-seed");
+        System.out.println("🌱 Gerando dados sintéticos em " + diretorio + " (" + quantidadeVendas + " vendas, "
+                + quantidadeMedicamentos + " medicamentos, " + quantidadeClientes + " clientes, " + meses + " meses)");
+        try {
+            gerarArquivos(diretorio);
+            System.out.println("🌱 Arquivos gerados em " + (System.currentTimeMillis() - inicio) / 1000 + " s; carregando com COPY...");
+            carregar(diretorio);
+            posCarga();
+        } finally {
+            try (Stream<Path> arquivos = Files.list(diretorio)) {
+                arquivos.forEach(a -> a.toFile().delete());
+            }
+            Files.deleteIfExists(diretorio);
+        }
+
+        long total = linhasPorTabela.values().stream().mapToLong(Long::longValue).sum();
+        System.out.println("🌱 Dados sintéticos carregados: " + total + " linha(s) em "
+                + (System.currentTimeMillis() - inicio) / 1000 + " s " + linhasPorTabela);
+    }
+
+    // ========================================================================
+    // Geração
+    // ========================================================================
+
+    private void gerarArquivos(Path diretorio) throws IOException {
+        LocalDate fim = LocalDate.now().minusDays(1);
+        LocalDate inicio = LocalDate.now().minusMonths(meses);
+
+        gerarUsuarios(diretorio, inicio);
+        UUID[] categorias = gerarCategorias();
+        gerarClientes(diretorio, inicio);
+        prepararMedicamentos(categorias);
+
+        try (ArquivoCsv vendas = new ArquivoCsv(diretorio, "vendas");
+             ArquivoCsv itens = new ArquivoCsv(diretorio, "itens_venda");
+             ArquivoCsv movimentacoes = new ArquivoCsv(diretorio, "movimentacoes_estoque");
+             ArquivoCsv logs = new ArquivoCsv(diretorio, "logs")) {
+            simularVendas(inicio, fim, vendas, itens, movimentacoes, logs);
+        }
+
+        gravarMedicamentos(diretorio, categorias, inicio);
+        gravarLotes(diretorio);
+        gerarAlertas(diretorio, inicio, fim);
+    }
+
+    private void gerarUsuarios(Path diretorio, LocalDate inicio) throws IOException {
+        Map<String, Object> admin = jdbcTemplate.queryForList(
+                "SELECT id, nome, email FROM usuarios WHERE role = 'ADMIN' ORDER BY created_at LIMIT 1").stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Nenhum usuário ADMIN encontrado para a geração de dados"));
+        adminId = (UUID) admin.get("id");
+        adminNome = (String) admin.get("nome");
+        adminEmail = (String) admin.get("email");
+
+        // Todos os vendedores sintéticos usam a senha "vendedor123"
+        String senha = passwordEncoder.encode("vendedor123");
+        vendedorIds = new UUID[quantidadeVendedores];
+        vendedorNomes = new String[quantidadeVendedores];
+        vendedorEmails = new String[quantidadeVendedores];
+        try (ArquivoCsv usuarios = new ArquivoCsv(diretorio, "usuarios")) {
+            for (int i = 0; i < quantidadeVendedores; i++) {
+                vendedorIds[i] = novoUuid();
+                vendedorNomes[i] = nomePessoa() + " (vendedor " + (i + 1) + ")";
+                vendedorEmails[i] = "vendedor" + (i + 1) + ".seed@farmacia.com";
+                usuarios.linha(vendedorIds[i], vendedorNomes[i], vendedorEmails[i], senha, "VENDEDOR", null,
+                        timestamp(inicio.atTime(8, 0)));
+            }
+        }
+    }
+
+    /** Categorias pequenas: reaproveita as existentes pelo nome e cria as que faltam */
+    private UUID[] gerarCategorias() {
+        UUID[] ids = new UUID[CATEGORIAS.length];
+        for (int i = 0; i < CATEGORIAS.length; i++) {
+            List<UUID> existente = jdbcTemplate.queryForList("SELECT id FROM categorias WHERE nome = ?", UUID.class, CATEGORIAS[i][0]);
+            if (!existente.isEmpty()) {
+                ids[i] = existente.get(0);
+            } else {
+                ids[i] = novoUuid();
+                jdbcTemplate.update("INSERT INTO categorias (id, nome, descricao, estoque_minimo, created_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)",
+                        ids[i], CATEGORIAS[i][0], "Categoria gerada para testes de carga", Integer.parseInt(CATEGORIAS[i][1]));
+            }
+        }
+        return ids;
+    }
+
+    private void gerarClientes(Path diretorio, LocalDate inicio) throws IOException {
+        clienteIds = new UUID[quantidadeClientes];
+        clienteNomes = new String[quantidadeClientes];
+        clienteCpfs = new String[quantidadeClientes];
+        long diasPeriodo = ChronoUnit.DAYS.between(inicio, LocalDate.now());
+        try (ArquivoCsv clientes = new ArquivoCsv(diretorio, "clientes")) {
+            for (int i = 0; i < quantidadeClientes; i++) {
+                clienteIds[i] = novoUuid();
+                clienteNomes[i] = nomePessoa();
+                clienteCpfs[i] = cpf(100_000_000 + i);
+                LocalDate nascimento = LocalDate.now().minusYears(18 + random.nextInt(70)).minusDays(random.nextInt(365));
+                clientes.linha(clienteIds[i], clienteNomes[i], clienteCpfs[i],
+                        String.format("(%02d) 9%04d-%04d", 11 + random.nextInt(88), random.nextInt(10000), random.nextInt(10000)),
+                        "cliente" + (i + 1) + ".seed@exemplo.com.br",
+                        "Rua " + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + ", " + (1 + random.nextInt(2000)) + " - " + CIDADES[random.nextInt(CIDADES.length)],
+                        timestamp(inicio.plusDays(random.nextLong(Math.max(1, diasPeriodo))).atTime(9, 0)),
+                        nascimento);
+            }
+        }
+    }
+
+    private void prepararMedicamentos(UUID[] categorias) {
+        int n = quantidadeMedicamentos;
+        medicamentoIds = new UUID[n];
+        medicamentoNomes = new String[n];
+        precoCentavos = new long[n];
+        validadeDias = new int[n];
+        estoque = new int[n];
+        vendavel = new int[n];
+        pontoReposicao = new int[n];
+        quantidadeReposicao = new int[n];
+        lotesComSaldo = new ArrayList<>(n);
+
+        // Unidades esperadas por medicamento no período (Zipf), para dimensionar a reposição
+        double[] pesos = pesosZipf(n, zipfMedicamentos);
+        double unidadesPorVenda = (1 + itensPorVendaMax) / 2.0 * 1.5;
+        double dias = Math.max(1, meses * 30.4);
+        for (int i = 0; i < n; i++) {
+            medicamentoIds[i] = novoUuid();
+            medicamentoNomes[i] = PRINCIPIOS[i % PRINCIPIOS.length] + " " + DOSES[(i / PRINCIPIOS.length) % DOSES.length] + "mg "
+                    + FORMAS[(i / (PRINCIPIOS.length * DOSES.length)) % FORMAS.length] + " "
+                    + LABORATORIOS[random.nextInt(LABORATORIOS.length)] + " #" + (i + 1);
+            // Preço log-normal: mediana ~R$ 25, cauda até algumas centenas
+            precoCentavos[i] = Math.max(199, Math.round(Math.exp(Math.log(2500) + 0.8 * gaussiano())));
+            validadeDias[i] = 180 + random.nextInt(900); // 6 meses a ~3 anos
+            double demandaDiaria = quantidadeVendas * unidadesPorVenda * pesos[i] / dias;
+            pontoReposicao[i] = Math.max(10, (int) Math.ceil(demandaDiaria * 7));
+            quantidadeReposicao[i] = Math.max(20, (int) Math.ceil(demandaDiaria * 30));
+            lotesComSaldo.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Percorre o período dia a dia, em ordem cronológica, gravando vendas, itens, movimentações e logs.
+     */
+    private void simularVendas(LocalDate inicio, LocalDate fim, ArquivoCsv vendas, ArquivoCsv itens,
+                               ArquivoCsv movimentacoes, ArquivoCsv logs) throws IOException {
+        double[] cdfMedicamentos = cdf(pesosZipf(quantidadeMedicamentos, zipfMedicamentos));
+        double[] cdfClientes = cdf(pesosZipf(quantidadeClientes, zipfClientes));
+        // Embaralha clientes e medicamentos para que a popularidade não siga a ordem de criação
+        int[] ordemMedicamentos = permutacao(quantidadeMedicamentos);
+        int[] ordemClientes = permutacao(quantidadeClientes);
+
+        int totalDias = (int) ChronoUnit.DAYS.between(inicio, fim) + 1;
+        double[] pesoDia = new double[totalDias];
+        double somaPesos = 0;
+        for (int d = 0; d < totalDias; d++) {
+            LocalDate dia = inicio.plusDays(d);
+            double sazonal = 1 + 0.25 * Math.cos(2 * Math.PI * (dia.getDayOfYear() - 200) / 365.0); // pico no inverno
+            double semanal = dia.getDayOfWeek() == DayOfWeek.SUNDAY ? 0.55 : dia.getDayOfWeek() == DayOfWeek.SATURDAY ? 0.85 : 1.0;
+            double crescimento = 1 + 0.15 * d / totalDias;
+            pesoDia[d] = sazonal * semanal * crescimento;
+            somaPesos += pesoDia[d];
+        }
+
+        // Estoque inicial: um lote por medicamento no primeiro dia
+        for (int m = 0; m < quantidadeMedicamentos; m++) {
+            repor(m, inicio.atTime(7, 0), movimentacoes, logs);
+        }
+
+        long vendasGeradas = 0;
+        for (int d = 0; d < totalDias; d++) {
+            LocalDate dia = inicio.plusDays(d);
+            descartarLotesVencidos(dia);
+            for (int m = 0; m < quantidadeMedicamentos; m++) {
+                if (vendavel[m] < pontoReposicao[m]) {
+                    repor(m, dia.atTime(7, 0).plusSeconds(m % 3600), movimentacoes, logs);
+                }
+            }
+
+            double esperado = quantidadeVendas * pesoDia[d] / somaPesos;
+            int vendasDia = (int) esperado + (random.nextDouble() < esperado - (int) esperado ? 1 : 0);
+            long[] segundos = new long[vendasDia];
+            for (int v = 0; v < vendasDia; v++) {
+                segundos[v] = 8 * 3600L + random.nextLong(14 * 3600L); // 8h às 22h
+            }
+            Arrays.sort(segundos);
+
+            for (int v = 0; v < vendasDia; v++) {
+                LocalDateTime momento = dia.atStartOfDay().plusSeconds(segundos[v]).plusNanos(random.nextInt(1_000_000) * 1000L);
+                int cliente = ordemClientes[amostrar(cdfClientes)];
+                int vendedor = random.nextInt(quantidadeVendedores);
+                gerarVenda(momento, cliente, vendedor, cdfMedicamentos, ordemMedicamentos, vendas, itens, movimentacoes, logs);
+                vendasGeradas++;
+            }
+            if (d % 30 == 0) {
+                System.out.println("🌱 " + dia + " - " + vendasGeradas + " venda(s) geradas");
+            }
+        }
+    }
+
+    private void gerarVenda(LocalDateTime momento, int cliente, int vendedor, double[] cdfMedicamentos, int[] ordemMedicamentos,
+                            ArquivoCsv vendas, ArquivoCsv itens, ArquivoCsv movimentacoes, ArquivoCsv logs) throws IOException {
+        UUID vendaId = novoUuid();
+        boolean cancelada = random.nextDouble() < taxaCancelamento;
+
+        // Itens: 1 + geométrica, medicamentos distintos escolhidos pela popularidade
+        int quantidadeItens = 1;
+        while (quantidadeItens < itensPorVendaMax && random.nextDouble() < 0.45) {
+            quantidadeItens++;
+        }
+        Set<Integer> escolhidos = new LinkedHashSet<>();
+        for (int tentativas = 0; escolhidos.size() < quantidadeItens && tentativas < quantidadeItens * 4; tentativas++) {
+            escolhidos.add(ordemMedicamentos[amostrar(cdfMedicamentos)]);
+        }
+
+        long totalCentavos = 0;
+        long microssegundo = 0;
+        List<VendaAuditoria.Item> itensAuditoria = new ArrayList<>();
+        List<String[]> linhasItens = new ArrayList<>();
+        List<Object[]> saidas = new ArrayList<>();
+        for (int m : escolhidos) {
+            double sorteio = random.nextDouble();
+            int quantidade = sorteio < 0.7 ? 1 : sorteio < 0.9 ? 2 : 3 + random.nextInt(3);
+            if (vendavel[m] < quantidade) {
+                repor(m, momento.minusSeconds(1), movimentacoes, logs);
+            }
+            long subtotal = precoCentavos[m] * quantidade;
+            totalCentavos += subtotal;
+            linhasItens.add(new String[]{novoUuid().toString(), vendaId.toString(), medicamentoIds[m].toString(),
+                    medicamentoNomes[m], String.valueOf(quantidade), centavos(precoCentavos[m]).toPlainString(),
+                    centavos(subtotal).toPlainString()});
+            itensAuditoria.add(new VendaAuditoria.Item(medicamentoIds[m], medicamentoNomes[m], quantidade,
+                    centavos(precoCentavos[m]), centavos(subtotal)));
+
+            // Saída FEFO por lote, como em VendaService. Numa venda cancelada o saldo dos lotes não muda:
+            // o estorno logo abaixo devolve as mesmas unidades
+            int restante = quantidade;
+            ArrayDeque<Lote> fila = lotesComSaldo.get(m);
+            Iterator<Lote> iterador = fila.iterator();
+            while (restante > 0 && iterador.hasNext()) {
+                Lote lote = iterador.next();
+                int retirada = Math.min(restante, lote.saldo);
+                if (retirada == 0) {
+                    continue;
+                }
+                restante -= retirada;
+                estoque[m] -= retirada;
+                movimentacoes.linha(novoUuid(), medicamentoIds[m], retirada, "SAIDA",
+                        timestamp(momento.plusNanos(++microssegundo * 1000)),
+                        "Venda #" + vendaId + " - lote " + lote.numero, estoque[m], lote.id, vendaId);
+                saidas.add(new Object[]{m, lote, retirada});
+                if (!cancelada) {
+                    lote.saldo -= retirada;
+                    vendavel[m] -= retirada;
+                }
+            }
+            if (!cancelada) {
+                while (!fila.isEmpty() && fila.peekFirst().saldo == 0) {
+                    fila.pollFirst();
+                }
+            }
+        }
+
+        String status = cancelada ? "CANCELADA" : "CONCLUIDA";
+        vendas.linha(vendaId, clienteIds[cliente], vendedorIds[vendedor], status, centavos(totalCentavos), timestamp(momento));
+        for (String[] linha : linhasItens) {
+            itens.linha((Object[]) linha);
+        }
+        VendaAuditoria auditoria = new VendaAuditoria(null, clienteIds[cliente], clienteNomes[cliente], clienteCpfs[cliente],
+                status, centavos(totalCentavos), itensAuditoria);
+        logs.linha(novoUuid(), "CREATE", "VENDA", vendaId,
+                String.format(Locale.forLanguageTag("pt-BR"), "Venda criada: R$ %.2f - %d item(s)", centavos(totalCentavos), itensAuditoria.size()),
+                detalhesJson(auditoria, momento), vendedorIds[vendedor], vendedorNomes[vendedor], vendedorEmails[vendedor],
+                timestamp(momento));
+
+        if (cancelada) {
+            // Estorno para os mesmos lotes de onde saiu, como VendaService.cancelar
+            LocalDateTime momentoCancelamento = momento.plusNanos(++microssegundo * 1000);
+            for (Object[] saida : saidas) {
+                int m = (Integer) saida[0];
+                int quantidade = (Integer) saida[2];
+                estoque[m] += quantidade;
+                movimentacoes.linha(novoUuid(), medicamentoIds[m], quantidade, "ENTRADA",
+                        timestamp(momentoCancelamento.plusNanos(++microssegundo * 1000)),
+                        "Cancelamento de venda #" + vendaId, estoque[m], ((Lote) saida[1]).id, vendaId);
+            }
+            VendaAuditoria cancelamento = new VendaAuditoria(vendaId, clienteIds[cliente], clienteNomes[cliente], clienteCpfs[cliente],
+                    status, centavos(totalCentavos), null);
+            logs.linha(novoUuid(), "UPDATE", "VENDA", vendaId, "Venda #" + vendaId + " cancelada. Estoque estornado.",
+                    detalhesJson(cancelamento, momentoCancelamento), vendedorIds[vendedor], vendedorNomes[vendedor],
+                    vendedorEmails[vendedor], timestamp(momentoCancelamento));
+        }
+    }
+
+    /** Entrada de um novo lote do medicamento, com validade a partir da data de reposição */
+    private void repor(int m, LocalDateTime momento, ArquivoCsv movimentacoes, ArquivoCsv logs) throws IOException {
+        int quantidade = quantidadeReposicao[m] + random.nextInt(Math.max(1, quantidadeReposicao[m] / 5));
+        LocalDate validade = momento.toLocalDate().plusDays(validadeDias[m] + random.nextInt(30));
+        String numero = "L" + momento.format(FORMATO_LOTE) + "-" + (lotes.size() + 1);
+        Lote lote = new Lote(novoUuid(), m, numero, validade, momento, quantidade);
+        lotes.add(lote);
+        lotesComSaldo.get(m).addLast(lote);
+
+        int anterior = estoque[m];
+        estoque[m] += quantidade;
+        vendavel[m] += quantidade;
+        movimentacoes.linha(novoUuid(), medicamentoIds[m], quantidade, "ENTRADA", timestamp(momento),
+                "Reposição de estoque", estoque[m], lote.id, null);
+        EstoqueAuditoria auditoria = new EstoqueAuditoria(medicamentoIds[m], quantidade, "Reposição de estoque",
+                numero, validade, anterior, estoque[m]);
+        logs.linha(novoUuid(), "UPDATE", "ESTOQUE", medicamentoIds[m],
+                String.format("Entrada de estoque: %d unidade(s) adicionada(s) ao medicamento '%s' (lote %s)", quantidade, medicamentoNomes[m], numero),
+                detalhesJson(auditoria, momento), adminId, adminNome, adminEmail, timestamp(momento));
+    }
+
+    /** Lotes vencidos deixam de ser vendáveis, mas continuam no estoque (e na tabela lotes) com o saldo restante */
+    private void descartarLotesVencidos(LocalDate dia) {
+        for (int m = 0; m < quantidadeMedicamentos; m++) {
+            ArrayDeque<Lote> fila = lotesComSaldo.get(m);
+            while (!fila.isEmpty() && fila.peekFirst().validade.isBefore(dia)) {
+                vendavel[m] -= fila.pollFirst().saldo;
+            }
+        }
+    }
+
+    private void gravarMedicamentos(Path diretorio, UUID[] categorias, LocalDate inicio) throws IOException {
+        // Validade do medicamento = menor validade entre os lotes com saldo (como LoteService.sincronizarValidade)
+        LocalDate[] validade = new LocalDate[quantidadeMedicamentos];
+        for (Lote lote : lotes) {
+            if (lote.saldo > 0 && (validade[lote.medicamento] == null || lote.validade.isBefore(validade[lote.medicamento]))) {
+                validade[lote.medicamento] = lote.validade;
+            }
+        }
+        try (ArquivoCsv medicamentos = new ArquivoCsv(diretorio, "medicamentos")) {
+            for (int m = 0; m < quantidadeMedicamentos; m++) {
+                int categoria = m % categorias.length;
+                int limite = Integer.parseInt(CATEGORIAS[categoria][1]);
+                medicamentos.linha(medicamentoIds[m], medicamentoNomes[m], centavos(precoCentavos[m]), estoque[m], validade[m],
+                        random.nextDouble() < 0.97, categorias[categoria], timestamp(inicio.atTime(6, 0)),
+                        "Medicamento gerado para testes de carga", null, limite);
+            }
+        }
+    }
+
+    private void gravarLotes(Path diretorio) throws IOException {
+        try (ArquivoCsv arquivo = new ArquivoCsv(diretorio, "lotes")) {
+            for (Lote lote : lotes) {
+                arquivo.linha(lote.id, medicamentoIds[lote.medicamento], lote.numero, lote.validade, lote.saldo, timestamp(lote.criado));
+            }
+        }
+    }
+
+    /** Histórico de alertas já lidos; os alertas atuais são gerados pelos serviços após a carga */
+    private void gerarAlertas(Path diretorio, LocalDate inicio, LocalDate fim) throws IOException {
+        String[] tipos = {"ESTOQUE_BAIXO", "VALIDADE_PROXIMA", PrevisaoRupturaService.TIPO_ALERTA};
+        long dias = Math.max(1, ChronoUnit.DAYS.between(inicio, fim));
+        try (ArquivoCsv alertas = new ArquivoCsv(diretorio, "alertas")) {
+            for (int i = 0; i < quantidadeAlertas; i++) {
+                int m = random.nextInt(quantidadeMedicamentos);
+                String tipo = tipos[random.nextInt(tipos.length)];
+                String mensagem = switch (tipo) {
+                    case "ESTOQUE_BAIXO" -> "Estoque baixo: " + (1 + random.nextInt(pontoReposicao[m])) + " unidade(s)";
+                    case "VALIDADE_PROXIMA" -> "Medicamento vence em " + (1 + random.nextInt(30)) + " dia(s)";
+                    default -> "Ruptura prevista em ~" + random.nextInt(7) + " dia(s)";
+                };
+                alertas.linha(novoUuid(), medicamentoIds[m], medicamentoNomes[m], tipo, mensagem, true,
+                        timestamp(inicio.plusDays(random.nextLong(dias)).atTime(8, 0)));
+            }
+        }
+    }
+
+    // ========================================================================
+    // Carga
+    // ========================================================================
+
+    private void carregar(Path diretorio) throws Exception {
+        // Partições mensais de todo o período, para que nada caia na partição padrão
+        LocalDate mes = LocalDate.now().minusMonths(meses).withDayOfMonth(1);
+        while (!mes.isAfter(LocalDate.now())) {
+            jdbcTemplate.queryForObject("SELECT criar_particao_mensal('logs', 'data_hora', ?)", String.class, mes);
+            jdbcTemplate.queryForObject("SELECT criar_particao_mensal('movimentacoes_estoque', 'data', ?)", String.class, mes);
+            mes = mes.plusMonths(1);
+        }
+
+        // Ordem das chaves estrangeiras
+        copiar(diretorio, "usuarios", "id, nome, email, password, role, avatar_url, created_at");
+        copiar(diretorio, "clientes", "id, nome, cpf, telefone, email, endereco, created_at, data_nascimento");
+        copiar(diretorio, "medicamentos", "id, nome, preco, quantidade_estoque, validade, ativo, categoria_id, created_at, descricao, estoque_minimo, limite_estoque_baixo");
+        copiar(diretorio, "vendas", "id, cliente_id, usuario_id, status, valor_total, created_at");
+        copiar(diretorio, "itens_venda", "id, venda_id, medicamento_id, medicamento_nome, quantidade, preco_unitario, subtotal");
+        copiar(diretorio, "lotes", "id, medicamento_id, numero_lote, validade, quantidade, created_at");
+        copiar(diretorio, "movimentacoes_estoque", "id, medicamento_id, quantidade, tipo, data, motivo, estoque_total, lote_id, venda_id");
+        copiar(diretorio, "alertas", "id, medicamento_id, medicamento_nome, tipo, mensagem, lido, created_at");
+        copiar(diretorio, "logs", "id, tipo_operacao, tipo_entidade, entidade_id, descricao, detalhes, usuario_id, usuario_nome, usuario_email, data_hora");
+    }
+
+    private void copiar(Path diretorio, String tabela, String colunas) throws Exception {
+        long inicio = System.currentTimeMillis();
+        long linhas;
+        try (Connection conexao = dataSource.getConnection();
+             Reader leitor = Files.newBufferedReader(diretorio.resolve(tabela + ".csv"), StandardCharsets.UTF_8)) {
+            CopyManager copyManager = conexao.unwrap(PGConnection.class).getCopyAPI();
+            linhas = copyManager.copyIn("COPY " + tabela + " (" + colunas + ") FROM STDIN WITH (FORMAT csv)", leitor);
+            if (!conexao.getAutoCommit()) {
+                conexao.commit();
+            }
+        }
+        linhasPorTabela.put(tabela, linhas);
+        System.out.println("🌱 " + tabela + ": " + linhas + " linha(s) em " + (System.currentTimeMillis() - inicio) + " ms");
+    }
+
+    private void posCarga() {
+        // Estatísticas de venda (mesma carga inicial da V8), resumo dos clientes e alertas atuais
+        jdbcTemplate.update("INSERT INTO estatisticas_venda (medicamento_id, media_diaria, quantidade_dia, dia_referencia) "
+                + "SELECT iv.medicamento_id, SUM(iv.quantidade)::DOUBLE PRECISION / 30, 0, CURRENT_DATE "
+                + "FROM itens_venda iv JOIN vendas v ON v.id = iv.venda_id "
+                + "WHERE v.status = 'CONCLUIDA' AND v.created_at >= CURRENT_DATE - INTERVAL '30 days' AND v.created_at < CURRENT_DATE "
+                + "GROUP BY iv.medicamento_id "
+                + "ON CONFLICT (medicamento_id) DO NOTHING");
+        // Resumo de compras dos clientes (mesma carga inicial da V19)
+        resumoClienteService.reconstruir();
+        jdbcTemplate.execute("ANALYZE");
+        // COPY não passa pelo Hibernate: invalida os caches (nesta e nas demais instâncias); os ETags vêm
+        // do contador versao_listagens, incrementado pelos triggers no commit
+        barramentoInvalidacao.registrar(VersaoTabelas.USUARIOS);
+        barramentoInvalidacao.registrar(VersaoTabelas.ALERTAS);
+        previsaoRupturaService.carregarEstatisticas();
+        alertaService.gerarAlertas();
+        previsaoRupturaService.verificarPrevisaoRuptura();
+    }
+
+    // ========================================================================
+    // Utilitários
+    // ========================================================================
+
+    /** Arquivo CSV no formato do COPY: campo vazio sem aspas = NULL */
+    private static class ArquivoCsv implements Closeable {
+        private final Writer saida;
+
+        ArquivoCsv(Path diretorio, String tabela) throws IOException {
+            this.saida = new BufferedWriter(new OutputStreamWriter(
+                    Files.newOutputStream(diretorio.resolve(tabela + ".csv")), StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        void linha(Object... campos) throws IOException {
+            for (int i = 0; i < campos.length; i++) {
+                if (i > 0) {
+                    saida.write(',');
+                }
+                Object campo = campos[i];
+                if (campo == null) {
+                    continue;
+                }
+                String valor = campo.toString();
+                if (valor.isEmpty() || valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                        || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0) {
+                    saida.write('"');
+                    saida.write(valor.replace("\"", "\"\""));
+                    saida.write('"');
+                } else {
+                    saida.write(valor);
+                }
+            }
+            saida.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            saida.close();
+        }
+    }
+
+    private String detalhesJson(Object detalhes, LocalDateTime momento) {
+        ObjectNode json = objectMapper.valueToTree(detalhes);
+        json.put("data", DataCodec.formatarDataHora(momento));
+        return json.toString();
+    }
+
+    private static double[] pesosZipf(int n, double expoente) {
+        double[] pesos = new double[n];
+        double soma = 0;
+        for (int i = 0; i < n; i++) {
+            pesos[i] = 1.0 / Math.pow(i + 1, expoente);
+            soma += pesos[i];
+        }
+        for (int i = 0; i < n; i++) {
+            pesos[i] /= soma;
+        }
+        return pesos;
+    }
+
+    private static double[] cdf(double[] pesos) {
+        double[] acumulado = new double[pesos.length];
+        double soma = 0;
+        for (int i = 0; i < pesos.length; i++) {
+            soma += pesos[i];
+            acumulado[i] = soma;
+        }
+        return acumulado;
+    }
+
+    private int amostrar(double[] cdf) {
+        int posicao = Arrays.binarySearch(cdf, random.nextDouble() * cdf[cdf.length - 1]);
+        return Math.min(posicao >= 0 ? posicao : -posicao - 1, cdf.length - 1);
+    }
+
+    private int[] permutacao(int n) {
+        int[] ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordem[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int troca = ordem[i];
+            ordem[i] = ordem[j];
+            ordem[j] = troca;
+        }
+        return ordem;
+    }
+
+    private double gaussiano() {
+        // Box-Muller
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    /** UUID versão 4 gerado pelo gerador com semente (reprodutível) */
+    private UUID novoUuid() {
+        long msb = (random.nextLong() & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        long lsb = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private String nomePessoa() {
+        return NOMES[random.nextInt(NOMES.length)] + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)]
+                + " " + SOBRENOMES[random.nextInt(SOBRENOMES.length)];
+    }
+
+    /** CPF válido (com dígitos verificadores) a partir de uma base de 9 dígitos */
+    private static String cpf(long base) {
+        int[] d = new int[11];
+        for (int i = 8; i >= 0; i--) {
+            d[i] = (int) (base % 10);
+            base /= 10;
+        }
+        for (int v = 9; v <= 10; v++) {
+            int soma = 0;
+            for (int i = 0; i < v; i++) {
+                soma += d[i] * (v + 1 - i);
+            }
+            int resto = soma % 11;
+            d[v] = resto < 2 ? 0 : 11 - resto;
+        }
+        return String.format("%d%d%d.%d%d%d.%d%d%d-%d%d", d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7], d[8], d[9], d[10]);
+    }
+
+    private static BigDecimal centavos(long valor) {
+        return BigDecimal.valueOf(valor, 2);
+    }
+
+    private static String timestamp(LocalDateTime momento) {
+        return momento.format(FORMATO_TIMESTAMP);
+    }
+}
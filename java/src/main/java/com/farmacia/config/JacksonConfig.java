@@ -1,14 +1,19 @@
 package com.farmacia.config;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -17,94 +22,178 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
 
 @Configuration
 public class JacksonConfig {
 
-    private static final String DATE_FORMAT = "dd/MM/yyyy";
-    private static final String DATETIME_FORMAT = "dd/MM/yyyy HH:mm:ss";
-    private static final String DATETIME_FORMAT_SHORT = "dd/MM/yyyy HH:mm";
+    public static final String SMILE = "smileObjectMapper";
+    public static final String CBOR = "cborObjectMapper";
 
     @Bean
     @Primary
     public ObjectMapper objectMapper(Jackson2ObjectMapperBuilder builder) {
         JavaTimeModule javaTimeModule = new JavaTimeModule();
         SimpleModule customModule = new SimpleModule();
-        
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(DATE_FORMAT);
-        DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern(DATETIME_FORMAT);
-        DateTimeFormatter dateTimeFormatterShort = DateTimeFormatter.ofPattern(DATETIME_FORMAT_SHORT);
-        
-        // Serializers - sempre usa formato brasileiro
-        javaTimeModule.addSerializer(LocalDate.class, new LocalDateSerializer(dateFormatter));
-        javaTimeModule.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(dateTimeFormatter));
-        
-        // Deserializers customizados - aceita formato brasileiro e ISO
+
+        // Serializers - sempre usa formato brasileiro, escrito pelo DataCodec sem String intermediária
+        customModule.addSerializer(LocalDate.class, new StdSerializer<LocalDate>(LocalDate.class) {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                char[] buffer = DataCodec.buffer();
+                int tamanho = DataCodec.escreverData(value, buffer, 0);
+                if (tamanho < 0) {
+                    gen.writeString(DataCodec.formatarData(value));
+                } else {
+                    gen.writeString(buffer, 0, tamanho);
+                }
+            }
+        });
+        customModule.addSerializer(LocalDateTime.class, new StdSerializer<LocalDateTime>(LocalDateTime.class) {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                char[] buffer = DataCodec.buffer();
+                int tamanho = DataCodec.escreverDataHora(value, buffer, 0);
+                if (tamanho < 0) {
+                    gen.writeString(DataCodec.formatarDataHora(value));
+                } else {
+                    gen.writeString(buffer, 0, tamanho);
+                }
+            }
+        });
+
+        // Deserializers customizados - aceita formato brasileiro e ISO, detectado pelos separadores
         customModule.addDeserializer(LocalDate.class, new StdDeserializer<LocalDate>(LocalDate.class) {
             @Override
             public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-                String dateStr = p.getText();
-                if (dateStr == null || dateStr.trim().isEmpty()) {
+                int tamanho = p.getTextLength();
+                if (vazio(p)) {
                     return null;
                 }
-                
-                // Tenta formato brasileiro (dd/MM/yyyy) - verifica se contém /
-                if (dateStr.contains("/")) {
-                    try {
-                        return LocalDate.parse(dateStr, dateFormatter);
-                    } catch (DateTimeParseException e) {
-                        // Continua para tentar formato ISO se falhar
-                    }
-                }
-                
-                // Tenta formato ISO (yyyy-MM-dd)
-                try {
-                    return LocalDate.parse(dateStr);
-                } catch (DateTimeParseException e) {
-                    throw new IOException("Não foi possível deserializar a data '" + dateStr + 
-                        "'. Formatos aceitos: dd/MM/yyyy ou yyyy-MM-dd", e);
+                LocalDate data = DataCodec.lerData(p.getTextCharacters(), p.getTextOffset(), tamanho);
+                if (data == null) {
+                    throw dataInvalida(p, LocalDate.class);
                 }
+                return data;
             }
         });
-        
+
         customModule.addDeserializer(LocalDateTime.class, new StdDeserializer<LocalDateTime>(LocalDateTime.class) {
             @Override
             public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
-                String dateTimeStr = p.getText();
-                if (dateTimeStr == null || dateTimeStr.trim().isEmpty()) {
+                int tamanho = p.getTextLength();
+                if (vazio(p)) {
                     return null;
                 }
-                
-                // Tenta formato brasileiro completo (dd/MM/yyyy HH:mm:ss) - verifica se contém /
-                if (dateTimeStr.contains("/")) {
-                    try {
-                        return LocalDateTime.parse(dateTimeStr, dateTimeFormatter);
-                    } catch (DateTimeParseException e1) {
-                        try {
-                            // Tenta formato brasileiro sem segundos (dd/MM/yyyy HH:mm)
-                            return LocalDateTime.parse(dateTimeStr, dateTimeFormatterShort);
-                        } catch (DateTimeParseException e2) {
-                            // Continua para tentar formato ISO
-                        }
-                    }
-                }
-                
-                // Tenta formato ISO (yyyy-MM-ddTHH:mm:ss ou yyyy-MM-ddTHH:mm)
-                try {
-                    return LocalDateTime.parse(dateTimeStr);
-                } catch (DateTimeParseException e) {
-                    throw new IOException("Não foi possível deserializar a data/hora '" + dateTimeStr + 
-                        "'. Formatos aceitos: dd/MM/yyyy HH:mm:ss, dd/MM/yyyy HH:mm ou yyyy-MM-ddTHH:mm:ss", e);
+                LocalDateTime dataHora = DataCodec.lerDataHora(p.getTextCharacters(), p.getTextOffset(), tamanho);
+                if (dataHora == null) {
+                    throw dataInvalida(p, LocalDateTime.class);
                 }
+                return dataHora;
             }
         });
-        
+
         return builder
                 .modules(javaTimeModule, customModule)
                 .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
                 .build();
     }
-}
 
+    /** Texto não vazio que não é data (LocalDate) ou data/hora (LocalDateTime) em nenhum dos formatos aceitos */
+    private static InvalidFormatException dataInvalida(JsonParser p, Class<?> tipo) throws IOException {
+        String mensagem = tipo == LocalDate.class
+                ? "Não foi possível deserializar a data '" + p.getText() + "'. Formatos aceitos: dd/MM/yyyy ou yyyy-MM-dd"
+                : "Não foi possível deserializar a data/hora '" + p.getText()
+                        + "'. Formatos aceitos: dd/MM/yyyy HH:mm:ss, dd/MM/yyyy HH:mm ou yyyy-MM-ddTHH:mm:ss";
+        return InvalidFormatException.from(p, mensagem, p.getText(), tipo);
+    }
+
+    /** Texto vazio ou só com espaços (sem criar String) */
+    private static boolean vazio(JsonParser p) throws IOException {
+        char[] texto = p.getTextCharacters();
+        int inicio = p.getTextOffset();
+        for (int i = inicio; i < inicio + p.getTextLength(); i++) {
+            if (texto[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Smile (application/x-jackson-smile) para terminais e integrações: mesmos DTOs do JSON,
+     * com datas compactas (ver datasCompactas)
+     */
+    @Bean(SMILE)
+    public ObjectMapper smileObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .factory(new SmileFactory())
+                .modules(new JavaTimeModule(), datasCompactas())
+                .build();
+    }
+
+    /** CBOR (application/cbor), com as mesmas datas compactas do Smile */
+    @Bean(CBOR)
+    public ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .factory(new CBORFactory())
+                .modules(new JavaTimeModule(), datasCompactas())
+                .build();
+    }
+
+    /**
+     * Datas nos formatos binários: LocalDate como dias desde 1970-01-01 (inteiro) e LocalDateTime como
+     * milissegundos desde 1970-01-01T00:00 no horário local (sem fuso: o mesmo relógio do dd/MM/yyyy HH:mm:ss
+     * do JSON, interpretável como UTC pelo cliente). Na leitura também aceita texto nos formatos do JSON;
+     * texto inválido é rejeitado como no JSON.
+     */
+    private static SimpleModule datasCompactas() {
+        SimpleModule module = new SimpleModule("DatasCompactas");
+        module.addSerializer(LocalDate.class, new StdSerializer<LocalDate>(LocalDate.class) {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeNumber(value.toEpochDay());
+            }
+        });
+        module.addSerializer(LocalDateTime.class, new StdSerializer<LocalDateTime>(LocalDateTime.class) {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+        });
+        module.addDeserializer(LocalDate.class, new StdDeserializer<LocalDate>(LocalDate.class) {
+            @Override
+            public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return LocalDate.ofEpochDay(p.getLongValue());
+                }
+                if (vazio(p)) {
+                    return null;
+                }
+                LocalDate data = DataCodec.lerData(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                if (data == null) {
+                    throw dataInvalida(p, LocalDate.class);
+                }
+                return data;
+            }
+        });
+        module.addDeserializer(LocalDateTime.class, new StdDeserializer<LocalDateTime>(LocalDateTime.class) {
+            @Override
+            public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                if (p.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                    return LocalDateTime.ofEpochSecond(Math.floorDiv(p.getLongValue(), 1000L),
+                            (int) Math.floorMod(p.getLongValue(), 1000L) * 1_000_000, ZoneOffset.UTC);
+                }
+                if (vazio(p)) {
+                    return null;
+                }
+                LocalDateTime dataHora = DataCodec.lerDataHora(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                if (dataHora == null) {
+                    throw dataInvalida(p, LocalDateTime.class);
+                }
+                return dataHora;
+            }
+        });
+        return module;
+    }
+}
@@ -0,0 +1,131 @@
+package com.farmacia.config;
+
+import com.farmacia.service.*;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Agenda dos jobs da aplicação. Todas as instâncias disparam os mesmos horários e o CoordenadorJobs
+ * deixa cada execução com uma só delas, em threads próprias: o agendador só dispara. Os serviços são
+ * chamados pelo proxy (com @Transactional).
+ */
+@Component
+public class JobsAgendados {
+
+    public static final String ALERTAS = "alertas";
+    public static final String PREVISAO_RUPTURA = "previsao-ruptura";
+    public static final String SNAPSHOT_ESTOQUE = "snapshot-estoque";
+    public static final String PARTICOES = "particoes";
+    public static final String RECONCILIACAO_ESTOQUE = "reconciliacao-estoque";
+    public static final String LIMPEZA_HISTORICO_JOBS = "limpeza-historico-jobs";
+    public static final String LIMPEZA_OUTBOX = "limpeza-outbox";
+
+    // Jobs diários/semanais: não repete no mesmo dia mesmo com relógios das instâncias defasados
+    private static final Duration INTERVALO_MINIMO = Duration.ofHours(1);
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private PrevisaoRupturaService previsaoRupturaService;
+
+    @Autowired
+    private EstoqueSnapshotService estoqueSnapshotService;
+
+    @Autowired
+    private ParticaoService particaoService;
+
+    @Autowired
+    private ReconciliacaoEstoqueService reconciliacaoEstoqueService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @Autowired
+    private IngestaoVendasService ingestaoVendasService;
+
+    @PostConstruct
+    public void registrar() {
+        coordenadorJobs.registrar(ALERTAS, INTERVALO_MINIMO, alertaService::gerarAlertas);
+        coordenadorJobs.registrar(PREVISAO_RUPTURA, INTERVALO_MINIMO, previsaoRupturaService::verificarPrevisaoRuptura);
+        coordenadorJobs.registrar(SNAPSHOT_ESTOQUE, INTERVALO_MINIMO, estoqueSnapshotService::gerarSnapshotDiario);
+        coordenadorJobs.registrar(PARTICOES, INTERVALO_MINIMO, particaoService::executarManutencao);
+        coordenadorJobs.registrar(RECONCILIACAO_ESTOQUE, INTERVALO_MINIMO, reconciliacaoEstoqueService::reconciliacaoAgendada);
+        coordenadorJobs.registrar(LIMPEZA_HISTORICO_JOBS, INTERVALO_MINIMO, coordenadorJobs::limparHistorico);
+        coordenadorJobs.registrar(LIMPEZA_OUTBOX, INTERVALO_MINIMO, outboxService::limpar);
+    }
+
+    @Scheduled(cron = "0 0 8 * * ?") // Todos os dias às 8h
+    public void alertas() {
+        coordenadorJobs.disparar(ALERTAS);
+    }
+
+    @Scheduled(cron = "0 0 8 * * ?") // Todos os dias às 8h, junto com os demais alertas
+    public void previsaoRuptura() {
+        coordenadorJobs.disparar(PREVISAO_RUPTURA);
+    }
+
+    @Scheduled(cron = "0 5 0 * * ?") // Todos os dias às 00:05, fotografa o dia anterior
+    public void snapshotEstoque() {
+        coordenadorJobs.disparar(SNAPSHOT_ESTOQUE);
+    }
+
+    @Scheduled(cron = "0 30 1 * * ?") // Todos os dias à 1h30
+    public void particoes() {
+        coordenadorJobs.disparar(PARTICOES);
+    }
+
+    @Scheduled(cron = "${app.estoque.reconciliacao.cron:0 0 3 * * SUN}") // Padrão: domingos às 3h, apenas relatório
+    public void reconciliacaoEstoque() {
+        coordenadorJobs.disparar(RECONCILIACAO_ESTOQUE);
+    }
+
+    @Scheduled(cron = "0 45 1 * * ?") // Todos os dias à 1h45
+    public void limpezaHistoricoJobs() {
+        coordenadorJobs.disparar(LIMPEZA_HISTORICO_JOBS);
+    }
+
+    @Scheduled(cron = "0 50 1 * * ?") // Todos os dias à 1h50
+    public void limpezaOutbox() {
+        coordenadorJobs.disparar(LIMPEZA_OUTBOX);
+    }
+
+    /** Retoma jobs de instâncias que caíram no meio da execução */
+    @Scheduled(fixedDelayString = "${app.jobs.verificacao-ms:30000}", initialDelayString = "${app.jobs.verificacao-ms:30000}")
+    public void retomarInterrompidos() {
+        try {
+            coordenadorJobs.retomarInterrompidos();
+        } catch (Exception e) {
+            System.err.println("❌ Erro ao verificar jobs interrompidos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove reservas de carrinho vencidas (já ignoradas nas consultas). Idempotente: roda em todas
+     * as instâncias, fora do CoordenadorJobs.
+     */
+    @Scheduled(fixedDelayString = "${app.reservas.limpeza-ms:60000}", initialDelayString = "${app.reservas.limpeza-ms:60000}")
+    public void limparReservasVencidas() {
+        try {
+            reservaEstoqueService.removerVencidas();
+        } catch (Exception e) {
+            System.err.println("❌ Erro ao remover reservas vencidas: " + e.getMessage());
+        }
+    }
+
+    /** Situações da ingestão assíncrona de vendas (em memória, por instância) já consultadas pelos clientes */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000)
+    public void limparIngestaoVendas() {
+        ingestaoVendasService.limparSituacoes();
+    }
+}
@@ -0,0 +1,193 @@
+package com.farmacia.config;
+
+import com.farmacia.domain.dto.ReplicaStatusResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DataSource da aplicação: transações readOnly usam o pool da réplica, as demais (e conexões fora de
+ * transação, como Flyway e JdbcTemplate avulso) usam o primário.
+ *
+ * O destino é decidido no início de cada transação pelo RoteamentoTransactionManager (DataSourceConfig):
+ * readOnly vai para a réplica, a não ser que o @Transactional tenha o label PRIMARIO. Uma thread própria
+ * mede o atraso de replicação; acima de app.datasource.replica.atraso-maximo-ms, ou com a réplica fora do
+ * ar, as leituras voltam para o primário até a próxima verificação bem-sucedida.
+ */
+public class RoteamentoDataSource extends AbstractDataSource {
+
+    /**
+     * Label de @Transactional(readOnly = true) que precisa ler do primário: leituras que alimentam caches
+     * ou ETags (um dado atrasado ficaria neles até a próxima alteração) e as que dependem do xid do primário.
+     */
+    public static final String PRIMARIO = "primario";
+
+    // Destino da transação atual; empilhado para REQUIRES_NEW e transações suspensas
+    private static final ThreadLocal<Deque<Boolean>> DESTINOS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // Atraso zero em servidor fora de recuperação (dois bancos locais) e em réplica sem WAL pendente;
+    // NULL quando a réplica ainda não aplicou nenhuma transação
+    private static final String SQL_ATRASO = "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::BIGINT END";
+
+    private final HikariDataSource primario;
+    private final HikariDataSource replica;
+    private final long atrasoMaximoMs;
+    private final long verificacaoMs;
+
+    private volatile boolean replicaDisponivel;
+    private volatile Long atrasoMs;
+    private volatile LocalDateTime ultimaVerificacao;
+    private volatile String ultimoErro;
+    private final AtomicLong leiturasReplica = new AtomicLong();
+    private final AtomicLong leiturasDesviadas = new AtomicLong();
+    private ScheduledExecutorService monitor;
+
+    /** replica nula: roteamento desligado, tudo no primário */
+    public RoteamentoDataSource(HikariDataSource primario, HikariDataSource replica, long atrasoMaximoMs, long verificacaoMs) {
+        this.primario = primario;
+        this.replica = replica;
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        this.verificacaoMs = verificacaoMs;
+    }
+
+    public void iniciar() {
+        if (replica == null) {
+            return;
+        }
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::verificarReplica, 0, verificacaoMs, TimeUnit.MILLISECONDS);
+        System.out.println("📖 Leituras readOnly roteadas para a réplica " + replica.getJdbcUrl()
+                + " (atraso máximo: " + atrasoMaximoMs + " ms)");
+    }
+
+    public void encerrar() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        // O pool do primário é um bean próprio, fechado pelo Spring
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    // ========================================================================
+    // Destino da transação (RoteamentoTransactionManager)
+    // ========================================================================
+
+    static void entrar(boolean leitura) {
+        DESTINOS.get().push(leitura);
+    }
+
+    static void sair() {
+        Deque<Boolean> destinos = DESTINOS.get();
+        destinos.poll();
+        if (destinos.isEmpty()) {
+            DESTINOS.remove();
+        }
+    }
+
+    // ========================================================================
+    // Conexões
+    // ========================================================================
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (usarReplica()) {
+            try {
+                Connection conexao = replica.getConnection();
+                leiturasReplica.incrementAndGet();
+                return conexao;
+            } catch (SQLException e) {
+                // Caiu entre duas verificações: esta e as próximas leituras vão para o primário
+                marcarIndisponivel(e.getMessage());
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    private boolean usarReplica() {
+        if (replica == null || !Boolean.TRUE.equals(DESTINOS.get().peek())) {
+            return false;
+        }
+        if (!replicaDisponivel) {
+            leiturasDesviadas.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    // ========================================================================
+    // Atraso de replicação
+    // ========================================================================
+
+    private void verificarReplica() {
+        try (Connection conexao = replica.getConnection();
+             Statement statement = conexao.createStatement()) {
+            statement.setQueryTimeout(5);
+            try (ResultSet rs = statement.executeQuery(SQL_ATRASO)) {
+                rs.next();
+                Long atraso = rs.getObject(1, Long.class);
+                atrasoMs = atraso;
+                ultimaVerificacao = LocalDateTime.now();
+                if (atraso == null || atraso > atrasoMaximoMs) {
+                    marcarIndisponivel(atraso == null ? "réplica ainda sem transações aplicadas"
+                            : "atraso de " + atraso + " ms acima do máximo de " + atrasoMaximoMs + " ms");
+                } else {
+                    if (!replicaDisponivel) {
+                        System.out.println("📖 Réplica disponível para leituras (atraso: " + atraso + " ms)");
+                    }
+                    replicaDisponivel = true;
+                    ultimoErro = null;
+                }
+            }
+        } catch (Exception e) {
+            ultimaVerificacao = LocalDateTime.now();
+            atrasoMs = null;
+            marcarIndisponivel(e.getMessage());
+        }
+    }
+
+    private void marcarIndisponivel(String motivo) {
+        if (replicaDisponivel) {
+            System.err.println("⚠️ Réplica indisponível, leituras no primário: " + motivo);
+        }
+        replicaDisponivel = false;
+        ultimoErro = motivo;
+    }
+
+    public ReplicaStatusResponse getStatus() {
+        return new ReplicaStatusResponse(
+                replica != null,
+                replica != null ? replica.getJdbcUrl() : null,
+                replicaDisponivel,
+                atrasoMs,
+                atrasoMaximoMs,
+                ultimaVerificacao,
+                leiturasReplica.get(),
+                leiturasDesviadas.get(),
+                ultimoErro
+        );
+    }
+}
@@ -0,0 +1,187 @@
+package com.farmacia.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * ETag e Last-Modified das listagens a partir da tabela versao_listagens: um contador por tabela que um
+ * trigger adiado incrementa no commit de cada transação que escreve nela (V20). O mesmo dado gera o mesmo
+ * ETag em qualquer instância, antes e depois de reinícios, inclusive após cargas feitas fora do Hibernate;
+ * transações longas em andamento (exportações, reconciliação, arquivamento) não afetam a versão.
+ *
+ * As versões ficam em memória e são descartadas pelas notificações que o trigger publica no canal do
+ * BarramentoInvalidacao: um GET condicional com If-None-Match ainda válido responde 304 sem ir ao banco.
+ * Sem a conexão de escuta, as versões não são guardadas e cada requisição consulta o banco.
+ *
+ * O formato negociado (JSON, Smile ou CBOR) entra no ETag e a resposta tem Vary: Accept: representações
+ * diferentes da mesma versão não compartilham validador.
+ */
+@Component
+public class VersaoTabelas {
+
+    public static final String MEDICAMENTOS = "medicamentos";
+    public static final String CATEGORIAS = "categorias";
+    public static final String CLIENTES = "clientes";
+    public static final String USUARIOS = "usuarios";
+    public static final String ALERTAS = "alertas";
+
+    // Respostas dependem do usuário autenticado: só o navegador guarda, sempre revalidando
+    private static final CacheControl CACHE_LISTAGENS = CacheControl.noCache().cachePrivate();
+
+    /** Tabelas com versão em versao_listagens */
+    private static final Set<String> TABELAS = Set.of(MEDICAMENTOS, CATEGORIAS, CLIENTES);
+
+    /** Formatos produzidos pela API, na ordem dos conversores (WebMvcConfig) */
+    private static final List<MediaType> FORMATOS = List.of(
+            MediaType.APPLICATION_JSON,
+            new MediaType("application", "x-jackson-smile"),
+            MediaType.APPLICATION_CBOR);
+
+    /** Versão de uma tabela; alteradoEm = -1 enquanto o segundo da última escrita não terminou */
+    private record Versao(long versao, long alteradoEm) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Versao> versoes = new ConcurrentHashMap<>();
+    // Incrementada a cada descarte: uma consulta iniciada antes de uma notificação não grava a versão antiga
+    private long geracao;
+    private boolean escutando;
+
+    /** Chamado pelo BarramentoInvalidacao ao receber a notificação de uma escrita na tabela */
+    public synchronized void descartar(String tabela) {
+        if (TABELAS.contains(tabela)) {
+            geracao++;
+            versoes.remove(tabela);
+        }
+    }
+
+    /** Conexão de escuta (re)estabelecida ou perdida: notificações podem ter se perdido */
+    public synchronized void escuta(boolean ativa) {
+        escutando = ativa;
+        geracao++;
+        versoes.clear();
+    }
+
+    private List<Versao> versoes(String... tabelas) {
+        List<Versao> resultado = new ArrayList<>(tabelas.length);
+        for (String tabela : tabelas) {
+            Versao versao = versoes.get(tabela);
+            if (versao == null) {
+                return consultar(tabelas);
+            }
+            resultado.add(versao);
+        }
+        return resultado;
+    }
+
+    private List<Versao> consultar(String... tabelas) {
+        long geracaoInicial;
+        synchronized (this) {
+            geracaoInicial = geracao;
+        }
+        Map<String, Versao> lidas = new HashMap<>();
+        // alterado_em só vale como Last-Modified depois que o seu segundo terminou: outra escrita no mesmo
+        // segundo teria o mesmo Last-Modified (a resolução do cabeçalho é de segundos)
+        jdbcTemplate.query("SELECT tabela, versao, "
+                        + "CASE WHEN alterado_em < date_trunc('second', clock_timestamp()) "
+                        + "THEN (EXTRACT(EPOCH FROM alterado_em) * 1000)::BIGINT ELSE -1 END "
+                        + "FROM versao_listagens",
+                (RowCallbackHandler) rs -> lidas.put(rs.getString(1), new Versao(rs.getLong(2), rs.getLong(3))));
+        List<Versao> resultado = new ArrayList<>(tabelas.length);
+        for (String tabela : tabelas) {
+            Versao versao = lidas.get(tabela);
+            if (versao == null) {
+                throw new IllegalArgumentException("Tabela sem versão em versao_listagens: " + tabela);
+            }
+            resultado.add(versao);
+        }
+        // Só guarda o que continua válido: com a escuta ativa, nenhuma notificação no meio e Last-Modified definitivo
+        synchronized (this) {
+            if (escutando && geracao == geracaoInicial) {
+                lidas.forEach((tabela, versao) -> {
+                    if (versao.alteradoEm() >= 0) {
+                        versoes.put(tabela, versao);
+                    }
+                });
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Formato da resposta como o Spring o escolhe: o primeiro tipo do Accept (por qualidade e
+     * especificidade) compatível com um dos formatos da API; JSON sem Accept ou com um Accept genérico.
+     */
+    private static String formato(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        List<MediaType> aceitos;
+        try {
+            aceitos = accept == null || accept.isBlank() ? List.of(MediaType.ALL) : new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            aceitos = List.of(MediaType.ALL);
+        }
+        if (aceitos.size() > 1) {
+            MimeTypeUtils.sortBySpecificity(aceitos);
+        }
+        for (MediaType aceito : aceitos) {
+            for (MediaType formato : FORMATOS) {
+                if (aceito.isCompatibleWith(formato)) {
+                    return formato.getSubtype();
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON.getSubtype();
+    }
+
+    /**
+     * GET condicional de uma listagem: com If-None-Match (ou If-Modified-Since) ainda válido responde 304
+     * sem chamar carregar; caso contrário devolve o corpo com ETag e Last-Modified.
+     */
+    public <T> ResponseEntity<T> responder(WebRequest request, Supplier<T> carregar, String... tabelas) {
+        // Lidos antes de carregar os dados: se uma escrita terminar no meio, o cliente recebe dados novos
+        // com o ETag antigo e apenas revalida de novo
+        StringBuilder valor = new StringBuilder("\"");
+        long ultimaAlteracao = 0;
+        for (Versao versao : versoes(tabelas)) {
+            valor.append(Long.toString(versao.versao(), 36)).append('-');
+            ultimaAlteracao = versao.alteradoEm() < 0 || ultimaAlteracao < 0 ? -1 : Math.max(ultimaAlteracao, versao.alteradoEm());
+        }
+        String etag = valor.append(formato(request)).append('"').toString();
+
+        if (request.checkNotModified(etag, ultimaAlteracao)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(CACHE_LISTAGENS)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CACHE_LISTAGENS);
+        if (ultimaAlteracao >= 0) {
+            resposta.lastModified(ultimaAlteracao);
+        }
+        return resposta.body(carregar.get());
+    }
+}
@@ -0,0 +1,92 @@
+package com.farmacia.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Table;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registra no BarramentoInvalidacao toda escrita feita pelo Hibernate (entidades e coleções, como as
+ * imagens do medicamento, que contam como alteração do dono), com o ID da linha.
+ * Atualizações em massa via JPQL/SQL não passam por aqui: quem as executa chama registrar.
+ */
+@Component
+public class VersaoTabelasListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BarramentoInvalidacao barramentoInvalidacao;
+
+    private final Map<Class<?>, String> tabelas = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registrar() {
+        EventListenerRegistry registro = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registro.appendListeners(EventType.POST_INSERT, this);
+        registro.appendListeners(EventType.POST_UPDATE, this);
+        registro.appendListeners(EventType.POST_DELETE, this);
+        registro.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registro.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registro.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        registrar(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        registrar(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        registrar(event.getEntity(), event.getId());
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        registrar(event.getAffectedOwnerOrNull(), event.getAffectedOwnerIdOrNull());
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        registrar(event.getAffectedOwnerOrNull(), event.getAffectedOwnerIdOrNull());
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        registrar(event.getAffectedOwnerOrNull(), event.getAffectedOwnerIdOrNull());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void registrar(Object entidade, Object id) {
+        if (entidade != null) {
+            barramentoInvalidacao.registrar(tabelas.computeIfAbsent(Hibernate.getClass(entidade), VersaoTabelasListener::tabela), id);
+        }
+    }
+
+    private static String tabela(Class<?> classe) {
+        Table table = classe.getAnnotation(Table.class);
+        return table != null && !table.name().isEmpty() ? table.name() : classe.getSimpleName().toLowerCase();
+    }
+}
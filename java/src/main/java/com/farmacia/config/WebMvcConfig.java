@@ -1,12 +1,19 @@
 package com.farmacia.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
@@ -14,6 +21,28 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
+    @Autowired
+    @Qualifier(JacksonConfig.SMILE)
+    private ObjectMapper smileObjectMapper;
+
+    @Autowired
+    @Qualifier(JacksonConfig.CBOR)
+    private ObjectMapper cborObjectMapper;
+
+    /**
+     * Smile e CBOR só quando pedidos no Accept (ou enviados no Content-Type). O Spring já registra
+     * conversores padrão para esses formatos quando as bibliotecas estão no classpath; eles são
+     * trocados pelos que usam os ObjectMappers da aplicação e ficam depois do JSON, então um Accept
+     * genérico continua recebendo JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(c -> c instanceof MappingJackson2SmileHttpMessageConverter
+                || c instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileObjectMapper));
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborObjectMapper));
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Usa o caminho configurado diretamente (já vem absoluto do application.yml)
@@ -2,6 +2,7 @@ package com.farmacia.controller;
 
 import com.farmacia.domain.dto.AlertaResponse;
 import com.farmacia.service.AlertaService;
+import com.farmacia.service.PrevisaoRupturaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,6 +22,9 @@ public class AlertaController {
     @Autowired
     private AlertaService alertaService;
 
+    @Autowired
+    private PrevisaoRupturaService previsaoRupturaService;
+
     @GetMapping
     @Operation(summary = "Listar alertas", description = "Retorna todos os alertas (ADMIN e VENDEDOR)")
     public ResponseEntity<List<AlertaResponse>> findAll() {
@@ -56,6 +60,14 @@ public class AlertaController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/previsao-ruptura")
+    @Operation(summary = "Listar alertas de previsão de ruptura", description = "Recalcula a previsão de ruptura pela média de vendas diárias e retorna os alertas não lidos (ADMIN e VENDEDOR)")
+    public ResponseEntity<List<AlertaResponse>> findPrevisaoRuptura() {
+        previsaoRupturaService.verificarPrevisaoRuptura();
+        List<AlertaResponse> response = alertaService.findPrevisaoRuptura();
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}/ler")
     @Operation(summary = "Marcar alerta como lido", description = "Marca um alerta como lido (ADMIN e VENDEDOR)")
     public ResponseEntity<AlertaResponse> marcarComoLido(@PathVariable UUID id) {
@@ -0,0 +1,55 @@
+package com.farmacia.controller;
+
+import com.farmacia.domain.dto.CarrinhoResponse;
+import com.farmacia.domain.dto.MensagemResponse;
+import com.farmacia.domain.dto.ReservaRequest;
+import com.farmacia.service.ReservaEstoqueService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/carrinhos")
+@Tag(name = "Carrinhos", description = "Reservas de estoque dos carrinhos em andamento nos terminais")
+@SecurityRequirement(name = "Bearer Authentication")
+public class CarrinhoController {
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @GetMapping("/{carrinhoId}")
+    @Operation(summary = "Consultar carrinho",
+               description = "Itens com reserva ativa e o fim da reserva (ADMIN e VENDEDOR)")
+    public ResponseEntity<CarrinhoResponse> getCarrinho(@PathVariable UUID carrinhoId) {
+        return ResponseEntity.ok(reservaEstoqueService.getCarrinho(carrinhoId));
+    }
+
+    @PutMapping("/{carrinhoId}/itens/{medicamentoId}")
+    @Operation(summary = "Reservar item",
+               description = "Define a quantidade do medicamento no carrinho, reservando-a no estoque por app.reservas.ttl-minutos. "
+                       + "Cada alteração renova a reserva de todo o carrinho. O carrinhoId é gerado pelo terminal e "
+                       + "informado depois em POST /api/vendas para converter as reservas (ADMIN e VENDEDOR)")
+    public ResponseEntity<CarrinhoResponse> reservar(@PathVariable UUID carrinhoId, @PathVariable UUID medicamentoId,
+                                                     @Valid @RequestBody ReservaRequest request) {
+        return ResponseEntity.ok(reservaEstoqueService.reservar(carrinhoId, medicamentoId, request.getQuantidade()));
+    }
+
+    @DeleteMapping("/{carrinhoId}/itens/{medicamentoId}")
+    @Operation(summary = "Remover item", description = "Libera a reserva do medicamento no carrinho (ADMIN e VENDEDOR)")
+    public ResponseEntity<CarrinhoResponse> liberar(@PathVariable UUID carrinhoId, @PathVariable UUID medicamentoId) {
+        return ResponseEntity.ok(reservaEstoqueService.liberar(carrinhoId, medicamentoId));
+    }
+
+    @DeleteMapping("/{carrinhoId}")
+    @Operation(summary = "Descartar carrinho", description = "Libera todas as reservas do carrinho (ADMIN e VENDEDOR)")
+    public ResponseEntity<MensagemResponse> descartar(@PathVariable UUID carrinhoId) {
+        int liberadas = reservaEstoqueService.liberarCarrinho(carrinhoId);
+        return ResponseEntity.ok(new MensagemResponse(liberadas + " reserva(s) liberada(s)", carrinhoId.toString()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.farmacia.controller;
 
+import com.farmacia.config.VersaoTabelas;
 import com.farmacia.domain.dto.CategoriaRequest;
 import com.farmacia.domain.dto.CategoriaResponse;
 import com.farmacia.domain.dto.MensagemResponse;
@@ -15,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +30,9 @@ public class CategoriaController {
     @Autowired
     private CategoriaService categoriaService;
 
+    @Autowired
+    private VersaoTabelas versaoTabelas;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
@@ -67,9 +72,8 @@ public class CategoriaController {
 
     @GetMapping
     @Operation(summary = "Listar categorias", description = "Retorna todas as categorias (ADMIN e VENDEDOR)")
-    public ResponseEntity<List<CategoriaResponse>> findAll() {
-        List<CategoriaResponse> response = categoriaService.findAll();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<CategoriaResponse>> findAll(WebRequest request) {
+        return versaoTabelas.responder(request, categoriaService::findAll, VersaoTabelas.CATEGORIAS);
     }
 
     @GetMapping("/{id}")
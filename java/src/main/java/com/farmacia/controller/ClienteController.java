@@ -1,9 +1,16 @@
 package com.farmacia.controller;
 
+import com.farmacia.config.VersaoTabelas;
 import com.farmacia.domain.dto.ClienteRequest;
 import com.farmacia.domain.dto.ClienteResponse;
+import com.farmacia.domain.dto.ClienteResumoResponse;
 import com.farmacia.domain.dto.MensagemResponse;
+import com.farmacia.domain.dto.PaginaResponse;
+import com.farmacia.domain.dto.ResumoClienteResponse;
+import com.farmacia.domain.dto.VendaResponse;
 import com.farmacia.service.ClienteService;
+import com.farmacia.service.ResumoClienteService;
+import com.farmacia.service.VendaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -15,6 +22,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -28,6 +36,15 @@ public class ClienteController {
     @Autowired
     private ClienteService clienteService;
 
+    @Autowired
+    private ResumoClienteService resumoClienteService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private VersaoTabelas versaoTabelas;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
@@ -74,10 +91,24 @@ public class ClienteController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar clientes", description = "Retorna todos os clientes (ADMIN e VENDEDOR)")
-    public ResponseEntity<List<ClienteResponse>> findAll() {
-        List<ClienteResponse> response = clienteService.findAll();
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Listar clientes", description = "Retorna todos os clientes (ADMIN e VENDEDOR). Para escolher o cliente da venda, use GET /api/clientes/busca")
+    public ResponseEntity<List<ClienteResponse>> findAll(WebRequest request) {
+        return versaoTabelas.responder(request, clienteService::findAll, VersaoTabelas.CLIENTES);
+    }
+
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar clientes",
+               description = "Busca paginada para o caixa, ordenada por nome (ADMIN e VENDEDOR). Termo com letras: qualquer parte do nome, " +
+                             "sem diferenciar maiúsculas e acentos (mínimo 3 letras). Termo só com números (com ou sem máscara): " +
+                             "início do CPF ou do telefone (mínimo 3 dígitos).")
+    public ResponseEntity<PaginaResponse<ClienteResumoResponse>> buscar(
+            @Parameter(description = "Parte do nome, ou início do CPF ou do telefone", example = "maria")
+            @RequestParam String termo,
+            @Parameter(description = "Página (começa em 0)", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Itens por página (máximo 100)", example = "20")
+            @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(clienteService.buscar(termo, pagina, tamanho));
     }
 
     @GetMapping("/{id}")
@@ -87,6 +118,26 @@ public class ClienteController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/resumo")
+    @Operation(summary = "Resumo de compras do cliente",
+               description = "Total de compras concluídas, valor gasto, ticket médio, primeira e última compra, intervalo médio entre compras " +
+                             "e os medicamentos mais comprados, lidos do resumo mantido a cada venda (ADMIN e VENDEDOR)")
+    public ResponseEntity<ResumoClienteResponse> getResumo(@PathVariable UUID id) {
+        return ResponseEntity.ok(resumoClienteService.getResumo(id));
+    }
+
+    @GetMapping("/{id}/vendas")
+    @Operation(summary = "Histórico de vendas do cliente",
+               description = "Vendas do cliente, das mais recentes para as mais antigas, em páginas (ADMIN e VENDEDOR)")
+    public ResponseEntity<PaginaResponse<VendaResponse>> getVendas(
+            @PathVariable UUID id,
+            @Parameter(description = "Página (começa em 0)", example = "0")
+            @RequestParam(defaultValue = "0") int pagina,
+            @Parameter(description = "Vendas por página (máximo 100)", example = "20")
+            @RequestParam(defaultValue = "20") int tamanho) {
+        return ResponseEntity.ok(vendaService.findByClienteIdPaginado(id, pagina, tamanho));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(
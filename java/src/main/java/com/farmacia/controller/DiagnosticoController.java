@@ -0,0 +1,67 @@
+package com.farmacia.controller;
+
+import com.farmacia.config.RoteamentoDataSource;
+import com.farmacia.domain.dto.ComparacaoFormatoResponse;
+import com.farmacia.domain.dto.IngestaoVendasStatusResponse;
+import com.farmacia.domain.dto.ReplicaStatusResponse;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.service.ComparacaoFormatosService;
+import com.farmacia.service.IngestaoVendasService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/diagnostico")
+@Tag(name = "Diagnóstico", description = "Verificação dos formatos de resposta, da réplica de leitura e da ingestão de vendas")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+public class DiagnosticoController {
+
+    @Autowired
+    private ComparacaoFormatosService comparacaoFormatosService;
+
+    @Autowired
+    private RoteamentoDataSource roteamentoDataSource;
+
+    @Autowired
+    private IngestaoVendasService ingestaoVendasService;
+
+    @GetMapping("/formatos")
+    @Operation(summary = "Comparar formatos de resposta",
+               description = "Serializa as listagens de medicamentos e de vendas recentes em JSON, Smile e CBOR e compara tamanho e tempo de CPU (apenas ADMIN)")
+    public ResponseEntity<List<ComparacaoFormatoResponse>> compararFormatos(
+            @Parameter(description = "Quantidade de vendas recentes na listagem de vendas", example = "1000")
+            @RequestParam(defaultValue = "1000") int vendas,
+            @Parameter(description = "Serializações medidas por formato", example = "20")
+            @RequestParam(defaultValue = "20") int iteracoes) {
+        if (vendas < 1 || vendas > 10000 || iteracoes < 1 || iteracoes > 200) {
+            throw new BusinessException("Use vendas entre 1 e 10000 e iterações entre 1 e 200.");
+        }
+        return ResponseEntity.ok(comparacaoFormatosService.comparar(vendas, iteracoes));
+    }
+
+    @GetMapping("/replica")
+    @Operation(summary = "Situação da réplica de leitura",
+               description = "Atraso de replicação, se as transações readOnly estão indo para a réplica e quantas foram desviadas para o primário (apenas ADMIN)")
+    public ResponseEntity<ReplicaStatusResponse> getReplica() {
+        return ResponseEntity.ok(roteamentoDataSource.getStatus());
+    }
+
+    @GetMapping("/ingestao-vendas")
+    @Operation(summary = "Situação da ingestão assíncrona de vendas",
+               description = "Fila, vendas aceitas, gravadas e rejeitadas e tamanho médio dos lotes gravados nesta instância (apenas ADMIN)")
+    public ResponseEntity<IngestaoVendasStatusResponse> getIngestaoVendas() {
+        return ResponseEntity.ok(ingestaoVendasService.getStatus());
+    }
+}
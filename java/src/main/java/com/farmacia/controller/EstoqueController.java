@@ -1,11 +1,17 @@
 package com.farmacia.controller;
 
 import com.farmacia.domain.dto.EstoqueOperacaoResponse;
+import com.farmacia.domain.dto.EstoquePosicaoResponse;
 import com.farmacia.domain.dto.EstoqueRequest;
 import com.farmacia.domain.dto.EstoqueResponse;
 import com.farmacia.domain.dto.EstoqueSaidaRequest;
+import com.farmacia.domain.dto.LoteResponse;
+import com.farmacia.domain.dto.PaginaResponse;
+import com.farmacia.domain.dto.ReconciliacaoEstoqueResponse;
 import com.farmacia.domain.entity.MovimentacaoEstoque;
 import com.farmacia.service.EstoqueService;
+import com.farmacia.service.EstoqueSnapshotService;
+import com.farmacia.service.ReconciliacaoEstoqueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -13,10 +19,13 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,6 +38,12 @@ public class EstoqueController {
     @Autowired
     private EstoqueService estoqueService;
 
+    @Autowired
+    private EstoqueSnapshotService estoqueSnapshotService;
+
+    @Autowired
+    private ReconciliacaoEstoqueService reconciliacaoEstoqueService;
+
     @PostMapping("/entrada")
     @Operation(
         summary = "Entrada de estoque", 
@@ -51,7 +66,9 @@ public class EstoqueController {
                       "- medicamentoId: UUID (obrigatório, ID de um medicamento existente)\n" +
                       "- quantidade: Integer (obrigatório, > 0)\n\n" +
                       "**Campos opcionais:**\n" +
-                      "- motivo: String (padrão: 'Entrada de estoque')"
+                      "- motivo: String (padrão: 'Entrada de estoque')\n" +
+                      "- numeroLote: String (padrão: lote genérico da validade)\n" +
+                      "- validade: Date (YYYY-MM-DD, padrão: validade atual do medicamento)"
     )
     public ResponseEntity<?> entrada(
             @Parameter(
@@ -70,6 +87,7 @@ public class EstoqueController {
             System.out.println("📦 Medicamento ID: " + request.getMedicamentoId());
             System.out.println("📦 Quantidade: " + request.getQuantidade());
             System.out.println("📦 Motivo: " + request.getMotivo());
+            System.out.println("📦 Lote: " + request.getNumeroLote() + " (validade: " + request.getValidade() + ")");
             
             if (request.getMedicamentoId() == null) {
                 System.out.println("📦 ❌ ERRO: Medicamento ID é nulo!");
@@ -82,7 +100,8 @@ public class EstoqueController {
             }
             
             String motivo = request.getMotivo() != null ? request.getMotivo() : "Entrada de estoque";
-            EstoqueOperacaoResponse response = estoqueService.adicionarEstoque(request.getMedicamentoId(), request.getQuantidade(), motivo);
+            EstoqueOperacaoResponse response = estoqueService.adicionarEstoque(request.getMedicamentoId(), request.getQuantidade(), motivo,
+                    request.getNumeroLote(), request.getValidade());
             System.out.println("📦 EstoqueController.entrada() - FIM - Sucesso");
             System.out.println("📦 Estoque Atual: " + response.getQuantidadeEstoqueAtual());
             System.out.println("═══════════════════════════════════════════════════════════════════════════════");
@@ -170,6 +189,14 @@ public class EstoqueController {
         return ResponseEntity.ok(estoque);
     }
 
+    @GetMapping("/{medicamentoId}/lotes")
+    @Operation(summary = "Listar lotes", 
+               description = "Retorna os lotes de um medicamento em ordem de validade (FEFO), com saldo e indicação de vencido (ADMIN e VENDEDOR)")
+    public ResponseEntity<List<LoteResponse>> getLotes(@PathVariable UUID medicamentoId) {
+        List<LoteResponse> lotes = estoqueService.getLotesByMedicamento(medicamentoId);
+        return ResponseEntity.ok(lotes);
+    }
+
     @GetMapping("/{medicamentoId}/movimentacoes")
     @Operation(summary = "Listar movimentações", 
                description = "Retorna todas as movimentações de um medicamento (ADMIN e VENDEDOR)")
@@ -177,7 +204,66 @@ public class EstoqueController {
         List<MovimentacaoEstoque> movimentacoes = estoqueService.getMovimentacoesByMedicamento(medicamentoId);
         return ResponseEntity.ok(movimentacoes);
     }
-}
 
+    @GetMapping("/{medicamentoId}/extrato")
+    @Operation(summary = "Extrato de movimentações (paginado)", 
+               description = "Retorna as movimentações de um medicamento em ordem cronológica (mais recentes primeiro), paginadas e opcionalmente filtradas por período (de/ate no formato YYYY-MM-DD). (ADMIN e VENDEDOR)")
+    public ResponseEntity<PaginaResponse<MovimentacaoEstoque>> getExtrato(
+            @PathVariable UUID medicamentoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamanho) {
+        PaginaResponse<MovimentacaoEstoque> extrato = estoqueService.getExtrato(medicamentoId, de, ate, pagina, tamanho);
+        return ResponseEntity.ok(extrato);
+    }
 
+    @GetMapping("/{medicamentoId}/posicao")
+    @Operation(summary = "Posição de estoque em uma data", 
+               description = "Retorna o estoque do medicamento ao final da data informada (YYYY-MM-DD), calculado a partir da fotografia diária mais próxima. (ADMIN e VENDEDOR)")
+    public ResponseEntity<EstoquePosicaoResponse> getPosicao(
+            @PathVariable UUID medicamentoId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        EstoquePosicaoResponse posicao = estoqueSnapshotService.getPosicao(medicamentoId, data);
+        return ResponseEntity.ok(posicao);
+    }
 
+    @GetMapping("/posicao")
+    @Operation(summary = "Posição de estoque do catálogo em uma data", 
+               description = "Retorna o estoque de todos os medicamentos ao final da data informada (YYYY-MM-DD), ex.: fechamento de mês. (ADMIN e VENDEDOR)")
+    public ResponseEntity<List<EstoquePosicaoResponse>> getPosicaoCatalogo(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        List<EstoquePosicaoResponse> posicoes = estoqueSnapshotService.getPosicaoCatalogo(data);
+        return ResponseEntity.ok(posicoes);
+    }
+
+    @PostMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Gerar fotografia de estoque", 
+               description = "Grava (ou regrava) a fotografia de estoque de todos os medicamentos ao final da data informada (YYYY-MM-DD, anterior a hoje). A fotografia do dia anterior é gerada automaticamente às 00:05. (apenas ADMIN)")
+    public ResponseEntity<String> gerarSnapshot(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+        int total = estoqueSnapshotService.gerarSnapshot(data);
+        return ResponseEntity.ok(String.format("Fotografia de estoque de %s gravada para %d medicamento(s).", data, total));
+    }
+
+    @PostMapping("/reconciliacao")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Iniciar reconciliação de estoque", 
+               description = "Compara, em segundo plano, o estoque de cada medicamento com o saldo do histórico de movimentações (e dos lotes). " +
+                             "Com corrigir=true, grava movimentações de ajuste para que o histórico feche com o estoque atual. " +
+                             "Acompanhe o progresso em GET /api/estoque/reconciliacao. (apenas ADMIN)")
+    public ResponseEntity<ReconciliacaoEstoqueResponse> iniciarReconciliacao(
+            @RequestParam(defaultValue = "false") boolean corrigir) {
+        ReconciliacaoEstoqueResponse response = reconciliacaoEstoqueService.iniciar(corrigir);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/reconciliacao")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Progresso da reconciliação de estoque", 
+               description = "Retorna o progresso, as métricas de tempo/vazão e as divergências da reconciliação atual ou da última executada. (apenas ADMIN)")
+    public ResponseEntity<ReconciliacaoEstoqueResponse> getReconciliacao() {
+        return ResponseEntity.ok(reconciliacaoEstoqueService.getStatus());
+    }
+}
@@ -0,0 +1,41 @@
+package com.farmacia.controller;
+
+import com.farmacia.config.CoordenadorJobs;
+import com.farmacia.domain.dto.JobExecucaoResponse;
+import com.farmacia.domain.dto.JobResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Jobs", description = "Jobs agendados: instância responsável, execuções e duração")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+public class JobController {
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    @GetMapping
+    @Operation(summary = "Listar jobs",
+               description = "Situação de cada job entre as instâncias (dono do lease, execução em andamento ou interrompida) "
+                       + "e estatísticas dos últimos 30 dias (apenas ADMIN)")
+    public ResponseEntity<List<JobResponse>> listar() {
+        return ResponseEntity.ok(coordenadorJobs.listar());
+    }
+
+    @GetMapping("/{nome}/execucoes")
+    @Operation(summary = "Histórico de execuções",
+               description = "Últimas execuções do job em qualquer instância, da mais recente para a mais antiga (apenas ADMIN)")
+    public ResponseEntity<List<JobExecucaoResponse>> listarExecucoes(@PathVariable String nome,
+                                                                     @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(coordenadorJobs.listarExecucoes(nome, limite));
+    }
+}
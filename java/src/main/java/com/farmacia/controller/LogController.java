@@ -1,12 +1,14 @@
 package com.farmacia.controller;
 
 import com.farmacia.domain.dto.LogResponse;
+import com.farmacia.domain.dto.PaginaResponse;
 import com.farmacia.service.LogConsultaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,9 +16,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -40,6 +44,20 @@ public class LogController {
         return ResponseEntity.ok(logs);
     }
 
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar logs pelos detalhes",
+               description = "Retorna, paginados, os logs cujos detalhes têm o campo com o valor informado (ex.: campo=clienteCpf&valor=12345678900 ou campo=medicamentoId&valor=<uuid>, incluindo itens de venda). Filtros opcionais: tipoEntidade e período de/ate (YYYY-MM-DD; padrão: últimos 90 dias). (apenas ADMIN)")
+    public ResponseEntity<PaginaResponse<LogResponse>> buscarPorDetalhes(
+            @RequestParam String campo,
+            @RequestParam String valor,
+            @RequestParam(required = false) String tipoEntidade,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = "0") int pagina,
+            @RequestParam(defaultValue = "50") int tamanho) {
+        return ResponseEntity.ok(logConsultaService.buscarPorDetalhes(campo, valor, tipoEntidade, de, ate, pagina, tamanho));
+    }
+
     @GetMapping("/export")
     @Operation(summary = "Exportar todos os logs para CSV", 
                description = "Gera e faz download de um arquivo CSV com TODOS os registros de log do banco de dados. (apenas ADMIN)")
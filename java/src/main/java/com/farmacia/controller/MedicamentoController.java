@@ -1,8 +1,10 @@
 package com.farmacia.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.farmacia.config.VersaoTabelas;
 import com.farmacia.domain.dto.MedicamentoRequest;
 import com.farmacia.domain.dto.MedicamentoResponse;
+import com.farmacia.domain.dto.SincronizacaoCatalogoResponse;
 import com.farmacia.domain.dto.MensagemResponse;
 import com.farmacia.service.MedicamentoService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,6 +18,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -30,6 +33,9 @@ public class MedicamentoController {
     @Autowired
     private MedicamentoService medicamentoService;
 
+    @Autowired
+    private VersaoTabelas versaoTabelas;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -94,16 +100,25 @@ public class MedicamentoController {
 
     @GetMapping
     @Operation(summary = "Listar medicamentos", description = "Retorna todos os medicamentos (ADMIN e VENDEDOR)")
-    public ResponseEntity<List<MedicamentoResponse>> findAll() {
-        List<MedicamentoResponse> response = medicamentoService.findAll();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<MedicamentoResponse>> findAll(WebRequest request) {
+        return versaoTabelas.responder(request, medicamentoService::findAll,
+                VersaoTabelas.MEDICAMENTOS, VersaoTabelas.CATEGORIAS);
     }
 
     @GetMapping("/ativos")
     @Operation(summary = "Listar medicamentos ativos", description = "Retorna apenas medicamentos ativos (ADMIN e VENDEDOR)")
-    public ResponseEntity<List<MedicamentoResponse>> findActive() {
-        List<MedicamentoResponse> response = medicamentoService.findActive();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<List<MedicamentoResponse>> findActive(WebRequest request) {
+        return versaoTabelas.responder(request, medicamentoService::findActive,
+                VersaoTabelas.MEDICAMENTOS, VersaoTabelas.CATEGORIAS);
+    }
+
+    @GetMapping("/sync")
+    @Operation(summary = "Sincronizar catálogo", description = "Sem 'desde': catálogo ativo completo. Com 'desde' (versão devolvida " +
+            "na sincronização anterior): somente medicamentos e categorias alterados e as exclusões (ADMIN e VENDEDOR)")
+    public ResponseEntity<SincronizacaoCatalogoResponse> sincronizar(
+            @Parameter(description = "Versão devolvida pela sincronização anterior", example = "184467")
+            @RequestParam(required = false) Long desde) {
+        return ResponseEntity.ok(medicamentoService.sincronizar(desde));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,31 @@
+package com.farmacia.controller;
+
+import com.farmacia.domain.dto.OutboxStatusResponse;
+import com.farmacia.service.OutboxService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/outbox")
+@Tag(name = "Outbox", description = "Entrega dos eventos de domínio (vendas, estoque e medicamentos) aos handlers")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxController {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @GetMapping
+    @Operation(summary = "Situação do outbox",
+               description = "Eventos pendentes, com falha, atraso do mais antigo e atraso médio/máximo de entrega na última hora (apenas ADMIN)")
+    public ResponseEntity<OutboxStatusResponse> getStatus() {
+        return ResponseEntity.ok(outboxService.getStatus());
+    }
+}
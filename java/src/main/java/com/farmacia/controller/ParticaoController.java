@@ -0,0 +1,53 @@
+package com.farmacia.controller;
+
+import com.farmacia.domain.dto.ParticaoResponse;
+import com.farmacia.service.ParticaoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/particoes")
+@Tag(name = "Partições", description = "Partições mensais e arquivamento de logs e movimentações de estoque")
+@SecurityRequirement(name = "Bearer Authentication")
+@PreAuthorize("hasRole('ADMIN')")
+public class ParticaoController {
+
+    @Autowired
+    private ParticaoService particaoService;
+
+    @GetMapping
+    @Operation(summary = "Listar partições ativas",
+               description = "Lista as partições mensais de logs e movimentacoes_estoque com linhas estimadas e tamanho (apenas ADMIN)")
+    public ResponseEntity<List<ParticaoResponse>> listarAtivas() {
+        return ResponseEntity.ok(particaoService.listarParticoesAtivas());
+    }
+
+    @GetMapping("/arquivadas")
+    @Operation(summary = "Listar partições arquivadas",
+               description = "Lista as partições exportadas para o diretório de arquivo (apenas ADMIN)")
+    public ResponseEntity<List<ParticaoResponse>> listarArquivadas() {
+        return ResponseEntity.ok(particaoService.listarArquivadas());
+    }
+
+    @PostMapping("/manutencao")
+    @Operation(summary = "Executar manutenção",
+               description = "Cria as partições dos próximos meses e arquiva as que saíram do período de retenção (apenas ADMIN)")
+    public ResponseEntity<List<String>> executarManutencao() {
+        return ResponseEntity.ok(particaoService.executarManutencao());
+    }
+
+    @PostMapping("/{particao}/restaurar")
+    @Operation(summary = "Restaurar partição arquivada",
+               description = "Recria a partição a partir do arquivo compactado e a anexa novamente à tabela (apenas ADMIN)")
+    public ResponseEntity<Void> restaurar(@PathVariable String particao) {
+        particaoService.restaurar(particao);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,8 +1,11 @@
 package com.farmacia.controller;
 
 import com.farmacia.domain.dto.MensagemResponse;
+import com.farmacia.domain.dto.VendaIngestaoResponse;
 import com.farmacia.domain.dto.VendaRequest;
 import com.farmacia.domain.dto.VendaResponse;
+import com.farmacia.service.ExportacaoVendasService;
+import com.farmacia.service.IngestaoVendasService;
 import com.farmacia.service.VendaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +14,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,6 +36,12 @@ public class VendaController {
     @Autowired
     private VendaService vendaService;
 
+    @Autowired
+    private IngestaoVendasService ingestaoVendasService;
+
+    @Autowired
+    private ExportacaoVendasService exportacaoVendasService;
+
     @PostMapping
     @Operation(
         summary = "Criar venda", 
@@ -54,10 +69,12 @@ public class VendaController {
                       "- itens: Array (obrigatório, pelo menos 1 item)\n" +
                       "  - medicamentoId: UUID (obrigatório, ID de um medicamento existente e ativo)\n" +
                       "  - quantidade: Integer (obrigatório, >= 1)\n\n" +
+                      "**Campos opcionais:**\n" +
+                      "- carrinhoId: UUID (carrinho com reservas em /api/carrinhos; as reservas são convertidas na venda)\n\n" +
                       "**Validações:**\n" +
                       "- Cliente deve ter mais de 18 anos\n" +
                       "- Medicamentos devem estar ativos e dentro da validade\n" +
-                      "- Deve haver estoque suficiente para cada medicamento"
+                      "- Deve haver estoque suficiente para cada medicamento, descontadas as reservas de outros carrinhos"
     )
     public ResponseEntity<VendaResponse> create(
             @Parameter(
@@ -73,13 +90,64 @@ public class VendaController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/ingestao")
+    @Operation(
+        summary = "Enviar venda para gravação assíncrona",
+        description = "Modo de pico (app.vendas.ingestao.enabled): confere a venda contra o estoque em memória e responde na hora " +
+                      "com um ID provisório (202); a venda é gravada em lote logo depois. Consulte o resultado em " +
+                      "GET /api/vendas/ingestao/{id}. Mesmo JSON de POST /api/vendas, sem carrinhoId. (ADMIN e VENDEDOR)\n\n" +
+                      "**Recusada na hora (400):** ingestão desabilitada, medicamento inativo, estoque insuficiente " +
+                      "(descontadas as vendas ainda em processamento) ou fila cheia.\n\n" +
+                      "**Recusada na gravação (REJEITADA):** demais validações de POST /api/vendas, como a idade do cliente."
+    )
+    public ResponseEntity<VendaIngestaoResponse> enviarParaIngestao(@Valid @RequestBody VendaRequest request) {
+        VendaIngestaoResponse response = ingestaoVendasService.aceitar(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @GetMapping("/ingestao/{id}")
+    @Operation(summary = "Consultar venda enviada para gravação assíncrona",
+               description = "Situação da venda pelo ID provisório: PENDENTE, CONCLUIDA (com o ID da venda) ou REJEITADA (com o motivo). " +
+                             "Disponível por app.vendas.ingestao.retencao-minutos após a gravação, na instância que recebeu a venda. (ADMIN e VENDEDOR)")
+    public ResponseEntity<VendaIngestaoResponse> getIngestao(@PathVariable UUID id) {
+        return ResponseEntity.ok(ingestaoVendasService.getSituacao(id));
+    }
+
     @GetMapping
-    @Operation(summary = "Listar vendas", description = "Retorna todas as vendas (ADMIN e VENDEDOR)")
+    @Operation(summary = "Listar vendas", description = "Retorna todas as vendas (ADMIN e VENDEDOR). Para relatórios de um período, use GET /api/vendas/export")
     public ResponseEntity<List<VendaResponse>> findAll() {
         List<VendaResponse> response = vendaService.findAll();
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exportar vendas e itens de um período",
+               description = "Download das vendas criadas entre de e ate (inclusive, yyyy-MM-dd, no máximo 366 dias), escrito " +
+                             "à medida que é lido do banco, sem montar o arquivo em memória. (apenas ADMIN)\n\n" +
+                             "- **csv**: uma linha por item, com os dados da venda repetidos\n" +
+                             "- **ndjson**: uma venda por linha (JSON Lines), no formato de GET /api/vendas/{id}\n" +
+                             "- **gzip=true**: arquivo compactado (.gz)")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate,
+            @RequestParam(defaultValue = ExportacaoVendasService.CSV) String formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        // Erros de parâmetro antes do primeiro byte, ainda como 400
+        exportacaoVendasService.validar(de, ate, formato);
+
+        String fileName = "vendas_" + de + "_" + ate + "." + formato + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : ExportacaoVendasService.CSV.equals(formato) ? MediaType.parseMediaType("text/csv; charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson; charset=UTF-8");
+
+        StreamingResponseBody body = saida -> exportacaoVendasService.exportar(de, ate, formato, gzip, saida);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName)
+                .contentType(contentType)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Buscar venda por ID", description = "Retorna uma venda específica (ADMIN e VENDEDOR)")
     public ResponseEntity<VendaResponse> findById(@PathVariable UUID id) {
@@ -88,7 +156,7 @@ public class VendaController {
     }
 
     @GetMapping("/cliente/{clienteId}")
-    @Operation(summary = "Buscar vendas por cliente", description = "Retorna todas as vendas de um cliente específico (ADMIN e VENDEDOR)")
+    @Operation(summary = "Buscar vendas por cliente", description = "Retorna todas as vendas de um cliente específico (ADMIN e VENDEDOR). Para a tela do cliente, use GET /api/clientes/{id}/vendas (paginado) e GET /api/clientes/{id}/resumo")
     public ResponseEntity<List<VendaResponse>> findByClienteId(@PathVariable UUID clienteId) {
         List<VendaResponse> response = vendaService.findByClienteId(clienteId);
         return ResponseEntity.ok(response);
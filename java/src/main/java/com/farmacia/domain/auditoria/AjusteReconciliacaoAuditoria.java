@@ -0,0 +1,7 @@
+package com.farmacia.domain.auditoria;
+
+import java.util.UUID;
+
+public record AjusteReconciliacaoAuditoria(UUID medicamentoId, Integer estoqueAtual, Long saldoMovimentacoes, Long ajuste)
+        implements DetalhesAuditoria {
+}
@@ -0,0 +1,4 @@
+package com.farmacia.domain.auditoria;
+
+public record AlteracaoStatusAuditoria(String statusAnterior, String statusNovo) implements DetalhesAuditoria {
+}
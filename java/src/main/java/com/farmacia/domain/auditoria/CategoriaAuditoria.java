@@ -0,0 +1,4 @@
+package com.farmacia.domain.auditoria;
+
+public record CategoriaAuditoria(String nome, String descricao) implements DetalhesAuditoria {
+}
@@ -0,0 +1,4 @@
+package com.farmacia.domain.auditoria;
+
+public record ClienteAuditoria(String nome, String cpf, String email) implements DetalhesAuditoria {
+}
@@ -0,0 +1,8 @@
+package com.farmacia.domain.auditoria;
+
+/**
+ * Detalhes tipados de um registro de auditoria.
+ * Serializados pelo LogService na coluna logs.detalhes (jsonb), acrescidos do campo "data".
+ */
+public interface DetalhesAuditoria {
+}
@@ -0,0 +1,19 @@
+package com.farmacia.domain.auditoria;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/** Entrada ou saída de estoque. Lote e validade só existem nas entradas */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EstoqueAuditoria(
+        UUID medicamentoId,
+        Integer quantidade,
+        String motivo,
+        String lote,
+        LocalDate validadeLote,
+        Integer estoqueAnterior,
+        Integer estoqueAtual
+) implements DetalhesAuditoria {
+}
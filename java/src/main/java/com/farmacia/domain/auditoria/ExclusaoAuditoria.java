@@ -0,0 +1,5 @@
+package com.farmacia.domain.auditoria;
+
+/** Exclusão de uma entidade: registra apenas o nome, já que a entidade deixa de existir */
+public record ExclusaoAuditoria(String nome) implements DetalhesAuditoria {
+}
@@ -0,0 +1,7 @@
+package com.farmacia.domain.auditoria;
+
+import java.math.BigDecimal;
+
+public record MedicamentoAuditoria(String nome, BigDecimal preco, Integer quantidadeEstoque, Boolean ativo)
+        implements DetalhesAuditoria {
+}
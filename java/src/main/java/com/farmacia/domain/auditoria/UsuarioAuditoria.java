@@ -0,0 +1,4 @@
+package com.farmacia.domain.auditoria;
+
+public record UsuarioAuditoria(String nome, String email, String role) implements DetalhesAuditoria {
+}
@@ -0,0 +1,25 @@
+package com.farmacia.domain.auditoria;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/** Venda criada ou cancelada. Os itens permitem buscar vendas por medicamentoId */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record VendaAuditoria(
+        UUID vendaId,
+        UUID clienteId,
+        String clienteNome,
+        String clienteCpf,
+        String status,
+        BigDecimal valorTotal,
+        List<Item> itens
+) implements DetalhesAuditoria {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(UUID medicamentoId, String medicamentoNome, Integer quantidade,
+                       BigDecimal precoUnitario, BigDecimal subtotal) {
+    }
+}
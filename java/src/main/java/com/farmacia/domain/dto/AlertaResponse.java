@@ -23,7 +23,7 @@ public class AlertaResponse {
     @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
     private String medicamentoNome;
 
-    @Schema(description = "Tipo do alerta", example = "ESTOQUE_BAIXO", allowableValues = {"ESTOQUE_BAIXO", "VALIDADE_PROXIMA"})
+    @Schema(description = "Tipo do alerta", example = "ESTOQUE_BAIXO", allowableValues = {"ESTOQUE_BAIXO", "VALIDADE_PROXIMA", "VALIDADE_VENCIDA", "PREVISAO_RUPTURA"})
     private String tipo;
 
     @Schema(description = "Mensagem do alerta", example = "Estoque baixo: apenas 5 unidades restantes")
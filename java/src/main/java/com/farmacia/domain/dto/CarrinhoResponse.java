@@ -0,0 +1,26 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Carrinho em andamento e suas reservas de estoque ativas")
+public class CarrinhoResponse {
+
+    @Schema(description = "ID do carrinho", example = "7c9e6679-7425-40de-944b-e07fc1f90ae7")
+    private UUID carrinhoId;
+
+    @Schema(description = "Itens com reserva ativa")
+    private List<ItemCarrinhoResponse> itens;
+
+    @Schema(description = "Fim das reservas, renovado a cada alteração do carrinho (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:15:00")
+    private LocalDateTime expiraEm;
+}
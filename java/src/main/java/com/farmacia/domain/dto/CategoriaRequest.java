@@ -1,6 +1,7 @@
 package com.farmacia.domain.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
@@ -17,6 +18,10 @@ public class CategoriaRequest {
 
     @Schema(description = "Descrição da categoria", example = "Medicamentos para dor")
     private String descricao;
+
+    @Min(value = 0, message = "O campo Estoque Mínimo não pode ser negativo, por favor alterar.")
+    @Schema(description = "Estoque mínimo padrão para os medicamentos da categoria (opcional)", example = "15")
+    private Integer estoqueMinimo;
 }
 
 
@@ -23,6 +23,9 @@ public class CategoriaResponse {
     @Schema(description = "Descrição da categoria", example = "Medicamentos para dor")
     private String descricao;
 
+    @Schema(description = "Estoque mínimo padrão para os medicamentos da categoria", example = "15")
+    private Integer estoqueMinimo;
+
     @Schema(description = "Data de criação (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:30:00")
     private LocalDateTime createdAt;
 }
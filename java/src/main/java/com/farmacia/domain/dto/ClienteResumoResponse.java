@@ -0,0 +1,31 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cliente encontrado na busca do caixa (somente o necessário para escolher o cliente da venda)")
+public class ClienteResumoResponse {
+
+    @Schema(description = "ID do cliente", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID id;
+
+    @Schema(description = "Nome completo", example = "Maria Santos")
+    private String nome;
+
+    @Schema(description = "CPF", example = "123.456.789-00")
+    private String cpf;
+
+    @Schema(description = "Telefone", example = "(11) 98765-4321")
+    private String telefone;
+
+    @Schema(description = "Data de nascimento, para conferir a idade mínima da venda (formato: dd/MM/yyyy)", example = "15/05/1990")
+    private LocalDate dataNascimento;
+}
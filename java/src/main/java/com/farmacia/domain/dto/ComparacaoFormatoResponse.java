@@ -0,0 +1,34 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Tamanho e custo de serialização de uma listagem em um formato")
+public class ComparacaoFormatoResponse {
+
+    @Schema(description = "Listagem serializada", example = "MedicamentoResponse")
+    private String lista;
+
+    @Schema(description = "Formato", example = "application/x-jackson-smile")
+    private String formato;
+
+    @Schema(description = "Itens na listagem", example = "5000")
+    private Integer itens;
+
+    @Schema(description = "Tamanho da resposta em bytes", example = "1843200")
+    private Long bytes;
+
+    @Schema(description = "Tamanho com gzip em bytes", example = "212992")
+    private Long bytesGzip;
+
+    @Schema(description = "Tamanho em relação ao JSON (1.0 = igual)", example = "0.62")
+    private Double proporcaoJson;
+
+    @Schema(description = "Tempo de CPU médio por serialização da listagem, em microssegundos", example = "18350.4")
+    private Double microssegundosCpu;
+}
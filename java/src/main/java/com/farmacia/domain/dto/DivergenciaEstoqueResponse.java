@@ -0,0 +1,39 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Divergência entre o estoque do medicamento e o histórico de movimentações")
+public class DivergenciaEstoqueResponse {
+
+    @Schema(description = "ID do medicamento", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID medicamentoId;
+
+    @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
+    private String medicamentoNome;
+
+    @Schema(description = "Estoque registrado no medicamento", example = "100")
+    private Integer estoqueAtual;
+
+    @Schema(description = "Saldo calculado pelas movimentações (entradas - saídas)", example = "90")
+    private Long saldoMovimentacoes;
+
+    @Schema(description = "Diferença (estoque atual - saldo das movimentações)", example = "10")
+    private Long diferenca;
+
+    @Schema(description = "Soma dos saldos dos lotes", example = "100")
+    private Long saldoLotes;
+
+    @Schema(description = "Movimentações cujo estoque total registrado não confere com o saldo acumulado", example = "3")
+    private Long movimentacoesComSaldoInconsistente;
+
+    @Schema(description = "Indica se uma movimentação de ajuste foi gravada", example = "false")
+    private Boolean corrigida;
+}
@@ -0,0 +1,31 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Posição de estoque de um medicamento ao final de uma data")
+public class EstoquePosicaoResponse {
+
+    @Schema(description = "ID do medicamento", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID medicamentoId;
+
+    @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
+    private String medicamentoNome;
+
+    @Schema(description = "Data consultada (formato: dd/MM/yyyy)", example = "31/01/2024")
+    private LocalDate data;
+
+    @Schema(description = "Quantidade em estoque ao final da data", example = "87")
+    private Integer quantidade;
+
+    @Schema(description = "Data da fotografia diária usada como ponto de partida (nula se não houver)", example = "30/01/2024")
+    private LocalDate dataSnapshot;
+}
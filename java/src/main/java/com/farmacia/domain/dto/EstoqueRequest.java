@@ -3,8 +3,10 @@ package com.farmacia.domain.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 @Data
@@ -25,6 +27,13 @@ public class EstoqueRequest {
 
     @Schema(description = "Motivo da movimentação (opcional)", example = "Entrada de estoque")
     private String motivo;
+
+    @Size(max = 50, message = "O número do lote deve ter no máximo 50 caracteres")
+    @Schema(description = "Número do lote (opcional; sem lote, a entrada vai para o lote genérico da validade)", example = "L2024-0153")
+    private String numeroLote;
+
+    @Schema(description = "Validade do lote (opcional, formato: YYYY-MM-DD; padrão: validade atual do medicamento)", example = "2025-12-31")
+    private LocalDate validade;
 }
 
 
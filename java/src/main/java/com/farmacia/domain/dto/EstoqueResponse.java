@@ -19,8 +19,14 @@ public class EstoqueResponse {
     @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
     private String medicamentoNome;
 
-    @Schema(description = "Quantidade disponível em estoque", example = "100")
+    @Schema(description = "Quantidade em estoque", example = "100")
     private Integer quantidadeEstoque;
+
+    @Schema(description = "Quantidade reservada em carrinhos em andamento", example = "4")
+    private Integer quantidadeReservada;
+
+    @Schema(description = "Quantidade que pode ser vendida ou reservada (lotes dentro da validade menos reservas)", example = "96")
+    private Integer quantidadeDisponivel;
 }
 
 
@@ -0,0 +1,46 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fila e contadores da ingestão assíncrona de vendas desta instância")
+public class IngestaoVendasStatusResponse {
+
+    @Schema(description = "Ingestão habilitada (app.vendas.ingestao.enabled)", example = "true")
+    private Boolean habilitada;
+
+    @Schema(description = "Vendas aguardando gravação", example = "37")
+    private Integer naFila;
+
+    @Schema(description = "Capacidade da fila; cheia, novas vendas são recusadas", example = "10000")
+    private Integer capacidade;
+
+    @Schema(description = "Vendas aceitas desde a inicialização", example = "125000")
+    private Long aceitas;
+
+    @Schema(description = "Vendas recusadas na aceitação (estoque em memória insuficiente ou fila cheia)", example = "42")
+    private Long recusadas;
+
+    @Schema(description = "Vendas gravadas", example = "124950")
+    private Long concluidas;
+
+    @Schema(description = "Vendas aceitas e recusadas na gravação", example = "13")
+    private Long rejeitadas;
+
+    @Schema(description = "Lotes gravados", example = "4100")
+    private Long lotes;
+
+    @Schema(description = "Vendas por lote, em média", example = "30.5")
+    private Double tamanhoMedioLote;
+
+    @Schema(description = "Lotes desfeitos por uma venda recusada e regravados venda a venda", example = "9")
+    private Long lotesDesfeitos;
+
+    @Schema(description = "Medicamentos na visão de estoque em memória", example = "850")
+    private Integer medicamentosEmMemoria;
+}
@@ -0,0 +1,24 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Item reservado no carrinho")
+public class ItemCarrinhoResponse {
+
+    @Schema(description = "ID do medicamento", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID medicamentoId;
+
+    @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
+    private String medicamentoNome;
+
+    @Schema(description = "Quantidade reservada para este carrinho", example = "2")
+    private Integer quantidade;
+}
@@ -0,0 +1,39 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Execução de um job agendado")
+public class JobExecucaoResponse {
+
+    @Schema(description = "ID da execução", example = "1024")
+    private Long id;
+
+    @Schema(description = "Nome do job", example = "alertas")
+    private String job;
+
+    @Schema(description = "Instância que executou", example = "farmacia-2-4711")
+    private String instancia;
+
+    @Schema(description = "Início (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 08:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fim (formato: dd/MM/yyyy HH:mm:ss); nulo enquanto executa", example = "01/01/2024 08:00:02")
+    private LocalDateTime fim;
+
+    @Schema(description = "Duração em milissegundos", example = "1840")
+    private Long duracaoMs;
+
+    @Schema(description = "Situação", example = "CONCLUIDA", allowableValues = {"EXECUTANDO", "CONCLUIDA", "FALHOU", "INTERROMPIDA"})
+    private String status;
+
+    @Schema(description = "Mensagem de erro (falha ou interrupção)")
+    private String erro;
+}
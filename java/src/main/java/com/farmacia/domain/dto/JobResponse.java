@@ -0,0 +1,58 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de um job agendado entre as instâncias, com estatísticas dos últimos 30 dias")
+public class JobResponse {
+
+    @Schema(description = "Nome do job", example = "alertas")
+    private String nome;
+
+    @Schema(description = "Indica se o job está registrado na instância que respondeu", example = "true")
+    private Boolean registrado;
+
+    @Schema(description = "Instância que detém (ou deteve por último) o lease", example = "farmacia-2-4711")
+    private String dono;
+
+    @Schema(description = "Indica se o job está executando agora (lease válido)", example = "false")
+    private Boolean emExecucao;
+
+    @Schema(description = "Indica execução interrompida aguardando retomada (lease expirado sem conclusão)", example = "false")
+    private Boolean interrompido;
+
+    @Schema(description = "Fim do lease atual (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 08:01:00")
+    private LocalDateTime leaseExpiraEm;
+
+    @Schema(description = "Último heartbeat do dono (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 08:00:40")
+    private LocalDateTime heartbeatEm;
+
+    @Schema(description = "Início da última execução concluída (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 08:00:00")
+    private LocalDateTime ultimoSucessoEm;
+
+    @Schema(description = "Situação da última execução", example = "CONCLUIDA",
+            allowableValues = {"EXECUTANDO", "CONCLUIDA", "FALHOU", "INTERROMPIDA"})
+    private String ultimoStatus;
+
+    @Schema(description = "Início da última execução (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 08:00:00")
+    private LocalDateTime ultimoInicio;
+
+    @Schema(description = "Execuções nos últimos 30 dias", example = "30")
+    private Long execucoes;
+
+    @Schema(description = "Execuções com falha ou interrompidas nos últimos 30 dias", example = "0")
+    private Long falhas;
+
+    @Schema(description = "Duração média das execuções concluídas, em milissegundos", example = "1840")
+    private Long duracaoMediaMs;
+
+    @Schema(description = "Maior duração de uma execução concluída, em milissegundos", example = "4210")
+    private Long duracaoMaximaMs;
+}
@@ -0,0 +1,38 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Dados de um lote de medicamento")
+public class LoteResponse {
+
+    @Schema(description = "ID do lote", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID id;
+
+    @Schema(description = "ID do medicamento", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID medicamentoId;
+
+    @Schema(description = "Número do lote", example = "L2024-0153")
+    private String numeroLote;
+
+    @Schema(description = "Data de validade do lote (formato: dd/MM/yyyy)", example = "31/12/2025")
+    private LocalDate validade;
+
+    @Schema(description = "Saldo do lote", example = "40")
+    private Integer quantidade;
+
+    @Schema(description = "Indica se o lote está vencido", example = "false")
+    private Boolean vencido;
+
+    @Schema(description = "Data de cadastro do lote (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:30:00")
+    private LocalDateTime createdAt;
+}
@@ -36,6 +36,10 @@ public class MedicamentoRequest {
     @Schema(description = "Quantidade disponível em estoque (obrigatório, mínimo: 0)", example = "100")
     private Integer quantidadeEstoque;
 
+    @Min(value = 0, message = "O campo Estoque Mínimo não pode ser negativo, por favor alterar.")
+    @Schema(description = "Estoque mínimo para alerta de estoque baixo (opcional; se vazio, usa o da categoria ou o padrão de 10)", example = "20")
+    private Integer estoqueMinimo;
+
     @NotNull(message = "O campo Data de Validade é obrigatório, por favor preencha.")
     @Future(message = "O campo Data de Validade deve ser uma data futura, por favor alterar.")
     @Schema(description = "Data de validade (obrigatório, formato: YYYY-MM-DD, deve ser futura)", example = "2025-12-31")
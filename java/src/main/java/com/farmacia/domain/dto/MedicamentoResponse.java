@@ -32,6 +32,12 @@ public class MedicamentoResponse {
     @Schema(description = "Quantidade em estoque", example = "100")
     private Integer quantidadeEstoque;
 
+    @Schema(description = "Estoque mínimo específico do medicamento (null quando herdado da categoria)", example = "20")
+    private Integer estoqueMinimo;
+
+    @Schema(description = "Limite efetivo de estoque baixo", example = "20")
+    private Integer limiteEstoqueBaixo;
+
     @Schema(description = "Data de validade (formato: dd/MM/yyyy)", example = "31/12/2025")
     private LocalDate validade;
 
@@ -0,0 +1,39 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Fila do outbox de eventos de domínio e atraso de entrega aos handlers")
+public class OutboxStatusResponse {
+
+    @Schema(description = "Eventos aguardando entrega", example = "3")
+    private Long pendentes;
+
+    @Schema(description = "Pendentes que já falharam ao menos uma vez (aguardando nova tentativa)", example = "0")
+    private Long comFalha;
+
+    @Schema(description = "Gravação do pendente mais antigo (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:00:00")
+    private LocalDateTime pendenteMaisAntigo;
+
+    @Schema(description = "Idade do pendente mais antigo, em milissegundos (0 sem pendentes)", example = "120")
+    private Long atrasoAtualMs;
+
+    @Schema(description = "Eventos entregues na última hora", example = "5400")
+    private Long processadosUltimaHora;
+
+    @Schema(description = "Atraso médio entre gravação e entrega na última hora, em milissegundos", example = "85")
+    private Long atrasoMedioMs;
+
+    @Schema(description = "Maior atraso entre gravação e entrega na última hora, em milissegundos", example = "640")
+    private Long atrasoMaximoMs;
+
+    @Schema(description = "Erro do pendente mais antigo com falha", example = "VendaConcluidaEvento 42: IllegalStateException: ...")
+    private String ultimoErro;
+}
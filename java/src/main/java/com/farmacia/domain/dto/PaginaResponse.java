@@ -0,0 +1,30 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de resultados")
+public class PaginaResponse<T> {
+
+    @Schema(description = "Itens da página")
+    private List<T> conteudo;
+
+    @Schema(description = "Número da página (começa em 0)", example = "0")
+    private Integer pagina;
+
+    @Schema(description = "Tamanho da página", example = "50")
+    private Integer tamanho;
+
+    @Schema(description = "Total de itens", example = "1234")
+    private Long totalItens;
+
+    @Schema(description = "Total de páginas", example = "25")
+    private Integer totalPaginas;
+}
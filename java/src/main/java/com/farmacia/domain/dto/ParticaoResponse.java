@@ -0,0 +1,33 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Partição mensal de uma tabela de histórico (ativa ou arquivada)")
+public class ParticaoResponse {
+
+    @Schema(description = "Tabela particionada", example = "logs", allowableValues = {"logs", "movimentacoes_estoque"})
+    private String tabela;
+
+    @Schema(description = "Nome da partição", example = "logs_p2024_01")
+    private String particao;
+
+    @Schema(description = "Primeiro dia do mês da partição (nulo para a partição padrão)", example = "01/01/2024")
+    private LocalDate mes;
+
+    @Schema(description = "Linhas (estimativa do banco para partições ativas)", example = "125000")
+    private Long linhas;
+
+    @Schema(description = "Tamanho em bytes (tabela + índices, ou arquivo compactado)", example = "52428800")
+    private Long tamanhoBytes;
+
+    @Schema(description = "Indica se a partição está arquivada em disco (removida do banco)", example = "false")
+    private Boolean arquivada;
+}
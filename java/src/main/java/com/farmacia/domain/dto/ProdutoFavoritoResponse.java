@@ -0,0 +1,27 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Medicamento entre os mais comprados pelo cliente")
+public class ProdutoFavoritoResponse {
+
+    @Schema(description = "ID do medicamento", example = "550e8400-e29b-41d4-a716-446655440001")
+    private UUID medicamentoId;
+
+    @Schema(description = "Nome do medicamento", example = "Dipirona 500mg")
+    private String medicamentoNome;
+
+    @Schema(description = "Unidades compradas", example = "24")
+    private Integer quantidade;
+
+    @Schema(description = "Compras em que o medicamento apareceu", example = "12")
+    private Integer compras;
+}
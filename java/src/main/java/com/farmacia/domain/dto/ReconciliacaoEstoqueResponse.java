@@ -0,0 +1,58 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progresso e resultado da reconciliação de estoque")
+public class ReconciliacaoEstoqueResponse {
+
+    @Schema(description = "Situação da execução", example = "CONCLUIDA", allowableValues = {"NUNCA_EXECUTADA", "EM_EXECUCAO", "CONCLUIDA", "FALHOU"})
+    private String status;
+
+    @Schema(description = "Indica se a execução grava movimentações de ajuste", example = "false")
+    private Boolean corrigir;
+
+    @Schema(description = "Início da execução (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 03:00:00")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fim da execução (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 03:00:42")
+    private LocalDateTime fim;
+
+    @Schema(description = "Duração em milissegundos (até agora, se em execução)", example = "42000")
+    private Long duracaoMs;
+
+    @Schema(description = "Total de partições de medicamentos", example = "64")
+    private Integer particoesTotal;
+
+    @Schema(description = "Partições já processadas", example = "64")
+    private Integer particoesConcluidas;
+
+    @Schema(description = "Medicamentos verificados", example = "1500")
+    private Long medicamentosVerificados;
+
+    @Schema(description = "Movimentações lidas", example = "25000000")
+    private Long movimentacoesLidas;
+
+    @Schema(description = "Vazão de leitura (movimentações por segundo)", example = "595238")
+    private Long movimentacoesPorSegundo;
+
+    @Schema(description = "Total de medicamentos com divergência", example = "3")
+    private Long totalDivergencias;
+
+    @Schema(description = "Movimentações de ajuste gravadas", example = "0")
+    private Integer correcoesAplicadas;
+
+    @Schema(description = "Mensagem de erro, se a execução falhou")
+    private String erro;
+
+    @Schema(description = "Divergências encontradas (limitadas às primeiras 1000)")
+    private List<DivergenciaEstoqueResponse> divergencias;
+}
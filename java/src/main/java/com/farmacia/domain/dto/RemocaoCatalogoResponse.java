@@ -0,0 +1,21 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Item excluído do catálogo desde a última sincronização")
+public class RemocaoCatalogoResponse {
+
+    @Schema(description = "Tipo do item excluído", example = "MEDICAMENTO", allowableValues = {"MEDICAMENTO", "CATEGORIA"})
+    private String entidade;
+
+    @Schema(description = "ID do item excluído", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID id;
+}
@@ -0,0 +1,42 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Roteamento das transações readOnly para a réplica de leitura")
+public class ReplicaStatusResponse {
+
+    @Schema(description = "Réplica configurada (app.datasource.replica.enabled)", example = "true")
+    private Boolean habilitada;
+
+    @Schema(description = "URL JDBC da réplica", example = "jdbc:postgresql://localhost:5433/farmacia_db")
+    private String url;
+
+    @Schema(description = "Leituras sendo enviadas à réplica (atraso dentro do limite na última verificação)", example = "true")
+    private Boolean disponivel;
+
+    @Schema(description = "Atraso de replicação na última verificação, em milissegundos", example = "120")
+    private Long atrasoMs;
+
+    @Schema(description = "Atraso máximo aceito antes de desviar as leituras para o primário", example = "5000")
+    private Long atrasoMaximoMs;
+
+    @Schema(description = "Data/hora da última verificação (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:00:00")
+    private LocalDateTime ultimaVerificacao;
+
+    @Schema(description = "Conexões obtidas na réplica desde a inicialização", example = "15230")
+    private Long leiturasReplica;
+
+    @Schema(description = "Transações readOnly enviadas ao primário por réplica indisponível ou atrasada", example = "42")
+    private Long leiturasDesviadas;
+
+    @Schema(description = "Motivo da última indisponibilidade", example = "atraso de 8000 ms acima do máximo de 5000 ms")
+    private String ultimoErro;
+}
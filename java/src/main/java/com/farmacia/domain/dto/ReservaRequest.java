@@ -0,0 +1,16 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@Schema(description = "Quantidade reservada de um medicamento no carrinho", example = "{\"quantidade\":2}")
+public class ReservaRequest {
+
+    @NotNull(message = "O campo Quantidade é obrigatório, por favor preencha.")
+    @Min(value = 1, message = "O campo Quantidade deve ser maior que zero, por favor alterar.")
+    @Schema(description = "Quantidade total do item no carrinho (substitui a reservada antes)", example = "2")
+    private Integer quantidade;
+}
@@ -0,0 +1,48 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resumo das compras concluídas do cliente")
+public class ResumoClienteResponse {
+
+    @Schema(description = "ID do cliente", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID clienteId;
+
+    @Schema(description = "Nome do cliente", example = "Maria Santos")
+    private String clienteNome;
+
+    @Schema(description = "Compras concluídas", example = "148")
+    private Integer totalCompras;
+
+    @Schema(description = "Valor total gasto (R$)", example = "6420.80")
+    private BigDecimal valorTotal;
+
+    @Schema(description = "Valor médio por compra (R$)", example = "43.38")
+    private BigDecimal ticketMedio;
+
+    @Schema(description = "Primeira compra (formato: dd/MM/yyyy HH:mm:ss)", example = "15/03/2022 09:12:00")
+    private LocalDateTime primeiraCompra;
+
+    @Schema(description = "Última compra (formato: dd/MM/yyyy HH:mm:ss)", example = "02/01/2024 17:45:00")
+    private LocalDateTime ultimaCompra;
+
+    @Schema(description = "Dias desde a última compra", example = "12")
+    private Long diasDesdeUltimaCompra;
+
+    @Schema(description = "Intervalo médio entre compras, em dias (a partir de 2 compras)", example = "4.9")
+    private Double intervaloMedioDias;
+
+    @Schema(description = "Medicamentos mais comprados, por unidades")
+    private List<ProdutoFavoritoResponse> favoritos;
+}
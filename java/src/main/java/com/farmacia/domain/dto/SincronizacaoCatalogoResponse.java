@@ -0,0 +1,32 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Alterações do catálogo desde a versão informada pelo terminal")
+public class SincronizacaoCatalogoResponse {
+
+    @Schema(description = "Versão a enviar em ?desde= na próxima sincronização", example = "184467")
+    private Long versao;
+
+    @Schema(description = "true quando é a carga completa (sem ?desde=): o terminal substitui o catálogo local. " +
+            "false: aplicar as alterações sobre o catálogo local", example = "false")
+    private Boolean completo;
+
+    @Schema(description = "Medicamentos novos ou alterados (inclusive estoque). Na sincronização incremental " +
+            "inclui os inativados (ativo = false), que o terminal deve ocultar")
+    private List<MedicamentoResponse> medicamentos;
+
+    @Schema(description = "Categorias novas ou alteradas")
+    private List<CategoriaResponse> categorias;
+
+    @Schema(description = "Medicamentos e categorias excluídos")
+    private List<RemocaoCatalogoResponse> removidos;
+}
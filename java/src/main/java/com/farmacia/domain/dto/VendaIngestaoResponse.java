@@ -0,0 +1,34 @@
+package com.farmacia.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de uma venda recebida pela ingestão assíncrona")
+public class VendaIngestaoResponse {
+
+    @Schema(description = "ID provisório, usado para consultar a situação", example = "3f2b8c1e-4d5a-4b6c-9e7f-8a9b0c1d2e3f")
+    private UUID id;
+
+    @Schema(description = "PENDENTE (na fila), CONCLUIDA (gravada) ou REJEITADA (recusada na gravação)", example = "CONCLUIDA")
+    private String status;
+
+    @Schema(description = "ID da venda gravada (somente CONCLUIDA)", example = "550e8400-e29b-41d4-a716-446655440000")
+    private UUID vendaId;
+
+    @Schema(description = "Motivo da recusa (somente REJEITADA)", example = "Cliente deve ter mais de 18 anos para realizar compras. Idade atual: 17 anos.")
+    private String erro;
+
+    @Schema(description = "Recebimento da venda (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:00:00")
+    private LocalDateTime recebidaEm;
+
+    @Schema(description = "Gravação ou recusa da venda (formato: dd/MM/yyyy HH:mm:ss)", example = "01/01/2024 10:00:01")
+    private LocalDateTime finalizadaEm;
+}
@@ -23,6 +23,9 @@ public class VendaRequest {
     @NotEmpty(message = "É necessário adicionar pelo menos um item à venda, por favor adicione um medicamento.")
     @Schema(description = "Lista de itens da venda")
     private List<@Valid ItemVendaRequest> itens;
+
+    @Schema(description = "Carrinho cujas reservas de estoque a venda consome (opcional)", example = "7c9e6679-7425-40de-944b-e07fc1f90ae7")
+    private UUID carrinhoId;
 }
 
 
@@ -25,7 +25,7 @@ public class Alerta {
     private String medicamentoNome;
 
     @Column(nullable = false)
-    private String tipo; // ESTOQUE_BAIXO, VALIDADE_PROXIMA
+    private String tipo; // ESTOQUE_BAIXO, VALIDADE_PROXIMA, VALIDADE_VENCIDA, PREVISAO_RUPTURA
 
     @Column(nullable = false)
     private String mensagem;
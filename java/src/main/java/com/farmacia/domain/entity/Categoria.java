@@ -24,9 +24,15 @@ public class Categoria {
 
     private String descricao;
 
+    private Integer estoqueMinimo; // Estoque mínimo padrão dos medicamentos da categoria (opcional)
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Mantida pelo banco (trigger) em toda escrita; usada na sincronização incremental do catálogo
+    @Column(insertable = false, updatable = false)
+    private Long versao;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,39 @@
+package com.farmacia.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "estatisticas_venda")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticaVenda {
+
+    @Id
+    private UUID medicamentoId;
+
+    @Column(nullable = false)
+    private Double mediaDiaria = 0.0; // Média móvel exponencial de unidades vendidas por dia
+
+    @Column(nullable = false)
+    private Integer quantidadeDia = 0; // Unidades vendidas no dia de referência (dia em aberto)
+
+    @Column(nullable = false)
+    private LocalDate diaReferencia;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,39 @@
+package com.farmacia.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "estoque_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstoqueSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID medicamentoId;
+
+    @Column(nullable = false)
+    private LocalDate data; // Estoque ao final deste dia
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -31,8 +33,9 @@ public class Log {
     @Column(nullable = false)
     private String descricao; // Descrição da operação
 
-    @Column(columnDefinition = "TEXT")
-    private String detalhes; // JSON ou detalhes da alteração
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String detalhes; // JSON com os detalhes da alteração (ver domain.auditoria)
 
     @Column(nullable = false)
     private UUID usuarioId; // ID do usuário que realizou a operação
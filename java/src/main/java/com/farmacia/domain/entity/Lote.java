@@ -0,0 +1,41 @@
+package com.farmacia.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "lotes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Lote {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID medicamentoId;
+
+    @Column(nullable = false, length = 50)
+    private String numeroLote;
+
+    private LocalDate validade;
+
+    @Column(nullable = false)
+    private Integer quantidade = 0;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -39,6 +39,12 @@ public class Medicamento {
     @Column(nullable = false)
     private Integer quantidadeEstoque;
 
+    @Min(value = 0, message = "Estoque mínimo não pode ser negativo")
+    private Integer estoqueMinimo; // Sobrescreve o estoque mínimo da categoria (opcional)
+
+    @Column(nullable = false)
+    private Integer limiteEstoqueBaixo = 10; // Limite efetivo: do medicamento, da categoria ou padrão
+
     private LocalDate validade;
 
     @Column(nullable = false)
@@ -56,6 +62,10 @@ public class Medicamento {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Mantida pelo banco (trigger) em toda escrita; usada na sincronização incremental do catálogo
+    @Column(insertable = false, updatable = false)
+    private Long versao;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
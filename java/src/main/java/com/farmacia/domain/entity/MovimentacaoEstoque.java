@@ -38,6 +38,10 @@ public class MovimentacaoEstoque {
 
     private String motivo;
 
+    private UUID loteId; // Lote movimentado
+
+    private UUID vendaId; // Venda que originou a movimentação, quando houver
+
     @PrePersist
     protected void onCreate() {
         data = LocalDateTime.now();
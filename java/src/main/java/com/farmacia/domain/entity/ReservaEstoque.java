@@ -0,0 +1,43 @@
+package com.farmacia.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "reservas_estoque")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false)
+    private UUID carrinhoId;
+
+    @Column(nullable = false)
+    private UUID medicamentoId;
+
+    @Column(nullable = false)
+    private Integer quantidade;
+
+    private UUID usuarioId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiraEm;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
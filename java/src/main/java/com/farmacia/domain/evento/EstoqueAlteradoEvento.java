@@ -0,0 +1,15 @@
+package com.farmacia.domain.evento;
+
+import java.util.UUID;
+
+/**
+ * Gravado no outbox por EstoqueService em entradas e saídas manuais de estoque (agregado: o medicamento).
+ */
+public record EstoqueAlteradoEvento(
+        UUID medicamentoId,
+        String tipo,
+        int quantidade,
+        int quantidadeAnterior,
+        int quantidadeAtual
+) {
+}
@@ -0,0 +1,19 @@
+package com.farmacia.domain.evento;
+
+import java.util.UUID;
+
+/**
+ * Gravado no outbox por MedicamentoService quando o cadastro muda (agregado: o medicamento).
+ */
+public record MedicamentoAlteradoEvento(
+        UUID medicamentoId,
+        Operacao operacao
+) {
+
+    public enum Operacao {
+        CRIADO,
+        ATUALIZADO,
+        ATIVADO,
+        INATIVADO
+    }
+}
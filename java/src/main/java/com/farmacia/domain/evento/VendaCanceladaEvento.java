@@ -0,0 +1,16 @@
+package com.farmacia.domain.evento;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gravado no outbox por VendaService ao cancelar uma venda concluída (agregado: a venda).
+ * dataVenda é a data original da venda; quantidades estornadas por medicamento.
+ */
+public record VendaCanceladaEvento(
+        UUID vendaId,
+        LocalDate dataVenda,
+        Map<UUID, Integer> quantidades
+) {
+}
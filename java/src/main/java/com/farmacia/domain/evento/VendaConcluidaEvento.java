@@ -0,0 +1,16 @@
+package com.farmacia.domain.evento;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gravado no outbox por VendaService ao concluir uma venda (agregado: a venda).
+ * Quantidades agregadas por medicamento.
+ */
+public record VendaConcluidaEvento(
+        UUID vendaId,
+        LocalDate dataVenda,
+        Map<UUID, Integer> quantidades
+) {
+}
@@ -4,6 +4,7 @@ import com.farmacia.domain.entity.Alerta;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +13,7 @@ public interface AlertaRepository extends JpaRepository<Alerta, UUID> {
     List<Alerta> findByLidoFalse();
     List<Alerta> findByMedicamentoId(UUID medicamentoId);
     List<Alerta> findByTipoAndLidoFalse(String tipo);
+    List<Alerta> findByTipoAndLidoFalseAndMedicamentoIdIn(String tipo, Collection<UUID> medicamentoIds);
     List<Alerta> findByTipo(String tipo);
 }
 
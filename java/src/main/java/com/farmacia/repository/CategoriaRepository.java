@@ -4,6 +4,7 @@ import com.farmacia.domain.entity.Categoria;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,6 +12,7 @@ import java.util.UUID;
 public interface CategoriaRepository extends JpaRepository<Categoria, UUID> {
     Optional<Categoria> findByNome(String nome);
     boolean existsByNome(String nome);
+    List<Categoria> findByVersaoGreaterThanEqual(Long versao);
 }
 
 
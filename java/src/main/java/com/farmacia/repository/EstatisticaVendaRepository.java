@@ -0,0 +1,29 @@
+package com.farmacia.repository;
+
+import com.farmacia.domain.entity.EstatisticaVenda;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EstatisticaVendaRepository extends JpaRepository<EstatisticaVenda, UUID> {
+
+    // Cria a linha do medicamento se ainda não existir (seguro para vendas concorrentes)
+    @Modifying
+    @Query(value = "INSERT INTO estatisticas_venda (medicamento_id, media_diaria, quantidade_dia, dia_referencia, updated_at) " +
+                   "VALUES (:medicamentoId, 0, 0, :dia, CURRENT_TIMESTAMP) ON CONFLICT (medicamento_id) DO NOTHING",
+           nativeQuery = true)
+    void inicializar(@Param("medicamentoId") UUID medicamentoId, @Param("dia") LocalDate dia);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EstatisticaVenda e WHERE e.medicamentoId = :medicamentoId")
+    Optional<EstatisticaVenda> findParaAtualizacao(@Param("medicamentoId") UUID medicamentoId);
+}
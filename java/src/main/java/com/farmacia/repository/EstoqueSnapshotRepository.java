@@ -0,0 +1,69 @@
+package com.farmacia.repository;
+
+import com.farmacia.domain.entity.EstoqueSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EstoqueSnapshotRepository extends JpaRepository<EstoqueSnapshot, UUID> {
+
+    /** Posição de estoque consultada em uma data para todo o catálogo */
+    interface PosicaoEstoqueProjection {
+        UUID getMedicamentoId();
+        String getMedicamentoNome();
+        LocalDate getDataSnapshot();
+        Integer getQuantidade();
+    }
+
+    Optional<EstoqueSnapshot> findFirstByMedicamentoIdAndDataLessThanEqualOrderByDataDesc(UUID medicamentoId, LocalDate data);
+
+    /**
+     * Grava (ou regrava) a fotografia do dia para todos os medicamentos:
+     * estoque atual menos o saldo das movimentações feitas depois do fim do dia.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO estoque_snapshots (medicamento_id, data, quantidade, created_at) " +
+                   "SELECT m.id, :dia, m.quantidade_estoque - COALESCE((" +
+                   "    SELECT SUM(CASE WHEN mv.tipo = 'ENTRADA' THEN mv.quantidade ELSE -mv.quantidade END) " +
+                   "    FROM movimentacoes_estoque mv " +
+                   "    WHERE mv.medicamento_id = m.id AND mv.data >= :fimDoDia), 0), CURRENT_TIMESTAMP " +
+                   "FROM medicamentos m " +
+                   "WHERE m.created_at < :fimDoDia " +
+                   "ON CONFLICT (medicamento_id, data) DO UPDATE " +
+                   "SET quantidade = EXCLUDED.quantidade, created_at = EXCLUDED.created_at",
+           nativeQuery = true)
+    int gerarSnapshots(@Param("dia") LocalDate dia, @Param("fimDoDia") LocalDateTime fimDoDia);
+
+    /**
+     * Posição de estoque ao final do dia para todo o catálogo: fotografia mais próxima (<= dia)
+     * mais as movimentações entre ela e o fim do dia. Sem fotografia, usa o estoque_total
+     * da última movimentação anterior ao fim do dia.
+     */
+    @Query(value = "SELECT m.id AS medicamentoId, m.nome AS medicamentoNome, s.data AS dataSnapshot, " +
+                   "CAST(CASE WHEN s.data IS NOT NULL THEN s.quantidade + COALESCE((" +
+                   "    SELECT SUM(CASE WHEN mv.tipo = 'ENTRADA' THEN mv.quantidade ELSE -mv.quantidade END) " +
+                   "    FROM movimentacoes_estoque mv " +
+                   "    WHERE mv.medicamento_id = m.id AND mv.data >= s.data + 1 AND mv.data < :fimDoDia), 0) " +
+                   "ELSE COALESCE((" +
+                   "    SELECT mv.estoque_total FROM movimentacoes_estoque mv " +
+                   "    WHERE mv.medicamento_id = m.id AND mv.data < :fimDoDia " +
+                   "    ORDER BY mv.data DESC LIMIT 1), 0) END AS INTEGER) AS quantidade " +
+                   "FROM medicamentos m " +
+                   "LEFT JOIN LATERAL (" +
+                   "    SELECT es.data, es.quantidade FROM estoque_snapshots es " +
+                   "    WHERE es.medicamento_id = m.id AND es.data <= :dia " +
+                   "    ORDER BY es.data DESC LIMIT 1) s ON true " +
+                   "WHERE m.created_at < :fimDoDia " +
+                   "ORDER BY m.nome",
+           nativeQuery = true)
+    List<PosicaoEstoqueProjection> findPosicaoCatalogo(@Param("dia") LocalDate dia, @Param("fimDoDia") LocalDateTime fimDoDia);
+}
@@ -1,9 +1,14 @@
 package com.farmacia.repository;
 
 import com.farmacia.domain.entity.Log;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +16,30 @@ import java.util.UUID;
 public interface LogRepository extends JpaRepository<Log, UUID> {
     List<Log> findTop100ByOrderByDataHoraDesc();
     List<Log> findTop50ByOrderByDataHoraDesc();
-}
 
+    // Filtro por data_hora limita a leitura às partições mensais mais recentes
+    List<Log> findTop100ByDataHoraGreaterThanEqualOrderByDataHoraDesc(LocalDateTime dataHora);
+    List<Log> findTop50ByDataHoraGreaterThanEqualOrderByDataHoraDesc(LocalDateTime dataHora);
 
+    /**
+     * Logs cujos detalhes contêm o filtro (operador @>, atendido pelo índice GIN idx_logs_detalhes),
+     * seja no objeto principal ou em um dos itens (ex.: medicamentoId de itens de venda).
+     * O intervalo de data_hora restringe a busca às partições do período.
+     */
+    @Query(value = "SELECT * FROM logs l " +
+            "WHERE l.data_hora >= :inicio AND l.data_hora < :fim " +
+            "AND (l.detalhes @> CAST(:filtro AS jsonb) OR l.detalhes @> CAST(:filtroItens AS jsonb)) " +
+            "AND (CAST(:tipoEntidade AS text) IS NULL OR l.tipo_entidade = CAST(:tipoEntidade AS text)) " +
+            "ORDER BY l.data_hora DESC",
+            countQuery = "SELECT COUNT(*) FROM logs l " +
+            "WHERE l.data_hora >= :inicio AND l.data_hora < :fim " +
+            "AND (l.detalhes @> CAST(:filtro AS jsonb) OR l.detalhes @> CAST(:filtroItens AS jsonb)) " +
+            "AND (CAST(:tipoEntidade AS text) IS NULL OR l.tipo_entidade = CAST(:tipoEntidade AS text))",
+            nativeQuery = true)
+    Page<Log> buscarPorDetalhes(@Param("filtro") String filtro,
+                                @Param("filtroItens") String filtroItens,
+                                @Param("tipoEntidade") String tipoEntidade,
+                                @Param("inicio") LocalDateTime inicio,
+                                @Param("fim") LocalDateTime fim,
+                                Pageable pageable);
+}
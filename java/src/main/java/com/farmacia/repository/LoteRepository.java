@@ -0,0 +1,35 @@
+package com.farmacia.repository;
+
+import com.farmacia.domain.entity.Lote;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface LoteRepository extends JpaRepository<Lote, UUID> {
+
+    Optional<Lote> findByMedicamentoIdAndNumeroLote(UUID medicamentoId, String numeroLote);
+
+    List<Lote> findByMedicamentoIdOrderByValidadeAscCreatedAtAsc(UUID medicamentoId);
+
+    // Lotes com saldo em ordem FEFO, bloqueados para a separação (índice idx_lotes_fefo)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Lote l WHERE l.medicamentoId = :medicamentoId AND l.quantidade > 0 " +
+           "ORDER BY l.validade ASC NULLS LAST, l.createdAt ASC")
+    List<Lote> findComSaldoParaSeparacao(@Param("medicamentoId") UUID medicamentoId);
+
+    @Query("SELECT MIN(l.validade) FROM Lote l WHERE l.medicamentoId = :medicamentoId AND l.quantidade > 0")
+    LocalDate findMenorValidadeComSaldo(@Param("medicamentoId") UUID medicamentoId);
+
+    @Query("SELECT COALESCE(SUM(l.quantidade), 0) FROM Lote l WHERE l.medicamentoId = :medicamentoId " +
+           "AND l.quantidade > 0 AND (l.validade IS NULL OR l.validade >= :hoje)")
+    Long somarSaldoDentroDaValidade(@Param("medicamentoId") UUID medicamentoId, @Param("hoje") LocalDate hoje);
+}
@@ -1,21 +1,60 @@
 package com.farmacia.repository;
 
 import com.farmacia.domain.entity.Medicamento;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 public interface MedicamentoRepository extends JpaRepository<Medicamento, UUID> {
     Optional<Medicamento> findByNome(String nome);
     List<Medicamento> findByAtivoTrue();
+
+    // Listagens: categoria e imagens na mesma consulta (evita 2 consultas extras por medicamento)
+    @EntityGraph(attributePaths = {"categoria", "imagens"})
+    @Query("SELECT m FROM Medicamento m")
+    List<Medicamento> findAllComCategoriaEImagens();
+
+    @EntityGraph(attributePaths = {"categoria", "imagens"})
+    @Query("SELECT m FROM Medicamento m WHERE m.ativo = true")
+    List<Medicamento> findAtivosComCategoriaEImagens();
+
+    @EntityGraph(attributePaths = {"categoria", "imagens"})
+    @Query("SELECT m FROM Medicamento m WHERE m.versao >= :versao")
+    List<Medicamento> findAlteradosDesde(@Param("versao") Long versao);
+
+    @Query("SELECT m.id FROM Medicamento m WHERE m.id IN :ids")
+    Set<UUID> findIdsExistentes(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT m.id FROM Medicamento m WHERE m.id IN :ids AND m.ativo = true")
+    Set<UUID> findIdsAtivos(@Param("ids") Collection<UUID> ids);
+
+    // Serializa reservas e vendas dos mesmos medicamentos até o fim da transação (curta); em ordem de ID,
+    // para duas vendas com os mesmos itens não se travarem mutuamente. Não bloqueia inserções que referenciam a linha
+    @Query(value = "SELECT id FROM medicamentos WHERE id IN (:ids) ORDER BY id FOR NO KEY UPDATE", nativeQuery = true)
+    List<UUID> bloquearParaReserva(@Param("ids") Collection<UUID> ids);
     List<Medicamento> findByValidadeLessThanEqualAndAtivoTrue(LocalDate date);
     List<Medicamento> findByQuantidadeEstoqueLessThanAndAtivoTrue(Integer limite);
     boolean existsByCategoriaId(UUID categoriaId);
+
+    // Atendida pelo índice parcial idx_medicamentos_estoque_baixo (apenas ativos abaixo do limite)
+    @Query("SELECT m FROM Medicamento m WHERE m.ativo = true AND m.quantidadeEstoque < m.limiteEstoqueBaixo")
+    List<Medicamento> findComEstoqueBaixo();
+
+    // Propaga o estoque mínimo da categoria para os medicamentos que não possuem valor próprio
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Medicamento m SET m.limiteEstoqueBaixo = :limite WHERE m.categoria.id = :categoriaId AND m.estoqueMinimo IS NULL")
+    int atualizarLimiteEstoqueBaixoPorCategoria(@Param("categoriaId") UUID categoriaId, @Param("limite") Integer limite);
     long countByCategoriaId(UUID categoriaId);
 }
 
@@ -1,15 +1,37 @@
 package com.farmacia.repository;
 
 import com.farmacia.domain.entity.MovimentacaoEstoque;
+import com.farmacia.domain.enums.TipoMovimentacao;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoque, UUID> {
     List<MovimentacaoEstoque> findByMedicamentoId(UUID medicamentoId);
+    List<MovimentacaoEstoque> findByMedicamentoIdOrderByDataAsc(UUID medicamentoId);
+
+    // Extrato paginado (índice idx_movimentacoes_estoque_medicamento_data)
+    Page<MovimentacaoEstoque> findByMedicamentoIdAndDataBetween(UUID medicamentoId, LocalDateTime inicio, LocalDateTime fim, Pageable pageable);
+
+    Optional<MovimentacaoEstoque> findFirstByMedicamentoIdAndDataLessThanOrderByDataDesc(UUID medicamentoId, LocalDateTime data);
+
+    // Saldo (entradas - saídas) das movimentações no intervalo [inicio, fim)
+    @Query("SELECT COALESCE(SUM(CASE WHEN m.tipo = com.farmacia.domain.enums.TipoMovimentacao.ENTRADA THEN m.quantidade ELSE -m.quantidade END), 0) " +
+           "FROM MovimentacaoEstoque m WHERE m.medicamentoId = :medicamentoId AND m.data >= :inicio AND m.data < :fim")
+    Long somarSaldoNoPeriodo(@Param("medicamentoId") UUID medicamentoId, @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    @Query("SELECT COUNT(m) FROM MovimentacaoEstoque m WHERE m.medicamentoId = :medicamentoId AND m.data >= :inicio AND m.data < :fim")
+    long countNoPeriodo(@Param("medicamentoId") UUID medicamentoId, @Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+    List<MovimentacaoEstoque> findByVendaIdAndTipo(UUID vendaId, TipoMovimentacao tipo);
 }
 
 
@@ -0,0 +1,49 @@
+package com.farmacia.repository;
+
+import com.farmacia.domain.entity.ReservaEstoque;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ReservaEstoqueRepository extends JpaRepository<ReservaEstoque, UUID> {
+
+    Optional<ReservaEstoque> findByCarrinhoIdAndMedicamentoId(UUID carrinhoId, UUID medicamentoId);
+
+    List<ReservaEstoque> findByCarrinhoIdAndExpiraEmAfterOrderByCreatedAtAsc(UUID carrinhoId, LocalDateTime agora);
+
+    // Reservas ativas do medicamento (índice idx_reservas_estoque_medicamento)
+    @Query("SELECT COALESCE(SUM(r.quantidade), 0) FROM ReservaEstoque r " +
+           "WHERE r.medicamentoId = :medicamentoId AND r.expiraEm > :agora")
+    Long somarReservado(@Param("medicamentoId") UUID medicamentoId, @Param("agora") LocalDateTime agora);
+
+    @Query("SELECT COALESCE(SUM(r.quantidade), 0) FROM ReservaEstoque r " +
+           "WHERE r.medicamentoId = :medicamentoId AND r.expiraEm > :agora AND r.carrinhoId <> :carrinhoId")
+    Long somarReservadoPorOutros(@Param("medicamentoId") UUID medicamentoId,
+                                 @Param("carrinhoId") UUID carrinhoId,
+                                 @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("UPDATE ReservaEstoque r SET r.expiraEm = :expiraEm WHERE r.carrinhoId = :carrinhoId AND r.expiraEm > :agora")
+    int renovar(@Param("carrinhoId") UUID carrinhoId, @Param("expiraEm") LocalDateTime expiraEm, @Param("agora") LocalDateTime agora);
+
+    @Modifying
+    @Query("DELETE FROM ReservaEstoque r WHERE r.carrinhoId = :carrinhoId")
+    int liberarCarrinho(@Param("carrinhoId") UUID carrinhoId);
+
+    // Lote de reservas vencidas, da mais antiga para a mais nova (índice idx_reservas_estoque_expira_em)
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM reservas_estoque WHERE id IN (" +
+                   "SELECT id FROM reservas_estoque WHERE expira_em <= :agora ORDER BY expira_em LIMIT :limite)",
+           nativeQuery = true)
+    int removerVencidas(@Param("agora") LocalDateTime agora, @Param("limite") int limite);
+}
@@ -2,7 +2,12 @@ package com.farmacia.repository;
 
 import com.farmacia.domain.entity.Venda;
 import com.farmacia.domain.enums.StatusVenda;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -13,6 +18,18 @@ import java.util.UUID;
 public interface VendaRepository extends JpaRepository<Venda, UUID> {
     List<Venda> findByStatus(StatusVenda status);
     List<Venda> findByClienteId(UUID clienteId);
+
+    // Histórico do cliente pelo índice (cliente_id, created_at DESC, id DESC)
+    Page<Venda> findByClienteId(UUID clienteId, Pageable pageable);
+
+    // Listagens: itens carregados junto com as vendas
+    @EntityGraph(attributePaths = "itens")
+    @Query("SELECT v FROM Venda v")
+    List<Venda> findAllComItens();
+
+    @EntityGraph(attributePaths = "itens")
+    @Query("SELECT v FROM Venda v WHERE v.clienteId = :clienteId")
+    List<Venda> findByClienteIdComItens(@Param("clienteId") UUID clienteId);
     List<Venda> findByUsuarioId(UUID usuarioId);
     List<Venda> findByCreatedAtBetween(LocalDateTime inicio, LocalDateTime fim);
 }
@@ -1,14 +1,17 @@
 package com.farmacia.security;
 
+import com.farmacia.config.CacheConfig;
+import com.farmacia.config.RoteamentoDataSource;
 import com.farmacia.domain.entity.Usuario;
 import com.farmacia.repository.UsuarioRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.ArrayList;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -16,24 +19,23 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Override
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
-
-        return org.springframework.security.core.userdetails.User
-                .withUsername(usuario.getEmail())
-                .password(usuario.getPassword())
-                .roles(usuario.getRole().name())
-                .build();
+        // O cache guarda o usuário, não o UsuarioAutenticado: o login apaga a senha do principal (eraseCredentials)
+        Cache cache = cacheManager.getCache(CacheConfig.USUARIOS);
+        Usuario usuario = cache != null ? cache.get(email, Usuario.class) : null;
+        if (usuario == null) {
+            usuario = usuarioRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + email));
+            if (cache != null) {
+                cache.put(email, usuario);
+            }
+        }
+
+        return new UsuarioAutenticado(usuario);
     }
 }
-
-
-
-
-
-
-
-
-
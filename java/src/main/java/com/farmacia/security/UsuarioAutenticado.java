@@ -0,0 +1,74 @@
+package com.farmacia.security;
+
+import com.farmacia.domain.entity.Usuario;
+import com.farmacia.domain.enums.Role;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal da autenticação: carregado uma única vez por requisição (JwtFilter/login)
+ * com os dados do usuário necessários aos serviços e à auditoria.
+ */
+@Getter
+public class UsuarioAutenticado implements UserDetails, CredentialsContainer {
+
+    private final UUID id;
+    private final String nome;
+    private final String email;
+    private final Role role;
+    private String password;
+
+    public UsuarioAutenticado(Usuario usuario) {
+        this.id = usuario.getId();
+        this.nome = usuario.getNome();
+        this.email = usuario.getEmail();
+        this.role = usuario.getRole();
+        this.password = usuario.getPassword();
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.farmacia.security;
+
+import com.farmacia.exception.BusinessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Usuário da requisição atual, lido do SecurityContext (por thread/requisição) sem consultar o banco.
+ * Também funciona em tarefas em segundo plano que recebem a Authentication capturada na requisição.
+ */
+@Component
+public class UsuarioContexto {
+
+    public Optional<UsuarioAutenticado> atual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return Optional.of(usuario);
+        }
+        return Optional.empty();
+    }
+
+    public UsuarioAutenticado obrigatorio() {
+        return atual().orElseThrow(() -> new BusinessException("Usuário não encontrado, por favor faça login novamente."));
+    }
+}
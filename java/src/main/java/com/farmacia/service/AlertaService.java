@@ -1,18 +1,29 @@
 package com.farmacia.service;
 
+import com.farmacia.config.CacheConfig;
+import com.farmacia.config.CoordenadorJobs;
+import com.farmacia.config.RoteamentoDataSource;
 import com.farmacia.domain.dto.AlertaResponse;
 import com.farmacia.domain.entity.Alerta;
 import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.domain.evento.EstoqueAlteradoEvento;
+import com.farmacia.domain.evento.MedicamentoAlteradoEvento;
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.domain.evento.VendaConcluidaEvento;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.AlertaRepository;
 import com.farmacia.repository.MedicamentoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -25,115 +36,190 @@ public class AlertaService {
     @Autowired
     private MedicamentoRepository medicamentoRepository;
 
-    private static final Integer LIMITE_ESTOQUE_BAIXO = 10;
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    // Limite padrão, usado quando nem o medicamento nem a categoria definem estoque mínimo
+    private static final Integer LIMITE_ESTOQUE_BAIXO_PADRAO = 10;
     private static final Integer DIAS_VALIDADE_PROXIMA = 30;
 
-    public static Integer getLimiteEstoqueBaixo() {
-        return LIMITE_ESTOQUE_BAIXO;
+    public static Integer getLimiteEstoqueBaixoPadrao() {
+        return LIMITE_ESTOQUE_BAIXO_PADRAO;
     }
 
-    @Scheduled(cron = "0 0 8 * * ?") // Todos os dias às 8h
+    /** Executado diariamente às 8h pelo job "alertas" (JobsAgendados) */
     @Transactional
     public void gerarAlertas() {
+        coordenadorJobs.vincularAoLease();
         verificarEstoqueBaixo();
         verificarValidadeProxima();
         verificarMedicamentosVencidos();
     }
 
+    // ========================================================================
+    // Eventos do outbox (entregues pelo RelayOutbox, na transação que dá baixa no evento)
+    // ========================================================================
+
+    /** A venda só baixa o estoque dos seus itens: nenhum outro alerta muda */
+    @EventListener
+    public void onVendaConcluida(VendaConcluidaEvento evento) {
+        verificarEstoqueBaixo(evento.quantidades().keySet());
+    }
+
+    /** Estoque estornado: dá baixa nos alertas dos itens que voltaram ao limite ou acima */
+    @EventListener
+    public void onVendaCancelada(VendaCanceladaEvento evento) {
+        verificarEstoqueBaixo(evento.quantidades().keySet());
+    }
+
+    /**
+     * Entrada que deixa o estoque no limite do medicamento ou acima dá baixa nos alertas de estoque baixo;
+     * caso contrário, verifica se é preciso abrir um novo.
+     */
+    @EventListener
+    public void onEstoqueAlterado(EstoqueAlteradoEvento evento) {
+        Medicamento medicamento = medicamentoRepository.findById(evento.medicamentoId()).orElse(null);
+        if (medicamento == null) {
+            return; // excluído depois do evento
+        }
+        if (medicamento.getQuantidadeEstoque() >= medicamento.getLimiteEstoqueBaixo()) {
+            marcarAlertasEstoqueBaixoComoLidos(medicamento.getId());
+        } else {
+            verificarEstoqueBaixo(List.of(medicamento.getId()));
+        }
+    }
+
+    @EventListener
+    public void onMedicamentoAlterado(MedicamentoAlteradoEvento evento) {
+        switch (evento.operacao()) {
+            // Alertas de medicamentos inativos não aparecem no painel de controle
+            case INATIVADO -> marcarTodosAlertasComoLidos(evento.medicamentoId());
+            case ATIVADO -> {
+                // Reativado: alertas antigos (lidos ou não) são removidos para que possam ser gerados de novo
+                removerTodosAlertasDoMedicamento(evento.medicamentoId());
+                verificarAlertas(evento.medicamentoId());
+            }
+            case CRIADO, ATUALIZADO -> verificarAlertas(evento.medicamentoId());
+        }
+    }
+
+    /**
+     * Estoque baixo e validade de um único medicamento, após mudança no cadastro (estoque, limite, validade
+     * ou reativação): mesmas regras de gerarAlertas, sem varrer o catálogo.
+     */
+    @Transactional
+    public void verificarAlertas(UUID medicamentoId) {
+        verificarEstoqueBaixo(List.of(medicamentoId));
+        Medicamento medicamento = medicamentoRepository.findById(medicamentoId).orElse(null);
+        if (medicamento == null || !medicamento.getAtivo() || medicamento.getValidade() == null) {
+            return;
+        }
+        LocalDate hoje = LocalDate.now();
+        if (medicamento.getValidade().isBefore(hoje)) {
+            abrirAlertaValidade(medicamento, "VALIDADE_VENCIDA", "Medicamento vencido em: " + medicamento.getValidade());
+        } else if (!medicamento.getValidade().isAfter(hoje.plusDays(DIAS_VALIDADE_PROXIMA))) {
+            abrirAlertaValidade(medicamento, "VALIDADE_PROXIMA", "Validade próxima: " + medicamento.getValidade());
+        }
+    }
+
     @Transactional
     public void verificarEstoqueBaixo() {
         System.out.println("═══════════════════════════════════════════════════════════════════════════════");
         System.out.println("🔔 AlertaService.verificarEstoqueBaixo() - INÍCIO");
-        System.out.println("🔔 LIMITE_ESTOQUE_BAIXO: " + LIMITE_ESTOQUE_BAIXO);
         
-        // Busca todos os medicamentos ativos
-        List<Medicamento> todosMedicamentos = medicamentoRepository.findByAtivoTrue();
-        System.out.println("🔔 Total de medicamentos ativos: " + todosMedicamentos.size());
+        // Busca apenas os medicamentos ativos abaixo do seu próprio limite
+        // (consulta atendida pelo índice parcial idx_medicamentos_estoque_baixo, sem carregar o catálogo)
+        List<Medicamento> medicamentos = medicamentoRepository.findComEstoqueBaixo();
+        Set<UUID> idsEstoqueBaixo = medicamentos.stream()
+                .map(Medicamento::getId)
+                .collect(Collectors.toSet());
+        System.out.println("🔔 Medicamentos com estoque abaixo do limite: " + medicamentos.size());
+        
+        // Alertas de estoque baixo em aberto, agrupados por medicamento
+        Map<UUID, List<Alerta>> alertasAbertos = alertaRepository.findByTipoAndLidoFalse("ESTOQUE_BAIXO")
+                .stream()
+                .collect(Collectors.groupingBy(Alerta::getMedicamentoId));
         
-        // Primeiro, marca como lidos os alertas de medicamentos que agora têm estoque >= LIMITE
+        // Primeiro, marca como lidos os alertas de medicamentos que não estão mais abaixo do limite
         int alertasMarcadosComoLidos = 0;
-        for (Medicamento medicamento : todosMedicamentos) {
-            if (medicamento.getQuantidadeEstoque() >= LIMITE_ESTOQUE_BAIXO) {
-                System.out.println("🔔 Medicamento " + medicamento.getNome() + " tem estoque " + medicamento.getQuantidadeEstoque() + " >= " + LIMITE_ESTOQUE_BAIXO);
-                // Se o estoque agora está acima do limite, marca todos os alertas de estoque baixo como lidos
-                List<Alerta> alertasNaoLidos = alertaRepository.findByMedicamentoId(medicamento.getId())
-                        .stream()
-                        .filter(a -> !a.getLido() && "ESTOQUE_BAIXO".equals(a.getTipo()))
-                        .collect(Collectors.toList());
-                
-                System.out.println("🔔   Alertas de estoque baixo não lidos encontrados: " + alertasNaoLidos.size());
-                if (!alertasNaoLidos.isEmpty()) {
-                    System.out.println("🔔   ✅ Marcando " + alertasNaoLidos.size() + " alerta(s) como lido(s)");
-                    for (Alerta alerta : alertasNaoLidos) {
-                        System.out.println("🔔     - Marcando Alerta ID: " + alerta.getId() + ", Lido ANTES: " + alerta.getLido());
-                        alerta.setLido(true);
-                        alertaRepository.save(alerta);
-                        alertaRepository.flush(); // Force flush to ensure immediate persistence
-                        alertasMarcadosComoLidos++;
-                        System.out.println("🔔     - ✅ Alerta ID: " + alerta.getId() + " marcado como LIDO = true e FLUSHED");
-                    }
+        for (Map.Entry<UUID, List<Alerta>> entry : alertasAbertos.entrySet()) {
+            if (!idsEstoqueBaixo.contains(entry.getKey())) {
+                for (Alerta alerta : entry.getValue()) {
+                    alerta.setLido(true);
+                    alertaRepository.save(alerta);
+                    alertasMarcadosComoLidos++;
+                    System.out.println("🔔   ✅ Alerta ID: " + alerta.getId() + " (" + alerta.getMedicamentoNome() + ") marcado como LIDO");
                 }
             }
         }
+        alertaRepository.flush(); // Force flush to ensure immediate persistence
         System.out.println("🔔 Total de alertas marcados como lidos nesta verificação: " + alertasMarcadosComoLidos);
         
-        // Depois, cria alertas APENAS para medicamentos com estoque < 10 E que NÃO têm alertas já criados
-        // IMPORTANTE: Se um medicamento já teve um alerta (mesmo que lido), não cria novo alerta
-        // Isso garante que alertas não reapareçam depois de serem marcados como lidos
-        List<Medicamento> medicamentos = todosMedicamentos.stream()
-                .filter(m -> m.getQuantidadeEstoque() < LIMITE_ESTOQUE_BAIXO)
-                .collect(Collectors.toList());
-        System.out.println("🔔 Medicamentos com estoque < " + LIMITE_ESTOQUE_BAIXO + ": " + medicamentos.size());
-        
         // Log específico para medicamentos com estoque muito baixo
         long medicamentosZeroOuUm = medicamentos.stream()
                 .filter(m -> m.getQuantidadeEstoque() <= 1)
                 .count();
         System.out.println("🔔 ⚠️ ATENÇÃO: " + medicamentosZeroOuUm + " medicamento(s) com estoque <= 1 unidade!");
 
-        for (Medicamento medicamento : medicamentos) {
-            String estoqueStatus = medicamento.getQuantidadeEstoque() == 0 ? " ⚠️ ZERADO!" : 
-                                  medicamento.getQuantidadeEstoque() == 1 ? " ⚠️ CRÍTICO!" : "";
-            System.out.println("🔔 Verificando medicamento: " + medicamento.getNome() + " (Estoque: " + medicamento.getQuantidadeEstoque() + ")" + estoqueStatus);
-            // Verifica se já existe alerta NÃO LIDO para este medicamento e tipo
-            List<Alerta> todosAlertasMedicamento = alertaRepository.findByMedicamentoId(medicamento.getId());
-            boolean existeAlertaNaoLido = todosAlertasMedicamento.stream()
-                    .anyMatch(a -> "ESTOQUE_BAIXO".equals(a.getTipo()) && !a.getLido());
-            
-            System.out.println("🔔   Total de alertas do medicamento (todos os tipos): " + todosAlertasMedicamento.size());
-            for (Alerta a : todosAlertasMedicamento) {
-                System.out.println("🔔     - Alerta ID: " + a.getId() + ", Tipo: " + a.getTipo() + ", Lido: " + a.getLido());
+        // Depois, cria ou atualiza os alertas dos medicamentos abaixo do limite
+        abrirAlertasEstoqueBaixo(medicamentos, alertasAbertos);
+        alertaRepository.flush();
+        System.out.println("🔔 AlertaService.verificarEstoqueBaixo() - FIM");
+        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
+    }
+
+    /**
+     * Verificação restrita a alguns medicamentos (itens de uma venda ou cancelamento, medicamento alterado):
+     * abre, atualiza ou dá baixa apenas nos alertas desses medicamentos, sem varrer o catálogo e todos os
+     * alertas em aberto a cada evento.
+     */
+    @Transactional
+    public void verificarEstoqueBaixo(Collection<UUID> medicamentoIds) {
+        List<Medicamento> medicamentos = medicamentoRepository.findAllById(medicamentoIds).stream()
+                .filter(m -> m.getAtivo() && m.getQuantidadeEstoque() < m.getLimiteEstoqueBaixo())
+                .collect(Collectors.toList());
+        Set<UUID> idsEstoqueBaixo = medicamentos.stream()
+                .map(Medicamento::getId)
+                .collect(Collectors.toSet());
+        Map<UUID, List<Alerta>> alertasAbertos = alertaRepository.findByTipoAndLidoFalseAndMedicamentoIdIn("ESTOQUE_BAIXO",
+                        medicamentoIds)
+                .stream()
+                .collect(Collectors.groupingBy(Alerta::getMedicamentoId));
+
+        // Medicamentos que voltaram ao limite ou acima (ou foram inativados): o alerta em aberto é dado como lido
+        for (Map.Entry<UUID, List<Alerta>> entry : alertasAbertos.entrySet()) {
+            if (!idsEstoqueBaixo.contains(entry.getKey())) {
+                for (Alerta alerta : entry.getValue()) {
+                    alerta.setLido(true);
+                    alertaRepository.save(alerta);
+                }
             }
-            System.out.println("🔔   Existe alerta ESTOQUE_BAIXO NÃO LIDO? " + existeAlertaNaoLido);
+        }
+        abrirAlertasEstoqueBaixo(medicamentos, alertasAbertos);
+        alertaRepository.flush();
+    }
 
+    /** Cria ou atualiza o alerta em aberto de cada medicamento abaixo do limite */
+    private void abrirAlertasEstoqueBaixo(List<Medicamento> medicamentos, Map<UUID, List<Alerta>> alertasAbertos) {
+        for (Medicamento medicamento : medicamentos) {
             // Gera mensagem atualizada baseada no estoque atual
             String mensagemAtualizada = medicamento.getQuantidadeEstoque() == 0 
                 ? "⚠️ ZERADO! Nenhuma unidade disponível."
                 : medicamento.getQuantidadeEstoque() == 1
                 ? "⚠️ CRÍTICO! Apenas 1 unidade disponível."
-                : "Estoque baixo: " + medicamento.getQuantidadeEstoque() + " un.";
+                : "Estoque baixo: " + medicamento.getQuantidadeEstoque() + " un. (mínimo: " + medicamento.getLimiteEstoqueBaixo() + ")";
 
-            if (existeAlertaNaoLido) {
+            List<Alerta> alertasMedicamento = alertasAbertos.get(medicamento.getId());
+            if (alertasMedicamento != null && !alertasMedicamento.isEmpty()) {
                 // ATUALIZA o alerta existente se a mensagem mudou
-                Alerta alertaExistente = todosAlertasMedicamento.stream()
-                    .filter(a -> "ESTOQUE_BAIXO".equals(a.getTipo()) && !a.getLido())
-                    .findFirst()
-                    .orElse(null);
-                
-                if (alertaExistente != null && !mensagemAtualizada.equals(alertaExistente.getMensagem())) {
-                    System.out.println("🔔   🔄 ATUALIZANDO alerta existente para: " + medicamento.getNome());
-                    System.out.println("🔔     Mensagem ANTIGA: " + alertaExistente.getMensagem());
-                    System.out.println("🔔     Mensagem NOVA: " + mensagemAtualizada);
+                Alerta alertaExistente = alertasMedicamento.get(0);
+                if (!mensagemAtualizada.equals(alertaExistente.getMensagem())) {
+                    System.out.println("🔔   🔄 ATUALIZANDO alerta de " + medicamento.getNome() + ": " + mensagemAtualizada);
                     alertaExistente.setMensagem(mensagemAtualizada);
                     alertaRepository.save(alertaExistente);
-                    alertaRepository.flush();
-                    System.out.println("🔔     ✅ Alerta atualizado e salvo!");
-                } else if (alertaExistente != null) {
-                    System.out.println("🔔   ℹ️ Alerta já existe e está atualizado: " + alertaExistente.getMensagem());
                 }
             } else {
                 // Cria novo alerta se NÃO existe alerta não lido
-                System.out.println("🔔   ✅ Criando NOVO alerta para: " + medicamento.getNome());
                 Alerta alerta = new Alerta();
                 alerta.setMedicamentoId(medicamento.getId());
                 alerta.setMedicamentoNome(medicamento.getNome());
@@ -141,11 +227,9 @@ public class AlertaService {
                 alerta.setMensagem(mensagemAtualizada);
                 alerta.setLido(false);
                 alertaRepository.save(alerta);
-                System.out.println("🔔   ✅ Novo alerta criado - ID: " + alerta.getId() + ", Lido: " + alerta.getLido());
+                System.out.println("🔔   ✅ Novo alerta criado para " + medicamento.getNome() + " - ID: " + alerta.getId());
             }
         }
-        System.out.println("🔔 AlertaService.verificarEstoqueBaixo() - FIM");
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
     }
 
     @Transactional
@@ -173,34 +257,7 @@ public class AlertaService {
                 }
                 
                 System.out.println("🔔   Medicamento não vencido, verificando alertas existentes...");
-                // Verifica se já existe alerta não lido
-                List<Alerta> todosAlertas = alertaRepository.findByMedicamentoId(medicamento.getId());
-                System.out.println("🔔   Total de alertas do medicamento: " + todosAlertas.size());
-                for (Alerta a : todosAlertas) {
-                    System.out.println("🔔     - Alerta ID: " + a.getId() + ", Tipo: " + a.getTipo() + ", Lido: " + a.getLido());
-                }
-                
-                boolean existeAlertaNaoLido = todosAlertas.stream()
-                        .anyMatch(a -> !a.getLido() && "VALIDADE_PROXIMA".equals(a.getTipo()));
-                System.out.println("🔔   Existe alerta VALIDADE_PROXIMA não lido? " + existeAlertaNaoLido);
-
-                if (!existeAlertaNaoLido) {
-                    // Se não existe alerta não lido E o medicamento ainda está ativo e com validade próxima,
-                    // cria um novo alerta (mesmo que já tenha existido um alerta lido anteriormente)
-                    // Isso permite que alertas reapareçam quando marcados como "visto" mas o medicamento não foi inativado
-                    System.out.println("🔔   ✅ Criando NOVO alerta VALIDADE_PROXIMA para: " + medicamento.getNome());
-                    Alerta alerta = new Alerta();
-                    alerta.setMedicamentoId(medicamento.getId());
-                    alerta.setMedicamentoNome(medicamento.getNome());
-                    alerta.setTipo("VALIDADE_PROXIMA");
-                    alerta.setMensagem("Validade próxima: " + medicamento.getValidade());
-                    alerta.setLido(false);
-                    alerta = alertaRepository.save(alerta);
-                    alertaRepository.flush();
-                    System.out.println("🔔   ✅ Alerta criado - ID: " + alerta.getId() + ", Lido: " + alerta.getLido());
-                } else {
-                    System.out.println("🔔   ⚠️ Já existe alerta VALIDADE_PROXIMA não lido para " + medicamento.getNome() + ", NÃO criando novo");
-                }
+                abrirAlertaValidade(medicamento, "VALIDADE_PROXIMA", "Validade próxima: " + medicamento.getValidade());
             } else {
                 System.out.println("🔔   ⚠️ Medicamento sem data de validade, ignorando");
             }
@@ -209,6 +266,39 @@ public class AlertaService {
         System.out.println("═══════════════════════════════════════════════════════════════════════════════");
     }
 
+    /**
+     * Cria o alerta de validade (VALIDADE_PROXIMA ou VALIDADE_VENCIDA) se o medicamento não tiver um não lido
+     * desse tipo, mesmo que já tenha existido um alerta lido anteriormente: assim o alerta reaparece quando
+     * marcado como "visto" mas o medicamento não foi inativado. Retorna true se criou.
+     */
+    private boolean abrirAlertaValidade(Medicamento medicamento, String tipo, String mensagem) {
+        List<Alerta> todosAlertas = alertaRepository.findByMedicamentoId(medicamento.getId());
+        System.out.println("🔔   Total de alertas do medicamento: " + todosAlertas.size());
+        for (Alerta a : todosAlertas) {
+            System.out.println("🔔     - Alerta ID: " + a.getId() + ", Tipo: " + a.getTipo() + ", Lido: " + a.getLido());
+        }
+
+        boolean existeAlertaNaoLido = todosAlertas.stream()
+                .anyMatch(a -> !a.getLido() && tipo.equals(a.getTipo()));
+        System.out.println("🔔   Existe alerta " + tipo + " não lido? " + existeAlertaNaoLido);
+        if (existeAlertaNaoLido) {
+            System.out.println("🔔   ⚠️ Já existe alerta " + tipo + " não lido para " + medicamento.getNome() + ", NÃO criando novo");
+            return false;
+        }
+
+        System.out.println("🔔   ✅ Criando NOVO alerta " + tipo + " para: " + medicamento.getNome());
+        Alerta alerta = new Alerta();
+        alerta.setMedicamentoId(medicamento.getId());
+        alerta.setMedicamentoNome(medicamento.getNome());
+        alerta.setTipo(tipo);
+        alerta.setMensagem(mensagem);
+        alerta.setLido(false);
+        alerta = alertaRepository.save(alerta);
+        alertaRepository.flush();
+        System.out.println("🔔   ✅ Alerta criado - ID: " + alerta.getId() + ", Lido: " + alerta.getLido());
+        return true;
+    }
+
     @Transactional
     public void verificarMedicamentosVencidos() {
         System.out.println("═══════════════════════════════════════════════════════════════════════════════");
@@ -232,34 +322,8 @@ public class AlertaService {
                 if (isVencido) {
                     vencidosEncontrados++;
                     System.out.println("🔔   Medicamento VENCIDO, verificando alertas existentes...");
-                    List<Alerta> todosAlertas = alertaRepository.findByMedicamentoId(medicamento.getId());
-                    System.out.println("🔔   Total de alertas do medicamento: " + todosAlertas.size());
-                    for (Alerta a : todosAlertas) {
-                        System.out.println("🔔     - Alerta ID: " + a.getId() + ", Tipo: " + a.getTipo() + ", Lido: " + a.getLido());
-                    }
-                    
-                    // Verifica se já existe alerta não lido para este medicamento
-                    boolean existeAlertaNaoLido = todosAlertas.stream()
-                            .anyMatch(a -> !a.getLido() && "VALIDADE_VENCIDA".equals(a.getTipo()));
-                    System.out.println("🔔   Existe alerta VALIDADE_VENCIDA não lido? " + existeAlertaNaoLido);
-
-                    if (!existeAlertaNaoLido) {
-                        // Se não existe alerta não lido E o medicamento ainda está ativo e vencido,
-                        // cria um novo alerta (mesmo que já tenha existido um alerta lido anteriormente)
-                        // Isso permite que alertas reapareçam quando marcados como "visto" mas o medicamento não foi inativado
-                        System.out.println("🔔   ✅ Criando NOVO alerta VALIDADE_VENCIDA para: " + medicamento.getNome());
-                        Alerta alerta = new Alerta();
-                        alerta.setMedicamentoId(medicamento.getId());
-                        alerta.setMedicamentoNome(medicamento.getNome());
-                        alerta.setTipo("VALIDADE_VENCIDA");
-                        alerta.setMensagem("Medicamento vencido em: " + medicamento.getValidade());
-                        alerta.setLido(false);
-                        alerta = alertaRepository.save(alerta);
-                        alertaRepository.flush();
+                    if (abrirAlertaValidade(medicamento, "VALIDADE_VENCIDA", "Medicamento vencido em: " + medicamento.getValidade())) {
                         alertasCriados++;
-                        System.out.println("🔔   ✅ Alerta criado - ID: " + alerta.getId() + ", Lido: " + alerta.getLido());
-                    } else {
-                        System.out.println("🔔   ⚠️ Já existe alerta VALIDADE_VENCIDA não lido para " + medicamento.getNome() + ", NÃO criando novo");
                     }
                 } else {
                     System.out.println("🔔   Medicamento NÃO vencido, ignorando");
@@ -281,17 +345,19 @@ public class AlertaService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
+    @Cacheable(cacheNames = CacheConfig.ALERTAS_NAO_LIDOS, key = "'todos'")
     public List<AlertaResponse> findNaoLidos() {
         System.out.println("═══════════════════════════════════════════════════════════════════════════════");
         System.out.println("🔔 AlertaService.findNaoLidos() - INÍCIO");
         List<Alerta> alertasNaoLidos = alertaRepository.findByLidoFalse();
         System.out.println("🔔 Total de alertas NÃO LIDOS (todos os tipos): " + alertasNaoLidos.size());
         
-        // Filtra apenas alertas de medicamentos que ainda existem
+        // Filtra apenas alertas de medicamentos que ainda existem (uma única consulta)
+        Set<UUID> medicamentosExistentes = medicamentoRepository.findIdsExistentes(idsMedicamentos(alertasNaoLidos));
         List<Alerta> alertasValidos = alertasNaoLidos.stream()
                 .filter(alerta -> {
-                    boolean medicamentoExiste = medicamentoRepository.existsById(alerta.getMedicamentoId());
+                    boolean medicamentoExiste = medicamentosExistentes.contains(alerta.getMedicamentoId());
                     if (!medicamentoExiste) {
                         System.out.println("🔔   ⚠️ Alerta ID: " + alerta.getId() + " ignorado - medicamento ID: " + alerta.getMedicamentoId() + " não existe mais");
                     }
@@ -326,10 +392,11 @@ public class AlertaService {
         List<Alerta> alertasNaoLidos = alertaRepository.findByTipoAndLidoFalse("ESTOQUE_BAIXO");
         System.out.println("🔔 Total de alertas ESTOQUE_BAIXO não lidos encontrados: " + alertasNaoLidos.size());
         
-        // Filtra apenas alertas de medicamentos que ainda existem
+        // Filtra apenas alertas de medicamentos que ainda existem (uma única consulta)
+        Set<UUID> medicamentosExistentes = medicamentoRepository.findIdsExistentes(idsMedicamentos(alertasNaoLidos));
         List<Alerta> alertasValidos = alertasNaoLidos.stream()
                 .filter(alerta -> {
-                    boolean medicamentoExiste = medicamentoRepository.existsById(alerta.getMedicamentoId());
+                    boolean medicamentoExiste = medicamentosExistentes.contains(alerta.getMedicamentoId());
                     if (!medicamentoExiste) {
                         System.out.println("🔔   ⚠️ Alerta ID: " + alerta.getId() + " ignorado - medicamento ID: " + alerta.getMedicamentoId() + " não existe mais");
                     }
@@ -354,18 +421,10 @@ public class AlertaService {
     @Transactional(readOnly = true)
     public List<AlertaResponse> findValidadeProxima() {
         List<Alerta> alertasNaoLidos = alertaRepository.findByTipoAndLidoFalse("VALIDADE_PROXIMA");
-        // Filtra apenas alertas de medicamentos que ainda existem E estão ativos
+        // Filtra apenas alertas de medicamentos que ainda existem E estão ativos (uma única consulta)
+        Set<UUID> medicamentosAtivos = medicamentoRepository.findIdsAtivos(idsMedicamentos(alertasNaoLidos));
         return alertasNaoLidos.stream()
-                .filter(alerta -> {
-                    boolean medicamentoExiste = medicamentoRepository.existsById(alerta.getMedicamentoId());
-                    if (!medicamentoExiste) {
-                        return false;
-                    }
-                    // Verifica se o medicamento está ativo
-                    return medicamentoRepository.findById(alerta.getMedicamentoId())
-                            .map(med -> med.getAtivo())
-                            .orElse(false);
-                })
+                .filter(alerta -> medicamentosAtivos.contains(alerta.getMedicamentoId()))
                 .sorted((a1, a2) -> a1.getMedicamentoNome().compareToIgnoreCase(a2.getMedicamentoNome()))
                 .map(this::toResponse)
                 .collect(Collectors.toList());
@@ -374,18 +433,22 @@ public class AlertaService {
     @Transactional(readOnly = true)
     public List<AlertaResponse> findValidadeVencida() {
         List<Alerta> alertasNaoLidos = alertaRepository.findByTipoAndLidoFalse("VALIDADE_VENCIDA");
-        // Filtra apenas alertas de medicamentos que ainda existem E estão ativos
+        // Filtra apenas alertas de medicamentos que ainda existem E estão ativos (uma única consulta)
+        Set<UUID> medicamentosAtivos = medicamentoRepository.findIdsAtivos(idsMedicamentos(alertasNaoLidos));
         return alertasNaoLidos.stream()
-                .filter(alerta -> {
-                    boolean medicamentoExiste = medicamentoRepository.existsById(alerta.getMedicamentoId());
-                    if (!medicamentoExiste) {
-                        return false;
-                    }
-                    // Verifica se o medicamento está ativo
-                    return medicamentoRepository.findById(alerta.getMedicamentoId())
-                            .map(med -> med.getAtivo())
-                            .orElse(false);
-                })
+                .filter(alerta -> medicamentosAtivos.contains(alerta.getMedicamentoId()))
+                .sorted((a1, a2) -> a1.getMedicamentoNome().compareToIgnoreCase(a2.getMedicamentoNome()))
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<AlertaResponse> findPrevisaoRuptura() {
+        List<Alerta> alertasNaoLidos = alertaRepository.findByTipoAndLidoFalse(PrevisaoRupturaService.TIPO_ALERTA);
+        // Filtra apenas alertas de medicamentos que ainda existem E estão ativos (uma única consulta)
+        Set<UUID> medicamentosAtivos = medicamentoRepository.findIdsAtivos(idsMedicamentos(alertasNaoLidos));
+        return alertasNaoLidos.stream()
+                .filter(alerta -> medicamentosAtivos.contains(alerta.getMedicamentoId()))
                 .sorted((a1, a2) -> a1.getMedicamentoNome().compareToIgnoreCase(a2.getMedicamentoNome()))
                 .map(this::toResponse)
                 .collect(Collectors.toList());
@@ -534,22 +597,18 @@ public class AlertaService {
     public String debugEstoqueBaixo() {
         StringBuilder debug = new StringBuilder();
         debug.append("=== DEBUG: ALERTAS DE ESTOQUE BAIXO ===\n\n");
-        debug.append("LIMITE_ESTOQUE_BAIXO: ").append(LIMITE_ESTOQUE_BAIXO).append("\n\n");
+        debug.append("LIMITE_ESTOQUE_BAIXO_PADRAO: ").append(LIMITE_ESTOQUE_BAIXO_PADRAO).append("\n\n");
         
-        List<Medicamento> todosMedicamentos = medicamentoRepository.findByAtivoTrue();
-        debug.append("Total de medicamentos ativos: ").append(todosMedicamentos.size()).append("\n\n");
-        
-        List<Medicamento> medicamentosBaixoEstoque = todosMedicamentos.stream()
-                .filter(m -> m.getQuantidadeEstoque() < LIMITE_ESTOQUE_BAIXO)
-                .collect(Collectors.toList());
+        List<Medicamento> medicamentosBaixoEstoque = medicamentoRepository.findComEstoqueBaixo();
         
-        debug.append("Medicamentos com estoque < ").append(LIMITE_ESTOQUE_BAIXO).append(": ").append(medicamentosBaixoEstoque.size()).append("\n\n");
+        debug.append("Medicamentos com estoque abaixo do limite: ").append(medicamentosBaixoEstoque.size()).append("\n\n");
         
         for (Medicamento med : medicamentosBaixoEstoque) {
             debug.append("---\n");
             debug.append("Medicamento: ").append(med.getNome()).append("\n");
             debug.append("  ID: ").append(med.getId()).append("\n");
             debug.append("  Estoque: ").append(med.getQuantidadeEstoque()).append("\n");
+            debug.append("  Limite: ").append(med.getLimiteEstoqueBaixo()).append("\n");
             debug.append("  Ativo: ").append(med.getAtivo()).append("\n");
             
             List<Alerta> alertas = alertaRepository.findByMedicamentoId(med.getId());
@@ -577,6 +636,12 @@ public class AlertaService {
         return debug.toString();
     }
 
+    private static Set<UUID> idsMedicamentos(List<Alerta> alertas) {
+        return alertas.stream()
+                .map(Alerta::getMedicamentoId)
+                .collect(Collectors.toSet());
+    }
+
     private AlertaResponse toResponse(Alerta alerta) {
         return new AlertaResponse(
                 alerta.getId(),
@@ -6,12 +6,12 @@ import com.farmacia.domain.dto.UsuarioResponse;
 import com.farmacia.domain.entity.Usuario;
 import com.farmacia.repository.UsuarioRepository;
 import com.farmacia.security.JwtService;
+import com.farmacia.security.UsuarioAutenticado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,26 +27,25 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
-
     @Autowired
     private LogService logService;
 
     @Transactional
     public LoginResponse login(LoginRequest request) {
+        Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
         } catch (BadCredentialsException e) {
             throw new BadCredentialsException("Credenciais inválidas");
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        // O principal já vem carregado pela autenticação; não é preciso buscar o usuário de novo pelo email
+        UsuarioAutenticado usuarioAutenticado = (UsuarioAutenticado) authentication.getPrincipal();
+        String token = jwtService.generateToken(usuarioAutenticado);
 
-        Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
+        Usuario usuario = usuarioRepository.findById(usuarioAutenticado.getId())
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
         UsuarioResponse usuarioResponse = new UsuarioResponse(
@@ -1,5 +1,8 @@
 package com.farmacia.service;
 
+import com.farmacia.config.RoteamentoDataSource;
+import com.farmacia.domain.auditoria.CategoriaAuditoria;
+import com.farmacia.domain.auditoria.ExclusaoAuditoria;
 import com.farmacia.domain.dto.CategoriaRequest;
 import com.farmacia.domain.dto.CategoriaResponse;
 import com.farmacia.domain.entity.Categoria;
@@ -10,9 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -28,6 +30,9 @@ public class CategoriaService {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private AlertaService alertaService;
+
     @Transactional
     public CategoriaResponse create(CategoriaRequest request) {
         String nomeTrimmed = request.getNome() != null ? request.getNome().trim() : "";
@@ -39,25 +44,24 @@ public class CategoriaService {
             throw new BusinessException("O nome da categoria já existe, por favor alterar.");
         }
 
+        validarEstoqueMinimo(request.getEstoqueMinimo());
+
         Categoria categoria = new Categoria();
         categoria.setNome(nomeTrimmed);
         categoria.setDescricao(request.getDescricao());
+        categoria.setEstoqueMinimo(request.getEstoqueMinimo());
 
         categoria = categoriaRepository.save(categoria);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"descricao\":\"%s\",\"data\":\"%s\"}", 
-                categoria.getNome(), categoria.getDescricao() != null ? categoria.getDescricao() : "", dataFormatada);
+        CategoriaAuditoria detalhes = new CategoriaAuditoria(categoria.getNome(), categoria.getDescricao());
         logService.registrarLog("CREATE", "CATEGORIA", categoria.getId(), 
                 "Categoria criada: " + categoria.getNome(), detalhes);
         
         return toResponse(categoria);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public List<CategoriaResponse> findAll() {
         return categoriaRepository.findAll().stream()
                 .sorted((c1, c2) -> c1.getNome().compareToIgnoreCase(c2.getNome()))
@@ -86,17 +90,25 @@ public class CategoriaService {
             throw new BusinessException("O nome da categoria já existe, por favor alterar.");
         }
 
+        validarEstoqueMinimo(request.getEstoqueMinimo());
+        boolean estoqueMinimoAlterado = !Objects.equals(categoria.getEstoqueMinimo(), request.getEstoqueMinimo());
+
         categoria.setNome(nomeTrimmed);
         categoria.setDescricao(request.getDescricao());
+        categoria.setEstoqueMinimo(request.getEstoqueMinimo());
 
         categoria = categoriaRepository.save(categoria);
+
+        // Propaga o novo estoque mínimo para os medicamentos que herdam da categoria
+        // e reavalia os alertas de estoque baixo com os novos limites
+        if (estoqueMinimoAlterado) {
+            Integer limite = categoria.getEstoqueMinimo() != null ? categoria.getEstoqueMinimo() : AlertaService.getLimiteEstoqueBaixoPadrao();
+            medicamentoRepository.atualizarLimiteEstoqueBaixoPorCategoria(id, limite);
+            alertaService.verificarEstoqueBaixo();
+        }
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"descricao\":\"%s\",\"data\":\"%s\"}", 
-                categoria.getNome(), categoria.getDescricao() != null ? categoria.getDescricao() : "", dataFormatada);
+        CategoriaAuditoria detalhes = new CategoriaAuditoria(categoria.getNome(), categoria.getDescricao());
         logService.registrarLog("UPDATE", "CATEGORIA", categoria.getId(), 
                 "Categoria atualizada: " + categoria.getNome(), detalhes);
         
@@ -124,21 +136,25 @@ public class CategoriaService {
         categoriaRepository.delete(categoria);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"data\":\"%s\"}", nomeCategoria, dataFormatada);
+        ExclusaoAuditoria detalhes = new ExclusaoAuditoria(nomeCategoria);
         logService.registrarLog("DELETE", "CATEGORIA", id, 
                 "Categoria deletada: " + nomeCategoria, detalhes);
         
         return String.format("Categoria '%s' deletada com sucesso.", nomeCategoria);
     }
 
+    private void validarEstoqueMinimo(Integer estoqueMinimo) {
+        if (estoqueMinimo != null && estoqueMinimo < 0) {
+            throw new BusinessException("O estoque mínimo não pode ser negativo, por favor alterar.");
+        }
+    }
+
     private CategoriaResponse toResponse(Categoria categoria) {
         return new CategoriaResponse(
                 categoria.getId(),
                 categoria.getNome(),
                 categoria.getDescricao(),
+                categoria.getEstoqueMinimo(),
                 categoria.getCreatedAt()
         );
     }
@@ -1,16 +1,22 @@
 package com.farmacia.service;
 
+import com.farmacia.config.RoteamentoDataSource;
+import com.farmacia.domain.auditoria.ClienteAuditoria;
+import com.farmacia.domain.auditoria.ExclusaoAuditoria;
 import com.farmacia.domain.dto.ClienteRequest;
 import com.farmacia.domain.dto.ClienteResponse;
+import com.farmacia.domain.dto.ClienteResumoResponse;
+import com.farmacia.domain.dto.PaginaResponse;
 import com.farmacia.domain.entity.Cliente;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.ClienteRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -24,6 +30,13 @@ public class ClienteService {
     @Autowired
     private LogService logService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int TAMANHO_MAXIMO_BUSCA = 100;
+    // Trigramas: com menos de 3 caracteres o índice não restringe a busca
+    private static final int MINIMO_CARACTERES_BUSCA = 3;
+
     @Transactional
     public ClienteResponse create(ClienteRequest request) {
         // Valida nome obrigatório
@@ -70,18 +83,14 @@ public class ClienteService {
         cliente = clienteRepository.save(cliente);
         
         // Registra log de criação
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"cpf\":\"%s\",\"email\":\"%s\",\"data\":\"%s\"}", 
-                nomeTrimmed, cpfTrimmed, emailTrimmed, dataFormatada);
+        ClienteAuditoria detalhes = new ClienteAuditoria(nomeTrimmed, cpfTrimmed, emailTrimmed);
         logService.registrarLog("CREATE", "CLIENTE", cliente.getId(), 
                 "Cliente criado: " + nomeTrimmed, detalhes);
         
         return toResponse(cliente);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public List<ClienteResponse> findAll() {
         return clienteRepository.findAll().stream()
                 .sorted((c1, c2) -> c1.getNome().compareToIgnoreCase(c2.getNome()))
@@ -89,6 +98,70 @@ public class ClienteService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Busca do caixa: termo com letras procura no nome (qualquer parte, sem diferenciar maiúsculas e acentos);
+     * só com dígitos e máscara, procura pelo início do CPF ou do telefone. Usa as colunas normalizadas da V18
+     * (nome_busca, cpf_digitos, telefone_digitos) e seus índices, ordenando por nome.
+     */
+    @Transactional(readOnly = true)
+    public PaginaResponse<ClienteResumoResponse> buscar(String termo, int pagina, int tamanho) {
+        if (pagina < 0 || tamanho <= 0 || tamanho > TAMANHO_MAXIMO_BUSCA) {
+            throw new BusinessException("Paginação inválida: a página deve ser >= 0 e o tamanho entre 1 e " + TAMANHO_MAXIMO_BUSCA + ".");
+        }
+        String texto = termo != null ? termo.trim().replaceAll("\\s+", " ") : "";
+
+        String filtro;
+        List<Object> parametros = new ArrayList<>();
+        if (texto.chars().anyMatch(Character::isLetter)) {
+            if (texto.length() < MINIMO_CARACTERES_BUSCA) {
+                throw new BusinessException("Digite ao menos " + MINIMO_CARACTERES_BUSCA + " letras do nome do cliente.");
+            }
+            // Normalizado como no trigger (lower + unaccent), no próprio banco
+            filtro = "nome_busca LIKE lower(unaccent(?))";
+            parametros.add("%" + escaparLike(texto) + "%");
+        } else {
+            String digitos = texto.replaceAll("\\D", "");
+            if (digitos.length() < MINIMO_CARACTERES_BUSCA) {
+                throw new BusinessException("Digite ao menos " + MINIMO_CARACTERES_BUSCA
+                        + " letras do nome ou " + MINIMO_CARACTERES_BUSCA + " dígitos do CPF ou do telefone.");
+            }
+            filtro = "(cpf_digitos LIKE ? OR telefone_digitos LIKE ?)";
+            parametros.add(digitos + "%");
+            parametros.add(digitos + "%");
+        }
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM clientes WHERE " + filtro, Long.class, parametros.toArray());
+        List<ClienteResumoResponse> conteudo = List.of();
+        if (total != null && total > (long) pagina * tamanho) {
+            parametros.add(tamanho);
+            parametros.add((long) pagina * tamanho);
+            conteudo = jdbcTemplate.query(
+                    "SELECT id, nome, cpf, telefone, data_nascimento FROM clientes WHERE " + filtro
+                            + " ORDER BY nome_busca, id LIMIT ? OFFSET ?",
+                    (rs, rowNum) -> new ClienteResumoResponse(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("nome"),
+                            rs.getString("cpf"),
+                            rs.getString("telefone"),
+                            rs.getObject("data_nascimento", LocalDate.class)
+                    ),
+                    parametros.toArray());
+        }
+        long totalItens = total != null ? total : 0L;
+        return new PaginaResponse<>(
+                conteudo,
+                pagina,
+                tamanho,
+                totalItens,
+                (int) ((totalItens + tamanho - 1) / tamanho)
+        );
+    }
+
+    // Curingas digitados pelo usuário são procurados literalmente (o LIKE usa a barra invertida como escape)
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     @Transactional(readOnly = true)
     public ClienteResponse findById(UUID id) {
         Cliente cliente = clienteRepository.findById(id)
@@ -144,11 +217,7 @@ public class ClienteService {
         cliente = clienteRepository.save(cliente);
         
         // Registra log de atualização
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"cpf\":\"%s\",\"email\":\"%s\",\"data\":\"%s\"}", 
-                nomeTrimmed, cpfTrimmed, emailTrimmed, dataFormatada);
+        ClienteAuditoria detalhes = new ClienteAuditoria(nomeTrimmed, cpfTrimmed, emailTrimmed);
         logService.registrarLog("UPDATE", "CLIENTE", cliente.getId(), 
                 "Cliente atualizado: " + nomeTrimmed, detalhes);
         
@@ -164,10 +233,7 @@ public class ClienteService {
         clienteRepository.deleteById(id);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"data\":\"%s\"}", nomeCliente, dataFormatada);
+        ExclusaoAuditoria detalhes = new ExclusaoAuditoria(nomeCliente);
         logService.registrarLog("DELETE", "CLIENTE", id, 
                 "Cliente deletado: " + nomeCliente, detalhes);
         
@@ -0,0 +1,103 @@
+package com.farmacia.service;
+
+import com.farmacia.config.JacksonConfig;
+import com.farmacia.domain.dto.ComparacaoFormatoResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, Smile e CBOR nas listagens de medicamentos e de vendas recentes, com os dados reais do banco:
+ * tamanho (puro e com gzip) e tempo de CPU de serialização, medido na thread atual após um aquecimento.
+ */
+@Service
+public class ComparacaoFormatosService {
+
+    private static final int AQUECIMENTO = 5;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier(JacksonConfig.SMILE)
+    private ObjectMapper smileObjectMapper;
+
+    @Autowired
+    @Qualifier(JacksonConfig.CBOR)
+    private ObjectMapper cborObjectMapper;
+
+    @Autowired
+    private MedicamentoService medicamentoService;
+
+    @Autowired
+    private VendaService vendaService;
+
+    public List<ComparacaoFormatoResponse> comparar(int vendas, int iteracoes) {
+        Map<String, ObjectMapper> formatos = new LinkedHashMap<>();
+        formatos.put("application/json", objectMapper);
+        formatos.put("application/x-jackson-smile", smileObjectMapper);
+        formatos.put("application/cbor", cborObjectMapper);
+
+        List<ComparacaoFormatoResponse> resultado = new ArrayList<>();
+        comparar("MedicamentoResponse", medicamentoService.findAll(), formatos, iteracoes, resultado);
+        comparar("VendaResponse", vendaService.findRecentes(vendas), formatos, iteracoes, resultado);
+        return resultado;
+    }
+
+    private void comparar(String nome, List<?> lista, Map<String, ObjectMapper> formatos, int iteracoes,
+                          List<ComparacaoFormatoResponse> resultado) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Long bytesJson = null;
+        for (Map.Entry<String, ObjectMapper> formato : formatos.entrySet()) {
+            ObjectMapper mapper = formato.getValue();
+            byte[] serializado = serializar(mapper, lista);
+            for (int i = 0; i < AQUECIMENTO; i++) {
+                serializar(mapper, lista);
+            }
+
+            long inicio = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < iteracoes; i++) {
+                serializar(mapper, lista);
+            }
+            double microssegundos = (threads.getCurrentThreadCpuTime() - inicio) / 1000.0 / iteracoes;
+
+            long bytes = serializado.length;
+            if (bytesJson == null) {
+                bytesJson = bytes;
+            }
+            resultado.add(new ComparacaoFormatoResponse(nome, formato.getKey(), lista.size(), bytes, gzip(serializado),
+                    bytesJson > 0 ? Math.round(bytes * 1000.0 / bytesJson) / 1000.0 : null,
+                    Math.round(microssegundos * 10) / 10.0));
+        }
+    }
+
+    private static byte[] serializar(ObjectMapper mapper, Object valor) {
+        try {
+            return mapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar " + valor.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static long gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(dados.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new IllegalStateException("Falha ao compactar", e);
+        }
+        return saida.size();
+    }
+}
@@ -1,19 +1,27 @@
 package com.farmacia.service;
 
+import com.farmacia.domain.auditoria.EstoqueAuditoria;
 import com.farmacia.domain.dto.EstoqueOperacaoResponse;
 import com.farmacia.domain.dto.EstoqueResponse;
+import com.farmacia.domain.dto.LoteResponse;
+import com.farmacia.domain.dto.PaginaResponse;
+import com.farmacia.domain.entity.Lote;
 import com.farmacia.domain.entity.Medicamento;
 import com.farmacia.domain.entity.MovimentacaoEstoque;
 import com.farmacia.domain.enums.TipoMovimentacao;
+import com.farmacia.domain.evento.EstoqueAlteradoEvento;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.MedicamentoRepository;
 import com.farmacia.repository.MovimentacaoEstoqueRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,10 +38,26 @@ public class EstoqueService {
     private LogService logService;
 
     @Autowired
-    private AlertaService alertaService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
 
     @Transactional
     public EstoqueOperacaoResponse adicionarEstoque(UUID medicamentoId, Integer quantidade, String motivo) {
+        return adicionarEstoque(medicamentoId, quantidade, motivo, null, null);
+    }
+
+    /**
+     * Entrada de estoque em um lote. Sem número de lote, a entrada vai para o lote genérico
+     * da validade informada (ou da validade atual do medicamento).
+     */
+    @Transactional
+    public EstoqueOperacaoResponse adicionarEstoque(UUID medicamentoId, Integer quantidade, String motivo,
+                                                    String numeroLote, LocalDate validade) {
         Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
                 .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
         
@@ -43,9 +67,10 @@ public class EstoqueService {
         
         int quantidadeAnterior = medicamento.getQuantidadeEstoque();
         int novaQuantidade = quantidadeAnterior + quantidade;
+        Lote lote = loteService.registrarEntrada(medicamento, numeroLote, validade, quantidade);
         medicamento.setQuantidadeEstoque(novaQuantidade);
         medicamentoRepository.save(medicamento);
-        medicamentoRepository.flush(); // CRÍTICO: Garante que o estoque atualizado seja persistido ANTES de verificar alertas
+        medicamentoRepository.flush(); // Garante que o estoque atualizado seja persistido antes da gravação do evento no outbox
 
         MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
         movimentacao.setMedicamentoId(medicamentoId);
@@ -53,41 +78,20 @@ public class EstoqueService {
         movimentacao.setTipo(TipoMovimentacao.ENTRADA);
         movimentacao.setEstoqueTotal(novaQuantidade);
         movimentacao.setMotivo(motivo != null ? motivo : "Entrada de estoque");
+        movimentacao.setLoteId(lote.getId());
         movimentacaoEstoqueRepository.save(movimentacao);
 
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"medicamentoId\":\"%s\",\"quantidade\":%d,\"motivo\":\"%s\",\"estoqueAnterior\":%d,\"estoqueAtual\":%d,\"data\":\"%s\"}", 
-                medicamentoId, quantidade, motivo != null ? motivo : "Entrada de estoque", quantidadeAnterior, novaQuantidade, dataFormatada);
+        EstoqueAuditoria detalhes = new EstoqueAuditoria(medicamentoId, quantidade,
+                motivo != null ? motivo : "Entrada de estoque", lote.getNumeroLote(), lote.getValidade(),
+                quantidadeAnterior, novaQuantidade);
         logService.registrarLog("UPDATE", "ESTOQUE", medicamentoId, 
-                String.format("Entrada de estoque: %d unidade(s) adicionada(s) ao medicamento '%s'", quantidade, medicamento.getNome()), 
+                String.format("Entrada de estoque: %d unidade(s) adicionada(s) ao medicamento '%s' (lote %s)", quantidade, medicamento.getNome(), lote.getNumeroLote()), 
                 detalhes);
 
-        // VALIDAÇÃO CRÍTICA: Se o estoque agora está acima ou igual ao limite (>= 10), marca os alertas como lidos IMEDIATAMENTE
-        // Isso garante que alertas de estoque baixo desaparecem do painel de controle quando o estoque é aumentado
-        final int LIMITE_ESTOQUE_BAIXO = AlertaService.getLimiteEstoqueBaixo();
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
-        System.out.println("📦 EstoqueService.adicionarEstoque() - INÍCIO");
-        System.out.println("📦 Medicamento ID: " + medicamentoId);
-        System.out.println("📦 Medicamento Nome: " + medicamento.getNome());
-        System.out.println("📦 Quantidade Anterior: " + quantidadeAnterior);
-        System.out.println("📦 Quantidade Adicionada: " + quantidade);
-        System.out.println("📦 Nova Quantidade: " + novaQuantidade);
-        System.out.println("📦 LIMITE_ESTOQUE_BAIXO: " + LIMITE_ESTOQUE_BAIXO);
-        System.out.println("📦 Condição (novaQuantidade >= LIMITE): " + (novaQuantidade >= LIMITE_ESTOQUE_BAIXO));
-        
-        if (novaQuantidade >= LIMITE_ESTOQUE_BAIXO) {
-            System.out.println("📦 ✅ Estoque >= " + LIMITE_ESTOQUE_BAIXO + ", VAMOS MARCAR ALERTAS COMO LIDOS!");
-            alertaService.marcarAlertasEstoqueBaixoComoLidos(medicamentoId);
-            System.out.println("📦 ✅ Alertas marcados como lidos. NÃO chamando verificarEstoqueBaixo() porque estoque não está mais baixo.");
-        } else {
-            System.out.println("📦 ⚠️ Estoque ainda está baixo (" + novaQuantidade + " < " + LIMITE_ESTOQUE_BAIXO + "), chamando verificarEstoqueBaixo()");
-            alertaService.verificarEstoqueBaixo();
-        }
-        System.out.println("📦 EstoqueService.adicionarEstoque() - FIM");
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
+        // Alertas de estoque baixo (abrir ou dar baixa) são atualizados pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_MEDICAMENTO, medicamentoId,
+                new EstoqueAlteradoEvento(medicamentoId, "ENTRADA", quantidade, quantidadeAnterior, novaQuantidade));
 
         return new EstoqueOperacaoResponse(
                 String.format("Estoque aumentado com sucesso. %d unidade(s) adicionada(s) ao medicamento '%s'. Estoque anterior: %d, Estoque atual: %d", 
@@ -118,34 +122,37 @@ public class EstoqueService {
             );
         }
         
-        // Atualiza estoque
+        // Atualiza estoque, retirando dos lotes que vencem primeiro (FEFO, incluindo vencidos para baixa)
+        List<LoteService.Alocacao> alocacoes = loteService.separarFefo(medicamento, quantidade, false);
         int novaQuantidade = quantidadeAnterior - quantidade;
         medicamento.setQuantidadeEstoque(novaQuantidade);
         medicamentoRepository.save(medicamento);
-        medicamentoRepository.flush(); // CRÍTICO: Garante que o estoque atualizado seja persistido ANTES de verificar alertas
-
-        // Registra movimentação
-        MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
-        movimentacao.setMedicamentoId(medicamentoId);
-        movimentacao.setQuantidade(quantidade);
-        movimentacao.setTipo(TipoMovimentacao.SAIDA);
-        movimentacao.setEstoqueTotal(novaQuantidade);
-        movimentacao.setMotivo(motivo != null ? motivo : "Saída de estoque");
-        movimentacaoEstoqueRepository.save(movimentacao);
+        medicamentoRepository.flush(); // Garante que o estoque atualizado seja persistido antes da gravação do evento no outbox
+
+        // Registra uma movimentação por lote
+        int estoqueTotal = quantidadeAnterior;
+        for (LoteService.Alocacao alocacao : alocacoes) {
+            estoqueTotal -= alocacao.quantidade();
+            MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
+            movimentacao.setMedicamentoId(medicamentoId);
+            movimentacao.setQuantidade(alocacao.quantidade());
+            movimentacao.setTipo(TipoMovimentacao.SAIDA);
+            movimentacao.setEstoqueTotal(estoqueTotal);
+            movimentacao.setMotivo(motivo != null ? motivo : "Saída de estoque");
+            movimentacao.setLoteId(alocacao.lote().getId());
+            movimentacaoEstoqueRepository.save(movimentacao);
+        }
 
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"medicamentoId\":\"%s\",\"quantidade\":%d,\"motivo\":\"%s\",\"estoqueAnterior\":%d,\"estoqueAtual\":%d,\"data\":\"%s\"}", 
-                medicamentoId, quantidade, motivo != null ? motivo : "Saída de estoque", quantidadeAnterior, novaQuantidade, dataFormatada);
+        EstoqueAuditoria detalhes = new EstoqueAuditoria(medicamentoId, quantidade,
+                motivo != null ? motivo : "Saída de estoque", null, null, quantidadeAnterior, novaQuantidade);
         logService.registrarLog("UPDATE", "ESTOQUE", medicamentoId, 
                 String.format("Saída de estoque: %d unidade(s) removida(s) do medicamento '%s'", quantidade, medicamento.getNome()), 
                 detalhes);
 
-        // Após saída, verifica se precisa gerar alertas de estoque baixo
-        // (se o estoque ficou abaixo de 10, cria novos alertas se necessário)
-        alertaService.verificarEstoqueBaixo();
+        // Alertas de estoque baixo são verificados pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_MEDICAMENTO, medicamentoId,
+                new EstoqueAlteradoEvento(medicamentoId, "SAIDA", quantidade, quantidadeAnterior, novaQuantidade));
 
         return new EstoqueOperacaoResponse(
                 String.format("Estoque diminuído com sucesso. %d unidade(s) removida(s) do medicamento '%s'. Estoque anterior: %d, Estoque atual: %d", 
@@ -163,16 +170,60 @@ public class EstoqueService {
         Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
                 .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
         
+        int reservado = reservaEstoqueService.getReservado(medicamentoId);
         return new EstoqueResponse(
                 medicamento.getId(),
                 medicamento.getNome(),
-                medicamento.getQuantidadeEstoque()
+                medicamento.getQuantidadeEstoque(),
+                reservado,
+                Math.max(loteService.getSaldoDentroDaValidade(medicamentoId) - reservado, 0)
         );
     }
 
+    @Transactional(readOnly = true)
+    public List<LoteResponse> getLotesByMedicamento(UUID medicamentoId) {
+        if (!medicamentoRepository.existsById(medicamentoId)) {
+            throw new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido.");
+        }
+        return loteService.findByMedicamento(medicamentoId);
+    }
+
     @Transactional(readOnly = true)
     public List<MovimentacaoEstoque> getMovimentacoesByMedicamento(UUID medicamentoId) {
-        return movimentacaoEstoqueRepository.findByMedicamentoId(medicamentoId);
+        return movimentacaoEstoqueRepository.findByMedicamentoIdOrderByDataAsc(medicamentoId);
+    }
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+
+    /**
+     * Extrato paginado de movimentações em ordem cronológica (mais recentes primeiro),
+     * opcionalmente limitado a um período [de, ate]
+     */
+    @Transactional(readOnly = true)
+    public PaginaResponse<MovimentacaoEstoque> getExtrato(UUID medicamentoId, LocalDate de, LocalDate ate, int pagina, int tamanho) {
+        if (!medicamentoRepository.existsById(medicamentoId)) {
+            throw new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido.");
+        }
+        if (pagina < 0 || tamanho <= 0 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Paginação inválida: a página deve ser >= 0 e o tamanho entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        if (de != null && ate != null && de.isAfter(ate)) {
+            throw new BusinessException("A data inicial não pode ser posterior à data final.");
+        }
+
+        LocalDateTime inicio = de != null ? de.atStartOfDay() : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime fim = ate != null ? ate.plusDays(1).atStartOfDay().minusNanos(1000) : LocalDateTime.of(9999, 12, 31, 23, 59);
+        Page<MovimentacaoEstoque> page = movimentacaoEstoqueRepository.findByMedicamentoIdAndDataBetween(
+                medicamentoId, inicio, fim,
+                PageRequest.of(pagina, tamanho, Sort.by(Sort.Direction.DESC, "data").and(Sort.by(Sort.Direction.DESC, "id"))));
+
+        return new PaginaResponse<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages()
+        );
     }
 }
 
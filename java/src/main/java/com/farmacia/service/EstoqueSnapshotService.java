@@ -0,0 +1,113 @@
+package com.farmacia.service;
+
+import com.farmacia.config.CoordenadorJobs;
+import com.farmacia.domain.dto.EstoquePosicaoResponse;
+import com.farmacia.domain.entity.EstoqueSnapshot;
+import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.repository.EstoqueSnapshotRepository;
+import com.farmacia.repository.MedicamentoRepository;
+import com.farmacia.repository.MovimentacaoEstoqueRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Fotografias diárias do estoque e consulta da posição de estoque em uma data.
+ * A posição é a fotografia mais próxima (anterior ou igual à data) mais as movimentações
+ * do intervalo entre ela e o fim do dia, sem reprocessar todo o histórico.
+ */
+@Service
+public class EstoqueSnapshotService {
+
+    @Autowired
+    private EstoqueSnapshotRepository estoqueSnapshotRepository;
+
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @Autowired
+    private MedicamentoRepository medicamentoRepository;
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    /** Executado diariamente às 00:05 pelo job "snapshot-estoque" (JobsAgendados): fotografa o dia anterior */
+    @Transactional
+    public void gerarSnapshotDiario() {
+        coordenadorJobs.vincularAoLease();
+        gerarSnapshot(LocalDate.now().minusDays(1));
+    }
+
+    /**
+     * Grava a posição de estoque ao final do dia para todos os medicamentos.
+     * Pode ser usado para datas passadas (ex.: fechamentos de mês anteriores ao recurso).
+     */
+    @Transactional
+    public int gerarSnapshot(LocalDate dia) {
+        if (dia == null || !dia.isBefore(LocalDate.now())) {
+            throw new BusinessException("A data da fotografia de estoque deve ser anterior a hoje.");
+        }
+        long inicio = System.currentTimeMillis();
+        int total = estoqueSnapshotRepository.gerarSnapshots(dia, dia.plusDays(1).atStartOfDay());
+        System.out.println("📦 EstoqueSnapshotService - " + total + " fotografia(s) de estoque gravada(s) para " + dia
+                + " (" + (System.currentTimeMillis() - inicio) + " ms)");
+        return total;
+    }
+
+    @Transactional(readOnly = true)
+    public EstoquePosicaoResponse getPosicao(UUID medicamentoId, LocalDate dia) {
+        Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
+                .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
+        if (dia == null || dia.isAfter(LocalDate.now())) {
+            throw new BusinessException("A data da posição de estoque não pode ser futura.");
+        }
+        LocalDateTime fimDoDia = dia.plusDays(1).atStartOfDay();
+
+        Optional<EstoqueSnapshot> snapshot = estoqueSnapshotRepository
+                .findFirstByMedicamentoIdAndDataLessThanEqualOrderByDataDesc(medicamentoId, dia);
+        int quantidade;
+        if (snapshot.isPresent()) {
+            LocalDateTime inicioDelta = snapshot.get().getData().plusDays(1).atStartOfDay();
+            quantidade = snapshot.get().getQuantidade()
+                    + movimentacaoEstoqueRepository.somarSaldoNoPeriodo(medicamentoId, inicioDelta, fimDoDia).intValue();
+        } else {
+            // Sem fotografia anterior: usa o saldo registrado na última movimentação até a data
+            quantidade = movimentacaoEstoqueRepository
+                    .findFirstByMedicamentoIdAndDataLessThanOrderByDataDesc(medicamentoId, fimDoDia)
+                    .map(m -> m.getEstoqueTotal())
+                    .orElse(0);
+        }
+
+        return new EstoquePosicaoResponse(
+                medicamento.getId(),
+                medicamento.getNome(),
+                dia,
+                quantidade,
+                snapshot.map(EstoqueSnapshot::getData).orElse(null)
+        );
+    }
+
+    @Transactional(readOnly = true)
+    public List<EstoquePosicaoResponse> getPosicaoCatalogo(LocalDate dia) {
+        if (dia == null || dia.isAfter(LocalDate.now())) {
+            throw new BusinessException("A data da posição de estoque não pode ser futura.");
+        }
+        return estoqueSnapshotRepository.findPosicaoCatalogo(dia, dia.plusDays(1).atStartOfDay()).stream()
+                .map(p -> new EstoquePosicaoResponse(
+                        p.getMedicamentoId(),
+                        p.getMedicamentoNome(),
+                        dia,
+                        p.getQuantidade(),
+                        p.getDataSnapshot()
+                ))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,273 @@
+package com.farmacia.service;
+
+import com.farmacia.config.DataCodec;
+import com.farmacia.domain.dto.ItemVendaResponse;
+import com.farmacia.domain.dto.VendaResponse;
+import com.farmacia.domain.enums.StatusVenda;
+import com.farmacia.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação das vendas e itens de um período direto na resposta (CSV, uma linha por item, ou JSON Lines,
+ * uma venda por linha no formato de GET /api/vendas/{id}). As linhas vêm de um cursor só de avanço,
+ * em lotes de TAMANHO_LOTE_LEITURA, e são escritas à medida que chegam: a memória não depende do
+ * tamanho do período. Roda na réplica de leitura quando habilitada.
+ */
+@Service
+public class ExportacaoVendasService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final int TAMANHO_LOTE_LEITURA = 2000;
+    private static final int PERIODO_MAXIMO_DIAS = 366;
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String CABECALHO_CSV = "Venda ID,Data,Status,Cliente ID,Cliente,Usuário ID,Usuário,Valor Total,"
+            + "Item ID,Medicamento ID,Medicamento,Quantidade,Preço Unitário,Subtotal";
+
+    // Índice idx_vendas_created_at no período; itens pelo índice de venda_id
+    private static final String SQL = "SELECT v.id, v.created_at, v.status, v.cliente_id, c.nome AS cliente_nome, "
+            + "v.usuario_id, u.nome AS usuario_nome, v.valor_total, i.id AS item_id, i.medicamento_id, "
+            + "i.medicamento_nome, i.quantidade, i.preco_unitario, i.subtotal "
+            + "FROM vendas v "
+            + "LEFT JOIN clientes c ON c.id = v.cliente_id "
+            + "LEFT JOIN usuarios u ON u.id = v.usuario_id "
+            + "LEFT JOIN itens_venda i ON i.venda_id = v.id "
+            + "WHERE v.created_at >= ? AND v.created_at < ? "
+            + "ORDER BY v.created_at, v.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Chamado antes de começar a resposta: depois do primeiro byte, um erro já não vira 400 */
+    public void validar(LocalDate de, LocalDate ate, String formato) {
+        if (de == null || ate == null) {
+            throw new BusinessException("Informe o período da exportação (de e ate).");
+        }
+        if (de.isAfter(ate)) {
+            throw new BusinessException("A data inicial não pode ser posterior à data final.");
+        }
+        if (ChronoUnit.DAYS.between(de, ate) >= PERIODO_MAXIMO_DIAS) {
+            throw new BusinessException("O período da exportação deve ter no máximo " + PERIODO_MAXIMO_DIAS + " dias.");
+        }
+        if (!CSV.equals(formato) && !NDJSON.equals(formato)) {
+            throw new BusinessException("Formato de exportação inválido: use csv ou ndjson.");
+        }
+    }
+
+    /** Escreve as vendas de de até ate (inclusive) em saida; não fecha saida */
+    @Transactional(readOnly = true)
+    public void exportar(LocalDate de, LocalDate ate, String formato, boolean gzip, OutputStream saida) {
+        validar(de, ate, formato);
+        long inicio = System.currentTimeMillis();
+        try {
+            GZIPOutputStream compactado = gzip ? new GZIPOutputStream(saida, TAMANHO_BUFFER) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    compactado != null ? compactado : saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+            Escritor escritor = CSV.equals(formato) ? new EscritorCsv(writer) : new EscritorNdjson(writer);
+            escritor.iniciar();
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(TAMANHO_LOTE_LEITURA);
+                ps.setTimestamp(1, Timestamp.valueOf(de.atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(ate.plusDays(1).atStartOfDay()));
+                return ps;
+            }, escritor);
+            escritor.finalizar();
+            writer.flush();
+            if (compactado != null) {
+                compactado.finish();
+            }
+            saida.flush();
+            System.out.println("📤 ExportacaoVendasService - " + escritor.vendas + " venda(s), " + escritor.itens
+                    + " item(ns) de " + de + " a " + ate + " em " + formato + (gzip ? ".gz" : "")
+                    + " (" + (System.currentTimeMillis() - inicio) + " ms)");
+        } catch (IOException e) {
+            // Normalmente o cliente encerrou o download
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ========================================================================
+    // Escrita
+    // ========================================================================
+
+    private abstract static class Escritor implements RowCallbackHandler {
+        protected final Writer writer;
+        long vendas;
+        long itens;
+        private UUID vendaAtual;
+
+        Escritor(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                UUID vendaId = rs.getObject("id", UUID.class);
+                if (!vendaId.equals(vendaAtual)) {
+                    vendaAtual = vendaId;
+                    vendas++;
+                    novaVenda(vendaId, rs);
+                }
+                UUID itemId = rs.getObject("item_id", UUID.class);
+                if (itemId != null) {
+                    itens++;
+                }
+                linha(itemId, rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void iniciar() throws IOException {
+        }
+
+        abstract void novaVenda(UUID vendaId, ResultSet rs) throws SQLException, IOException;
+
+        /** itemId nulo: venda sem itens */
+        abstract void linha(UUID itemId, ResultSet rs) throws SQLException, IOException;
+
+        abstract void finalizar() throws IOException;
+    }
+
+    /** Uma linha por item, com os dados da venda repetidos */
+    private static class EscritorCsv extends Escritor {
+        private String colunasVenda;
+
+        EscritorCsv(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void iniciar() throws IOException {
+            writer.write(CABECALHO_CSV);
+            writer.write('\n');
+        }
+
+        @Override
+        void novaVenda(UUID vendaId, ResultSet rs) throws SQLException {
+            colunasVenda = vendaId + ","
+                    + DataCodec.formatarDataHora(rs.getObject("created_at", LocalDateTime.class)) + ","
+                    + rs.getString("status") + ","
+                    + texto(rs.getObject("cliente_id", UUID.class)) + ","
+                    + "\"" + escapeCSV(rs.getString("cliente_nome")) + "\","
+                    + texto(rs.getObject("usuario_id", UUID.class)) + ","
+                    + "\"" + escapeCSV(rs.getString("usuario_nome")) + "\","
+                    + texto(rs.getBigDecimal("valor_total")) + ",";
+        }
+
+        @Override
+        void linha(UUID itemId, ResultSet rs) throws SQLException, IOException {
+            writer.write(colunasVenda);
+            if (itemId != null) {
+                writer.write(itemId + ","
+                        + rs.getObject("medicamento_id", UUID.class) + ","
+                        + "\"" + escapeCSV(rs.getString("medicamento_nome")) + "\","
+                        + rs.getInt("quantidade") + ","
+                        + texto(rs.getBigDecimal("preco_unitario")) + ","
+                        + texto(rs.getBigDecimal("subtotal")));
+            } else {
+                writer.write(",,,,,");
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        void finalizar() {
+        }
+
+        private static String texto(Object valor) {
+            return valor != null ? valor.toString() : "";
+        }
+
+        private static String escapeCSV(String value) {
+            if (value == null) {
+                return "";
+            }
+            // Escapa aspas duplas e quebras de linha
+            return value.replace("\"", "\"\"").replace("\n", " ").replace("\r", " ");
+        }
+    }
+
+    /** Uma venda por linha; os itens de uma venda são consecutivos no cursor (ORDER BY v.created_at, v.id) */
+    private class EscritorNdjson extends Escritor {
+        private VendaResponse venda;
+
+        EscritorNdjson(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void novaVenda(UUID vendaId, ResultSet rs) throws SQLException, IOException {
+            escreverVenda();
+            String status = rs.getString("status");
+            venda = new VendaResponse(
+                    vendaId,
+                    rs.getObject("cliente_id", UUID.class),
+                    rs.getString("cliente_nome"),
+                    rs.getObject("usuario_id", UUID.class),
+                    rs.getString("usuario_nome"),
+                    status != null ? StatusVenda.valueOf(status) : null,
+                    rs.getBigDecimal("valor_total"),
+                    new ArrayList<>(),
+                    rs.getObject("created_at", LocalDateTime.class)
+            );
+        }
+
+        @Override
+        void linha(UUID itemId, ResultSet rs) throws SQLException {
+            if (itemId != null) {
+                venda.getItens().add(new ItemVendaResponse(
+                        itemId,
+                        rs.getObject("medicamento_id", UUID.class),
+                        rs.getString("medicamento_nome"),
+                        rs.getInt("quantidade"),
+                        rs.getBigDecimal("preco_unitario"),
+                        rs.getBigDecimal("subtotal")
+                ));
+            }
+        }
+
+        @Override
+        void finalizar() throws IOException {
+            escreverVenda();
+        }
+
+        private void escreverVenda() throws IOException {
+            if (venda != null) {
+                writer.write(objectMapper.writeValueAsString(venda));
+                writer.write('\n');
+                venda = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.farmacia.service;
+
+import com.farmacia.domain.dto.IngestaoVendasStatusResponse;
+import com.farmacia.domain.dto.ItemVendaRequest;
+import com.farmacia.domain.dto.MedicamentoResponse;
+import com.farmacia.domain.dto.VendaIngestaoResponse;
+import com.farmacia.domain.dto.VendaRequest;
+import com.farmacia.domain.dto.VendaResponse;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.security.UsuarioContexto;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Ingestão assíncrona de vendas para horários de pico (app.vendas.ingestao.enabled).
+ *
+ * A venda é conferida contra uma visão do disponível em memória (saldo vendável menos reservas de
+ * carrinho, lido do banco e descontado das vendas aceitas ainda não gravadas), entra numa fila e é
+ * respondida com um ID provisório. Um pool de workers grava as vendas em lotes: cada lote trava de
+ * uma vez, em ordem de ID, todos os medicamentos envolvidos e passa cada venda pelo VendaService.create
+ * numa única transação, com um só commit. O banco continua sendo a palavra final: a venda que falhar
+ * na gravação (idade do cliente, estoque alterado por outra instância) desfaz o lote, que é refeito
+ * venda a venda para as demais seguirem, e fica REJEITADA na consulta de situação.
+ *
+ * A fila e as situações ficam em memória, nesta instância: no encerramento normal a fila é esvaziada
+ * antes de a aplicação parar, mas uma queda abrupta perde as vendas ainda pendentes.
+ */
+@Service
+public class IngestaoVendasService {
+
+    public static final String PENDENTE = "PENDENTE";
+    public static final String CONCLUIDA = "CONCLUIDA";
+    public static final String REJEITADA = "REJEITADA";
+
+    private static final long ESPERA_FILA_MS = 200;
+    private static final long ESPERA_ENCERRAMENTO_SEGUNDOS = 30;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private MedicamentoService medicamentoService;
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @Autowired
+    private UsuarioContexto usuarioContexto;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.vendas.ingestao.enabled:false}")
+    private boolean habilitada;
+
+    @Value("${app.vendas.ingestao.workers:4}")
+    private int workers;
+
+    @Value("${app.vendas.ingestao.lote:50}")
+    private int tamanhoLote;
+
+    @Value("${app.vendas.ingestao.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${app.vendas.ingestao.atualizacao-ms:2000}")
+    private long atualizacaoMs;
+
+    @Value("${app.vendas.ingestao.retencao-minutos:30}")
+    private long retencaoMinutos;
+
+    private BlockingQueue<VendaPendente> fila;
+    private ExecutorService executor;
+    private volatile boolean ativo;
+
+    private final Map<UUID, VendaIngestaoResponse> situacoes = new ConcurrentHashMap<>();
+
+    // Visão do disponível por medicamento; acessos sincronizados no próprio mapa
+    private final Map<UUID, Saldo> saldos = new HashMap<>();
+
+    private final AtomicLong aceitas = new AtomicLong();
+    private final AtomicLong recusadas = new AtomicLong();
+    private final AtomicLong concluidas = new AtomicLong();
+    private final AtomicLong rejeitadas = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong vendasEmLotes = new AtomicLong();
+    private final AtomicLong lotesDesfeitos = new AtomicLong();
+
+    private record VendaPendente(UUID id, VendaRequest request, Map<UUID, Integer> quantidades,
+                                 Authentication autenticacao, LocalDateTime recebidaEm) {
+    }
+
+    private static final class Saldo {
+        // Disponível no banco na última leitura, já descontadas as vendas gravadas depois dela
+        int disponivel;
+        // Aceito e ainda não gravado
+        int pendente;
+        long lidoEm;
+        // Incrementada a cada venda gravada: descarta leituras do banco feitas antes do commit
+        long versao;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitada) {
+            return;
+        }
+        fila = new ArrayBlockingQueue<>(capacidade);
+        ativo = true;
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, r -> new Thread(r, "ingestao-vendas-" + contador.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::executar);
+        }
+        System.out.println("🧾 Ingestão assíncrona de vendas iniciada (" + workers + " worker(s), lote de "
+                + tamanhoLote + ", fila de " + capacidade + ")");
+    }
+
+    /** Para de aceitar e espera os workers gravarem o que já está na fila */
+    @PreDestroy
+    public void encerrar() {
+        if (executor == null) {
+            return;
+        }
+        ativo = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(ESPERA_ENCERRAMENTO_SEGUNDOS, TimeUnit.SECONDS)) {
+                System.err.println("⚠️ Ingestão de vendas encerrada com " + fila.size() + " venda(s) ainda na fila");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========================================================================
+    // Aceitação (thread da requisição)
+    // ========================================================================
+
+    /**
+     * Confere a venda contra a visão em memória e a coloca na fila. Recusa na hora o que já se sabe
+     * inválido (medicamento inativo, estoque insuficiente, fila cheia); o restante é decidido na gravação.
+     */
+    public VendaIngestaoResponse aceitar(VendaRequest request) {
+        if (!habilitada) {
+            throw new BusinessException("Ingestão assíncrona de vendas desabilitada, por favor registre a venda em POST /api/vendas.");
+        }
+        if (!ativo) {
+            throw new BusinessException("Ingestão de vendas em encerramento, por favor registre a venda em POST /api/vendas.");
+        }
+        if (request.getCarrinhoId() != null) {
+            throw new BusinessException("Vendas de carrinho com reservas devem ser registradas em POST /api/vendas.");
+        }
+        // Falha aqui, e não no worker, se a requisição não tiver usuário
+        usuarioContexto.obrigatorio();
+
+        Map<UUID, Integer> quantidades = request.getItens().stream()
+                .collect(Collectors.groupingBy(ItemVendaRequest::getMedicamentoId, LinkedHashMap::new,
+                        Collectors.summingInt(ItemVendaRequest::getQuantidade)));
+
+        // Cadastro do cache de medicamentos: sem consulta ao banco no caminho normal
+        Map<UUID, String> nomes = new HashMap<>();
+        for (UUID medicamentoId : quantidades.keySet()) {
+            MedicamentoResponse medicamento = medicamentoService.findById(medicamentoId);
+            if (!Boolean.TRUE.equals(medicamento.getAtivo())) {
+                throw new BusinessException("O medicamento '" + medicamento.getNome() + "' está inativo e não pode ser vendido.");
+            }
+            nomes.put(medicamentoId, medicamento.getNome());
+        }
+
+        atualizarSaldos(quantidades.keySet());
+        synchronized (saldos) {
+            for (Map.Entry<UUID, Integer> item : quantidades.entrySet()) {
+                Saldo saldo = saldos.get(item.getKey());
+                int livre = saldo.disponivel - saldo.pendente;
+                if (livre < item.getValue()) {
+                    recusadas.incrementAndGet();
+                    throw new BusinessException("Estoque insuficiente para o medicamento '" + nomes.get(item.getKey())
+                            + "'. Disponível: " + Math.max(livre, 0) + " unidade(s), descontadas as vendas ainda em processamento.");
+                }
+            }
+            quantidades.forEach((medicamentoId, quantidade) -> saldos.get(medicamentoId).pendente += quantidade);
+        }
+
+        VendaPendente pendente = new VendaPendente(UUID.randomUUID(), request, quantidades,
+                SecurityContextHolder.getContext().getAuthentication(), LocalDateTime.now());
+        VendaIngestaoResponse situacao = new VendaIngestaoResponse(pendente.id(), PENDENTE, null, null, pendente.recebidaEm(), null);
+        // Registrada antes de entrar na fila: o worker pode concluir a venda antes deste método retornar
+        situacoes.put(pendente.id(), situacao);
+        if (!fila.offer(pendente)) {
+            situacoes.remove(pendente.id());
+            devolver(quantidades, false);
+            recusadas.incrementAndGet();
+            throw new BusinessException("Fila de vendas cheia, por favor tente novamente em instantes.");
+        }
+        aceitas.incrementAndGet();
+        return situacao;
+    }
+
+    public VendaIngestaoResponse getSituacao(UUID id) {
+        VendaIngestaoResponse situacao = situacoes.get(id);
+        if (situacao == null) {
+            throw new BusinessException("Venda não encontrada na ingestão (ID inválido, expirado após "
+                    + retencaoMinutos + " minuto(s) ou perdido em reinício da instância).");
+        }
+        return situacao;
+    }
+
+    /** Relê do banco os medicamentos sem leitura ou com leitura mais antiga que app.vendas.ingestao.atualizacao-ms */
+    private void atualizarSaldos(Iterable<UUID> medicamentoIds) {
+        for (UUID medicamentoId : medicamentoIds) {
+            long agora = System.currentTimeMillis();
+            long versao;
+            synchronized (saldos) {
+                Saldo saldo = saldos.get(medicamentoId);
+                if (saldo != null && agora - saldo.lidoEm < atualizacaoMs) {
+                    continue;
+                }
+                versao = saldo != null ? saldo.versao : 0;
+            }
+            // Fora do lock: outras vendas seguem sendo aceitas durante a consulta. No primário (transação
+            // de escrita): a réplica pode ainda não ter as vendas que os workers acabaram de gravar
+            Integer disponivel = new TransactionTemplate(transactionManager)
+                    .execute(status -> reservaEstoqueService.getDisponivel(medicamentoId, null));
+            synchronized (saldos) {
+                Saldo saldo = saldos.computeIfAbsent(medicamentoId, id -> new Saldo());
+                // Venda gravada durante a consulta: a leitura pode não incluí-la, mantém o valor descontado
+                if (saldo.versao == versao) {
+                    saldo.disponivel = disponivel;
+                    saldo.lidoEm = agora;
+                }
+            }
+        }
+    }
+
+    /** Tira as quantidades do pendente; gravadas, também do disponível (o banco baixou o mesmo tanto) */
+    private void devolver(Map<UUID, Integer> quantidades, boolean gravada) {
+        synchronized (saldos) {
+            quantidades.forEach((medicamentoId, quantidade) -> {
+                Saldo saldo = saldos.get(medicamentoId);
+                if (saldo == null) {
+                    return;
+                }
+                saldo.pendente -= quantidade;
+                if (gravada) {
+                    saldo.disponivel -= quantidade;
+                    saldo.versao++;
+                } else {
+                    // Recusada na gravação: a visão provavelmente está desatualizada, relê na próxima venda
+                    saldo.lidoEm = 0;
+                }
+            });
+        }
+    }
+
+    // ========================================================================
+    // Gravação (workers)
+    // ========================================================================
+
+    private void executar() {
+        while (ativo || !fila.isEmpty()) {
+            try {
+                VendaPendente primeira = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+                if (primeira == null) {
+                    continue;
+                }
+                List<VendaPendente> lote = new ArrayList<>(tamanhoLote);
+                lote.add(primeira);
+                fila.drainTo(lote, tamanhoLote - 1);
+                gravarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("❌ Ingestão de vendas: " + e.getMessage());
+            }
+        }
+    }
+
+    private void gravarLote(List<VendaPendente> lote) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        List<VendaResponse> vendas;
+        try {
+            vendas = transacao.execute(status -> {
+                // Todos os medicamentos do lote de uma vez, em ordem de ID: dois lotes nunca se travam mutuamente
+                reservaEstoqueService.bloquearMedicamentos(lote.stream()
+                        .flatMap(pendente -> pendente.quantidades().keySet().stream())
+                        .collect(Collectors.toList()));
+                return lote.stream().map(this::gravar).collect(Collectors.toList());
+            });
+        } catch (Exception e) {
+            if (lote.size() == 1) {
+                rejeitar(lote.get(0), e);
+                return;
+            }
+            // Uma venda recusada desfaz o lote inteiro: refaz venda a venda, cada uma na sua transação
+            lotesDesfeitos.incrementAndGet();
+            for (VendaPendente pendente : lote) {
+                try {
+                    concluir(pendente, transacao.execute(status -> gravar(pendente)));
+                } catch (Exception erro) {
+                    rejeitar(pendente, erro);
+                }
+            }
+            return;
+        }
+        lotes.incrementAndGet();
+        vendasEmLotes.addAndGet(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            concluir(lote.get(i), vendas.get(i));
+        }
+    }
+
+    /** Grava a venda em nome do usuário que a enviou (LogService e VendaService leem o SecurityContext) */
+    private VendaResponse gravar(VendaPendente pendente) {
+        SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+        contexto.setAuthentication(pendente.autenticacao());
+        SecurityContextHolder.setContext(contexto);
+        try {
+            return vendaService.create(pendente.request());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void concluir(VendaPendente pendente, VendaResponse venda) {
+        devolver(pendente.quantidades(), true);
+        situacoes.put(pendente.id(), new VendaIngestaoResponse(pendente.id(), CONCLUIDA, venda.getId(), null,
+                pendente.recebidaEm(), LocalDateTime.now()));
+        concluidas.incrementAndGet();
+    }
+
+    private void rejeitar(VendaPendente pendente, Exception e) {
+        devolver(pendente.quantidades(), false);
+        String erro = e instanceof BusinessException ? e.getMessage() : "Erro ao gravar a venda: " + e.getMessage();
+        if (!(e instanceof BusinessException)) {
+            System.err.println("❌ Ingestão de vendas: venda " + pendente.id() + " - " + e.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+        situacoes.put(pendente.id(), new VendaIngestaoResponse(pendente.id(), REJEITADA, null, erro,
+                pendente.recebidaEm(), LocalDateTime.now()));
+        rejeitadas.incrementAndGet();
+    }
+
+    // ========================================================================
+    // Manutenção
+    // ========================================================================
+
+    /** Esquece as situações finalizadas há mais de app.vendas.ingestao.retencao-minutos */
+    public void limparSituacoes() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(retencaoMinutos);
+        situacoes.values().removeIf(s -> s.getFinalizadaEm() != null && s.getFinalizadaEm().isBefore(limite));
+    }
+
+    public IngestaoVendasStatusResponse getStatus() {
+        long totalLotes = lotes.get();
+        int medicamentosEmMemoria;
+        synchronized (saldos) {
+            medicamentosEmMemoria = saldos.size();
+        }
+        return new IngestaoVendasStatusResponse(
+                habilitada,
+                fila != null ? fila.size() : 0,
+                capacidade,
+                aceitas.get(),
+                recusadas.get(),
+                concluidas.get(),
+                rejeitadas.get(),
+                totalLotes,
+                totalLotes > 0 ? Math.round(vendasEmLotes.get() * 10.0 / totalLotes) / 10.0 : 0.0,
+                lotesDesfeitos.get(),
+                medicamentosEmMemoria
+        );
+    }
+}
@@ -1,9 +1,17 @@
 package com.farmacia.service;
 
+import com.farmacia.config.DataCodec;
 import com.farmacia.domain.dto.LogResponse;
+import com.farmacia.domain.dto.PaginaResponse;
 import com.farmacia.domain.entity.Log;
+import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.LogRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,8 +20,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,11 +32,19 @@ public class LogConsultaService {
     @Autowired
     private LogRepository logRepository;
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final Pattern CAMPO_DETALHES = Pattern.compile("^[A-Za-z][A-Za-z0-9_]{0,49}$");
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+    private static final int PERIODO_PADRAO_DIAS = 90;
 
     @Transactional(readOnly = true)
     public List<LogResponse> getUltimos100Logs() {
-        List<Log> logs = logRepository.findTop100ByOrderByDataHoraDesc();
+        List<Log> logs = logRepository.findTop100ByDataHoraGreaterThanEqualOrderByDataHoraDesc(inicioJanelaRecente());
+        if (logs.size() < 100) {
+            logs = logRepository.findTop100ByOrderByDataHoraDesc();
+        }
         System.out.println("📋 LogConsultaService.getUltimos100Logs() - Total de logs retornados: " + logs.size());
         List<LogResponse> response = logs.stream()
                 .map(this::toResponse)
@@ -37,7 +55,10 @@ public class LogConsultaService {
 
     @Transactional(readOnly = true)
     public List<LogResponse> getUltimos50Logs() {
-        List<Log> logs = logRepository.findTop50ByOrderByDataHoraDesc();
+        List<Log> logs = logRepository.findTop50ByDataHoraGreaterThanEqualOrderByDataHoraDesc(inicioJanelaRecente());
+        if (logs.size() < 50) {
+            logs = logRepository.findTop50ByOrderByDataHoraDesc();
+        }
         return logs.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
@@ -73,7 +94,7 @@ public class LogConsultaService {
                     log.getUsuarioId(),
                     escapeCSV(log.getUsuarioNome()),
                     escapeCSV(log.getUsuarioEmail()),
-                    log.getDataHora().format(DATE_FORMATTER)
+                    DataCodec.formatarDataHora(log.getDataHora())
             );
         }
 
@@ -83,6 +104,59 @@ public class LogConsultaService {
         return new ByteArrayInputStream(outputStream.toByteArray());
     }
 
+    /**
+     * Busca logs por um campo dos detalhes (ex.: clienteCpf, medicamentoId, vendaId), no objeto
+     * principal ou nos itens. Sem período informado, considera os últimos 90 dias.
+     */
+    @Transactional(readOnly = true)
+    public PaginaResponse<LogResponse> buscarPorDetalhes(String campo, String valor, String tipoEntidade,
+                                                         LocalDate de, LocalDate ate, int pagina, int tamanho) {
+        if (campo == null || !CAMPO_DETALHES.matcher(campo).matches()) {
+            throw new BusinessException("Campo de busca inválido: informe o nome de um campo dos detalhes (ex.: clienteCpf, medicamentoId).");
+        }
+        if (valor == null || valor.isBlank()) {
+            throw new BusinessException("Informe o valor a ser buscado.");
+        }
+        if (pagina < 0 || tamanho <= 0 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Paginação inválida: a página deve ser >= 0 e o tamanho entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        LocalDate fimPeriodo = ate != null ? ate : LocalDate.now();
+        LocalDate inicioPeriodo = de != null ? de : fimPeriodo.minusDays(PERIODO_PADRAO_DIAS);
+        if (inicioPeriodo.isAfter(fimPeriodo)) {
+            throw new BusinessException("A data inicial não pode ser posterior à data final.");
+        }
+
+        // Os filtros são montados pelo Jackson: o valor nunca é concatenado em JSON ou SQL
+        ObjectNode filtro = objectMapper.createObjectNode().put(campo, valor.trim());
+        ObjectNode filtroItens = objectMapper.createObjectNode();
+        filtroItens.putArray("itens").add(filtro);
+        Page<Log> page;
+        try {
+            page = logRepository.buscarPorDetalhes(
+                    objectMapper.writeValueAsString(filtro),
+                    objectMapper.writeValueAsString(filtroItens),
+                    tipoEntidade != null && !tipoEntidade.isBlank() ? tipoEntidade.trim().toUpperCase() : null,
+                    inicioPeriodo.atStartOfDay(),
+                    fimPeriodo.plusDays(1).atStartOfDay(),
+                    PageRequest.of(pagina, tamanho));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Erro ao montar o filtro de busca: " + e.getMessage());
+        }
+
+        return new PaginaResponse<>(
+                page.getContent().stream().map(this::toResponse).collect(Collectors.toList()),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages()
+        );
+    }
+
+    /** Primeiro dia do mês anterior: cobre as duas partições mais recentes de logs */
+    private LocalDateTime inicioJanelaRecente() {
+        return LocalDateTime.now().minusMonths(1).withDayOfMonth(1).toLocalDate().atStartOfDay();
+    }
+
     private String escapeCSV(String value) {
         if (value == null) {
             return "";
@@ -1,17 +1,18 @@
 package com.farmacia.service;
 
+import com.farmacia.domain.auditoria.DetalhesAuditoria;
 import com.farmacia.domain.entity.Log;
-import com.farmacia.domain.entity.Usuario;
 import com.farmacia.repository.LogRepository;
-import com.farmacia.repository.UsuarioRepository;
+import com.farmacia.security.UsuarioAutenticado;
+import com.farmacia.security.UsuarioContexto;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
 @Service
@@ -21,57 +22,19 @@ public class LogService {
     private LogRepository logRepository;
 
     @Autowired
-    private UsuarioRepository usuarioRepository;
+    private UsuarioContexto usuarioContexto;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Transactional
-    public void registrarLog(String tipoOperacao, String tipoEntidade, UUID entidadeId, String descricao, String detalhes) {
+    public void registrarLog(String tipoOperacao, String tipoEntidade, UUID entidadeId, String descricao, DetalhesAuditoria detalhes) {
         try {
-            // Obtém usuário autenticado
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getName())) {
-                // Para operações que não têm usuário autenticado (como login antes da autenticação)
-                // o log deve ser registrado via registrarLogLogin
-                return;
-            }
-
-            String email = authentication.getName();
-            Usuario usuario = usuarioRepository.findByEmail(email)
-                    .orElse(null);
-
+            // Usuário da requisição (já carregado na autenticação). Operações sem usuário autenticado,
+            // como o login, registram o log via registrarLogLogin
+            UsuarioAutenticado usuario = usuarioContexto.atual().orElse(null);
             if (usuario == null) {
-                return; // Se não encontrar usuário, não registra log
-            }
-
-            // Garante que sempre há data nos detalhes
-            LocalDateTime dataHora = LocalDateTime.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-            String dataFormatada = dataHora.format(formatter);
-            
-            String detalhesComData;
-            if (detalhes == null || detalhes.trim().isEmpty()) {
-                // Se detalhes for null ou vazio, cria um JSON apenas com a data
-                detalhesComData = String.format("{\"data\":\"%s\"}", dataFormatada);
-            } else {
-                // Verifica se já tem campo "data" nos detalhes
-                String detalhesTrimmed = detalhes.trim();
-                if (detalhesTrimmed.contains("\"data\"")) {
-                    // Já tem data, usa os detalhes como estão
-                    detalhesComData = detalhesTrimmed;
-                } else {
-                    // Não tem data, adiciona
-                    // Remove o último } se existir e adiciona a data antes
-                    if (detalhesTrimmed.endsWith("}")) {
-                        String detalhesSemChave = detalhesTrimmed.substring(0, detalhesTrimmed.length() - 1);
-                        // Adiciona vírgula se não estiver vazio e não terminar com vírgula
-                        if (!detalhesSemChave.isEmpty() && !detalhesSemChave.endsWith(",") && !detalhesSemChave.endsWith("{")) {
-                            detalhesSemChave += ",";
-                        }
-                        detalhesComData = detalhesSemChave + "\"data\":\"" + dataFormatada + "\"}";
-                    } else {
-                        // Se não for JSON válido, cria um novo com a data
-                        detalhesComData = String.format("{\"detalhes\":%s,\"data\":\"%s\"}", detalhes, dataFormatada);
-                    }
-                }
+                return;
             }
 
             Log log = new Log();
@@ -79,7 +42,7 @@ public class LogService {
             log.setTipoEntidade(tipoEntidade);
             log.setEntidadeId(entidadeId);
             log.setDescricao(descricao);
-            log.setDetalhes(detalhesComData);
+            log.setDetalhes(serializar(detalhes));
             log.setUsuarioId(usuario.getId());
             log.setUsuarioNome(usuario.getNome());
             log.setUsuarioEmail(usuario.getEmail());
@@ -94,22 +57,31 @@ public class LogService {
 
     @Transactional
     public void registrarLogLogin(UUID usuarioId, String usuarioNome, String usuarioEmail, String descricao) {
-        // Adiciona data nos detalhes do log de login
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"data\":\"%s\"}", dataFormatada);
-        
         Log log = new Log();
         log.setTipoOperacao("LOGIN");
         log.setTipoEntidade("LOGIN");
         log.setEntidadeId(usuarioId);
         log.setDescricao(descricao);
-        log.setDetalhes(detalhes);
+        log.setDetalhes(serializar(null)); // Apenas a data
         log.setUsuarioId(usuarioId);
         log.setUsuarioNome(usuarioNome);
         log.setUsuarioEmail(usuarioEmail);
         logRepository.save(log);
     }
-}
 
+    /**
+     * Serializa os detalhes em uma única passada do gerador JSON do Jackson, com o campo "data"
+     * no mesmo objeto (dd/MM/yyyy HH:mm:ss, pelo JacksonConfig). O escape de aspas, barras e
+     * quebras de linha fica a cargo do Jackson.
+     */
+    private String serializar(DetalhesAuditoria detalhes) {
+        try {
+            return objectMapper.writeValueAsString(new RegistroAuditoria(detalhes, LocalDateTime.now()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar detalhes do log: " + e.getMessage(), e);
+        }
+    }
+
+    record RegistroAuditoria(@JsonUnwrapped DetalhesAuditoria detalhes, LocalDateTime data) {
+    }
+}
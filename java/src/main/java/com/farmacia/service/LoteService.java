@@ -0,0 +1,174 @@
+package com.farmacia.service;
+
+import com.farmacia.config.DataCodec;
+import com.farmacia.domain.dto.LoteResponse;
+import com.farmacia.domain.entity.Lote;
+import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.repository.LoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Saldo de estoque por lote. A soma dos lotes de um medicamento é sempre igual a
+ * medicamento.quantidadeEstoque, e medicamento.validade é mantida como a menor validade
+ * entre os lotes com saldo (usada pelos alertas de validade).
+ */
+@Service
+public class LoteService {
+
+    /** Parte de um lote separada para uma saída */
+    public record Alocacao(Lote lote, int quantidade) {
+    }
+
+    private static final String PREFIXO_LOTE_GENERICO = "SEM-LOTE-";
+
+    @Autowired
+    private LoteRepository loteRepository;
+
+    /**
+     * Soma a quantidade ao lote informado, criando-o se necessário.
+     * Sem número de lote, usa um lote genérico por validade (SEM-LOTE-yyyyMMdd).
+     */
+    @Transactional
+    public Lote registrarEntrada(Medicamento medicamento, String numeroLote, LocalDate validade, int quantidade) {
+        String numero = numeroLote != null && !numeroLote.trim().isEmpty() ? numeroLote.trim() : null;
+        if (numero == null) {
+            if (validade == null) {
+                validade = medicamento.getValidade();
+            }
+            numero = numeroLotePadrao(validade);
+        }
+
+        Lote lote = loteRepository.findByMedicamentoIdAndNumeroLote(medicamento.getId(), numero).orElse(null);
+        if (lote == null) {
+            if (validade == null) {
+                throw new BusinessException("Informe a validade do lote '" + numero + "', por favor preencha.");
+            }
+            lote = new Lote();
+            lote.setMedicamentoId(medicamento.getId());
+            lote.setNumeroLote(numero);
+            lote.setValidade(validade);
+            lote.setQuantidade(0);
+        } else if (validade != null && lote.getValidade() != null && !validade.equals(lote.getValidade())) {
+            throw new BusinessException(String.format("O lote '%s' já está cadastrado com validade %s, por favor alterar.",
+                    numero, DataCodec.formatarData(lote.getValidade())));
+        }
+
+        lote.setQuantidade(lote.getQuantidade() + quantidade);
+        lote = loteRepository.save(lote);
+        sincronizarValidade(medicamento);
+        return lote;
+    }
+
+    /**
+     * Separa a quantidade dos lotes em ordem FEFO (primeiro a vencer, primeiro a sair).
+     * Com somenteDentroDaValidade, lotes vencidos não são usados (vendas).
+     */
+    @Transactional
+    public List<Alocacao> separarFefo(Medicamento medicamento, int quantidade, boolean somenteDentroDaValidade) {
+        LocalDate hoje = LocalDate.now();
+        List<Alocacao> alocacoes = new ArrayList<>();
+        int restante = quantidade;
+
+        for (Lote lote : loteRepository.findComSaldoParaSeparacao(medicamento.getId())) {
+            if (restante == 0) {
+                break;
+            }
+            if (somenteDentroDaValidade && lote.getValidade() != null && lote.getValidade().isBefore(hoje)) {
+                continue;
+            }
+            int retirada = Math.min(restante, lote.getQuantidade());
+            lote.setQuantidade(lote.getQuantidade() - retirada);
+            loteRepository.save(lote);
+            alocacoes.add(new Alocacao(lote, retirada));
+            restante -= retirada;
+        }
+
+        if (restante > 0) {
+            throw new BusinessException(String.format("Estoque insuficiente nos lotes do medicamento '%s'. Faltam %d unidade(s)%s.",
+                    medicamento.getNome(), restante, somenteDentroDaValidade ? " dentro da validade" : ""));
+        }
+        sincronizarValidade(medicamento);
+        return alocacoes;
+    }
+
+    /** Devolve a quantidade a um lote específico (estorno de venda) */
+    @Transactional
+    public Lote estornar(Medicamento medicamento, UUID loteId, int quantidade) {
+        Lote lote = loteRepository.findById(loteId)
+                .orElseThrow(() -> new BusinessException("Lote não encontrado"));
+        lote.setQuantidade(lote.getQuantidade() + quantidade);
+        lote = loteRepository.save(lote);
+        sincronizarValidade(medicamento);
+        return lote;
+    }
+
+    /**
+     * Quando o medicamento tem um único lote com saldo e ele é genérico (cadastrado sem número),
+     * a validade editada no cadastro do medicamento passa a valer para esse lote.
+     */
+    @Transactional
+    public void ajustarValidadeLoteGenerico(Medicamento medicamento, LocalDate validade) {
+        List<Lote> lotes = loteRepository.findComSaldoParaSeparacao(medicamento.getId());
+        if (lotes.size() != 1 || validade == null) {
+            sincronizarValidade(medicamento);
+            return;
+        }
+        Lote lote = lotes.get(0);
+        String numeroNovo = numeroLotePadrao(validade);
+        if (lote.getNumeroLote().startsWith(PREFIXO_LOTE_GENERICO) && !validade.equals(lote.getValidade())
+                && loteRepository.findByMedicamentoIdAndNumeroLote(medicamento.getId(), numeroNovo).isEmpty()) {
+            lote.setNumeroLote(numeroNovo);
+            lote.setValidade(validade);
+            loteRepository.save(lote);
+        }
+        sincronizarValidade(medicamento);
+    }
+
+    /** Quantidade que pode ser vendida (lotes dentro da validade) */
+    @Transactional(readOnly = true)
+    public int getSaldoDentroDaValidade(UUID medicamentoId) {
+        return loteRepository.somarSaldoDentroDaValidade(medicamentoId, LocalDate.now()).intValue();
+    }
+
+    @Transactional(readOnly = true)
+    public List<LoteResponse> findByMedicamento(UUID medicamentoId) {
+        LocalDate hoje = LocalDate.now();
+        return loteRepository.findByMedicamentoIdOrderByValidadeAscCreatedAtAsc(medicamentoId).stream()
+                .map(lote -> new LoteResponse(
+                        lote.getId(),
+                        lote.getMedicamentoId(),
+                        lote.getNumeroLote(),
+                        lote.getValidade(),
+                        lote.getQuantidade(),
+                        lote.getValidade() != null && lote.getValidade().isBefore(hoje),
+                        lote.getCreatedAt()
+                ))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Mantém medicamento.validade como a validade do próximo lote a vencer.
+     * Sem lotes com saldo, a validade cadastrada é preservada.
+     */
+    private void sincronizarValidade(Medicamento medicamento) {
+        loteRepository.flush();
+        LocalDate menorValidade = loteRepository.findMenorValidadeComSaldo(medicamento.getId());
+        if (menorValidade != null) {
+            medicamento.setValidade(menorValidade);
+        }
+    }
+
+    private String numeroLotePadrao(LocalDate validade) {
+        return PREFIXO_LOTE_GENERICO + (validade != null ? validade.format(DateTimeFormatter.BASIC_ISO_DATE) : "INDEFINIDA");
+    }
+}
@@ -0,0 +1,113 @@
+package com.farmacia.service;
+
+import java.util.UUID;
+
+/**
+ * Mapa em memória medicamentoId -> estatísticas de venda.
+ * Usa arrays primitivos com endereçamento aberto (sondagem linear), sem criar
+ * objetos por medicamento, para que a previsão do catálogo inteiro seja
+ * recalculada percorrendo apenas arrays.
+ */
+class MapaEstatisticasVenda {
+
+    interface Visitante {
+        void visitar(long msb, long lsb, double mediaDiaria, int quantidadeDia, long diaReferencia);
+    }
+
+    private static final int CAPACIDADE_INICIAL = 1024;
+
+    private long[] msb;
+    private long[] lsb;
+    private double[] mediaDiaria;
+    private int[] quantidadeDia;
+    private long[] diaReferencia; // LocalDate.toEpochDay()
+    private boolean[] ocupado;
+    private int tamanho;
+
+    MapaEstatisticasVenda() {
+        alocar(CAPACIDADE_INICIAL);
+    }
+
+    synchronized void atualizar(UUID medicamentoId, double media, int quantidade, long dia) {
+        if ((tamanho + 1) * 4 > msb.length * 3) {
+            redimensionar();
+        }
+        int i = posicao(medicamentoId.getMostSignificantBits(), medicamentoId.getLeastSignificantBits());
+        if (!ocupado[i]) {
+            ocupado[i] = true;
+            msb[i] = medicamentoId.getMostSignificantBits();
+            lsb[i] = medicamentoId.getLeastSignificantBits();
+            tamanho++;
+        }
+        mediaDiaria[i] = media;
+        quantidadeDia[i] = quantidade;
+        diaReferencia[i] = dia;
+    }
+
+    synchronized void limpar() {
+        alocar(CAPACIDADE_INICIAL);
+    }
+
+    synchronized void percorrer(Visitante visitante) {
+        for (int i = 0; i < ocupado.length; i++) {
+            if (ocupado[i]) {
+                visitante.visitar(msb[i], lsb[i], mediaDiaria[i], quantidadeDia[i], diaReferencia[i]);
+            }
+        }
+    }
+
+    synchronized int tamanho() {
+        return tamanho;
+    }
+
+    // Retorna a posição da chave, ou a posição livre onde ela deve ser inserida
+    private int posicao(long chaveMsb, long chaveLsb) {
+        int mascara = msb.length - 1;
+        int i = hash(chaveMsb, chaveLsb) & mascara;
+        while (ocupado[i] && (msb[i] != chaveMsb || lsb[i] != chaveLsb)) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private static int hash(long chaveMsb, long chaveLsb) {
+        long h = chaveMsb ^ chaveLsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private void redimensionar() {
+        long[] antigoMsb = msb;
+        long[] antigoLsb = lsb;
+        double[] antigaMedia = mediaDiaria;
+        int[] antigaQuantidade = quantidadeDia;
+        long[] antigoDia = diaReferencia;
+        boolean[] antigoOcupado = ocupado;
+
+        alocar(antigoMsb.length * 2);
+        for (int j = 0; j < antigoOcupado.length; j++) {
+            if (antigoOcupado[j]) {
+                int i = posicao(antigoMsb[j], antigoLsb[j]);
+                ocupado[i] = true;
+                msb[i] = antigoMsb[j];
+                lsb[i] = antigoLsb[j];
+                mediaDiaria[i] = antigaMedia[j];
+                quantidadeDia[i] = antigaQuantidade[j];
+                diaReferencia[i] = antigoDia[j];
+                tamanho++;
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        msb = new long[capacidade];
+        lsb = new long[capacidade];
+        mediaDiaria = new double[capacidade];
+        quantidadeDia = new int[capacidade];
+        diaReferencia = new long[capacidade];
+        ocupado = new boolean[capacidade];
+        tamanho = 0;
+    }
+}
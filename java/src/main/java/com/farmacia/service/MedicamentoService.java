@@ -1,21 +1,31 @@
 package com.farmacia.service;
 
+import com.farmacia.config.RoteamentoDataSource;
+import com.farmacia.domain.auditoria.AlteracaoStatusAuditoria;
+import com.farmacia.domain.auditoria.ExclusaoAuditoria;
+import com.farmacia.domain.auditoria.MedicamentoAuditoria;
 import com.farmacia.domain.dto.MedicamentoRequest;
 import com.farmacia.domain.dto.MedicamentoResponse;
 import com.farmacia.domain.dto.CategoriaResponse;
+import com.farmacia.domain.dto.RemocaoCatalogoResponse;
+import com.farmacia.domain.dto.SincronizacaoCatalogoResponse;
 import com.farmacia.domain.entity.Medicamento;
 import com.farmacia.domain.entity.Categoria;
+import com.farmacia.domain.entity.Lote;
+import com.farmacia.domain.entity.MovimentacaoEstoque;
+import com.farmacia.domain.enums.TipoMovimentacao;
+import com.farmacia.domain.evento.MedicamentoAlteradoEvento;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.MedicamentoRepository;
 import com.farmacia.repository.CategoriaRepository;
+import com.farmacia.repository.MovimentacaoEstoqueRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -39,9 +49,21 @@ public class MedicamentoService {
     @Autowired
     private AlertaService alertaService;
 
+    @Autowired
+    private OutboxService outboxService;
+
     @Autowired
     private com.farmacia.repository.ItemVendaRepository itemVendaRepository;
 
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Transactional
     public MedicamentoResponse create(MedicamentoRequest request) {
         return create(request, null);
@@ -65,6 +87,10 @@ public class MedicamentoService {
         if (request.getQuantidadeEstoque() == null || request.getQuantidadeEstoque() < 0) {
             throw new BusinessException("A quantidade em estoque é obrigatória e não pode ser negativa, por favor alterar.");
         }
+
+        if (request.getEstoqueMinimo() != null && request.getEstoqueMinimo() < 0) {
+            throw new BusinessException("O estoque mínimo não pode ser negativo, por favor alterar.");
+        }
         
         // Valida data de validade (obrigatória e deve ser futura)
         if (request.getValidade() == null) {
@@ -79,6 +105,7 @@ public class MedicamentoService {
         medicamento.setDescricao(request.getDescricao());
         medicamento.setPreco(request.getPreco());
         medicamento.setQuantidadeEstoque(request.getQuantidadeEstoque());
+        medicamento.setEstoqueMinimo(request.getEstoqueMinimo());
         medicamento.setValidade(request.getValidade());
         medicamento.setAtivo(request.getAtivo() != null ? request.getAtivo() : true);
 
@@ -87,6 +114,7 @@ public class MedicamentoService {
                     .orElseThrow(() -> new BusinessException("Categoria não encontrada, por favor selecione uma categoria válida."));
             medicamento.setCategoria(categoria);
         }
+        aplicarLimiteEstoqueBaixo(medicamento);
 
         // Processa imagens se fornecidas
         if (files != null && !files.isEmpty()) {
@@ -97,54 +125,80 @@ public class MedicamentoService {
         }
 
         medicamento = medicamentoRepository.save(medicamento);
-        medicamentoRepository.flush(); // Garante que o medicamento seja persistido antes de gerar alertas
-        
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
-        System.out.println("💊 MedicamentoService.create() - PROCESSANDO ALERTAS");
-        System.out.println("💊 Medicamento ID: " + medicamento.getId());
-        System.out.println("💊 Medicamento Nome: " + medicamento.getNome());
-        System.out.println("💊 Ativo: " + medicamento.getAtivo());
-        System.out.println("💊 Validade: " + medicamento.getValidade());
-        System.out.println("💊 Quantidade Estoque: " + medicamento.getQuantidadeEstoque());
+        // O estoque inicial entra como um lote com a validade informada
+        if (medicamento.getQuantidadeEstoque() > 0) {
+            Lote lote = loteService.registrarEntrada(medicamento, null, request.getValidade(), medicamento.getQuantidadeEstoque());
+            registrarMovimentacao(medicamento, TipoMovimentacao.ENTRADA, medicamento.getQuantidadeEstoque(),
+                    medicamento.getQuantidadeEstoque(), "Estoque inicial", lote.getId());
+        }
+        medicamentoRepository.flush(); // Garante que o medicamento seja persistido antes da gravação do evento no outbox
         
-        // Atualiza alertas após criar um novo medicamento
-        System.out.println("💊 MedicamentoService: Medicamento criado, atualizando alertas...");
-        alertaService.verificarEstoqueBaixo();
-        alertaService.verificarValidadeProxima();
-        alertaService.verificarMedicamentosVencidos();
-        System.out.println("💊 MedicamentoService: Alertas atualizados");
-        System.out.println("💊 MedicamentoService.create() - ALERTAS PROCESSADOS");
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
+        // Alertas do novo medicamento são gerados pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_MEDICAMENTO, medicamento.getId(),
+                new MedicamentoAlteradoEvento(medicamento.getId(), MedicamentoAlteradoEvento.Operacao.CRIADO));
         
         // Registra log de criação com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"preco\":%.2f,\"quantidadeEstoque\":%d,\"ativo\":%s,\"data\":\"%s\"}", 
-                medicamento.getNome(), medicamento.getPreco(), medicamento.getQuantidadeEstoque(), medicamento.getAtivo(), dataFormatada);
+        MedicamentoAuditoria detalhes = new MedicamentoAuditoria(medicamento.getNome(), medicamento.getPreco(),
+                medicamento.getQuantidadeEstoque(), medicamento.getAtivo());
         logService.registrarLog("CREATE", "MEDICAMENTO", medicamento.getId(), 
                 "Medicamento criado: " + medicamento.getNome(), detalhes);
         
         return toResponse(medicamento);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public List<MedicamentoResponse> findAll() {
-        return medicamentoRepository.findAll().stream()
+        return medicamentoRepository.findAllComCategoriaEImagens().stream()
                 .sorted((m1, m2) -> m1.getNome().compareToIgnoreCase(m2.getNome()))
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public List<MedicamentoResponse> findActive() {
-        return medicamentoRepository.findByAtivoTrue().stream()
+        return medicamentoRepository.findAtivosComCategoriaEImagens().stream()
                 .sorted((m1, m2) -> m1.getNome().compareToIgnoreCase(m2.getNome()))
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Sincronização do catálogo dos terminais. Sem versão, devolve o catálogo ativo completo; com versão,
+     * somente medicamentos e categorias gravados desde então e as exclusões.
+     *
+     * A versão devolvida é o xmin do snapshot, lido antes das consultas: toda transação anterior já terminou
+     * e as que estavam em andamento têm versão maior ou igual, então aparecem na próxima sincronização
+     * (alguns itens podem vir repetidos, nunca faltar).
+     */
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
+    public SincronizacaoCatalogoResponse sincronizar(Long desde) {
+        Long versao = jdbcTemplate.queryForObject(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot())::TEXT::BIGINT", Long.class);
+
+        if (desde == null || desde <= 0) {
+            List<MedicamentoResponse> medicamentos = medicamentoRepository.findAtivosComCategoriaEImagens().stream()
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+            List<CategoriaResponse> categorias = categoriaRepository.findAll().stream()
+                    .map(this::toCategoriaResponse)
+                    .collect(Collectors.toList());
+            return new SincronizacaoCatalogoResponse(versao, true, medicamentos, categorias, new ArrayList<>());
+        }
+
+        List<MedicamentoResponse> medicamentos = medicamentoRepository.findAlteradosDesde(desde).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+        List<CategoriaResponse> categorias = categoriaRepository.findByVersaoGreaterThanEqual(desde).stream()
+                .map(this::toCategoriaResponse)
+                .collect(Collectors.toList());
+        List<RemocaoCatalogoResponse> removidos = jdbcTemplate.query(
+                "SELECT entidade, entidade_id FROM catalogo_remocoes WHERE versao >= ?",
+                (rs, i) -> new RemocaoCatalogoResponse(rs.getString("entidade"), rs.getObject("entidade_id", UUID.class)),
+                desde);
+        return new SincronizacaoCatalogoResponse(versao, false, medicamentos, categorias, removidos);
+    }
+
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
     public MedicamentoResponse findById(UUID id) {
         Medicamento medicamento = medicamentoRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
@@ -161,44 +215,15 @@ public class MedicamentoService {
         
         medicamento.setAtivo(ativo);
         medicamento = medicamentoRepository.save(medicamento);
-        medicamentoRepository.flush(); // Garante que a mudança de status seja persistida antes de processar alertas
-        
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
-        System.out.println("💊 MedicamentoService.updateStatus() - PROCESSANDO ALERTAS");
-        System.out.println("💊 Medicamento ID: " + id);
-        System.out.println("💊 Medicamento Nome: " + medicamento.getNome());
-        System.out.println("💊 Status Anterior: " + statusAnterior);
-        System.out.println("💊 Status Novo: " + statusNovo);
-        System.out.println("💊 Ativo: " + ativo);
-        System.out.println("💊 Validade: " + medicamento.getValidade());
-        System.out.println("💊 Quantidade Estoque: " + medicamento.getQuantidadeEstoque());
+        medicamentoRepository.flush(); // Garante que a mudança de status seja persistida antes da gravação do evento no outbox
         
-        // Se o medicamento foi inativado, marca todos os seus alertas como lidos
-        // Isso garante que alertas de medicamentos inativos não apareçam no painel de controle
-        if (!ativo) {
-            System.out.println("💊 MedicamentoService: Medicamento INATIVADO, marcando todos os alertas como lidos");
-            alertaService.marcarTodosAlertasComoLidos(id);
-            System.out.println("💊 MedicamentoService: Alertas marcados como lidos");
-        } else {
-            // Se o medicamento foi reativado, remove todos os alertas antigos (lidos ou não) 
-            // e regenera os alertas para permitir que novos alertas sejam criados se necessário
-            System.out.println("💊 MedicamentoService: Medicamento REATIVADO, removendo alertas antigos e regenerando...");
-            System.out.println("💊 MedicamentoService: Chamando removerTodosAlertasDoMedicamento(" + id + ")...");
-            alertaService.removerTodosAlertasDoMedicamento(id);
-            System.out.println("💊 MedicamentoService: Alertas antigos removidos, atualizando alertas...");
-            alertaService.verificarEstoqueBaixo();
-            alertaService.verificarValidadeProxima();
-            alertaService.verificarMedicamentosVencidos();
-            System.out.println("💊 MedicamentoService: Alertas regenerados");
-        }
-        System.out.println("💊 MedicamentoService.updateStatus() - ALERTAS PROCESSADOS");
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
+        // Inativado: alertas marcados como lidos; reativado: alertas antigos removidos e regerados.
+        // Ambos pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_MEDICAMENTO, id, new MedicamentoAlteradoEvento(id,
+                ativo ? MedicamentoAlteradoEvento.Operacao.ATIVADO : MedicamentoAlteradoEvento.Operacao.INATIVADO));
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"statusAnterior\":\"%s\",\"statusNovo\":\"%s\",\"data\":\"%s\"}", statusAnterior, statusNovo, dataFormatada);
+        AlteracaoStatusAuditoria detalhes = new AlteracaoStatusAuditoria(statusAnterior, statusNovo);
         logService.registrarLog("UPDATE", "MEDICAMENTO", medicamento.getId(), 
                 String.format("Status do medicamento '%s' alterado de %s para %s", medicamento.getNome(), statusAnterior, statusNovo), 
                 detalhes);
@@ -236,6 +261,10 @@ public class MedicamentoService {
         if (request.getQuantidadeEstoque() == null || request.getQuantidadeEstoque() < 0) {
             throw new BusinessException("A quantidade em estoque é obrigatória e não pode ser negativa, por favor alterar.");
         }
+
+        if (request.getEstoqueMinimo() != null && request.getEstoqueMinimo() < 0) {
+            throw new BusinessException("O estoque mínimo não pode ser negativo, por favor alterar.");
+        }
         
         // Valida data de validade (obrigatória e deve ser futura)
         if (request.getValidade() == null) {
@@ -245,10 +274,12 @@ public class MedicamentoService {
             throw new BusinessException("A data de validade deve ser futura, por favor alterar.");
         }
 
+        int quantidadeAnterior = medicamento.getQuantidadeEstoque();
         medicamento.setNome(request.getNome());
         medicamento.setDescricao(request.getDescricao());
         medicamento.setPreco(request.getPreco());
         medicamento.setQuantidadeEstoque(request.getQuantidadeEstoque());
+        medicamento.setEstoqueMinimo(request.getEstoqueMinimo());
         medicamento.setValidade(request.getValidade());
         medicamento.setAtivo(request.getAtivo() != null ? request.getAtivo() : true);
 
@@ -257,6 +288,25 @@ public class MedicamentoService {
                     .orElseThrow(() -> new BusinessException("Categoria não encontrada, por favor selecione uma categoria válida."));
             medicamento.setCategoria(categoria);
         }
+        aplicarLimiteEstoqueBaixo(medicamento);
+
+        // Ajusta os lotes: a validade informada vale para o lote genérico único (cadastro sem lotes)
+        // e para o estoque acrescentado; reduções saem dos lotes que vencem primeiro
+        loteService.ajustarValidadeLoteGenerico(medicamento, request.getValidade());
+        int diferenca = request.getQuantidadeEstoque() - quantidadeAnterior;
+        // Toda alteração de quantidade pelo cadastro fica registrada no histórico de movimentações
+        if (diferenca > 0) {
+            Lote lote = loteService.registrarEntrada(medicamento, null, request.getValidade(), diferenca);
+            registrarMovimentacao(medicamento, TipoMovimentacao.ENTRADA, diferenca,
+                    request.getQuantidadeEstoque(), "Ajuste no cadastro do medicamento", lote.getId());
+        } else if (diferenca < 0) {
+            int estoqueTotal = quantidadeAnterior;
+            for (LoteService.Alocacao alocacao : loteService.separarFefo(medicamento, -diferenca, false)) {
+                estoqueTotal -= alocacao.quantidade();
+                registrarMovimentacao(medicamento, TipoMovimentacao.SAIDA, alocacao.quantidade(),
+                        estoqueTotal, "Ajuste no cadastro do medicamento", alocacao.lote().getId());
+            }
+        }
 
         // Processa imagens se fornecidas
         if (files != null && !files.isEmpty()) {
@@ -274,31 +324,15 @@ public class MedicamentoService {
         }
 
         medicamento = medicamentoRepository.save(medicamento);
-        medicamentoRepository.flush(); // Garante que as mudanças sejam persistidas antes de gerar alertas
-        
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
-        System.out.println("💊 MedicamentoService.update() - PROCESSANDO ALERTAS");
-        System.out.println("💊 Medicamento ID: " + id);
-        System.out.println("💊 Medicamento Nome: " + medicamento.getNome());
-        System.out.println("💊 Ativo: " + medicamento.getAtivo());
-        System.out.println("💊 Validade: " + medicamento.getValidade());
-        System.out.println("💊 Quantidade Estoque: " + medicamento.getQuantidadeEstoque());
+        medicamentoRepository.flush(); // Garante que as mudanças sejam persistidas antes da gravação do evento no outbox
         
-        // Atualiza alertas após atualizar um medicamento
-        System.out.println("💊 MedicamentoService: Medicamento atualizado, atualizando alertas...");
-        alertaService.verificarEstoqueBaixo();
-        alertaService.verificarValidadeProxima();
-        alertaService.verificarMedicamentosVencidos();
-        System.out.println("💊 MedicamentoService: Alertas atualizados");
-        System.out.println("💊 MedicamentoService.update() - ALERTAS PROCESSADOS");
-        System.out.println("═══════════════════════════════════════════════════════════════════════════════");
+        // Alertas são atualizados pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_MEDICAMENTO, id,
+                new MedicamentoAlteradoEvento(id, MedicamentoAlteradoEvento.Operacao.ATUALIZADO));
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"preco\":%.2f,\"quantidadeEstoque\":%d,\"ativo\":%s,\"data\":\"%s\"}", 
-                medicamento.getNome(), medicamento.getPreco(), medicamento.getQuantidadeEstoque(), medicamento.getAtivo(), dataFormatada);
+        MedicamentoAuditoria detalhes = new MedicamentoAuditoria(medicamento.getNome(), medicamento.getPreco(),
+                medicamento.getQuantidadeEstoque(), medicamento.getAtivo());
         logService.registrarLog("UPDATE", "MEDICAMENTO", medicamento.getId(), 
                 "Medicamento atualizado: " + medicamento.getNome(), detalhes);
         
@@ -346,10 +380,7 @@ public class MedicamentoService {
         System.out.println("💊 MedicamentoService.delete() - Medicamento excluído com sucesso");
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"data\":\"%s\"}", nomeMedicamento, dataFormatada);
+        ExclusaoAuditoria detalhes = new ExclusaoAuditoria(nomeMedicamento);
         logService.registrarLog("DELETE", "MEDICAMENTO", medicamentoId, 
                 "Medicamento deletado: " + nomeMedicamento, detalhes);
         
@@ -392,32 +423,54 @@ public class MedicamentoService {
         return toResponse(medicamento);
     }
 
-    private MedicamentoResponse toResponse(Medicamento medicamento) {
-        CategoriaResponse categoriaResponse = null;
-        if (medicamento.getCategoria() != null) {
-            categoriaResponse = new CategoriaResponse(
-                    medicamento.getCategoria().getId(),
-                    medicamento.getCategoria().getNome(),
-                    medicamento.getCategoria().getDescricao(),
-                    medicamento.getCategoria().getCreatedAt()
-            );
+    private void registrarMovimentacao(Medicamento medicamento, TipoMovimentacao tipo, int quantidade,
+                                       int estoqueTotal, String motivo, UUID loteId) {
+        MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
+        movimentacao.setMedicamentoId(medicamento.getId());
+        movimentacao.setQuantidade(quantidade);
+        movimentacao.setTipo(tipo);
+        movimentacao.setEstoqueTotal(estoqueTotal);
+        movimentacao.setMotivo(motivo);
+        movimentacao.setLoteId(loteId);
+        movimentacaoEstoqueRepository.save(movimentacao);
+    }
+
+    /**
+     * Define o limite efetivo de estoque baixo: estoque mínimo do medicamento,
+     * senão o da categoria, senão o padrão do AlertaService
+     */
+    private void aplicarLimiteEstoqueBaixo(Medicamento medicamento) {
+        Integer limite = medicamento.getEstoqueMinimo();
+        if (limite == null && medicamento.getCategoria() != null) {
+            limite = medicamento.getCategoria().getEstoqueMinimo();
         }
+        medicamento.setLimiteEstoqueBaixo(limite != null ? limite : AlertaService.getLimiteEstoqueBaixoPadrao());
+    }
 
+    private MedicamentoResponse toResponse(Medicamento medicamento) {
         return new MedicamentoResponse(
                 medicamento.getId(),
                 medicamento.getNome(),
                 medicamento.getDescricao(),
                 medicamento.getPreco(),
                 medicamento.getQuantidadeEstoque(),
+                medicamento.getEstoqueMinimo(),
+                medicamento.getLimiteEstoqueBaixo(),
                 medicamento.getValidade(),
                 medicamento.getAtivo(),
-                categoriaResponse,
+                medicamento.getCategoria() != null ? toCategoriaResponse(medicamento.getCategoria()) : null,
                 medicamento.getImagens() != null ? medicamento.getImagens() : new ArrayList<>(),
                 medicamento.getCreatedAt()
         );
     }
-}
-
-
-
 
+    private CategoriaResponse toCategoriaResponse(Categoria categoria) {
+        return new CategoriaResponse(
+                categoria.getId(),
+                categoria.getNome(),
+                categoria.getDescricao(),
+                categoria.getEstoqueMinimo(),
+                categoria.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,117 @@
+package com.farmacia.service;
+
+import com.farmacia.domain.dto.OutboxStatusResponse;
+import com.farmacia.domain.evento.EstoqueAlteradoEvento;
+import com.farmacia.domain.evento.MedicamentoAlteradoEvento;
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.domain.evento.VendaConcluidaEvento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Outbox transacional: os eventos de domínio são gravados em outbox_eventos na transação de quem
+ * os publica e entregues depois pelo RelayOutbox aos handlers (@EventListener), fora do caminho
+ * da requisição. Sem commit, não há evento; com commit, o evento é entregue ao menos uma vez.
+ */
+@Service
+public class OutboxService {
+
+    public static final String AGREGADO_VENDA = "VENDA";
+    public static final String AGREGADO_MEDICAMENTO = "MEDICAMENTO";
+
+    /** Tipos aceitos no outbox, pelo nome gravado na coluna tipo */
+    static final Map<String, Class<?>> TIPOS = Stream.of(
+                    VendaConcluidaEvento.class,
+                    VendaCanceladaEvento.class,
+                    EstoqueAlteradoEvento.class,
+                    MedicamentoAlteradoEvento.class)
+            .collect(Collectors.toUnmodifiableMap(Class::getSimpleName, Function.identity()));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RelayOutbox relayOutbox;
+
+    @Value("${app.outbox.retencao-horas:72}")
+    private int retencaoHoras;
+
+    /** Grava o evento na transação atual (obrigatória); o relay é acordado após o commit */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicar(String agregadoTipo, UUID agregadoId, Object evento) {
+        String tipo = evento.getClass().getSimpleName();
+        if (!TIPOS.containsKey(tipo)) {
+            throw new IllegalArgumentException("Evento não registrado no outbox: " + tipo);
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o evento " + tipo, e);
+        }
+        jdbcTemplate.update("INSERT INTO outbox_eventos (tipo, agregado_tipo, agregado_id, payload) VALUES (?, ?, ?, ?::jsonb)",
+                tipo, agregadoTipo, agregadoId, payload);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relayOutbox.acordar();
+            }
+        });
+    }
+
+    /**
+     * Fila e atraso de entrega: pendentes, idade do pendente mais antigo e, na última hora,
+     * processados e atraso médio/máximo entre a gravação e a entrega.
+     */
+    public OutboxStatusResponse getStatus() {
+        return jdbcTemplate.queryForObject(
+                "SELECT p.pendentes, p.com_falha, p.mais_antigo, h.processados, h.atraso_medio_ms, h.atraso_maximo_ms, f.erro "
+                        + "FROM (SELECT COUNT(*) AS pendentes, COUNT(*) FILTER (WHERE tentativas > 0) AS com_falha, "
+                        + "MIN(criado_em) AS mais_antigo FROM outbox_eventos WHERE processado_em IS NULL) p, "
+                        + "(SELECT COUNT(*) AS processados, "
+                        + "ROUND(AVG(EXTRACT(EPOCH FROM processado_em - criado_em) * 1000))::BIGINT AS atraso_medio_ms, "
+                        + "ROUND(MAX(EXTRACT(EPOCH FROM processado_em - criado_em) * 1000))::BIGINT AS atraso_maximo_ms "
+                        + "FROM outbox_eventos WHERE processado_em >= now() - INTERVAL '1 hour') h "
+                        + "LEFT JOIN LATERAL (SELECT tipo || ' ' || id || ': ' || erro AS erro FROM outbox_eventos "
+                        + "WHERE processado_em IS NULL AND erro IS NOT NULL ORDER BY id LIMIT 1) f ON true",
+                (rs, rowNum) -> {
+                    LocalDateTime maisAntigo = rs.getObject(3, LocalDateTime.class);
+                    return new OutboxStatusResponse(
+                            rs.getLong(1),
+                            rs.getLong(2),
+                            maisAntigo,
+                            maisAntigo != null ? Duration.between(maisAntigo, LocalDateTime.now()).toMillis() : 0L,
+                            rs.getLong(4),
+                            rs.getObject(5, Long.class),
+                            rs.getObject(6, Long.class),
+                            rs.getString(7)
+                    );
+                });
+    }
+
+    /** Remove os eventos entregues há mais de app.outbox.retencao-horas */
+    public void limpar() {
+        int removidos = jdbcTemplate.update("DELETE FROM outbox_eventos WHERE processado_em < now() - ? * INTERVAL '1 hour'",
+                retencaoHoras);
+        System.out.println("📬 Outbox: " + removidos + " evento(s) entregue(s) removido(s)");
+    }
+}
@@ -0,0 +1,289 @@
+package com.farmacia.service;
+
+import com.farmacia.config.CoordenadorJobs;
+import com.farmacia.domain.dto.ParticaoResponse;
+import com.farmacia.exception.BusinessException;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Manutenção das partições mensais de logs e movimentacoes_estoque.
+ * Cria as partições dos próximos meses e, ao fim do período de retenção, exporta a partição
+ * (COPY em CSV compactado) para o diretório de arquivo e a remove do banco com DETACH + DROP,
+ * sem DELETE em massa. Partições arquivadas podem ser restauradas pelo mesmo arquivo.
+ */
+@Service
+public class ParticaoService {
+
+    private static final Pattern NOME_PARTICAO = Pattern.compile("^(logs|movimentacoes_estoque)_p(\\d{4})_(\\d{2})$");
+    private static final String EXTENSAO_ARQUIVO = ".csv.gz";
+
+    /** Tabela particionada -> coluna de particionamento */
+    private static final Map<String, String> TABELAS = new LinkedHashMap<>();
+
+    static {
+        TABELAS.put("logs", "data_hora");
+        TABELAS.put("movimentacoes_estoque", "data");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    @Value("${app.particoes.meses-a-frente:3}")
+    private int mesesAFrente;
+
+    @Value("${app.particoes.retencao.logs-meses:12}")
+    private int retencaoLogsMeses;
+
+    @Value("${app.particoes.retencao.movimentacoes-meses:60}")
+    private int retencaoMovimentacoesMeses;
+
+    @Value("${app.particoes.arquivo-dir:${user.dir}/arquivo}")
+    private String arquivoDir;
+
+    /**
+     * Garante as partições futuras e arquiva as que saíram do período de retenção.
+     * Executada diariamente à 1h30 pelo job "particoes" (JobsAgendados).
+     * Retorna a descrição das ações executadas.
+     */
+    public synchronized List<String> executarManutencao() {
+        List<String> acoes = new ArrayList<>(criarParticoesFuturas());
+        LocalDate mesAtual = LocalDate.now().withDayOfMonth(1);
+        for (ParticaoResponse particao : listarParticoesAtivas()) {
+            if (particao.getMes() == null) {
+                continue; // partição padrão
+            }
+            int retencao = "logs".equals(particao.getTabela()) ? retencaoLogsMeses : retencaoMovimentacoesMeses;
+            if (particao.getMes().isBefore(mesAtual.minusMonths(retencao))) {
+                arquivar(particao.getParticao());
+                acoes.add("Arquivada: " + particao.getParticao());
+            }
+        }
+        System.out.println("📦 Manutenção de partições concluída - " + acoes.size() + " ação(ões)");
+        return acoes;
+    }
+
+    private List<String> criarParticoesFuturas() {
+        List<String> criadas = new ArrayList<>();
+        LocalDate mesAtual = LocalDate.now().withDayOfMonth(1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            coordenadorJobs.vincularAoLease();
+            for (Map.Entry<String, String> tabela : TABELAS.entrySet()) {
+                for (int i = 0; i <= mesesAFrente; i++) {
+                    String nome = nomeParticao(tabela.getKey(), mesAtual.plusMonths(i));
+                    if (!existeTabela(nome)) {
+                        jdbcTemplate.queryForObject("SELECT criar_particao_mensal(?, ?, ?)", String.class,
+                                tabela.getKey(), tabela.getValue(), mesAtual.plusMonths(i));
+                        criadas.add("Criada: " + nome);
+                    }
+                }
+            }
+        });
+        return criadas;
+    }
+
+    /**
+     * Partições ativas no banco (incluindo a padrão), com contagem estimada pelas estatísticas do PostgreSQL.
+     */
+    public List<ParticaoResponse> listarParticoesAtivas() {
+        return jdbcTemplate.query(
+                "SELECT p.relname, c.relname, GREATEST(c.reltuples, 0)::BIGINT, pg_total_relation_size(c.oid) "
+                        + "FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname IN ('logs', 'movimentacoes_estoque') "
+                        + "ORDER BY p.relname, c.relname",
+                (rs, rowNum) -> new ParticaoResponse(
+                        rs.getString(1),
+                        rs.getString(2),
+                        mesDaParticao(rs.getString(2)),
+                        rs.getLong(3),
+                        rs.getLong(4),
+                        false
+                ));
+    }
+
+    /** Partições arquivadas em disco */
+    public List<ParticaoResponse> listarArquivadas() {
+        Path diretorio = Paths.get(arquivoDir);
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(a -> a.getFileName().toString().endsWith(EXTENSAO_ARQUIVO))
+                    .map(a -> {
+                        String nome = a.getFileName().toString();
+                        nome = nome.substring(0, nome.length() - EXTENSAO_ARQUIVO.length());
+                        Matcher matcher = NOME_PARTICAO.matcher(nome);
+                        if (!matcher.matches()) {
+                            return null;
+                        }
+                        try {
+                            return new ParticaoResponse(matcher.group(1), nome, mesDaParticao(nome), null, Files.size(a), true);
+                        } catch (IOException e) {
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(ParticaoResponse::getParticao))
+                    .toList();
+        } catch (IOException e) {
+            throw new BusinessException("Erro ao listar partições arquivadas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta a partição para <arquivo-dir>/<particao>.csv.gz e a remove do banco.
+     * Para movimentacoes_estoque, o saldo da partição é acumulado em movimentacoes_saldo_arquivado
+     * antes da remoção. Tudo na mesma transação: se o DETACH/DROP falhar, o arquivo fica, mas os dados também.
+     */
+    public void arquivar(String particao) {
+        Matcher matcher = validarNome(particao);
+        String tabela = matcher.group(1);
+        Path arquivo = caminhoArquivo(particao);
+        if (!existeTabela(particao)) {
+            throw new BusinessException("Partição não encontrada: " + particao);
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            coordenadorJobs.vincularAoLease(); // no job "particoes": o DROP só é confirmado com o lease
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(arquivo.getParent());
+                try (OutputStream saida = new GZIPOutputStream(Files.newOutputStream(temporario))) {
+                    long linhas = copyManager().copyOut("COPY " + particao + " TO STDOUT WITH (FORMAT csv, HEADER)", saida);
+                    System.out.println("📦 Partição " + particao + " exportada: " + linhas + " linha(s)");
+                }
+                Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | SQLException e) {
+                throw new BusinessException("Erro ao exportar a partição " + particao + ": " + e.getMessage());
+            }
+
+            if ("movimentacoes_estoque".equals(tabela)) {
+                acumularSaldoArquivado(particao, 1);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + tabela + " DETACH PARTITION " + particao);
+            jdbcTemplate.execute("DROP TABLE " + particao);
+        });
+    }
+
+    /**
+     * Recria a partição a partir do arquivo e a anexa novamente à tabela.
+     * Se continuar fora do período de retenção, será arquivada de novo na próxima manutenção.
+     */
+    public void restaurar(String particao) {
+        Matcher matcher = validarNome(particao);
+        String tabela = matcher.group(1);
+        Path arquivo = caminhoArquivo(particao);
+        if (!Files.exists(arquivo)) {
+            throw new BusinessException("Arquivo da partição não encontrado: " + arquivo.getFileName());
+        }
+        if (existeTabela(particao)) {
+            throw new BusinessException("Partição já está ativa: " + particao);
+        }
+        LocalDate mes = mesDaParticao(particao);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + particao + " (LIKE " + tabela + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            try (InputStream entrada = new GZIPInputStream(Files.newInputStream(arquivo))) {
+                long linhas = copyManager().copyIn("COPY " + particao + " FROM STDIN WITH (FORMAT csv, HEADER)", entrada);
+                System.out.println("📦 Partição " + particao + " restaurada: " + linhas + " linha(s)");
+            } catch (IOException | SQLException e) {
+                throw new BusinessException("Erro ao restaurar a partição " + particao + ": " + e.getMessage());
+            }
+            jdbcTemplate.execute("ALTER TABLE " + tabela + " ATTACH PARTITION " + particao
+                    + " FOR VALUES FROM ('" + mes + "') TO ('" + mes.plusMonths(1) + "')");
+            if ("movimentacoes_estoque".equals(tabela)) {
+                acumularSaldoArquivado(particao, -1);
+            }
+        });
+
+        try {
+            Files.delete(arquivo);
+        } catch (IOException e) {
+            System.err.println("⚠️ Não foi possível remover o arquivo " + arquivo + ": " + e.getMessage());
+        }
+    }
+
+    private void acumularSaldoArquivado(String particao, int sinal) {
+        jdbcTemplate.update(
+                "INSERT INTO movimentacoes_saldo_arquivado (medicamento_id, saldo, quantidade_movimentacoes, updated_at) "
+                        + "SELECT medicamento_id, "
+                        + "       ? * SUM(CASE WHEN tipo = 'ENTRADA' THEN quantidade ELSE -quantidade END), "
+                        + "       ? * COUNT(*), CURRENT_TIMESTAMP "
+                        + "FROM " + particao + " GROUP BY medicamento_id "
+                        + "ON CONFLICT (medicamento_id) DO UPDATE SET "
+                        + "    saldo = movimentacoes_saldo_arquivado.saldo + EXCLUDED.saldo, "
+                        + "    quantidade_movimentacoes = movimentacoes_saldo_arquivado.quantidade_movimentacoes + EXCLUDED.quantidade_movimentacoes, "
+                        + "    updated_at = EXCLUDED.updated_at",
+                sinal, sinal);
+    }
+
+    /** CopyManager sobre a conexão da transação corrente */
+    private CopyManager copyManager() throws SQLException {
+        Connection conexao = DataSourceUtils.getConnection(dataSource);
+        return conexao.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    private boolean existeTabela(String nome) {
+        Boolean existe = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, nome);
+        return Boolean.TRUE.equals(existe);
+    }
+
+    /** Valida o nome antes de usá-lo em SQL dinâmico */
+    private Matcher validarNome(String particao) {
+        Matcher matcher = NOME_PARTICAO.matcher(particao == null ? "" : particao);
+        if (!matcher.matches()) {
+            throw new BusinessException("Nome de partição inválido: " + particao);
+        }
+        return matcher;
+    }
+
+    private Path caminhoArquivo(String particao) {
+        return Paths.get(arquivoDir).resolve(particao + EXTENSAO_ARQUIVO);
+    }
+
+    private static String nomeParticao(String tabela, LocalDate mes) {
+        return String.format("%s_p%04d_%02d", tabela, mes.getYear(), mes.getMonthValue());
+    }
+
+    private static LocalDate mesDaParticao(String particao) {
+        Matcher matcher = NOME_PARTICAO.matcher(particao);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return LocalDate.of(Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)), 1);
+    }
+}
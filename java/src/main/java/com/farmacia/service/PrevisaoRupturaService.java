@@ -0,0 +1,225 @@
+package com.farmacia.service;
+
+import com.farmacia.config.CoordenadorJobs;
+import com.farmacia.domain.entity.Alerta;
+import com.farmacia.domain.entity.EstatisticaVenda;
+import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.domain.evento.VendaConcluidaEvento;
+import com.farmacia.repository.AlertaRepository;
+import com.farmacia.repository.EstatisticaVendaRepository;
+import com.farmacia.repository.MedicamentoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Previsão de ruptura de estoque baseada na velocidade de vendas.
+ * Mantém, por medicamento, uma média móvel exponencial (EWMA) de unidades vendidas por dia,
+ * persistida em estatisticas_venda e espelhada em memória (MapaEstatisticasVenda).
+ * A avaliação nunca consulta o histórico de itens_venda.
+ */
+@Service
+public class PrevisaoRupturaService {
+
+    public static final String TIPO_ALERTA = "PREVISAO_RUPTURA";
+
+    @Autowired
+    private EstatisticaVendaRepository estatisticaVendaRepository;
+
+    @Autowired
+    private MedicamentoRepository medicamentoRepository;
+
+    @Autowired
+    private AlertaRepository alertaRepository;
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    @Value("${app.alertas.previsao-ruptura.horizonte-dias:7}")
+    private int horizonteDias;
+
+    @Value("${app.alertas.previsao-ruptura.alfa:0.3}")
+    private double alfa;
+
+    private final MapaEstatisticasVenda estatisticas = new MapaEstatisticasVenda();
+
+    @PostConstruct
+    public void carregarEstatisticas() {
+        estatisticas.limpar();
+        for (EstatisticaVenda e : estatisticaVendaRepository.findAll()) {
+            estatisticas.atualizar(e.getMedicamentoId(), e.getMediaDiaria(), e.getQuantidadeDia(),
+                    e.getDiaReferencia().toEpochDay());
+        }
+        System.out.println("📈 PrevisaoRupturaService - estatísticas carregadas para " + estatisticas.tamanho() + " medicamento(s)");
+    }
+
+    /**
+     * Atualiza as estatísticas da venda confirmada. Entregue pelo RelayOutbox na mesma transação
+     * que dá baixa no evento: em caso de falha o evento é reentregue, sem contar a venda duas vezes.
+     */
+    @EventListener
+    public void onVendaConcluida(VendaConcluidaEvento evento) {
+        registrarVendas(evento.dataVenda(), evento.quantidades(), 1);
+    }
+
+    /** Remove a venda cancelada das estatísticas (mesma entrega de onVendaConcluida) */
+    @EventListener
+    public void onVendaCancelada(VendaCanceladaEvento evento) {
+        registrarVendas(evento.dataVenda(), evento.quantidades(), -1);
+    }
+
+    private void registrarVendas(LocalDate dataVenda, Map<UUID, Integer> quantidades, int sinal) {
+        LocalDate hoje = LocalDate.now();
+        for (Map.Entry<UUID, Integer> item : quantidades.entrySet()) {
+            registrarVenda(item.getKey(), dataVenda, sinal * item.getValue(), hoje);
+        }
+        verificar(quantidades.keySet());
+    }
+
+    private void registrarVenda(UUID medicamentoId, LocalDate dataVenda, int quantidade, LocalDate hoje) {
+        estatisticaVendaRepository.inicializar(medicamentoId, hoje);
+        EstatisticaVenda e = estatisticaVendaRepository.findParaAtualizacao(medicamentoId)
+                .orElseThrow();
+
+        // Fecha os dias anteriores até hoje, para que o dia de referência seja o dia atual
+        long diaReferencia = e.getDiaReferencia().toEpochDay();
+        long diaHoje = hoje.toEpochDay();
+        double media = e.getMediaDiaria();
+        int quantidadeDia = e.getQuantidadeDia();
+        if (diaHoje > diaReferencia) {
+            media = projetarMedia(media, quantidadeDia, diaReferencia, diaHoje);
+            quantidadeDia = 0;
+            diaReferencia = diaHoje;
+        }
+
+        long diaVenda = dataVenda.toEpochDay();
+        if (diaVenda >= diaReferencia) {
+            quantidadeDia = Math.max(0, quantidadeDia + quantidade);
+        } else {
+            // Cancelamento de venda de um dia já fechado: remove a contribuição daquele dia na média
+            double peso = alfa * Math.pow(1 - alfa, diaReferencia - 1 - diaVenda);
+            media = Math.max(0, media + peso * quantidade);
+        }
+
+        e.setMediaDiaria(media);
+        e.setQuantidadeDia(quantidadeDia);
+        e.setDiaReferencia(LocalDate.ofEpochDay(diaReferencia));
+        estatisticaVendaRepository.save(e);
+        estatisticas.atualizar(medicamentoId, media, quantidadeDia, diaReferencia);
+    }
+
+    /**
+     * Média diária projetada para o dia informado: fecha o dia de referência
+     * e aplica o decaimento dos dias sem venda.
+     */
+    private double projetarMedia(double media, int quantidadeDia, long diaReferencia, long dia) {
+        if (dia <= diaReferencia) {
+            return media;
+        }
+        double projetada = alfa * quantidadeDia + (1 - alfa) * media;
+        long diasSemVenda = dia - diaReferencia - 1;
+        if (diasSemVenda > 0) {
+            projetada *= Math.pow(1 - alfa, diasSemVenda);
+        }
+        return projetada;
+    }
+
+    /**
+     * Média de vendas por dia de cada medicamento com vendas recentes, calculada apenas em memória.
+     */
+    public Map<UUID, Double> calcularMediasDiarias() {
+        long diaHoje = LocalDate.now().toEpochDay();
+        Map<UUID, Double> medias = new HashMap<>();
+        estatisticas.percorrer((msb, lsb, media, quantidadeDia, diaReferencia) -> {
+            double projetada = projetarMedia(media, quantidadeDia, diaReferencia, diaHoje);
+            if (projetada > 0) {
+                medias.put(new UUID(msb, lsb), projetada);
+            }
+        });
+        return medias;
+    }
+
+    /** Executado diariamente às 8h pelo job "previsao-ruptura" (JobsAgendados), junto com os demais alertas */
+    @Transactional
+    public void verificarPrevisaoRuptura() {
+        coordenadorJobs.vincularAoLease();
+        verificar(null);
+    }
+
+    /**
+     * Cria/atualiza alertas PREVISAO_RUPTURA quando os dias de cobertura (estoque / média diária)
+     * ficam abaixo do horizonte configurado. Com medicamentoIds == null avalia o catálogo inteiro.
+     */
+    private void verificar(Collection<UUID> medicamentoIds) {
+        long inicio = System.currentTimeMillis();
+        Map<UUID, Double> medias = calcularMediasDiarias();
+        if (medicamentoIds != null) {
+            medias.keySet().retainAll(medicamentoIds);
+        }
+
+        // Busca por chave primária apenas os medicamentos com vendas recentes
+        Map<UUID, Medicamento> medicamentos = medicamentoRepository.findAllById(medias.keySet()).stream()
+                .collect(Collectors.toMap(Medicamento::getId, m -> m));
+
+        Map<UUID, List<Alerta>> alertasAbertos = alertaRepository.findByTipoAndLidoFalse(TIPO_ALERTA)
+                .stream()
+                .filter(a -> medicamentoIds == null || medicamentoIds.contains(a.getMedicamentoId()))
+                .collect(Collectors.groupingBy(Alerta::getMedicamentoId));
+
+        Set<UUID> emRisco = new HashSet<>();
+        for (Medicamento medicamento : medicamentos.values()) {
+            // Estoque zerado já é tratado pelo alerta ESTOQUE_BAIXO
+            if (!Boolean.TRUE.equals(medicamento.getAtivo()) || medicamento.getQuantidadeEstoque() <= 0) {
+                continue;
+            }
+            double media = medias.get(medicamento.getId());
+            double diasCobertura = medicamento.getQuantidadeEstoque() / media;
+            if (diasCobertura >= horizonteDias) {
+                continue;
+            }
+            emRisco.add(medicamento.getId());
+
+            String mensagem = String.format(Locale.forLanguageTag("pt-BR"),
+                    "Ruptura prevista em ~%d dia(s): estoque %d un., média de %.1f un./dia",
+                    (long) Math.floor(diasCobertura), medicamento.getQuantidadeEstoque(), media);
+
+            List<Alerta> existentes = alertasAbertos.get(medicamento.getId());
+            if (existentes != null && !existentes.isEmpty()) {
+                Alerta alerta = existentes.get(0);
+                if (!mensagem.equals(alerta.getMensagem())) {
+                    alerta.setMensagem(mensagem);
+                    alertaRepository.save(alerta);
+                }
+            } else {
+                Alerta alerta = new Alerta();
+                alerta.setMedicamentoId(medicamento.getId());
+                alerta.setMedicamentoNome(medicamento.getNome());
+                alerta.setTipo(TIPO_ALERTA);
+                alerta.setMensagem(mensagem);
+                alerta.setLido(false);
+                alertaRepository.save(alerta);
+            }
+        }
+
+        // Marca como lidos os alertas de medicamentos que saíram do risco
+        for (Map.Entry<UUID, List<Alerta>> entry : alertasAbertos.entrySet()) {
+            if (!emRisco.contains(entry.getKey())) {
+                for (Alerta alerta : entry.getValue()) {
+                    alerta.setLido(true);
+                    alertaRepository.save(alerta);
+                }
+            }
+        }
+        alertaRepository.flush();
+        System.out.println("📈 Previsão de ruptura: " + medias.size() + " medicamento(s) avaliados, "
+                + emRisco.size() + " em risco (" + (System.currentTimeMillis() - inicio) + " ms)");
+    }
+}
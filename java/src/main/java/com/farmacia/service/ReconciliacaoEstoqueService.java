@@ -0,0 +1,430 @@
+package com.farmacia.service;
+
+import com.farmacia.domain.auditoria.AjusteReconciliacaoAuditoria;
+import com.farmacia.domain.dto.DivergenciaEstoqueResponse;
+import com.farmacia.domain.dto.ReconciliacaoEstoqueResponse;
+import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.domain.entity.MovimentacaoEstoque;
+import com.farmacia.domain.enums.TipoMovimentacao;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.repository.MedicamentoRepository;
+import com.farmacia.repository.MovimentacaoEstoqueRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reconciliação entre medicamentos.quantidade_estoque e o histórico de movimentacoes_estoque.
+ * O catálogo é dividido em partições por faixa de ID; cada partição é processada em paralelo
+ * (fork-join) em uma transação REPEATABLE READ no primário que percorre as movimentações com cursor,
+ * acumulando apenas o saldo de cada medicamento — o histórico nunca é carregado em memória.
+ */
+@Service
+public class ReconciliacaoEstoqueService {
+
+    private static final int LIMITE_DIVERGENCIAS_RELATORIO = 1000;
+    private static final int TAMANHO_LOTE_LEITURA = 5000;
+    private static final int INTERVALO_PROGRESSO = 10000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MedicamentoRepository medicamentoRepository;
+
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @Autowired
+    private LogService logService;
+
+    @Value("${app.estoque.reconciliacao.paralelismo:4}")
+    private int paralelismo;
+
+    @Value("${app.estoque.reconciliacao.particoes:64}")
+    private int particoes;
+
+    private ForkJoinPool pool;
+    private final AtomicBoolean emExecucao = new AtomicBoolean(false);
+    private volatile Execucao execucao;
+
+    /** Estado da execução atual (ou da última), lido pelo endpoint de progresso */
+    private static class Execucao {
+        final boolean corrigir;
+        final int particoesTotal;
+        final LocalDateTime inicio = LocalDateTime.now();
+        final long inicioNanos = System.nanoTime();
+        final AtomicInteger particoesConcluidas = new AtomicInteger();
+        final AtomicLong medicamentosVerificados = new AtomicLong();
+        final AtomicLong movimentacoesLidas = new AtomicLong();
+        volatile String status = "EM_EXECUCAO";
+        volatile LocalDateTime fim;
+        volatile long duracaoMs;
+        volatile int correcoesAplicadas;
+        volatile String erro;
+        volatile boolean cancelada;
+        volatile List<DivergenciaEstoqueResponse> divergencias = List.of();
+
+        Execucao(boolean corrigir, int particoesTotal) {
+            this.corrigir = corrigir;
+            this.particoesTotal = particoesTotal;
+        }
+    }
+
+    /** Saldo acumulado de um medicamento dentro de uma partição */
+    private static class Saldo {
+        final String nome;
+        final int estoqueAtual;
+        long saldoMovimentacoes;
+        long saldoLotes;
+        long movimentacoesInconsistentes;
+
+        Saldo(String nome, int estoqueAtual) {
+            this.nome = nome;
+            this.estoqueAtual = estoqueAtual;
+        }
+    }
+
+    @PostConstruct
+    public void iniciarPool() {
+        pool = new ForkJoinPool(Math.max(1, Math.min(paralelismo, Runtime.getRuntime().availableProcessors())));
+    }
+
+    @PreDestroy
+    public void encerrarPool() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Execução agendada (job "reconciliacao-estoque" em JobsAgendados), apenas relatório.
+     * Espera o fim da reconciliação para o lease do job cobrir a execução inteira; se o lease for
+     * perdido (CoordenadorJobs interrompe a thread do job), as partições ainda não lidas são abandonadas.
+     */
+    public void reconciliacaoAgendada() {
+        if (emExecucao.get()) {
+            return; // já iniciada manualmente nesta instância
+        }
+        ForkJoinTask<?> tarefa = disparar(false);
+        Execucao atual = execucao;
+        try {
+            tarefa.get();
+        } catch (InterruptedException e) {
+            atual.cancelada = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliação de estoque cancelada");
+        } catch (ExecutionException e) {
+            // a tarefa registra a falha no status da execução
+        }
+        if ("FALHOU".equals(atual.status)) {
+            throw new IllegalStateException("Reconciliação de estoque falhou: " + atual.erro);
+        }
+    }
+
+    /**
+     * Inicia a reconciliação em segundo plano e retorna imediatamente.
+     * Com corrigir = true, grava uma movimentação de ajuste para cada medicamento cujo
+     * histórico não fecha com o estoque atual (o estoque do medicamento é mantido).
+     */
+    public ReconciliacaoEstoqueResponse iniciar(boolean corrigir) {
+        disparar(corrigir);
+        return getStatus();
+    }
+
+    private ForkJoinTask<?> disparar(boolean corrigir) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            throw new BusinessException("Já existe uma reconciliação de estoque em execução.");
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, particoes) - 1); // arredonda para potência de 2
+        Execucao atual = new Execucao(corrigir, 1 << bits);
+        execucao = atual;
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+
+        return pool.submit(() -> {
+            try {
+                List<DivergenciaEstoqueResponse> divergencias = new TarefaParticoes(atual, bits, 0, atual.particoesTotal).invoke();
+                divergencias.sort(Comparator.comparing(DivergenciaEstoqueResponse::getMedicamentoNome, String.CASE_INSENSITIVE_ORDER));
+                atual.divergencias = divergencias;
+                if (corrigir) {
+                    atual.correcoesAplicadas = corrigir(divergencias, autenticacao);
+                }
+                atual.status = "CONCLUIDA";
+            } catch (Exception e) {
+                atual.status = "FALHOU";
+                atual.erro = e.getMessage();
+                System.err.println("❌ Erro na reconciliação de estoque: " + e.getMessage());
+            } finally {
+                atual.fim = LocalDateTime.now();
+                atual.duracaoMs = (System.nanoTime() - atual.inicioNanos) / 1_000_000;
+                emExecucao.set(false);
+                System.out.println("📦 Reconciliação de estoque " + atual.status + " em " + atual.duracaoMs + " ms - "
+                        + atual.medicamentosVerificados.get() + " medicamento(s), "
+                        + atual.movimentacoesLidas.get() + " movimentação(ões), "
+                        + atual.divergencias.size() + " divergência(s)");
+            }
+        });
+    }
+
+    public ReconciliacaoEstoqueResponse getStatus() {
+        Execucao atual = execucao;
+        if (atual == null) {
+            return new ReconciliacaoEstoqueResponse("NUNCA_EXECUTADA", null, null, null, null, null, null,
+                    null, null, null, null, null, null, List.of());
+        }
+        long duracaoMs = atual.fim != null ? atual.duracaoMs : (System.nanoTime() - atual.inicioNanos) / 1_000_000;
+        long movimentacoes = atual.movimentacoesLidas.get();
+        List<DivergenciaEstoqueResponse> divergencias = atual.divergencias;
+        return new ReconciliacaoEstoqueResponse(
+                atual.status,
+                atual.corrigir,
+                atual.inicio,
+                atual.fim,
+                duracaoMs,
+                atual.particoesTotal,
+                atual.particoesConcluidas.get(),
+                atual.medicamentosVerificados.get(),
+                movimentacoes,
+                duracaoMs > 0 ? movimentacoes * 1000 / duracaoMs : movimentacoes,
+                (long) divergencias.size(),
+                atual.correcoesAplicadas,
+                atual.erro,
+                divergencias.size() > LIMITE_DIVERGENCIAS_RELATORIO
+                        ? divergencias.subList(0, LIMITE_DIVERGENCIAS_RELATORIO)
+                        : divergencias
+        );
+    }
+
+    /** Divide o intervalo de partições ao meio até chegar a uma única partição */
+    private class TarefaParticoes extends RecursiveTask<List<DivergenciaEstoqueResponse>> {
+        private final Execucao execucao;
+        private final int bits;
+        private final int de;
+        private final int ate;
+
+        TarefaParticoes(Execucao execucao, int bits, int de, int ate) {
+            this.execucao = execucao;
+            this.bits = bits;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected List<DivergenciaEstoqueResponse> compute() {
+            if (execucao.cancelada) {
+                throw new CancellationException("Reconciliação de estoque cancelada");
+            }
+            if (ate - de == 1) {
+                return processarParticao(execucao, limiteParticao(de, bits), ate < (1 << bits) ? limiteParticao(ate, bits) : null);
+            }
+            int meio = (de + ate) >>> 1;
+            TarefaParticoes esquerda = new TarefaParticoes(execucao, bits, de, meio);
+            esquerda.fork();
+            List<DivergenciaEstoqueResponse> resultado = new ArrayList<>(new TarefaParticoes(execucao, bits, meio, ate).compute());
+            resultado.addAll(esquerda.join());
+            return resultado;
+        }
+    }
+
+    // Menor UUID da partição: os 'bits' primeiros bits do ID identificam a partição
+    private static UUID limiteParticao(int particao, int bits) {
+        return bits == 0 ? new UUID(0L, 0L) : new UUID(((long) particao) << (64 - bits), 0L);
+    }
+
+    private List<DivergenciaEstoqueResponse> processarParticao(Execucao execucao, UUID inicio, UUID fim) {
+        // Um único snapshot por partição: com READ COMMITTED, uma venda confirmada entre as consultas de
+        // medicamentos, lotes e movimentações apareceria como divergência. Não é readOnly para ler do primário
+        // (TransactionTemplate não tem labels): a réplica atrasada geraria divergências e ajustes indevidos.
+        TransactionTemplate leitura = new TransactionTemplate(transactionManager);
+        leitura.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        List<DivergenciaEstoqueResponse> divergencias = leitura.execute(status -> {
+            String faixa = fim != null ? " >= ? AND %s < ?" : " >= ?";
+            Object[] parametros = fim != null ? new Object[]{inicio, fim} : new Object[]{inicio};
+            Map<UUID, Saldo> saldos = new HashMap<>();
+
+            jdbcTemplate.query("SELECT id, nome, quantidade_estoque FROM medicamentos WHERE id" + faixa.formatted("id"),
+                    (RowCallbackHandler) rs -> saldos.put(rs.getObject(1, UUID.class),
+                            new Saldo(rs.getString(2), rs.getInt(3))),
+                    parametros);
+
+            jdbcTemplate.query("SELECT medicamento_id, SUM(quantidade) FROM lotes WHERE medicamento_id" + faixa.formatted("medicamento_id")
+                            + " GROUP BY medicamento_id",
+                    (RowCallbackHandler) rs -> {
+                        Saldo saldo = saldos.get(rs.getObject(1, UUID.class));
+                        if (saldo != null) {
+                            saldo.saldoLotes = rs.getLong(2);
+                        }
+                    },
+                    parametros);
+
+            // Movimentações de partições mensais já arquivadas entram como saldo de abertura
+            jdbcTemplate.query("SELECT medicamento_id, saldo FROM movimentacoes_saldo_arquivado WHERE medicamento_id"
+                            + faixa.formatted("medicamento_id"),
+                    (RowCallbackHandler) rs -> {
+                        Saldo saldo = saldos.get(rs.getObject(1, UUID.class));
+                        if (saldo != null) {
+                            saldo.saldoMovimentacoes = rs.getLong(2);
+                        }
+                    },
+                    parametros);
+
+            // Percorre as movimentações da partição com cursor, em ordem de medicamento e data
+            LeitorMovimentacoes leitor = new LeitorMovimentacoes(execucao, saldos);
+            String sql = "SELECT medicamento_id, tipo, quantidade, estoque_total FROM movimentacoes_estoque "
+                    + "WHERE medicamento_id" + faixa.formatted("medicamento_id") + " ORDER BY medicamento_id, data, id";
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(TAMANHO_LOTE_LEITURA);
+                for (int i = 0; i < parametros.length; i++) {
+                    ps.setObject(i + 1, parametros[i]);
+                }
+                return ps;
+            }, leitor);
+            execucao.movimentacoesLidas.addAndGet(leitor.lidas % INTERVALO_PROGRESSO);
+
+            List<DivergenciaEstoqueResponse> resultado = new ArrayList<>();
+            for (Map.Entry<UUID, Saldo> entry : saldos.entrySet()) {
+                Saldo saldo = entry.getValue();
+                long diferenca = saldo.estoqueAtual - saldo.saldoMovimentacoes;
+                if (diferenca != 0 || saldo.saldoLotes != saldo.estoqueAtual) {
+                    resultado.add(new DivergenciaEstoqueResponse(
+                            entry.getKey(),
+                            saldo.nome,
+                            saldo.estoqueAtual,
+                            saldo.saldoMovimentacoes,
+                            diferenca,
+                            saldo.saldoLotes,
+                            saldo.movimentacoesInconsistentes,
+                            false
+                    ));
+                }
+            }
+            execucao.medicamentosVerificados.addAndGet(saldos.size());
+            return resultado;
+        });
+        execucao.particoesConcluidas.incrementAndGet();
+        return divergencias;
+    }
+
+    /** Acumula o saldo de cada medicamento enquanto as movimentações são lidas */
+    private static class LeitorMovimentacoes implements RowCallbackHandler {
+        private final Execucao execucao;
+        private final Map<UUID, Saldo> saldos;
+        private UUID medicamentoAtual;
+        private Saldo saldoAtual;
+        private long lidas;
+
+        LeitorMovimentacoes(Execucao execucao, Map<UUID, Saldo> saldos) {
+            this.execucao = execucao;
+            this.saldos = saldos;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID medicamentoId = rs.getObject(1, UUID.class);
+            if (!medicamentoId.equals(medicamentoAtual)) {
+                medicamentoAtual = medicamentoId;
+                saldoAtual = saldos.get(medicamentoId); // null para medicamentos já excluídos
+            }
+            if (saldoAtual != null) {
+                int quantidade = rs.getInt(3);
+                saldoAtual.saldoMovimentacoes += "ENTRADA".equals(rs.getString(2)) ? quantidade : -quantidade;
+                int estoqueTotal = rs.getInt(4);
+                if (!rs.wasNull() && estoqueTotal != saldoAtual.saldoMovimentacoes) {
+                    saldoAtual.movimentacoesInconsistentes++;
+                }
+            }
+            if (++lidas % INTERVALO_PROGRESSO == 0) {
+                execucao.movimentacoesLidas.addAndGet(INTERVALO_PROGRESSO);
+            }
+        }
+    }
+
+    /**
+     * Grava uma movimentação de ajuste por medicamento divergente, de modo que o saldo do
+     * histórico passe a fechar com o estoque atual. Cada ajuste tem a sua transação: o medicamento é
+     * bloqueado (como na reserva de uma venda) e a diferença é recalculada, pois vendas e entradas
+     * confirmadas desde a leitura da partição mudam o estoque e o histórico; se a divergência
+     * desapareceu, o medicamento é ignorado.
+     */
+    private int corrigir(List<DivergenciaEstoqueResponse> divergencias, Authentication autenticacao) {
+        SecurityContextHolder.getContext().setAuthentication(autenticacao); // para o log de auditoria
+        try {
+            TransactionTemplate escrita = new TransactionTemplate(transactionManager);
+            int correcoes = 0;
+            for (DivergenciaEstoqueResponse divergencia : divergencias) {
+                if (divergencia.getDiferenca() == 0) {
+                    continue; // Divergência apenas nos lotes: relatada, sem ajuste automático
+                }
+                if (Boolean.TRUE.equals(escrita.execute(status -> corrigir(divergencia)))) {
+                    correcoes++;
+                }
+            }
+            return correcoes;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private boolean corrigir(DivergenciaEstoqueResponse divergencia) {
+        UUID medicamentoId = divergencia.getMedicamentoId();
+        if (medicamentoRepository.bloquearParaReserva(List.of(medicamentoId)).isEmpty()) {
+            return false; // excluído depois da leitura
+        }
+        Medicamento medicamento = medicamentoRepository.findById(medicamentoId).orElseThrow();
+        // Saldo arquivado + movimentações em um único comando (mesmo snapshot, mesmo com arquivamento concorrente)
+        long saldoMovimentacoes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT saldo FROM movimentacoes_saldo_arquivado WHERE medicamento_id = ?), 0) "
+                        + "+ COALESCE((SELECT SUM(CASE WHEN tipo = 'ENTRADA' THEN quantidade ELSE -quantidade END) "
+                        + "FROM movimentacoes_estoque WHERE medicamento_id = ?), 0)",
+                Long.class, medicamentoId, medicamentoId);
+        int estoqueAtual = medicamento.getQuantidadeEstoque();
+        long diferenca = estoqueAtual - saldoMovimentacoes;
+        divergencia.setEstoqueAtual(estoqueAtual);
+        divergencia.setSaldoMovimentacoes(saldoMovimentacoes);
+        divergencia.setDiferenca(diferenca);
+        if (diferenca == 0) {
+            return false; // divergência desfeita desde a leitura
+        }
+
+        MovimentacaoEstoque ajuste = new MovimentacaoEstoque();
+        ajuste.setMedicamentoId(medicamentoId);
+        ajuste.setQuantidade((int) Math.abs(diferenca));
+        ajuste.setTipo(diferenca > 0 ? TipoMovimentacao.ENTRADA : TipoMovimentacao.SAIDA);
+        ajuste.setEstoqueTotal(estoqueAtual);
+        ajuste.setMotivo("Ajuste de reconciliação: saldo do histórico " + saldoMovimentacoes + ", estoque " + estoqueAtual);
+        movimentacaoEstoqueRepository.save(ajuste);
+        divergencia.setCorrigida(true);
+
+        AjusteReconciliacaoAuditoria detalhes = new AjusteReconciliacaoAuditoria(medicamentoId,
+                estoqueAtual, saldoMovimentacoes, diferenca);
+        logService.registrarLog("UPDATE", "ESTOQUE", medicamentoId,
+                String.format("Ajuste de reconciliação de estoque do medicamento '%s': %+d unidade(s) no histórico", medicamento.getNome(), diferenca),
+                detalhes);
+        return true;
+    }
+}
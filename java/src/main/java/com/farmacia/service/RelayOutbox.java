@@ -0,0 +1,174 @@
+package com.farmacia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Entrega os eventos do outbox aos handlers em processo (@EventListener), em uma thread própria.
+ *
+ * Cada instância reserva um lote de pendentes com FOR UPDATE SKIP LOCKED (reserva com prazo, para
+ * outra instância assumir se esta cair) e só o evento mais antigo ainda pendente de cada agregado,
+ * o que mantém a ordem por venda/medicamento entre instâncias. Cada evento é entregue em uma
+ * transação que também marca processado_em: os efeitos do handler no banco e a baixa do evento são
+ * confirmados juntos. Em falha, o evento volta à fila com espera exponencial.
+ */
+@Component
+public class RelayOutbox {
+
+    private static final int LIMITE_ERRO = 2000;
+    private static final long ESPERA_MAXIMA_SEGUNDOS = 600;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.outbox.lote:100}")
+    private int tamanhoLote;
+
+    @Value("${app.outbox.intervalo-ms:500}")
+    private long intervaloMs;
+
+    @Value("${app.outbox.reserva-segundos:60}")
+    private long reservaSegundos;
+
+    private final String instancia = UUID.randomUUID().toString();
+    private final Object sinal = new Object();
+    private boolean acordado;
+    private volatile boolean ativo = true;
+    private Thread relay;
+
+    private record EventoPendente(long id, String tipo, String payload, int tentativas) {
+    }
+
+    /** Começa depois da inicialização completa, com os handlers já registrados */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        relay = new Thread(this::executar, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
+
+    /** Antecipa a próxima leitura (chamado após o commit de uma transação que publicou eventos) */
+    public void acordar() {
+        synchronized (sinal) {
+            acordado = true;
+            sinal.notifyAll();
+        }
+    }
+
+    private void executar() {
+        System.out.println("📬 Relay do outbox iniciado (lote de " + tamanhoLote + ", intervalo de " + intervaloMs + " ms)");
+        while (ativo) {
+            int entregues = 0;
+            try {
+                entregues = processarLote();
+            } catch (Exception e) {
+                System.err.println("❌ Relay do outbox: " + e.getMessage());
+            }
+            // Lote cheio: provavelmente há mais, segue sem esperar
+            if (entregues < tamanhoLote && !aguardar()) {
+                return;
+            }
+        }
+    }
+
+    private boolean aguardar() {
+        synchronized (sinal) {
+            try {
+                if (!acordado) {
+                    sinal.wait(intervaloMs);
+                }
+                acordado = false;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /** Reserva e entrega um lote; retorna quantos eventos foram reservados */
+    private int processarLote() {
+        List<EventoPendente> eventos = jdbcTemplate.query(
+                "UPDATE outbox_eventos SET reservado_por = ?, reservado_ate = now() + ? * INTERVAL '1 second' "
+                        + "WHERE id IN (SELECT o.id FROM outbox_eventos o "
+                        + "WHERE o.processado_em IS NULL "
+                        + "AND (o.reservado_ate IS NULL OR o.reservado_ate < now()) "
+                        + "AND (o.proxima_tentativa_em IS NULL OR o.proxima_tentativa_em <= now()) "
+                        + "AND NOT EXISTS (SELECT 1 FROM outbox_eventos a WHERE a.agregado_id = o.agregado_id "
+                        + "AND a.processado_em IS NULL AND a.id < o.id) "
+                        + "ORDER BY o.id LIMIT ? FOR UPDATE SKIP LOCKED) "
+                        + "RETURNING id, tipo, payload::TEXT, tentativas",
+                (rs, rowNum) -> new EventoPendente(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getInt(4)),
+                instancia, reservaSegundos, tamanhoLote);
+        eventos.stream()
+                .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                .forEach(this::entregar);
+        return eventos.size();
+    }
+
+    private void entregar(EventoPendente pendente) {
+        try {
+            Class<?> classe = OutboxService.TIPOS.get(pendente.tipo());
+            if (classe == null) {
+                throw new IllegalStateException("Tipo de evento desconhecido: " + pendente.tipo());
+            }
+            Object evento = objectMapper.readValue(pendente.payload(), classe);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                int marcados = jdbcTemplate.update("UPDATE outbox_eventos SET processado_em = now(), reservado_ate = NULL, "
+                        + "erro = NULL WHERE id = ? AND reservado_por = ? AND processado_em IS NULL", pendente.id(), instancia);
+                if (marcados == 0) {
+                    // Reserva expirada e assumida por outra instância
+                    status.setRollbackOnly();
+                    return;
+                }
+                eventPublisher.publishEvent(evento);
+            });
+        } catch (Exception e) {
+            registrarFalha(pendente, e);
+        }
+    }
+
+    private void registrarFalha(EventoPendente pendente, Exception e) {
+        String erro = e.getClass().getSimpleName() + ": " + e.getMessage();
+        long espera = Math.min(1L << Math.min(pendente.tentativas(), 20), ESPERA_MAXIMA_SEGUNDOS);
+        System.err.println("❌ Outbox: evento " + pendente.id() + " (" + pendente.tipo() + ") falhou na tentativa "
+                + (pendente.tentativas() + 1) + ", nova tentativa em " + espera + " s - " + erro);
+        try {
+            jdbcTemplate.update("UPDATE outbox_eventos SET tentativas = tentativas + 1, erro = ?, reservado_ate = NULL, "
+                            + "proxima_tentativa_em = now() + ? * INTERVAL '1 second' WHERE id = ? AND reservado_por = ?",
+                    erro.length() > LIMITE_ERRO ? erro.substring(0, LIMITE_ERRO) : erro, espera, pendente.id(), instancia);
+        } catch (Exception falha) {
+            // A reserva expira sozinha e o evento é reprocessado
+            System.err.println("❌ Outbox: falha ao registrar o erro do evento " + pendente.id() + " - " + falha.getMessage());
+        }
+    }
+}
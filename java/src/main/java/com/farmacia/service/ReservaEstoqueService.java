@@ -0,0 +1,186 @@
+package com.farmacia.service;
+
+import com.farmacia.config.RoteamentoDataSource;
+import com.farmacia.domain.dto.CarrinhoResponse;
+import com.farmacia.domain.dto.ItemCarrinhoResponse;
+import com.farmacia.domain.entity.Medicamento;
+import com.farmacia.domain.entity.ReservaEstoque;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.repository.MedicamentoRepository;
+import com.farmacia.repository.ReservaEstoqueRepository;
+import com.farmacia.security.UsuarioContexto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reservas de estoque dos carrinhos em andamento. Cada item adicionado reserva a quantidade por
+ * app.reservas.ttl-minutos (renovado a cada alteração do carrinho); o disponível para venda ou nova
+ * reserva é o saldo dos lotes dentro da validade menos as reservas ativas dos outros carrinhos.
+ *
+ * Reserva e venda do mesmo medicamento são serializadas por uma trava curta na linha do medicamento,
+ * só durante a transação que confere o disponível: nenhuma trava fica presa pelo tempo do carrinho.
+ * Reservas vencidas deixam de contar no mesmo instante (todas as consultas filtram expira_em) e são
+ * apagadas depois, em lotes, pela varredura do índice de expira_em.
+ */
+@Service
+public class ReservaEstoqueService {
+
+    // Venda sem carrinho: todas as reservas ativas são de outros carrinhos
+    private static final UUID SEM_CARRINHO = new UUID(0, 0);
+    private static final int LOTE_LIMPEZA = 1000;
+
+    @Autowired
+    private ReservaEstoqueRepository reservaEstoqueRepository;
+
+    @Autowired
+    private MedicamentoRepository medicamentoRepository;
+
+    @Autowired
+    private LoteService loteService;
+
+    @Autowired
+    private UsuarioContexto usuarioContexto;
+
+    @Value("${app.reservas.ttl-minutos:15}")
+    private long ttlMinutos;
+
+    /**
+     * Define a quantidade reservada do medicamento no carrinho e renova a validade de todo o carrinho.
+     * Falha se a quantidade passar do disponível (descontadas as reservas dos outros carrinhos).
+     */
+    @Transactional
+    public CarrinhoResponse reservar(UUID carrinhoId, UUID medicamentoId, int quantidade) {
+        if (quantidade <= 0) {
+            throw new BusinessException("A quantidade reservada deve ser maior que zero, por favor alterar.");
+        }
+        bloquearMedicamentos(List.of(medicamentoId));
+        Medicamento medicamento = medicamentoRepository.findById(medicamentoId)
+                .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
+        if (!medicamento.getAtivo()) {
+            throw new BusinessException("O medicamento '" + medicamento.getNome() + "' está inativo e não pode ser vendido.");
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        int disponivel = getDisponivel(medicamentoId, carrinhoId, agora);
+        if (quantidade > disponivel) {
+            throw new BusinessException("Estoque insuficiente para o medicamento '" + medicamento.getNome()
+                    + "'. Disponível: " + Math.max(disponivel, 0) + " unidade(s), descontadas as reservas de outros carrinhos.");
+        }
+
+        LocalDateTime expiraEm = agora.plusMinutes(ttlMinutos);
+        ReservaEstoque reserva = reservaEstoqueRepository.findByCarrinhoIdAndMedicamentoId(carrinhoId, medicamentoId)
+                .orElseGet(ReservaEstoque::new);
+        reserva.setCarrinhoId(carrinhoId);
+        reserva.setMedicamentoId(medicamentoId);
+        reserva.setQuantidade(quantidade);
+        reserva.setUsuarioId(usuarioContexto.obrigatorio().getId());
+        reserva.setExpiraEm(expiraEm);
+        reservaEstoqueRepository.save(reserva);
+        reservaEstoqueRepository.flush();
+        reservaEstoqueRepository.renovar(carrinhoId, expiraEm, agora);
+
+        return getCarrinho(carrinhoId);
+    }
+
+    /** Remove o item do carrinho, devolvendo a quantidade ao disponível */
+    @Transactional
+    public CarrinhoResponse liberar(UUID carrinhoId, UUID medicamentoId) {
+        reservaEstoqueRepository.findByCarrinhoIdAndMedicamentoId(carrinhoId, medicamentoId)
+                .ifPresent(reservaEstoqueRepository::delete);
+        reservaEstoqueRepository.flush();
+        return getCarrinho(carrinhoId);
+    }
+
+    /** Carrinho abandonado ou cancelado: libera todas as reservas */
+    @Transactional
+    public int liberarCarrinho(UUID carrinhoId) {
+        return reservaEstoqueRepository.liberarCarrinho(carrinhoId);
+    }
+
+    // Primário: o terminal consulta o carrinho logo depois de alterá-lo
+    @Transactional(readOnly = true, label = RoteamentoDataSource.PRIMARIO)
+    public CarrinhoResponse getCarrinho(UUID carrinhoId) {
+        List<ReservaEstoque> reservas = reservaEstoqueRepository
+                .findByCarrinhoIdAndExpiraEmAfterOrderByCreatedAtAsc(carrinhoId, LocalDateTime.now());
+        Map<UUID, String> nomes = medicamentoRepository.findAllById(
+                        reservas.stream().map(ReservaEstoque::getMedicamentoId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Medicamento::getId, Medicamento::getNome));
+        List<ItemCarrinhoResponse> itens = reservas.stream()
+                .map(r -> new ItemCarrinhoResponse(r.getMedicamentoId(), nomes.get(r.getMedicamentoId()), r.getQuantidade()))
+                .collect(Collectors.toList());
+        LocalDateTime expiraEm = reservas.stream()
+                .map(ReservaEstoque::getExpiraEm)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        return new CarrinhoResponse(carrinhoId, itens, expiraEm);
+    }
+
+    // ========================================================================
+    // Venda (VendaService)
+    // ========================================================================
+
+    /** Trava os medicamentos até o fim da transação, antes de conferir o disponível */
+    @Transactional
+    public void bloquearMedicamentos(Collection<UUID> medicamentoIds) {
+        medicamentoRepository.bloquearParaReserva(medicamentoIds.stream().distinct().sorted().collect(Collectors.toList()));
+    }
+
+    /**
+     * Disponível para o carrinho informado (nulo: venda sem carrinho): saldo dos lotes dentro da validade
+     * menos as reservas ativas dos outros carrinhos. Pode ser negativo após uma saída manual de estoque.
+     */
+    @Transactional(readOnly = true)
+    public int getDisponivel(UUID medicamentoId, UUID carrinhoId) {
+        return getDisponivel(medicamentoId, carrinhoId, LocalDateTime.now());
+    }
+
+    /** Venda concluída: as reservas do carrinho viram a baixa de estoque da venda */
+    @Transactional
+    public void converter(UUID carrinhoId) {
+        if (carrinhoId != null) {
+            reservaEstoqueRepository.liberarCarrinho(carrinhoId);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public int getReservado(UUID medicamentoId) {
+        return reservaEstoqueRepository.somarReservado(medicamentoId, LocalDateTime.now()).intValue();
+    }
+
+    private int getDisponivel(UUID medicamentoId, UUID carrinhoId, LocalDateTime agora) {
+        long reservadoPorOutros = reservaEstoqueRepository.somarReservadoPorOutros(
+                medicamentoId, carrinhoId != null ? carrinhoId : SEM_CARRINHO, agora);
+        return loteService.getSaldoDentroDaValidade(medicamentoId) - (int) reservadoPorOutros;
+    }
+
+    // ========================================================================
+    // Expiração
+    // ========================================================================
+
+    /**
+     * Apaga as reservas vencidas em lotes, cada um na sua transação; idempotente, pode rodar
+     * em todas as instâncias ao mesmo tempo.
+     */
+    public int removerVencidas() {
+        LocalDateTime agora = LocalDateTime.now();
+        int total = 0;
+        int removidas;
+        do {
+            removidas = reservaEstoqueRepository.removerVencidas(agora, LOTE_LIMPEZA);
+            total += removidas;
+        } while (removidas == LOTE_LIMPEZA);
+        if (total > 0) {
+            System.out.println("🛒 ReservaEstoqueService - " + total + " reserva(s) vencida(s) removida(s)");
+        }
+        return total;
+    }
+}
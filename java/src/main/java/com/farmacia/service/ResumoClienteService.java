@@ -0,0 +1,159 @@
+package com.farmacia.service;
+
+import com.farmacia.domain.dto.ProdutoFavoritoResponse;
+import com.farmacia.domain.dto.ResumoClienteResponse;
+import com.farmacia.domain.entity.Venda;
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.domain.evento.VendaConcluidaEvento;
+import com.farmacia.exception.BusinessException;
+import com.farmacia.repository.VendaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resumo de compras por cliente (resumo_clientes e resumo_clientes_medicamentos), atualizado a cada
+ * venda concluída ou cancelada pelos eventos do outbox, na mesma transação que dá baixa no evento:
+ * cada venda entra (e sai) do resumo uma única vez. A leitura é uma linha por cliente mais os
+ * favoritos pelo índice, sem percorrer o histórico de vendas.
+ */
+@Service
+public class ResumoClienteService {
+
+    private static final int LIMITE_FAVORITOS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    // ========================================================================
+    // Eventos do outbox
+    // ========================================================================
+
+    @EventListener
+    public void onVendaConcluida(VendaConcluidaEvento evento) {
+        Venda venda = vendaRepository.findById(evento.vendaId()).orElse(null);
+        if (venda == null) {
+            return;
+        }
+        Timestamp dataVenda = Timestamp.valueOf(venda.getCreatedAt());
+        jdbcTemplate.update("INSERT INTO resumo_clientes (cliente_id, total_compras, valor_total, primeira_compra, ultima_compra, updated_at) "
+                        + "VALUES (?, 1, ?, ?, ?, CURRENT_TIMESTAMP) "
+                        + "ON CONFLICT (cliente_id) DO UPDATE SET total_compras = resumo_clientes.total_compras + 1, "
+                        + "valor_total = resumo_clientes.valor_total + EXCLUDED.valor_total, "
+                        + "primeira_compra = LEAST(resumo_clientes.primeira_compra, EXCLUDED.primeira_compra), "
+                        + "ultima_compra = GREATEST(resumo_clientes.ultima_compra, EXCLUDED.ultima_compra), "
+                        + "updated_at = CURRENT_TIMESTAMP",
+                venda.getClienteId(), venda.getValorTotal(), dataVenda, dataVenda);
+        jdbcTemplate.batchUpdate("INSERT INTO resumo_clientes_medicamentos (cliente_id, medicamento_id, quantidade, compras) "
+                        + "SELECT ?, id, ?, 1 FROM medicamentos WHERE id = ? "
+                        + "ON CONFLICT (cliente_id, medicamento_id) DO UPDATE SET "
+                        + "quantidade = resumo_clientes_medicamentos.quantidade + EXCLUDED.quantidade, "
+                        + "compras = resumo_clientes_medicamentos.compras + 1",
+                parametrosItens(venda.getClienteId(), evento.quantidades(), 1));
+    }
+
+    /** Retira a venda do resumo; primeira/última compra são recalculadas se eram desta venda */
+    @EventListener
+    public void onVendaCancelada(VendaCanceladaEvento evento) {
+        Venda venda = vendaRepository.findById(evento.vendaId()).orElse(null);
+        if (venda == null) {
+            return;
+        }
+        Timestamp dataVenda = Timestamp.valueOf(venda.getCreatedAt());
+        jdbcTemplate.update("UPDATE resumo_clientes SET total_compras = GREATEST(total_compras - 1, 0), "
+                        + "valor_total = GREATEST(valor_total - ?, 0), updated_at = CURRENT_TIMESTAMP WHERE cliente_id = ?",
+                venda.getValorTotal(), venda.getClienteId());
+        // Índice idx_vendas_cliente_created_at: só as vendas deste cliente
+        jdbcTemplate.update("UPDATE resumo_clientes r SET primeira_compra = v.primeira, ultima_compra = v.ultima "
+                        + "FROM (SELECT MIN(created_at) AS primeira, MAX(created_at) AS ultima FROM vendas "
+                        + "WHERE cliente_id = ? AND status = 'CONCLUIDA') v "
+                        + "WHERE r.cliente_id = ? AND (r.primeira_compra = ? OR r.ultima_compra = ?)",
+                venda.getClienteId(), venda.getClienteId(), dataVenda, dataVenda);
+        jdbcTemplate.batchUpdate("UPDATE resumo_clientes_medicamentos SET quantidade = GREATEST(quantidade - ?, 0), "
+                        + "compras = GREATEST(compras - 1, 0) WHERE cliente_id = ? AND medicamento_id = ?",
+                parametrosItens(venda.getClienteId(), evento.quantidades(), -1));
+        jdbcTemplate.update("DELETE FROM resumo_clientes_medicamentos WHERE cliente_id = ? AND compras = 0", venda.getClienteId());
+    }
+
+    // Na ordem de cada comando: inclusão (cliente, quantidade, medicamento), cancelamento (quantidade, cliente, medicamento)
+    private List<Object[]> parametrosItens(UUID clienteId, Map<UUID, Integer> quantidades, int sinal) {
+        List<Object[]> parametros = new ArrayList<>();
+        quantidades.forEach((medicamentoId, quantidade) -> parametros.add(sinal > 0
+                ? new Object[]{clienteId, quantidade, medicamentoId}
+                : new Object[]{quantidade, clienteId, medicamentoId}));
+        return parametros;
+    }
+
+    // ========================================================================
+    // Consulta
+    // ========================================================================
+
+    @Transactional(readOnly = true)
+    public ResumoClienteResponse getResumo(UUID clienteId) {
+        List<ResumoClienteResponse> resumos = jdbcTemplate.query(
+                "SELECT c.nome, r.total_compras, r.valor_total, r.primeira_compra, r.ultima_compra "
+                        + "FROM clientes c LEFT JOIN resumo_clientes r ON r.cliente_id = c.id WHERE c.id = ?",
+                (rs, rowNum) -> {
+                    int totalCompras = rs.getInt("total_compras");
+                    BigDecimal valorTotal = rs.getBigDecimal("valor_total");
+                    LocalDateTime primeira = rs.getObject("primeira_compra", LocalDateTime.class);
+                    LocalDateTime ultima = rs.getObject("ultima_compra", LocalDateTime.class);
+                    if (valorTotal == null) {
+                        valorTotal = BigDecimal.ZERO;
+                    }
+                    return new ResumoClienteResponse(
+                            clienteId,
+                            rs.getString("nome"),
+                            totalCompras,
+                            valorTotal,
+                            totalCompras > 0 ? valorTotal.divide(BigDecimal.valueOf(totalCompras), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO,
+                            primeira,
+                            ultima,
+                            ultima != null ? Duration.between(ultima, LocalDateTime.now()).toDays() : null,
+                            totalCompras > 1 && primeira != null && ultima != null
+                                    ? Math.round(Duration.between(primeira, ultima).toHours() / 24.0 / (totalCompras - 1) * 10) / 10.0
+                                    : null,
+                            null
+                    );
+                },
+                clienteId);
+        if (resumos.isEmpty()) {
+            throw new BusinessException("Cliente não encontrado, por favor selecione um cliente válido.");
+        }
+        ResumoClienteResponse resumo = resumos.get(0);
+        resumo.setFavoritos(jdbcTemplate.query(
+                "SELECT r.medicamento_id, m.nome, r.quantidade, r.compras FROM resumo_clientes_medicamentos r "
+                        + "JOIN medicamentos m ON m.id = r.medicamento_id "
+                        + "WHERE r.cliente_id = ? ORDER BY r.quantidade DESC, r.compras DESC LIMIT ?",
+                (rs, rowNum) -> new ProdutoFavoritoResponse(
+                        rs.getObject("medicamento_id", UUID.class),
+                        rs.getString("nome"),
+                        rs.getInt("quantidade"),
+                        rs.getInt("compras")
+                ),
+                clienteId, LIMITE_FAVORITOS));
+        return resumo;
+    }
+
+    /** Recalcula todo o resumo a partir das vendas (carga da base sintética, que não passa pelo outbox) */
+    @Transactional
+    public void reconstruir() {
+        jdbcTemplate.execute("SELECT reconstruir_resumo_clientes()");
+        System.out.println("👥 ResumoClienteService - resumo de compras dos clientes reconstruído");
+    }
+}
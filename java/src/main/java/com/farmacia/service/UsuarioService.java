@@ -1,20 +1,20 @@
 package com.farmacia.service;
 
+import com.farmacia.domain.auditoria.ExclusaoAuditoria;
+import com.farmacia.domain.auditoria.UsuarioAuditoria;
 import com.farmacia.domain.dto.UsuarioRequest;
 import com.farmacia.domain.dto.UsuarioResponse;
 import com.farmacia.domain.entity.Usuario;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.UsuarioRepository;
+import com.farmacia.security.UsuarioAutenticado;
+import com.farmacia.security.UsuarioContexto;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -25,6 +25,9 @@ public class UsuarioService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioContexto usuarioContexto;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
@@ -86,11 +89,7 @@ public class UsuarioService {
         usuario = usuarioRepository.save(usuario);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"email\":\"%s\",\"role\":\"%s\",\"data\":\"%s\"}", 
-                usuario.getNome(), usuario.getEmail(), usuario.getRole(), dataFormatada);
+        UsuarioAuditoria detalhes = new UsuarioAuditoria(usuario.getNome(), usuario.getEmail(), String.valueOf(usuario.getRole()));
         logService.registrarLog("CREATE", "USUARIO", usuario.getId(), 
                 "Usuário criado: " + usuario.getNome(), detalhes);
         
@@ -169,11 +168,7 @@ public class UsuarioService {
         usuario = usuarioRepository.save(usuario);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"email\":\"%s\",\"role\":\"%s\",\"data\":\"%s\"}", 
-                usuario.getNome(), usuario.getEmail(), usuario.getRole(), dataFormatada);
+        UsuarioAuditoria detalhes = new UsuarioAuditoria(usuario.getNome(), usuario.getEmail(), String.valueOf(usuario.getRole()));
         logService.registrarLog("UPDATE", "USUARIO", usuario.getId(), 
                 "Usuário atualizado: " + usuario.getNome(), detalhes);
         
@@ -195,10 +190,7 @@ public class UsuarioService {
         usuarioRepository.deleteById(id);
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"nome\":\"%s\",\"data\":\"%s\"}", nomeUsuario, dataFormatada);
+        ExclusaoAuditoria detalhes = new ExclusaoAuditoria(nomeUsuario);
         logService.registrarLog("DELETE", "USUARIO", id, 
                 "Usuário deletado: " + nomeUsuario, detalhes);
         
@@ -211,13 +203,10 @@ public class UsuarioService {
                 .orElseThrow(() -> new BusinessException("Usuário não encontrado, por favor selecione um usuário válido."));
 
         // Obtém usuário autenticado
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        Usuario usuarioAutenticado = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado, por favor faça login novamente."));
+        UsuarioAutenticado usuarioAutenticado = usuarioContexto.obrigatorio();
 
         // Valida permissão: ADMIN pode alterar qualquer avatar, VENDEDOR apenas o próprio
-        if (!usuarioAutenticado.getRole().name().equals("ADMIN") && !usuarioAutenticado.getId().equals(id)) {
+        if (!usuarioAutenticado.isAdmin() && !usuarioAutenticado.getId().equals(id)) {
             throw new BusinessException("Você não tem permissão para alterar o avatar deste usuário. Você só pode alterar seu próprio avatar.");
         }
 
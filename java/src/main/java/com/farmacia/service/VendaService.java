@@ -1,14 +1,20 @@
 package com.farmacia.service;
 
+import com.farmacia.domain.auditoria.VendaAuditoria;
 import com.farmacia.domain.dto.*;
 import com.farmacia.domain.entity.*;
 import com.farmacia.domain.enums.StatusVenda;
 import com.farmacia.domain.enums.TipoMovimentacao;
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.domain.evento.VendaConcluidaEvento;
 import com.farmacia.exception.BusinessException;
 import com.farmacia.repository.*;
+import com.farmacia.security.UsuarioAutenticado;
+import com.farmacia.security.UsuarioContexto;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,14 +22,18 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
-import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class VendaService {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     @Autowired
     private VendaRepository vendaRepository;
 
@@ -36,6 +46,9 @@ public class VendaService {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private UsuarioContexto usuarioContexto;
+
     @Autowired
     private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
 
@@ -43,7 +56,13 @@ public class VendaService {
     private LogService logService;
 
     @Autowired
-    private AlertaService alertaService;
+    private OutboxService outboxService;
+
+    @Autowired
+    private ReservaEstoqueService reservaEstoqueService;
+
+    @Autowired
+    private LoteService loteService;
 
     @Transactional
     public VendaResponse create(VendaRequest request) {
@@ -66,16 +85,21 @@ public class VendaService {
             );
         }
 
-        // Obtém usuário autenticado
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado, por favor faça login novamente."));
+        // Usuário autenticado (carregado uma vez na autenticação da requisição)
+        UsuarioAutenticado usuario = usuarioContexto.obrigatorio();
+
+        // Quantidade pedida por medicamento: linhas repetidas do mesmo medicamento somam no disponível
+        Map<UUID, Integer> quantidades = request.getItens().stream()
+                .collect(Collectors.groupingBy(ItemVendaRequest::getMedicamentoId, LinkedHashMap::new,
+                        Collectors.summingInt(ItemVendaRequest::getQuantidade)));
+
+        // Trava curta nos medicamentos: reservas e vendas concorrentes conferem o disponível uma de cada vez
+        reservaEstoqueService.bloquearMedicamentos(quantidades.keySet());
 
         // Valida itens e verifica estoque
         BigDecimal valorTotal = BigDecimal.ZERO;
-        for (ItemVendaRequest itemRequest : request.getItens()) {
-            Medicamento medicamento = medicamentoRepository.findById(itemRequest.getMedicamentoId())
+        for (Map.Entry<UUID, Integer> entry : quantidades.entrySet()) {
+            Medicamento medicamento = medicamentoRepository.findById(entry.getKey())
                     .orElseThrow(() -> new BusinessException("Medicamento não encontrado, por favor selecione um medicamento válido."));
 
             // Verifica se está ativo
@@ -83,17 +107,20 @@ public class VendaService {
                 throw new BusinessException("O medicamento '" + medicamento.getNome() + "' está inativo e não pode ser vendido.");
             }
 
-            // Verifica validade
-            if (medicamento.getValidade() != null && medicamento.getValidade().isBefore(LocalDate.now())) {
+            // Verifica validade e estoque: apenas lotes dentro da validade podem ser vendidos
+            int saldoVendavel = loteService.getSaldoDentroDaValidade(medicamento.getId());
+            if (saldoVendavel == 0 && medicamento.getValidade() != null && medicamento.getValidade().isBefore(LocalDate.now())) {
                 throw new BusinessException("O medicamento '" + medicamento.getNome() + "' está vencido e não pode ser vendido.");
             }
 
-            // Verifica estoque
-            if (medicamento.getQuantidadeEstoque() < itemRequest.getQuantidade()) {
-                throw new BusinessException("Estoque insuficiente para o medicamento '" + medicamento.getNome() + "'. Disponível: " + medicamento.getQuantidadeEstoque() + " unidade(s).");
+            // Verifica estoque, descontadas as reservas de outros carrinhos (as do carrinho da venda são dela)
+            int disponivel = reservaEstoqueService.getDisponivel(medicamento.getId(), request.getCarrinhoId());
+            if (disponivel < entry.getValue()) {
+                throw new BusinessException("Estoque insuficiente para o medicamento '" + medicamento.getNome() + "'. Disponível: "
+                        + Math.max(disponivel, 0) + " unidade(s)" + (disponivel < saldoVendavel ? ", descontadas as reservas de outros carrinhos." : "."));
             }
 
-            BigDecimal subtotal = medicamento.getPreco().multiply(BigDecimal.valueOf(itemRequest.getQuantidade()));
+            BigDecimal subtotal = medicamento.getPreco().multiply(BigDecimal.valueOf(entry.getValue()));
             valorTotal = valorTotal.add(subtotal);
         }
 
@@ -105,6 +132,8 @@ public class VendaService {
         venda.setValorTotal(valorTotal);
         // Registra explicitamente a data e hora da venda
         venda.setCreatedAt(LocalDateTime.now());
+        // Persiste antes dos itens para que as movimentações referenciem a venda
+        venda = vendaRepository.save(venda);
 
         // Cria itens e atualiza estoque
         for (ItemVendaRequest itemRequest : request.getItens()) {
@@ -121,72 +150,64 @@ public class VendaService {
 
             venda.getItens().add(item);
 
-            // Atualiza estoque
-            int novaQuantidade = medicamento.getQuantidadeEstoque() - itemRequest.getQuantidade();
+            // Atualiza estoque, separando dos lotes que vencem primeiro (FEFO)
+            int quantidadeAnterior = medicamento.getQuantidadeEstoque();
+            int novaQuantidade = quantidadeAnterior - itemRequest.getQuantidade();
             if (novaQuantidade < 0) {
                 throw new BusinessException("Erro ao atualizar estoque: a quantidade solicitada para '" + medicamento.getNome() + "' excede o estoque disponível.");
             }
+            List<LoteService.Alocacao> alocacoes = loteService.separarFefo(medicamento, itemRequest.getQuantidade(), true);
             medicamento.setQuantidadeEstoque(novaQuantidade);
             medicamentoRepository.save(medicamento);
 
-            // Registra movimentação
-            MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
-            movimentacao.setMedicamentoId(medicamento.getId());
-            movimentacao.setQuantidade(itemRequest.getQuantidade());
-            movimentacao.setTipo(TipoMovimentacao.SAIDA);
-            movimentacao.setEstoqueTotal(novaQuantidade);
-            movimentacao.setMotivo("Venda #" + venda.getId());
-            movimentacaoEstoqueRepository.save(movimentacao);
+            // Registra uma movimentação por lote separado
+            int estoqueTotal = quantidadeAnterior;
+            for (LoteService.Alocacao alocacao : alocacoes) {
+                estoqueTotal -= alocacao.quantidade();
+                MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
+                movimentacao.setMedicamentoId(medicamento.getId());
+                movimentacao.setQuantidade(alocacao.quantidade());
+                movimentacao.setTipo(TipoMovimentacao.SAIDA);
+                movimentacao.setEstoqueTotal(estoqueTotal);
+                movimentacao.setMotivo("Venda #" + venda.getId() + " - lote " + alocacao.lote().getNumeroLote());
+                movimentacao.setLoteId(alocacao.lote().getId());
+                movimentacao.setVendaId(venda.getId());
+                movimentacaoEstoqueRepository.save(movimentacao);
+            }
         }
 
         venda = vendaRepository.save(venda);
+
+        // Reservas do carrinho convertidas na baixa de estoque acima
+        reservaEstoqueService.converter(request.getCarrinhoId());
         
         // Registra log com detalhes dos itens e data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        
-        StringBuilder detalhesJson = new StringBuilder();
-        detalhesJson.append("{");
-        detalhesJson.append("\"clienteId\":\"").append(cliente.getId()).append("\",");
-        detalhesJson.append("\"clienteNome\":\"").append(cliente.getNome().replace("\"", "\\\"")).append("\",");
-        detalhesJson.append("\"clienteCpf\":\"").append(cliente.getCpf()).append("\",");
-        detalhesJson.append("\"status\":\"").append(venda.getStatus()).append("\",");
-        detalhesJson.append("\"valorTotal\":").append(venda.getValorTotal()).append(",");
-        detalhesJson.append("\"data\":\"").append(dataFormatada).append("\",");
-        detalhesJson.append("\"itens\":[");
-        
-        for (int i = 0; i < venda.getItens().size(); i++) {
-            ItemVenda item = venda.getItens().get(i);
-            if (i > 0) detalhesJson.append(",");
-            detalhesJson.append("{");
-            detalhesJson.append("\"medicamentoNome\":\"").append(item.getMedicamentoNome() != null ? item.getMedicamentoNome().replace("\"", "\\\"") : "").append("\",");
-            detalhesJson.append("\"quantidade\":").append(item.getQuantidade()).append(",");
-            detalhesJson.append("\"precoUnitario\":").append(item.getPrecoUnitario()).append(",");
-            detalhesJson.append("\"subtotal\":").append(item.getSubtotal());
-            detalhesJson.append("}");
-        }
-        
-        detalhesJson.append("]}");
-        
+        VendaAuditoria detalhes = auditoriaVenda(venda, cliente);
+
         logService.registrarLog("CREATE", "VENDA", venda.getId(), 
                 String.format("Venda criada: R$ %.2f - %d item(s)", venda.getValorTotal(), venda.getItens().size()), 
-                detalhesJson.toString());
+                detalhes);
         
-        // Verifica se precisa gerar alertas de estoque baixo após venda
-        alertaService.verificarEstoqueBaixo();
+        // Alertas de estoque baixo e estatísticas de venda: entregues pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_VENDA, venda.getId(), new VendaConcluidaEvento(
+                venda.getId(), venda.getCreatedAt().toLocalDate(), quantidadesPorMedicamento(venda)));
         
         return toResponse(venda);
     }
 
     @Transactional(readOnly = true)
     public List<VendaResponse> findAll() {
-        return vendaRepository.findAll().stream()
-                .map(this::toResponse)
+        return toResponses(vendaRepository.findAllComItens()).stream()
                 .sorted((v1, v2) -> v1.getClienteNome().compareToIgnoreCase(v2.getClienteNome()))
                 .collect(Collectors.toList());
     }
 
+    /** Vendas mais recentes (itens carregados em lote pelo default_batch_fetch_size) */
+    @Transactional(readOnly = true)
+    public List<VendaResponse> findRecentes(int limite) {
+        return toResponses(vendaRepository.findAll(PageRequest.of(0, limite, Sort.by(Sort.Direction.DESC, "createdAt"))).getContent());
+    }
+
     @Transactional(readOnly = true)
     public VendaResponse findById(UUID id) {
         Venda venda = vendaRepository.findById(id)
@@ -194,11 +215,30 @@ public class VendaService {
         return toResponse(venda);
     }
 
+    /** Histórico do cliente, das vendas mais recentes para as mais antigas (itens carregados em lote) */
+    @Transactional(readOnly = true)
+    public PaginaResponse<VendaResponse> findByClienteIdPaginado(UUID clienteId, int pagina, int tamanho) {
+        if (!clienteRepository.existsById(clienteId)) {
+            throw new BusinessException("Cliente não encontrado, por favor selecione um cliente válido.");
+        }
+        if (pagina < 0 || tamanho <= 0 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new BusinessException("Paginação inválida: a página deve ser >= 0 e o tamanho entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
+        Page<Venda> page = vendaRepository.findByClienteId(clienteId,
+                PageRequest.of(pagina, tamanho, Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"))));
+        return new PaginaResponse<>(
+                toResponses(page.getContent()),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages()
+        );
+    }
+
     @Transactional(readOnly = true)
     public List<VendaResponse> findByClienteId(UUID clienteId) {
-        List<Venda> vendas = vendaRepository.findByClienteId(clienteId);
-        return vendas.stream()
-                .map(this::toResponse)
+        List<Venda> vendas = vendaRepository.findByClienteIdComItens(clienteId);
+        return toResponses(vendas).stream()
                 .sorted((v1, v2) -> v1.getClienteNome().compareToIgnoreCase(v2.getClienteNome()))
                 .collect(Collectors.toList());
     }
@@ -212,21 +252,30 @@ public class VendaService {
             throw new BusinessException("Apenas vendas concluídas podem ser canceladas");
         }
 
-        // Estorna estoque
-        for (ItemVenda item : venda.getItens()) {
-            Medicamento medicamento = medicamentoRepository.findById(item.getMedicamentoId())
+        // Estorna estoque para os mesmos lotes de onde saiu
+        Map<UUID, List<MovimentacaoEstoque>> saidasPorMedicamento = movimentacaoEstoqueRepository
+                .findByVendaIdAndTipo(venda.getId(), TipoMovimentacao.SAIDA)
+                .stream()
+                .filter(m -> m.getLoteId() != null)
+                .collect(Collectors.groupingBy(MovimentacaoEstoque::getMedicamentoId));
+
+        // Um estorno por medicamento: as saídas por lote já somam todas as linhas do mesmo medicamento
+        for (Map.Entry<UUID, Integer> entry : quantidadesPorMedicamento(venda).entrySet()) {
+            Medicamento medicamento = medicamentoRepository.findById(entry.getKey())
                     .orElseThrow(() -> new BusinessException("Medicamento não encontrado"));
-            medicamento.setQuantidadeEstoque(medicamento.getQuantidadeEstoque() + item.getQuantidade());
-            medicamentoRepository.save(medicamento);
 
-            // Registra movimentação de entrada
-            MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
-            movimentacao.setMedicamentoId(item.getMedicamentoId());
-            movimentacao.setQuantidade(item.getQuantidade());
-            movimentacao.setTipo(TipoMovimentacao.ENTRADA);
-            movimentacao.setEstoqueTotal(medicamento.getQuantidadeEstoque());
-            movimentacao.setMotivo("Cancelamento de venda #" + venda.getId());
-            movimentacaoEstoqueRepository.save(movimentacao);
+            List<MovimentacaoEstoque> saidas = saidasPorMedicamento.get(entry.getKey());
+            if (saidas == null) {
+                // Venda anterior ao controle por lote: devolve ao lote genérico da validade atual
+                Lote lote = loteService.registrarEntrada(medicamento, null, null, entry.getValue());
+                registrarEstorno(venda, medicamento, lote.getId(), entry.getValue());
+            } else {
+                for (MovimentacaoEstoque saida : saidas) {
+                    loteService.estornar(medicamento, saida.getLoteId(), saida.getQuantidade());
+                    registrarEstorno(venda, medicamento, saida.getLoteId(), saida.getQuantidade());
+                }
+            }
+            medicamentoRepository.save(medicamento);
         }
 
         venda.setStatus(StatusVenda.CANCELADA);
@@ -237,16 +286,14 @@ public class VendaService {
                 .orElseThrow(() -> new BusinessException("Cliente não encontrado"));
         
         // Registra log com data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        String detalhes = String.format("{\"clienteId\":\"%s\",\"clienteNome\":\"%s\",\"clienteCpf\":\"%s\",\"status\":\"%s\",\"vendaId\":\"%s\",\"valorTotal\":%.2f,\"dataHora\":\"%s\"}", 
-                clienteVenda.getId(), clienteVenda.getNome(), clienteVenda.getCpf(), venda.getStatus(), id, venda.getValorTotal(), dataFormatada);
+        VendaAuditoria detalhes = new VendaAuditoria(id, clienteVenda.getId(), clienteVenda.getNome(), clienteVenda.getCpf(),
+                String.valueOf(venda.getStatus()), venda.getValorTotal(), null);
         logService.registrarLog("UPDATE", "VENDA", venda.getId(), 
                 String.format("Venda #%s cancelada. Estoque estornado.", id), detalhes);
         
-        // Verifica se precisa gerar alertas de estoque baixo após cancelamento (estoque foi estornado)
-        alertaService.verificarEstoqueBaixo();
+        // Estoque estornado: alertas e estatísticas de venda são atualizados pelo outbox após o commit
+        outboxService.publicar(OutboxService.AGREGADO_VENDA, venda.getId(), new VendaCanceladaEvento(
+                venda.getId(), venda.getCreatedAt().toLocalDate(), quantidadesPorMedicamento(venda)));
         
         return String.format("Venda #%s cancelada com sucesso. Estoque estornado para todos os medicamentos.", id);
     }
@@ -261,11 +308,8 @@ public class VendaService {
         Cliente cliente = clienteRepository.findById(request.getClienteId())
                 .orElseThrow(() -> new BusinessException("Cliente não encontrado, por favor selecione um cliente válido."));
 
-        // Obtém usuário autenticado
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        Usuario usuario = usuarioRepository.findByEmail(email)
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado, por favor faça login novamente."));
+        // Usuário autenticado (carregado uma vez na autenticação da requisição)
+        UsuarioAutenticado usuario = usuarioContexto.obrigatorio();
 
         // Calcula valor total sem validar estoque ou validade (já que é cancelada)
         BigDecimal valorTotal = BigDecimal.ZERO;
@@ -304,47 +348,88 @@ public class VendaService {
         }
 
         venda = vendaRepository.save(venda);
-        
-        // Registra log com detalhes dos itens e data
-        LocalDateTime dataHora = LocalDateTime.now();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
-        String dataFormatada = dataHora.format(formatter);
-        
-        StringBuilder detalhesJson = new StringBuilder();
-        detalhesJson.append("{");
-        detalhesJson.append("\"clienteId\":\"").append(cliente.getId()).append("\",");
-        detalhesJson.append("\"clienteNome\":\"").append(cliente.getNome().replace("\"", "\\\"")).append("\",");
-        detalhesJson.append("\"clienteCpf\":\"").append(cliente.getCpf()).append("\",");
-        detalhesJson.append("\"status\":\"").append(venda.getStatus()).append("\",");
-        detalhesJson.append("\"valorTotal\":").append(venda.getValorTotal()).append(",");
-        detalhesJson.append("\"data\":\"").append(dataFormatada).append("\",");
-        detalhesJson.append("\"itens\":[");
-        
-        for (int i = 0; i < venda.getItens().size(); i++) {
-            ItemVenda item = venda.getItens().get(i);
-            if (i > 0) detalhesJson.append(",");
-            detalhesJson.append("{");
-            detalhesJson.append("\"medicamentoNome\":\"").append(item.getMedicamentoNome() != null ? item.getMedicamentoNome().replace("\"", "\\\"") : "").append("\",");
-            detalhesJson.append("\"quantidade\":").append(item.getQuantidade()).append(",");
-            detalhesJson.append("\"precoUnitario\":").append(item.getPrecoUnitario()).append(",");
-            detalhesJson.append("\"subtotal\":").append(item.getSubtotal());
-            detalhesJson.append("}");
+
+        // Carrinho desistido: devolve as reservas ao disponível
+        if (request.getCarrinhoId() != null) {
+            reservaEstoqueService.liberarCarrinho(request.getCarrinhoId());
         }
         
-        detalhesJson.append("]}");
-        
+        // Registra log com detalhes dos itens e data
+        VendaAuditoria detalhes = auditoriaVenda(venda, cliente);
+
         logService.registrarLog("CREATE", "VENDA", venda.getId(), 
                 String.format("Venda cancelada: R$ %.2f - %d item(s)", venda.getValorTotal(), venda.getItens().size()), 
-                detalhesJson.toString());
+                detalhes);
         
         return toResponse(venda);
     }
 
+    private VendaAuditoria auditoriaVenda(Venda venda, Cliente cliente) {
+        List<VendaAuditoria.Item> itens = venda.getItens().stream()
+                .map(item -> new VendaAuditoria.Item(item.getMedicamentoId(), item.getMedicamentoNome(),
+                        item.getQuantidade(), item.getPrecoUnitario(), item.getSubtotal()))
+                .collect(Collectors.toList());
+        return new VendaAuditoria(null, cliente.getId(), cliente.getNome(), cliente.getCpf(),
+                String.valueOf(venda.getStatus()), venda.getValorTotal(), itens);
+    }
+
+    private void registrarEstorno(Venda venda, Medicamento medicamento, UUID loteId, int quantidade) {
+        medicamento.setQuantidadeEstoque(medicamento.getQuantidadeEstoque() + quantidade);
+
+        // Registra movimentação de entrada
+        MovimentacaoEstoque movimentacao = new MovimentacaoEstoque();
+        movimentacao.setMedicamentoId(medicamento.getId());
+        movimentacao.setQuantidade(quantidade);
+        movimentacao.setTipo(TipoMovimentacao.ENTRADA);
+        movimentacao.setEstoqueTotal(medicamento.getQuantidadeEstoque());
+        movimentacao.setMotivo("Cancelamento de venda #" + venda.getId());
+        movimentacao.setLoteId(loteId);
+        movimentacao.setVendaId(venda.getId());
+        movimentacaoEstoqueRepository.save(movimentacao);
+    }
+
+    private Map<UUID, Integer> quantidadesPorMedicamento(Venda venda) {
+        Map<UUID, Integer> quantidades = new HashMap<>();
+        for (ItemVenda item : venda.getItens()) {
+            quantidades.merge(item.getMedicamentoId(), item.getQuantidade(), Integer::sum);
+        }
+        return quantidades;
+    }
+
     private VendaResponse toResponse(Venda venda) {
-        Cliente cliente = clienteRepository.findById(venda.getClienteId())
-                .orElseThrow(() -> new BusinessException("Cliente não encontrado"));
-        Usuario usuario = usuarioRepository.findById(venda.getUsuarioId())
-                .orElseThrow(() -> new BusinessException("Usuário não encontrado"));
+        return toResponses(List.of(venda)).get(0);
+    }
+
+    /**
+     * Converte as vendas buscando clientes e usuários em lote (uma consulta para cada),
+     * em vez de duas consultas por venda.
+     */
+    private List<VendaResponse> toResponses(List<Venda> vendas) {
+        Map<UUID, String> nomesClientes = clienteRepository.findAllById(vendas.stream()
+                        .map(Venda::getClienteId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Cliente::getId, Cliente::getNome));
+        Map<UUID, String> nomesUsuarios = usuarioRepository.findAllById(vendas.stream()
+                        .map(Venda::getUsuarioId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Usuario::getId, Usuario::getNome));
+
+        return vendas.stream()
+                .map(venda -> toResponse(venda, nomesClientes, nomesUsuarios))
+                .collect(Collectors.toList());
+    }
+
+    private VendaResponse toResponse(Venda venda, Map<UUID, String> nomesClientes, Map<UUID, String> nomesUsuarios) {
+        String clienteNome = nomesClientes.get(venda.getClienteId());
+        if (clienteNome == null) {
+            throw new BusinessException("Cliente não encontrado");
+        }
+        String usuarioNome = nomesUsuarios.get(venda.getUsuarioId());
+        if (usuarioNome == null) {
+            throw new BusinessException("Usuário não encontrado");
+        }
 
         List<ItemVendaResponse> itensResponse = venda.getItens().stream()
                 .map(item -> new ItemVendaResponse(
@@ -360,9 +445,9 @@ public class VendaService {
         return new VendaResponse(
                 venda.getId(),
                 venda.getClienteId(),
-                cliente.getNome(),
+                clienteNome,
                 venda.getUsuarioId(),
-                usuario.getNome(),
+                usuarioNome,
                 venda.getStatus(),
                 venda.getValorTotal(),
                 itensResponse,
@@ -370,4 +455,3 @@ public class VendaService {
         );
     }
 }
-
@@ -0,0 +1,18 @@
+-- Índice para o extrato de movimentações por medicamento em ordem cronológica
+-- e para o cálculo de posição de estoque em uma data (snapshot + movimentações posteriores)
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_estoque_medicamento_data ON movimentacoes_estoque (medicamento_id, data);
+
+-- Fotografias diárias do estoque de cada medicamento (posição no fim do dia)
+CREATE TABLE IF NOT EXISTS estoque_snapshots (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    medicamento_id UUID NOT NULL,
+    data DATE NOT NULL,
+    quantidade INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_estoque_snapshots_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos(id) ON DELETE CASCADE,
+    CONSTRAINT uk_estoque_snapshots_medicamento_data UNIQUE (medicamento_id, data)
+);
+
+-- Comentários nas colunas
+COMMENT ON COLUMN estoque_snapshots.data IS 'Dia da fotografia; quantidade é o estoque ao final deste dia';
+COMMENT ON COLUMN estoque_snapshots.quantidade IS 'Estoque do medicamento às 23:59:59 do dia';
@@ -0,0 +1,104 @@
+-- Particionamento mensal (RANGE) das tabelas de histórico: logs (data_hora) e movimentacoes_estoque (data)
+-- Cada mês fica em uma partição própria (<tabela>_pAAAA_MM); a partição padrão (<tabela>_padrao)
+-- recebe linhas de meses ainda não criados. Partições antigas são arquivadas e removidas pelo ParticaoService.
+
+-- Cria (se não existir) a partição do mês de 'mes'. Linhas desse mês que estiverem na partição
+-- padrão são movidas para a nova partição antes de anexá-la.
+CREATE OR REPLACE FUNCTION criar_particao_mensal(tabela TEXT, coluna TEXT, mes DATE) RETURNS TEXT AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    fim DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+    nome TEXT := tabela || '_p' || to_char(inicio, 'YYYY_MM');
+BEGIN
+    IF to_regclass(nome) IS NOT NULL THEN
+        RETURN nome;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', nome, tabela);
+    EXECUTE format('WITH movidas AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM movidas',
+                   tabela || '_padrao', coluna, inicio, coluna, fim, nome);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', tabela, nome, inicio, fim);
+    RETURN nome;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ============================================================================
+-- movimentacoes_estoque
+-- ============================================================================
+ALTER TABLE movimentacoes_estoque RENAME TO movimentacoes_estoque_legado;
+ALTER TABLE movimentacoes_estoque_legado DROP CONSTRAINT movimentacoes_estoque_pkey;
+DROP INDEX IF EXISTS idx_movimentacoes_estoque_medicamento_data;
+DROP INDEX IF EXISTS idx_movimentacoes_estoque_venda;
+
+CREATE TABLE movimentacoes_estoque (
+    LIKE movimentacoes_estoque_legado INCLUDING DEFAULTS INCLUDING COMMENTS,
+    CONSTRAINT movimentacoes_estoque_pkey PRIMARY KEY (id, data)
+) PARTITION BY RANGE (data);
+
+CREATE TABLE movimentacoes_estoque_padrao PARTITION OF movimentacoes_estoque DEFAULT;
+
+DO $$
+DECLARE
+    mes DATE;
+BEGIN
+    mes := date_trunc('month', COALESCE((SELECT MIN(data) FROM movimentacoes_estoque_legado), CURRENT_DATE))::date;
+    WHILE mes <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date LOOP
+        PERFORM criar_particao_mensal('movimentacoes_estoque', 'data', mes);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO movimentacoes_estoque SELECT * FROM movimentacoes_estoque_legado;
+DROP TABLE movimentacoes_estoque_legado;
+
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_estoque_medicamento_data ON movimentacoes_estoque (medicamento_id, data);
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_estoque_venda ON movimentacoes_estoque (venda_id) WHERE venda_id IS NOT NULL;
+
+-- ============================================================================
+-- logs
+-- ============================================================================
+ALTER TABLE logs RENAME TO logs_legado;
+ALTER TABLE logs_legado DROP CONSTRAINT logs_pkey;
+DROP INDEX IF EXISTS idx_logs_tipo_operacao;
+DROP INDEX IF EXISTS idx_logs_tipo_entidade;
+DROP INDEX IF EXISTS idx_logs_usuario_id;
+DROP INDEX IF EXISTS idx_logs_data_hora;
+
+CREATE TABLE logs (
+    LIKE logs_legado INCLUDING DEFAULTS INCLUDING COMMENTS,
+    CONSTRAINT logs_pkey PRIMARY KEY (id, data_hora)
+) PARTITION BY RANGE (data_hora);
+
+CREATE TABLE logs_padrao PARTITION OF logs DEFAULT;
+
+DO $$
+DECLARE
+    mes DATE;
+BEGIN
+    mes := date_trunc('month', COALESCE((SELECT MIN(data_hora) FROM logs_legado), CURRENT_DATE))::date;
+    WHILE mes <= (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date LOOP
+        PERFORM criar_particao_mensal('logs', 'data_hora', mes);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO logs SELECT * FROM logs_legado;
+DROP TABLE logs_legado;
+
+CREATE INDEX IF NOT EXISTS idx_logs_tipo_operacao ON logs (tipo_operacao);
+CREATE INDEX IF NOT EXISTS idx_logs_tipo_entidade ON logs (tipo_entidade);
+CREATE INDEX IF NOT EXISTS idx_logs_usuario_id ON logs (usuario_id);
+CREATE INDEX IF NOT EXISTS idx_logs_data_hora ON logs (data_hora DESC);
+
+-- ============================================================================
+-- Saldo das movimentações já arquivadas (partições removidas), por medicamento,
+-- para que a reconciliação de estoque continue fechando sem o histórico antigo
+-- ============================================================================
+CREATE TABLE IF NOT EXISTS movimentacoes_saldo_arquivado (
+    medicamento_id UUID PRIMARY KEY,
+    saldo BIGINT NOT NULL DEFAULT 0,
+    quantidade_movimentacoes BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON COLUMN movimentacoes_saldo_arquivado.saldo IS 'Entradas - saídas das movimentações arquivadas';
+COMMENT ON COLUMN movimentacoes_saldo_arquivado.quantidade_movimentacoes IS 'Quantidade de movimentações arquivadas';
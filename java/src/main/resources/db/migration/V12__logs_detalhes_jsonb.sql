@@ -0,0 +1,24 @@
+-- Migration: logs.detalhes passa de TEXT para JSONB, com índice GIN para busca por campos dos detalhes
+
+-- Converte o texto em JSONB; detalhes antigos que não forem JSON válido são preservados em {"texto": ...}
+CREATE OR REPLACE FUNCTION texto_para_jsonb(texto TEXT) RETURNS JSONB AS $$
+BEGIN
+    IF texto IS NULL OR btrim(texto) = '' THEN
+        RETURN NULL;
+    END IF;
+    RETURN texto::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN jsonb_build_object('texto', texto);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Em tabela particionada, a alteração de tipo é aplicada a todas as partições
+ALTER TABLE logs ALTER COLUMN detalhes TYPE JSONB USING texto_para_jsonb(detalhes);
+
+DROP FUNCTION texto_para_jsonb(TEXT);
+
+-- jsonb_path_ops: índice menor, atende ao operador de contenção (@>) usado na busca de logs.
+-- Criado na tabela particionada, é propagado às partições atuais e às anexadas depois.
+CREATE INDEX IF NOT EXISTS idx_logs_detalhes ON logs USING GIN (detalhes jsonb_path_ops);
+
+COMMENT ON COLUMN logs.detalhes IS 'Detalhes da operação em JSON (consultáveis com @>)';
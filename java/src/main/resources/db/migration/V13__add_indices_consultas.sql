@@ -0,0 +1,18 @@
+-- Migration: índices para predicados usados pelos repositórios que ainda não tinham índice
+-- (verificados com GET /api/diagnostico/planos-consulta)
+
+-- ItemVendaRepository.existsByMedicamentoId / countByMedicamentoId (exclusão de medicamento)
+CREATE INDEX IF NOT EXISTS idx_itens_venda_medicamento ON itens_venda (medicamento_id);
+
+-- MedicamentoRepository.findByValidadeLessThanEqualAndAtivoTrue (alertas de validade)
+CREATE INDEX IF NOT EXISTS idx_medicamentos_validade_ativos ON medicamentos (validade) WHERE ativo = true;
+
+-- AlertaRepository.findByTipoAndLidoFalse / findByTipo (alertas abertos por tipo)
+CREATE INDEX IF NOT EXISTS idx_alertas_tipo_lido ON alertas (tipo, lido);
+
+-- VendaRepository.findByCreatedAtBetween / findByStatus
+CREATE INDEX IF NOT EXISTS idx_vendas_created_at ON vendas (created_at);
+CREATE INDEX IF NOT EXISTS idx_vendas_status ON vendas (status);
+
+-- logs: data_hora, tipo_entidade, tipo_operacao e usuario_id já indexados (V5, recriados por partição na V11)
+-- e detalhes com GIN (V12)
@@ -0,0 +1,72 @@
+-- Migration: rastreamento de alterações do catálogo para sincronização incremental dos terminais
+-- versao = ID da transação (xid8) que gravou a linha por último, mantido por trigger em toda escrita
+-- (inclusive baixas de estoque por venda, que atualizam medicamentos.quantidade_estoque).
+-- A sincronização devolve como próxima versão o xmin do snapshot: transações abaixo dele já terminaram,
+-- então nenhuma alteração é perdida, mesmo com commits fora de ordem.
+
+CREATE OR REPLACE FUNCTION versao_catalogo_atual() RETURNS BIGINT AS $$
+    SELECT pg_current_xact_id()::TEXT::BIGINT
+$$ LANGUAGE sql VOLATILE;
+
+CREATE OR REPLACE FUNCTION marcar_versao_catalogo() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.versao := versao_catalogo_atual();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE medicamentos ADD COLUMN IF NOT EXISTS versao BIGINT;
+ALTER TABLE categorias ADD COLUMN IF NOT EXISTS versao BIGINT;
+UPDATE medicamentos SET versao = versao_catalogo_atual() WHERE versao IS NULL;
+UPDATE categorias SET versao = versao_catalogo_atual() WHERE versao IS NULL;
+ALTER TABLE medicamentos ALTER COLUMN versao SET NOT NULL;
+ALTER TABLE categorias ALTER COLUMN versao SET NOT NULL;
+
+CREATE TRIGGER trg_medicamentos_versao BEFORE INSERT OR UPDATE ON medicamentos
+    FOR EACH ROW EXECUTE FUNCTION marcar_versao_catalogo();
+CREATE TRIGGER trg_categorias_versao BEFORE INSERT OR UPDATE ON categorias
+    FOR EACH ROW EXECUTE FUNCTION marcar_versao_catalogo();
+
+CREATE INDEX IF NOT EXISTS idx_medicamentos_versao ON medicamentos (versao);
+CREATE INDEX IF NOT EXISTS idx_categorias_versao ON categorias (versao);
+
+-- Imagens ficam em outra tabela: qualquer alteração marca o medicamento
+CREATE OR REPLACE FUNCTION marcar_versao_medicamento_imagens() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE medicamentos SET versao = versao_catalogo_atual()
+    WHERE id = CASE WHEN TG_OP = 'DELETE' THEN OLD.medicamento_id ELSE NEW.medicamento_id END;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_medicamento_imagens_versao AFTER INSERT OR UPDATE OR DELETE ON medicamento_imagens
+    FOR EACH ROW EXECUTE FUNCTION marcar_versao_medicamento_imagens();
+
+-- Exclusões (tombstones): permitem aos terminais remover itens apagados
+CREATE TABLE IF NOT EXISTS catalogo_remocoes (
+    entidade VARCHAR(20) NOT NULL,
+    entidade_id UUID NOT NULL,
+    versao BIGINT NOT NULL,
+    removido_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (entidade, entidade_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_catalogo_remocoes_versao ON catalogo_remocoes (versao);
+
+CREATE OR REPLACE FUNCTION registrar_remocao_catalogo() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO catalogo_remocoes (entidade, entidade_id, versao)
+    VALUES (TG_ARGV[0], OLD.id, versao_catalogo_atual())
+    ON CONFLICT (entidade, entidade_id) DO UPDATE SET versao = EXCLUDED.versao, removido_em = CURRENT_TIMESTAMP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_medicamentos_remocao AFTER DELETE ON medicamentos
+    FOR EACH ROW EXECUTE FUNCTION registrar_remocao_catalogo('MEDICAMENTO');
+CREATE TRIGGER trg_categorias_remocao AFTER DELETE ON categorias
+    FOR EACH ROW EXECUTE FUNCTION registrar_remocao_catalogo('CATEGORIA');
+
+COMMENT ON COLUMN medicamentos.versao IS 'Transação da última escrita (sincronização incremental do catálogo)';
+COMMENT ON COLUMN categorias.versao IS 'Transação da última escrita (sincronização incremental do catálogo)';
+COMMENT ON TABLE catalogo_remocoes IS 'Medicamentos e categorias excluídos, para a sincronização incremental do catálogo';
@@ -0,0 +1,34 @@
+-- Migration: coordenação dos jobs agendados entre instâncias da aplicação
+-- Cada job tem uma linha em jobs_lock; a instância que a adquire (lease com expiração renovada por
+-- heartbeat) é a única a executá-lo. Se ela cair no meio da execução, o lease expira e outra instância
+-- retoma o job (execucao_id continua preenchido até a liberação).
+
+CREATE TABLE IF NOT EXISTS jobs_lock (
+    nome VARCHAR(100) PRIMARY KEY,
+    dono VARCHAR(200),
+    execucao_id BIGINT,
+    adquirido_em TIMESTAMP,
+    heartbeat_em TIMESTAMP,
+    expira_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    ultimo_sucesso_em TIMESTAMP
+);
+
+COMMENT ON COLUMN jobs_lock.dono IS 'Instância que detém (ou deteve por último) o lease';
+COMMENT ON COLUMN jobs_lock.execucao_id IS 'Execução em andamento; preenchido com lease expirado indica execução interrompida';
+COMMENT ON COLUMN jobs_lock.expira_em IS 'Fim do lease; renovado pelo heartbeat enquanto o job executa';
+COMMENT ON COLUMN jobs_lock.ultimo_sucesso_em IS 'Início da última execução concluída; evita repetir o job no mesmo agendamento';
+
+-- Histórico de execuções dos jobs (todas as instâncias)
+CREATE TABLE IF NOT EXISTS jobs_execucoes (
+    id BIGSERIAL PRIMARY KEY,
+    job VARCHAR(100) NOT NULL,
+    instancia VARCHAR(200) NOT NULL,
+    inicio TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    fim TIMESTAMP,
+    duracao_ms BIGINT,
+    status VARCHAR(20) NOT NULL,
+    erro TEXT,
+    CONSTRAINT ck_jobs_execucoes_status CHECK (status IN ('EXECUTANDO', 'CONCLUIDA', 'FALHOU', 'INTERROMPIDA'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_jobs_execucoes_job_inicio ON jobs_execucoes (job, inicio DESC);
@@ -0,0 +1,29 @@
+-- Migration: outbox transacional dos eventos de domínio
+-- O evento é gravado na mesma transação da venda/movimentação; o relay de cada instância reserva lotes
+-- (FOR UPDATE SKIP LOCKED) e entrega aos handlers em processo, marcando processado_em na mesma
+-- transação do handler. Eventos de um mesmo agregado são entregues em ordem de id.
+
+CREATE TABLE IF NOT EXISTS outbox_eventos (
+    id BIGSERIAL PRIMARY KEY,
+    tipo VARCHAR(100) NOT NULL,
+    agregado_tipo VARCHAR(50) NOT NULL,
+    agregado_id UUID NOT NULL,
+    payload JSONB NOT NULL,
+    criado_em TIMESTAMP NOT NULL DEFAULT clock_timestamp(),
+    processado_em TIMESTAMP,
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    proxima_tentativa_em TIMESTAMP,
+    reservado_por VARCHAR(100),
+    reservado_ate TIMESTAMP,
+    erro TEXT
+);
+
+COMMENT ON COLUMN outbox_eventos.agregado_id IS 'Venda ou medicamento do evento; define a ordem de entrega';
+COMMENT ON COLUMN outbox_eventos.reservado_ate IS 'Fim da reserva do relay; após esse instante outra instância pode reprocessar';
+COMMENT ON COLUMN outbox_eventos.proxima_tentativa_em IS 'Espera após falha do handler (backoff exponencial)';
+
+-- Pendentes: índices parciais, pequenos mesmo com o histórico de processados
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendentes ON outbox_eventos (id) WHERE processado_em IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_pendentes_agregado ON outbox_eventos (agregado_id, id) WHERE processado_em IS NULL;
+-- Limpeza e métricas de atraso dos processados
+CREATE INDEX IF NOT EXISTS idx_outbox_eventos_processado_em ON outbox_eventos (processado_em) WHERE processado_em IS NOT NULL;
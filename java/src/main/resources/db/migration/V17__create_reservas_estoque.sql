@@ -0,0 +1,26 @@
+-- Reservas de estoque dos carrinhos em andamento nos terminais
+-- Disponível para venda = saldo dos lotes dentro da validade - reservas ativas (expira_em no futuro).
+-- Reservas vencidas são ignoradas pelas consultas e removidas depois por varredura no índice de expira_em;
+-- na venda, as reservas do carrinho são convertidas (removidas na mesma transação).
+
+CREATE TABLE IF NOT EXISTS reservas_estoque (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    carrinho_id UUID NOT NULL,
+    medicamento_id UUID NOT NULL,
+    quantidade INTEGER NOT NULL,
+    usuario_id UUID,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expira_em TIMESTAMP NOT NULL,
+    CONSTRAINT fk_reservas_estoque_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos(id) ON DELETE CASCADE,
+    CONSTRAINT uk_reservas_estoque_carrinho_medicamento UNIQUE (carrinho_id, medicamento_id),
+    CONSTRAINT chk_reservas_estoque_quantidade CHECK (quantidade > 0)
+);
+
+COMMENT ON COLUMN reservas_estoque.carrinho_id IS 'Carrinho do terminal (gerado pelo cliente da API)';
+COMMENT ON COLUMN reservas_estoque.expira_em IS 'Fim da reserva; renovado a cada alteração do carrinho';
+
+-- Soma das reservas ativas por medicamento (disponibilidade na reserva e na venda)
+CREATE INDEX IF NOT EXISTS idx_reservas_estoque_medicamento ON reservas_estoque (medicamento_id, expira_em) INCLUDE (quantidade, carrinho_id);
+
+-- Varredura das reservas vencidas, da mais antiga para a mais nova
+CREATE INDEX IF NOT EXISTS idx_reservas_estoque_expira_em ON reservas_estoque (expira_em);
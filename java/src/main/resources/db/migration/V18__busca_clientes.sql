@@ -0,0 +1,39 @@
+-- Busca de clientes no caixa (GET /api/clientes/busca): nome sem diferenciar maiúsculas e acentos,
+-- CPF e telefone por prefixo dos dígitos, independente da máscara gravada.
+-- As colunas normalizadas são mantidas por trigger (unaccent não é IMMUTABLE e não pode ir em índice
+-- de expressão nem em coluna gerada); a entidade Cliente não as mapeia.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS nome_busca VARCHAR(255);
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS cpf_digitos VARCHAR(20);
+ALTER TABLE clientes ADD COLUMN IF NOT EXISTS telefone_digitos VARCHAR(20);
+
+CREATE OR REPLACE FUNCTION normalizar_busca_cliente() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.nome_busca := lower(unaccent(NEW.nome));
+    NEW.cpf_digitos := regexp_replace(NEW.cpf, '\D', '', 'g');
+    NEW.telefone_digitos := NULLIF(regexp_replace(COALESCE(NEW.telefone, ''), '\D', '', 'g'), '');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+UPDATE clientes SET nome_busca = lower(unaccent(nome)),
+                    cpf_digitos = regexp_replace(cpf, '\D', '', 'g'),
+                    telefone_digitos = NULLIF(regexp_replace(COALESCE(telefone, ''), '\D', '', 'g'), '');
+ALTER TABLE clientes ALTER COLUMN nome_busca SET NOT NULL;
+ALTER TABLE clientes ALTER COLUMN cpf_digitos SET NOT NULL;
+
+CREATE TRIGGER trg_clientes_busca BEFORE INSERT OR UPDATE OF nome, cpf, telefone ON clientes
+    FOR EACH ROW EXECUTE FUNCTION normalizar_busca_cliente();
+
+-- Nome: trigramas atendem LIKE '%termo%' (qualquer parte do nome) a partir de 3 caracteres
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_busca_trgm ON clientes USING gin (nome_busca gin_trgm_ops);
+
+-- Ordenação das páginas da busca por nome
+CREATE INDEX IF NOT EXISTS idx_clientes_nome_busca ON clientes (nome_busca, id);
+
+-- CPF e telefone: LIKE 'digitos%' por faixa na B-tree (text_pattern_ops independe da collation)
+CREATE INDEX IF NOT EXISTS idx_clientes_cpf_digitos ON clientes (cpf_digitos text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_clientes_telefone_digitos ON clientes (telefone_digitos text_pattern_ops);
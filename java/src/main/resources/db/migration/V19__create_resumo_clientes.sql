@@ -0,0 +1,66 @@
+-- Resumo de compras por cliente (tela do cliente): totais, primeira/última compra e produtos mais comprados.
+-- Mantido incrementalmente pelos eventos de venda do outbox (ResumoClienteService); a carga inicial e a
+-- reconstrução (base sintética) usam reconstruir_resumo_clientes().
+
+CREATE TABLE IF NOT EXISTS resumo_clientes (
+    cliente_id UUID PRIMARY KEY,
+    total_compras INTEGER NOT NULL DEFAULT 0,
+    valor_total NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    primeira_compra TIMESTAMP,
+    ultima_compra TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_resumo_clientes_cliente FOREIGN KEY (cliente_id) REFERENCES clientes(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS resumo_clientes_medicamentos (
+    cliente_id UUID NOT NULL,
+    medicamento_id UUID NOT NULL,
+    quantidade INTEGER NOT NULL DEFAULT 0,
+    compras INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (cliente_id, medicamento_id),
+    CONSTRAINT fk_resumo_clientes_medicamentos_cliente FOREIGN KEY (cliente_id) REFERENCES clientes(id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_clientes_medicamentos_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos(id) ON DELETE CASCADE
+);
+
+COMMENT ON COLUMN resumo_clientes_medicamentos.quantidade IS 'Unidades compradas pelo cliente em vendas concluídas';
+COMMENT ON COLUMN resumo_clientes_medicamentos.compras IS 'Vendas concluídas do cliente com o medicamento';
+
+-- Produtos favoritos do cliente, direto da ordem do índice
+CREATE INDEX IF NOT EXISTS idx_resumo_clientes_medicamentos_favoritos
+    ON resumo_clientes_medicamentos (cliente_id, quantidade DESC, compras DESC);
+
+-- Histórico paginado do cliente (mais recentes primeiro) e recálculo de primeira/última compra no cancelamento
+CREATE INDEX IF NOT EXISTS idx_vendas_cliente_created_at ON vendas (cliente_id, created_at DESC, id DESC);
+
+-- Vendas já incorporadas ao resumo segundo os eventos já entregues: sem evento pendente, as concluídas;
+-- com eventos pendentes, o estado anterior ao primeiro deles (o relay aplica o restante depois)
+CREATE OR REPLACE FUNCTION reconstruir_resumo_clientes() RETURNS VOID AS $$
+BEGIN
+    DROP TABLE IF EXISTS vendas_resumo;
+    CREATE TEMP TABLE vendas_resumo ON COMMIT DROP AS
+    SELECT v.id, v.cliente_id, v.valor_total, v.created_at
+    FROM vendas v
+    LEFT JOIN (SELECT DISTINCT ON (agregado_id) agregado_id, tipo
+               FROM outbox_eventos
+               WHERE processado_em IS NULL AND agregado_tipo = 'VENDA'
+               ORDER BY agregado_id, id) p ON p.agregado_id = v.id
+    WHERE CASE WHEN p.tipo IS NULL THEN v.status = 'CONCLUIDA' ELSE p.tipo = 'VendaCanceladaEvento' END;
+
+    DELETE FROM resumo_clientes_medicamentos;
+    DELETE FROM resumo_clientes;
+
+    INSERT INTO resumo_clientes (cliente_id, total_compras, valor_total, primeira_compra, ultima_compra)
+    SELECT cliente_id, COUNT(*), SUM(valor_total), MIN(created_at), MAX(created_at)
+    FROM vendas_resumo
+    GROUP BY cliente_id;
+
+    INSERT INTO resumo_clientes_medicamentos (cliente_id, medicamento_id, quantidade, compras)
+    SELECT vr.cliente_id, iv.medicamento_id, SUM(iv.quantidade), COUNT(DISTINCT vr.id)
+    FROM vendas_resumo vr
+    JOIN itens_venda iv ON iv.venda_id = vr.id
+    JOIN medicamentos m ON m.id = iv.medicamento_id
+    GROUP BY vr.cliente_id, iv.medicamento_id;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT reconstruir_resumo_clientes();
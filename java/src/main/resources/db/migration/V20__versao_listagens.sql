@@ -0,0 +1,44 @@
+-- Migration: versão por tabela para o ETag e o Last-Modified das listagens (GET /api/medicamentos, /categorias, /clientes)
+-- Um contador por tabela, incrementado no commit de cada transação que escreve na tabela (trigger de constraint
+-- adiada, uma vez por transação). Como o contador só muda com o commit, a versão lida é sempre a da última
+-- escrita confirmada: transações longas abertas em paralelo (exportações, reconciliação, arquivamento) não
+-- atrasam o ETag. Pega também escritas fora do Hibernate (JdbcTemplate, COPY, SQL manual).
+-- O trigger publica o nome da tabela no canal cache_invalidacao, para as instâncias descartarem a versão em memória.
+
+CREATE TABLE IF NOT EXISTS versao_listagens (
+    tabela VARCHAR(50) PRIMARY KEY,
+    versao BIGINT NOT NULL DEFAULT 1,
+    alterado_em TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+INSERT INTO versao_listagens (tabela) VALUES ('medicamentos'), ('categorias'), ('clientes')
+ON CONFLICT (tabela) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION incrementar_versao_listagem() RETURNS TRIGGER AS $$
+DECLARE
+    marcador TEXT := 'farmacia.versao_' || TG_TABLE_NAME;
+BEGIN
+    -- O trigger é por linha: só a primeira execução da transação incrementa
+    IF current_setting(marcador, true) = pg_current_xact_id()::TEXT THEN
+        RETURN NULL;
+    END IF;
+    PERFORM set_config(marcador, pg_current_xact_id()::TEXT, true);
+    UPDATE versao_listagens SET versao = versao + 1, alterado_em = clock_timestamp() WHERE tabela = TG_TABLE_NAME;
+    -- Mesmo formato das mensagens do BarramentoInvalidacao: origem na primeira linha, tabela na segunda
+    PERFORM pg_notify('cache_invalidacao', 'banco' || E'\n' || TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Adiado para o commit: a linha do contador fica bloqueada só durante o commit, e não durante a transação inteira
+-- (as vendas atualizam medicamentos.quantidade_estoque e não se enfileiram umas atrás das outras).
+-- Uma transação que escreve em mais de uma dessas tabelas bloqueia os contadores na ordem das primeiras
+-- escritas; a única que faz isso (alteração de categoria) grava sempre categorias antes de medicamentos.
+CREATE CONSTRAINT TRIGGER trg_medicamentos_versao_listagem AFTER INSERT OR UPDATE OR DELETE ON medicamentos
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION incrementar_versao_listagem();
+CREATE CONSTRAINT TRIGGER trg_categorias_versao_listagem AFTER INSERT OR UPDATE OR DELETE ON categorias
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION incrementar_versao_listagem();
+CREATE CONSTRAINT TRIGGER trg_clientes_versao_listagem AFTER INSERT OR UPDATE OR DELETE ON clientes
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION incrementar_versao_listagem();
+
+COMMENT ON TABLE versao_listagens IS 'Versão por tabela das listagens (ETag e Last-Modified), incrementada no commit de cada escrita';
@@ -0,0 +1,27 @@
+-- Estoque mínimo configurável por categoria (padrão herdado) e por medicamento (sobrescreve a categoria)
+ALTER TABLE categorias ADD COLUMN IF NOT EXISTS estoque_minimo INTEGER;
+ALTER TABLE medicamentos ADD COLUMN IF NOT EXISTS estoque_minimo INTEGER;
+
+-- Limite efetivo usado na detecção de estoque baixo:
+-- estoque_minimo do medicamento, senão o da categoria, senão o padrão (10)
+ALTER TABLE medicamentos ADD COLUMN IF NOT EXISTS limite_estoque_baixo INTEGER NOT NULL DEFAULT 10;
+
+ALTER TABLE categorias ADD CONSTRAINT ck_categorias_estoque_minimo CHECK (estoque_minimo IS NULL OR estoque_minimo >= 0);
+ALTER TABLE medicamentos ADD CONSTRAINT ck_medicamentos_estoque_minimo CHECK (estoque_minimo IS NULL OR estoque_minimo >= 0);
+
+-- Comentários nas colunas
+COMMENT ON COLUMN categorias.estoque_minimo IS 'Estoque mínimo padrão para os medicamentos da categoria (opcional)';
+COMMENT ON COLUMN medicamentos.estoque_minimo IS 'Estoque mínimo específico do medicamento (opcional, sobrescreve o da categoria)';
+COMMENT ON COLUMN medicamentos.limite_estoque_baixo IS 'Limite efetivo de estoque baixo (estoque_minimo do medicamento, da categoria ou padrão 10)';
+
+-- Preenche o limite efetivo dos medicamentos existentes
+UPDATE medicamentos m
+SET limite_estoque_baixo = COALESCE(m.estoque_minimo, c.estoque_minimo, 10)
+FROM categorias c
+WHERE c.id = m.categoria_id;
+
+-- Índice parcial: contém apenas os medicamentos ativos abaixo do limite,
+-- permitindo obter o conjunto de estoque baixo sem percorrer o catálogo inteiro
+CREATE INDEX IF NOT EXISTS idx_medicamentos_estoque_baixo
+    ON medicamentos (quantidade_estoque)
+    WHERE ativo = true AND quantidade_estoque < limite_estoque_baixo;
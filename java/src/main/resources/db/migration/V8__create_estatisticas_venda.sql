@@ -0,0 +1,27 @@
+-- Estatísticas de venda por medicamento para previsão de ruptura de estoque
+-- Média móvel exponencial (EWMA) de unidades vendidas por dia, atualizada incrementalmente a cada venda/cancelamento
+CREATE TABLE IF NOT EXISTS estatisticas_venda (
+    medicamento_id UUID PRIMARY KEY,
+    media_diaria DOUBLE PRECISION NOT NULL DEFAULT 0,
+    quantidade_dia INTEGER NOT NULL DEFAULT 0,
+    dia_referencia DATE NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_estatisticas_venda_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos(id) ON DELETE CASCADE
+);
+
+-- Comentários nas colunas
+COMMENT ON COLUMN estatisticas_venda.media_diaria IS 'Média móvel exponencial de unidades vendidas por dia (dias completos até dia_referencia - 1)';
+COMMENT ON COLUMN estatisticas_venda.quantidade_dia IS 'Unidades vendidas no dia_referencia (dia ainda em aberto)';
+COMMENT ON COLUMN estatisticas_venda.dia_referencia IS 'Último dia incorporado às estatísticas';
+
+-- Carga inicial: média simples dos últimos 30 dias completos (executada uma única vez)
+INSERT INTO estatisticas_venda (medicamento_id, media_diaria, quantidade_dia, dia_referencia)
+SELECT iv.medicamento_id, SUM(iv.quantidade)::DOUBLE PRECISION / 30, 0, CURRENT_DATE
+FROM itens_venda iv
+JOIN vendas v ON v.id = iv.venda_id
+JOIN medicamentos m ON m.id = iv.medicamento_id
+WHERE v.status = 'CONCLUIDA'
+  AND v.created_at >= CURRENT_DATE - INTERVAL '30 days'
+  AND v.created_at < CURRENT_DATE
+GROUP BY iv.medicamento_id
+ON CONFLICT (medicamento_id) DO NOTHING;
@@ -0,0 +1,36 @@
+-- Controle de estoque por lote (número do lote, validade e quantidade)
+CREATE TABLE IF NOT EXISTS lotes (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    medicamento_id UUID NOT NULL,
+    numero_lote VARCHAR(50) NOT NULL,
+    validade DATE,
+    quantidade INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_lotes_medicamento FOREIGN KEY (medicamento_id) REFERENCES medicamentos(id) ON DELETE CASCADE,
+    CONSTRAINT uk_lotes_medicamento_numero UNIQUE (medicamento_id, numero_lote),
+    CONSTRAINT chk_lotes_quantidade CHECK (quantidade >= 0)
+);
+
+-- Índice para a separação FEFO (primeiro a vencer, primeiro a sair): lotes com saldo de um medicamento, ordenados pela validade
+CREATE INDEX IF NOT EXISTS idx_lotes_fefo ON lotes (medicamento_id, validade NULLS LAST) WHERE quantidade > 0;
+
+-- Índice para os alertas de validade por lote
+CREATE INDEX IF NOT EXISTS idx_lotes_validade ON lotes (validade) WHERE quantidade > 0;
+
+-- Movimentações passam a registrar o lote e a venda de origem
+ALTER TABLE movimentacoes_estoque ADD COLUMN IF NOT EXISTS lote_id UUID;
+ALTER TABLE movimentacoes_estoque ADD COLUMN IF NOT EXISTS venda_id UUID;
+CREATE INDEX IF NOT EXISTS idx_movimentacoes_estoque_venda ON movimentacoes_estoque (venda_id) WHERE venda_id IS NOT NULL;
+
+-- Comentários nas colunas
+COMMENT ON COLUMN lotes.numero_lote IS 'Número do lote do fabricante (ou SEM-LOTE-<validade> quando não informado)';
+COMMENT ON COLUMN lotes.quantidade IS 'Saldo do lote; a soma dos lotes é igual a medicamentos.quantidade_estoque';
+COMMENT ON COLUMN movimentacoes_estoque.lote_id IS 'Lote movimentado';
+COMMENT ON COLUMN movimentacoes_estoque.venda_id IS 'Venda que originou a movimentação (saída ou estorno)';
+
+-- Carga inicial: o estoque atual de cada medicamento vira um único lote com a validade cadastrada
+INSERT INTO lotes (medicamento_id, numero_lote, validade, quantidade)
+SELECT id, 'SEM-LOTE-' || COALESCE(TO_CHAR(validade, 'YYYYMMDD'), 'INDEFINIDA'), validade, quantidade_estoque
+FROM medicamentos
+WHERE quantidade_estoque > 0
+ON CONFLICT (medicamento_id, numero_lote) DO NOTHING;
@@ -0,0 +1,68 @@
+package com.farmacia;
+
+import com.farmacia.domain.evento.VendaCanceladaEvento;
+import com.farmacia.service.AlertaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Alertas atualizados pelos eventos do outbox: cada evento só mexe nos alertas dos medicamentos que alterou.
+ */
+class AlertasEventosTest extends IntegracaoPostgresTest {
+
+    @Autowired
+    private AlertaService alertaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, Integer> limitesOriginais = new HashMap<>();
+
+    @AfterEach
+    void restaurar() {
+        jdbcTemplate.update("DELETE FROM alertas WHERE mensagem = 'teste-evento'");
+        limitesOriginais.forEach((id, limite) ->
+                jdbcTemplate.update("UPDATE medicamentos SET limite_estoque_baixo = ? WHERE id = ?", limite, id));
+        // Reabre os alertas de estoque baixo que o teste deu como lidos
+        alertaService.verificarEstoqueBaixo(limitesOriginais.keySet());
+    }
+
+    @Test
+    void cancelamentoDaBaixaSoNosAlertasDosItens() {
+        List<UUID> medicamentos = jdbcTemplate.queryForList(
+                "SELECT id FROM medicamentos WHERE ativo = true ORDER BY id LIMIT 2", UUID.class);
+        for (UUID id : medicamentos) {
+            limitesOriginais.put(id, jdbcTemplate.queryForObject(
+                    "SELECT limite_estoque_baixo FROM medicamentos WHERE id = ?", Integer.class, id));
+        }
+        UUID vendido = medicamentos.get(0);
+        UUID outro = medicamentos.get(1);
+
+        // Os dois saem do estoque baixo (limite zero), mas só o primeiro está na venda cancelada
+        jdbcTemplate.update("UPDATE medicamentos SET limite_estoque_baixo = 0 WHERE id IN (?, ?)", vendido, outro);
+        for (UUID id : medicamentos) {
+            jdbcTemplate.update("INSERT INTO alertas (medicamento_id, medicamento_nome, tipo, mensagem, lido) "
+                    + "SELECT id, nome, 'ESTOQUE_BAIXO', 'teste-evento', false FROM medicamentos WHERE id = ?", id);
+        }
+
+        alertaService.onVendaCancelada(new VendaCanceladaEvento(UUID.randomUUID(), LocalDate.now(), Map.of(vendido, 1)));
+
+        assertThat(alertaLido(vendido)).isTrue();
+        assertThat(alertaLido(outro)).isFalse();
+    }
+
+    private boolean alertaLido(UUID medicamentoId) {
+        return jdbcTemplate.queryForObject("SELECT lido FROM alertas WHERE medicamento_id = ? AND mensagem = 'teste-evento'",
+                Boolean.class, medicamentoId);
+    }
+}
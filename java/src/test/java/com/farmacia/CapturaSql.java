@@ -0,0 +1,36 @@
+package com.farmacia;
+
+import com.farmacia.config.ContadorConsultasSql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StatementInspector dos testes: além da contagem de ContadorConsultasSql, guarda o texto dos comandos
+ * preparados pelo Hibernate na thread enquanto uma captura está aberta.
+ */
+public class CapturaSql extends ContadorConsultasSql {
+
+    private static final ThreadLocal<List<String>> CAPTURADOS = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> capturados = CAPTURADOS.get();
+        if (capturados != null) {
+            capturados.add(sql);
+        }
+        return super.inspect(sql);
+    }
+
+    /** Comandos SQL que o Hibernate preparou durante a execução de acao, na ordem */
+    public static List<String> capturar(Runnable acao) {
+        List<String> capturados = new ArrayList<>();
+        CAPTURADOS.set(capturados);
+        try {
+            acao.run();
+        } finally {
+            CAPTURADOS.remove();
+        }
+        return capturados;
+    }
+}
@@ -0,0 +1,74 @@
+package com.farmacia;
+
+import com.farmacia.config.ContadorConsultasSql;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comandos SQL do Hibernate por endpoint de listagem, com os caches vazios. Os limites são fixos e a base
+ * tem dezenas a milhares de linhas por listagem: uma associação carregada item a item (N+1) estoura o
+ * limite e quebra o build. Consultas via JdbcTemplate não entram na contagem (ContadorConsultasSql).
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorEndpointTest extends IntegracaoPostgresTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID clienteComVendas;
+
+    @BeforeAll
+    void prepararDados() {
+        clienteComVendas = jdbcTemplate.queryForObject(
+                "SELECT cliente_id FROM vendas GROUP BY cliente_id ORDER BY COUNT(*) DESC LIMIT 1", UUID.class);
+    }
+
+    Stream<Arguments> endpoints() {
+        return Stream.of(
+                // MedicamentoService
+                Arguments.of("/api/medicamentos", 1),
+                Arguments.of("/api/medicamentos/ativos", 2),
+                Arguments.of("/api/medicamentos/sync", 3),
+                // VendaService
+                Arguments.of("/api/vendas", 4),
+                Arguments.of("/api/vendas/cliente/" + clienteComVendas, 4),
+                Arguments.of("/api/clientes/" + clienteComVendas + "/vendas?tamanho=100", 7),
+                // AlertaService
+                Arguments.of("/api/alertas", 2),
+                Arguments.of("/api/alertas/nao-lidos", 3),
+                Arguments.of("/api/alertas/estoque-baixo", 5),
+                Arguments.of("/api/alertas/validade-proxima", 3),
+                Arguments.of("/api/alertas/validade-vencida", 3),
+                Arguments.of("/api/alertas/previsao-ruptura", 5),
+                // ClienteService
+                Arguments.of("/api/clientes", 2),
+                Arguments.of("/api/clientes/busca?termo=mar&tamanho=100", 1),
+                Arguments.of("/api/clientes/" + clienteComVendas + "/resumo", 1)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}: no máximo {1} comando(s) SQL")
+    @MethodSource("endpoints")
+    void listagemComNumeroFixoDeConsultas(String url, int limite) throws Exception {
+        limparCaches();
+        // Autentica antes de zerar: o login não faz parte da medição
+        MockHttpServletRequestBuilder request = autenticado(get(url));
+        ContadorConsultasSql.reiniciar();
+        mockMvc.perform(request).andExpect(status().isOk());
+        int total = ContadorConsultasSql.total();
+        assertThat(total).as("comandos SQL em GET %s", url).isLessThanOrEqualTo(limite);
+    }
+}
@@ -0,0 +1,68 @@
+package com.farmacia;
+
+import com.farmacia.config.CoordenadorJobs;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fencing das escritas dos jobs: a transação vinculada ao lease só é confirmada se jobs_lock ainda
+ * apontar para a execução que a abriu.
+ */
+class CoordenadorJobsTest extends IntegracaoPostgresTest {
+
+    @Autowired
+    private CoordenadorJobs coordenadorJobs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void escritaConfirmadaComLease() {
+        coordenadorJobs.registrar("teste-lease-mantido", Duration.ZERO, () -> gravarMarcador("lease-mantido"));
+
+        assertThat(coordenadorJobs.executar("teste-lease-mantido")).isTrue();
+
+        assertThat(marcadores("lease-mantido")).isEqualTo(1);
+        assertThat(ultimoStatus("teste-lease-mantido")).isEqualTo("CONCLUIDA");
+    }
+
+    @Test
+    void escritaDesfeitaQuandoOutraExecucaoAssumeOLease() {
+        coordenadorJobs.registrar("teste-lease-perdido", Duration.ZERO, () -> {
+            // Outra instância retomou o job: execucao_id em jobs_lock não é mais o desta execução
+            jdbcTemplate.update("UPDATE jobs_lock SET execucao_id = execucao_id + 1000 WHERE nome = 'teste-lease-perdido'");
+            gravarMarcador("lease-perdido");
+        });
+
+        assertThat(coordenadorJobs.executar("teste-lease-perdido")).isTrue();
+
+        assertThat(marcadores("lease-perdido")).isZero();
+        assertThat(ultimoStatus("teste-lease-perdido")).isEqualTo("FALHOU");
+    }
+
+    private void gravarMarcador(String marcador) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            coordenadorJobs.vincularAoLease();
+            jdbcTemplate.update("INSERT INTO jobs_execucoes (job, instancia, status) VALUES (?, 'teste', 'CONCLUIDA')", marcador);
+        });
+    }
+
+    private int marcadores(String marcador) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM jobs_execucoes WHERE job = ?", Integer.class, marcador);
+    }
+
+    private String ultimoStatus(String job) {
+        return jdbcTemplate.queryForObject("SELECT status FROM jobs_execucoes WHERE job = ? ORDER BY id DESC LIMIT 1",
+                String.class, job);
+    }
+}
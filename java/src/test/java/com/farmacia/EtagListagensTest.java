@@ -0,0 +1,125 @@
+package com.farmacia;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag e Last-Modified das listagens a partir de versao_listagens: mudam com escritas feitas fora do
+ * Hibernate, não dependem de transações longas abertas em paralelo e diferem entre os formatos negociados.
+ */
+class EtagListagensTest extends IntegracaoPostgresTest {
+
+    private static final long ESPERA_NOTIFICACAO_MS = 5000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private MockHttpServletResponse listar(String url, String accept) throws Exception {
+        MockHttpServletResponse resposta = mockMvc.perform(autenticado(get(url)).header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(resposta.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+        return resposta;
+    }
+
+    private String etag(String url, String accept) throws Exception {
+        return listar(url, accept).getHeader(HttpHeaders.ETAG);
+    }
+
+    private int revalidar(String url, String etag) throws Exception {
+        return mockMvc.perform(autenticado(get(url)).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+    }
+
+    /** A versão em memória é descartada pela notificação do commit, entregue de forma assíncrona */
+    private int revalidarAteMudar(String url, String etag) throws Exception {
+        long limite = System.currentTimeMillis() + ESPERA_NOTIFICACAO_MS;
+        int status = revalidar(url, etag);
+        while (status == 304 && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+            status = revalidar(url, etag);
+        }
+        return status;
+    }
+
+    @Test
+    void naoModificadoAteUmaEscritaForaDoHibernate() throws Exception {
+        String etag = etag("/api/clientes", "application/json");
+        assertThat(etag).isNotNull();
+        assertThat(revalidar("/api/clientes", etag)).isEqualTo(304);
+
+        jdbcTemplate.update("UPDATE clientes SET telefone = telefone WHERE id = (SELECT id FROM clientes LIMIT 1)");
+
+        assertThat(revalidarAteMudar("/api/clientes", etag)).isEqualTo(200);
+        assertThat(etag("/api/clientes", "application/json")).isNotEqualTo(etag);
+    }
+
+    @Test
+    void etagComTransacaoLongaAberta() throws Exception {
+        try (Connection longa = dataSource.getConnection(); Statement statement = longa.createStatement()) {
+            // Transação com xid anterior à escrita abaixo, aberta durante toda a verificação (como uma exportação)
+            longa.setAutoCommit(false);
+            statement.execute("SELECT pg_current_xact_id()");
+
+            String antes = etag("/api/clientes", "application/json");
+            jdbcTemplate.update("UPDATE clientes SET telefone = telefone WHERE id = (SELECT id FROM clientes LIMIT 1)");
+            assertThat(revalidarAteMudar("/api/clientes", antes)).isEqualTo(200);
+
+            String depois = etag("/api/clientes", "application/json");
+            assertThat(depois).isNotNull().isNotEqualTo(antes);
+            assertThat(revalidar("/api/clientes", depois)).isEqualTo(304);
+            longa.rollback();
+        }
+    }
+
+    @Test
+    void lastModifiedEConsultaSemIrAoBanco() throws Exception {
+        listar("/api/categorias", "application/json");
+        Thread.sleep(1100); // o Last-Modified só sai depois que o segundo da última escrita terminou
+
+        MockHttpServletResponse resposta = listar("/api/categorias", "application/json");
+        String etag = resposta.getHeader(HttpHeaders.ETAG);
+        String ultimaAlteracao = resposta.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(ultimaAlteracao).isNotNull();
+        mockMvc.perform(autenticado(get("/api/categorias")).header(HttpHeaders.IF_MODIFIED_SINCE, ultimaAlteracao))
+                .andExpect(status().isNotModified());
+
+        // Contador alterado sem trigger nem notificação: a versão em memória continua valendo
+        jdbcTemplate.update("UPDATE versao_listagens SET versao = versao + 1000 WHERE tabela = 'categorias'");
+        try {
+            assertThat(revalidar("/api/categorias", etag)).isEqualTo(304);
+        } finally {
+            jdbcTemplate.update("UPDATE versao_listagens SET versao = versao - 1000 WHERE tabela = 'categorias'");
+            jdbcTemplate.queryForObject("SELECT pg_notify('cache_invalidacao', 'banco' || chr(10) || 'categorias')", Object.class);
+        }
+    }
+
+    @Test
+    void etagPorFormatoNegociado() throws Exception {
+        String json = etag("/api/categorias", "application/json");
+        String cbor = etag("/api/categorias", "application/cbor");
+        String smile = etag("/api/categorias", "application/x-jackson-smile");
+
+        assertThat(json).isNotNull().isEqualTo(etag("/api/categorias", "*/*"));
+        assertThat(cbor).isNotNull().isNotEqualTo(json);
+        assertThat(smile).isNotNull().isNotEqualTo(json).isNotEqualTo(cbor);
+
+        mockMvc.perform(autenticado(get("/api/categorias")).header(HttpHeaders.ACCEPT, "application/cbor")
+                        .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk());
+    }
+}
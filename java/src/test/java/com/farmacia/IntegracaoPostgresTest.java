@@ -0,0 +1,73 @@
+package com.farmacia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base dos testes de integração: a aplicação inteira (Flyway, segurança, outbox) sobre um PostgreSQL em
+ * container, com a base sintética pequena do perfil teste. O container e o contexto Spring são
+ * compartilhados por todas as classes de teste; sem Docker os testes são ignorados.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("teste")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class IntegracaoPostgresTest {
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static String token;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registry) {
+        // Iniciado aqui, e não por @Container, para um único container em todas as classes de teste
+        if (!POSTGRES.isRunning()) {
+            POSTGRES.start();
+        }
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    /** Requisição autenticada como o administrador criado pelo DataLoader */
+    protected MockHttpServletRequestBuilder autenticado(MockHttpServletRequestBuilder request) throws Exception {
+        if (token == null) {
+            String resposta = mockMvc.perform(post("/api/auth/login")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"email\":\"admin@farmacia.com\",\"password\":\"admin123\"}"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            token = objectMapper.readTree(resposta).get("token").asText();
+        }
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    /** Esvazia os caches da aplicação: a medição não pode depender do que outro teste já carregou */
+    protected void limparCaches() {
+        cacheManager.getCacheNames().forEach(nome -> cacheManager.getCache(nome).clear());
+    }
+}
@@ -0,0 +1,214 @@
+package com.farmacia;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plano de execução de cada método declarado nos repositórios, com o SQL que o Hibernate realmente gera:
+ * o método é chamado numa transação desfeita no fim, os comandos são capturados (CapturaSql) e cada um
+ * passa por EXPLAIN do plano genérico com enable_seqscan desligado. Nessa condição o planejador só lê
+ * a tabela inteira (Seq Scan ou índice sem condição) quando nenhum índice atende a consulta; numa tabela
+ * grande, o teste falha. A base de teste é pequena, por isso o tamanho vem de TABELAS_GRANDES e não das
+ * estatísticas.
+ *
+ * Métodos novos entram sozinhos na verificação; os que leem a tabela inteira de propósito ficam em
+ * VARREDURAS_ACEITAS, com o motivo.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PlanosConsultaTest extends IntegracaoPostgresTest {
+
+    // Tabelas que crescem com o uso. As demais têm poucas linhas (catálogo, usuários, reservas que vencem
+    // em minutos) e a varredura é a escolha certa
+    private static final Set<String> TABELAS_GRANDES = Set.of(
+            "clientes", "vendas", "itens_venda", "movimentacoes_estoque", "logs", "lotes",
+            "alertas", "estoque_snapshots");
+
+    private static final Map<String, String> VARREDURAS_ACEITAS = Map.of(
+            "VendaRepository.findAllComItens", "GET /api/vendas lista todas as vendas; relatórios usam GET /api/vendas/export");
+
+    @Autowired
+    private ApplicationContext contexto;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Partição -> tabela particionada (logs, movimentacoes_estoque)
+    private final Map<String, String> tabelaDaParticao = new HashMap<>();
+
+    // Todo UUID é o de um medicamento existente: atende as chaves estrangeiras dos comandos de escrita
+    private UUID medicamentoId;
+
+    private int preparadas;
+
+    @BeforeAll
+    void prepararDados() {
+        medicamentoId = jdbcTemplate.queryForObject("SELECT id FROM medicamentos LIMIT 1", UUID.class);
+        jdbcTemplate.query("SELECT c.relname, p.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent",
+                rs -> {
+                    tabelaDaParticao.put(rs.getString(1), rs.getString(2));
+                });
+    }
+
+    Stream<Arguments> metodosDosRepositorios() {
+        Repositories repositories = new Repositories(contexto);
+        List<Arguments> metodos = new ArrayList<>();
+        for (Class<?> entidade : repositories) {
+            RepositoryInformation informacao = repositories.getRequiredRepositoryInformation(entidade);
+            Object repositorio = repositories.getRepositoryFor(entidade).orElseThrow();
+            Arrays.stream(informacao.getRepositoryInterface().getDeclaredMethods())
+                    .filter(m -> !m.isDefault() && !m.isSynthetic() && !Modifier.isStatic(m.getModifiers()))
+                    .forEach(m -> metodos.add(Arguments.of(
+                            informacao.getRepositoryInterface().getSimpleName() + "." + m.getName(), repositorio, m)));
+        }
+        return metodos.stream().sorted(Comparator.comparing(a -> (String) a.get()[0]));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("metodosDosRepositorios")
+    void semVarreduraDeTabelaGrande(String nome, Object repositorio, Method metodo) {
+        List<String> comandos = CapturaSql.capturar(() -> executarDesfazendo(repositorio, metodo));
+        assertThat(comandos).as("%s não executou nenhum comando SQL", nome).isNotEmpty();
+
+        for (String sql : comandos) {
+            String plano = explicar(sql);
+            List<String> varreduras = new ArrayList<>();
+            try {
+                coletarVarreduras(objectMapper.readTree(plano).get(0).get("Plan"), false, varreduras);
+            } catch (Exception e) {
+                throw new IllegalStateException("Erro ao interpretar o plano de " + nome + ": " + e.getMessage(), e);
+            }
+            if (!VARREDURAS_ACEITAS.containsKey(nome)) {
+                assertThat(varreduras)
+                        .as("%s lê a tabela grande inteira, sem índice que atenda a consulta:%n%s%n%s", nome, sql, plano)
+                        .isEmpty();
+            }
+        }
+    }
+
+    /** Chama o método com argumentos sintéticos numa transação desfeita: os comandos de escrita não ficam na base */
+    private void executarDesfazendo(Object repositorio, Method metodo) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            try {
+                metodo.invoke(repositorio, Arrays.stream(metodo.getParameterTypes()).map(this::argumento).toArray());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Erro ao chamar " + metodo + ": " + e.getCause(), e);
+            }
+        });
+    }
+
+    // Os valores não influenciam o plano genérico; só precisam ser aceitos pela consulta
+    private Object argumento(Class<?> tipo) {
+        if (tipo == UUID.class) {
+            return medicamentoId;
+        }
+        if (tipo == String.class) {
+            return "{}"; // Também é um jsonb válido (LogRepository.buscarPorDetalhes)
+        }
+        if (tipo == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (tipo == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (tipo == Long.class || tipo == long.class) {
+            return 1L;
+        }
+        if (tipo == Integer.class || tipo == int.class) {
+            return 10;
+        }
+        if (tipo == Boolean.class || tipo == boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (Collection.class.isAssignableFrom(tipo)) {
+            return List.of(medicamentoId, UUID.randomUUID());
+        }
+        if (tipo == Pageable.class) {
+            return PageRequest.of(0, 20);
+        }
+        if (tipo.isEnum()) {
+            return tipo.getEnumConstants()[0];
+        }
+        throw new IllegalArgumentException("Tipo de parâmetro sem valor sintético no teste: " + tipo.getName());
+    }
+
+    private String explicar(String sql) {
+        // Plano genérico da consulta preparada, como o driver a executa: os parâmetros ($1, $2...) ficam sem valor
+        StringBuilder comParametros = new StringBuilder();
+        int parametros = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                comParametros.append('$').append(++parametros);
+            } else {
+                comParametros.append(c);
+            }
+        }
+        String valores = parametros == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parametros, "NULL")) + ")";
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+            // Nome único: um PREPARE não é desfeito com a transação e a conexão volta ao pool
+            String nome = "plano_consulta_" + (++preparadas);
+            jdbcTemplate.execute("PREPARE " + nome + " AS " + comParametros);
+            String plano = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) EXECUTE " + nome + valores, String.class);
+            jdbcTemplate.execute("DEALLOCATE " + nome);
+            return plano;
+        });
+    }
+
+    /**
+     * Leitura da tabela inteira: Seq Scan, ou varredura de índice sem condição (o que o planejador escolhe
+     * no lugar do Seq Scan desligado), a não ser que um LIMIT acima interrompa a leitura.
+     */
+    private void coletarVarreduras(JsonNode no, boolean comLimite, List<String> varreduras) {
+        String tipo = no.path("Node Type").asText();
+        boolean completa = "Seq Scan".equals(tipo)
+                || (("Index Scan".equals(tipo) || "Index Only Scan".equals(tipo)) && !no.has("Index Cond") && !comLimite);
+        if (completa) {
+            String tabela = no.path("Relation Name").asText();
+            tabela = tabelaDaParticao.getOrDefault(tabela, tabela);
+            if (TABELAS_GRANDES.contains(tabela) && !varreduras.contains(tabela + " (" + tipo + ")")) {
+                varreduras.add(tabela + " (" + tipo + ")");
+            }
+        }
+        for (JsonNode filho : no.path("Plans")) {
+            coletarVarreduras(filho, comLimite || "Limit".equals(tipo), varreduras);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.farmacia;
+
+import com.farmacia.domain.dto.DivergenciaEstoqueResponse;
+import com.farmacia.service.ReconciliacaoEstoqueService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ajustes da reconciliação: a diferença é recalculada na transação de escrita, e não reaproveitada da
+ * leitura da partição, que pode ter ficado para trás de vendas e entradas confirmadas depois dela.
+ */
+class ReconciliacaoEstoqueTest extends IntegracaoPostgresTest {
+
+    @Autowired
+    private ReconciliacaoEstoqueService reconciliacaoEstoqueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void ajusteUsaADiferencaAtualEIgnoraDivergenciaDesfeita() {
+        UUID medicamentoId = jdbcTemplate.queryForObject(
+                "SELECT id FROM medicamentos WHERE ativo = true ORDER BY id DESC LIMIT 1", UUID.class);
+        long ajustesAntes = ajustes(medicamentoId);
+
+        // Divergência já desfeita: nenhuma movimentação de ajuste
+        assertThat(corrigir(divergencia(medicamentoId, 7))).isZero();
+        assertThat(ajustes(medicamentoId)).isEqualTo(ajustesAntes);
+
+        // Entrada gravada só no histórico: a diferença real é -5, não a lida antes (-3)
+        jdbcTemplate.update("INSERT INTO movimentacoes_estoque (medicamento_id, tipo, quantidade, motivo, data) "
+                + "VALUES (?, 'ENTRADA', 5, 'teste-reconciliacao', CURRENT_TIMESTAMP)", medicamentoId);
+        DivergenciaEstoqueResponse divergencia = divergencia(medicamentoId, -3);
+        assertThat(corrigir(divergencia)).isEqualTo(1);
+
+        assertThat(divergencia.getDiferenca()).isEqualTo(-5);
+        assertThat(ajustes(medicamentoId)).isEqualTo(ajustesAntes + 1);
+        assertThat(saldoHistorico(medicamentoId)).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT quantidade_estoque FROM medicamentos WHERE id = ?", Long.class, medicamentoId));
+    }
+
+    @Test
+    void varreduraCompletaEmRepeatableRead() throws InterruptedException {
+        reconciliacaoEstoqueService.iniciar(false);
+        long limite = System.currentTimeMillis() + 60_000;
+        while ("EM_EXECUCAO".equals(reconciliacaoEstoqueService.getStatus().getStatus()) && System.currentTimeMillis() < limite) {
+            Thread.sleep(100);
+        }
+
+        assertThat(reconciliacaoEstoqueService.getStatus().getStatus()).isEqualTo("CONCLUIDA");
+        assertThat(reconciliacaoEstoqueService.getStatus().getMedicamentosVerificados())
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM medicamentos", Long.class));
+    }
+
+    private DivergenciaEstoqueResponse divergencia(UUID medicamentoId, long diferenca) {
+        return new DivergenciaEstoqueResponse(medicamentoId, "teste", 0, 0L, diferenca, 0L, 0L, false);
+    }
+
+    private int corrigir(DivergenciaEstoqueResponse divergencia) {
+        Integer correcoes = ReflectionTestUtils.invokeMethod(reconciliacaoEstoqueService, "corrigir",
+                List.of(divergencia), null);
+        return correcoes;
+    }
+
+    private long ajustes(UUID medicamentoId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimentacoes_estoque "
+                + "WHERE medicamento_id = ? AND motivo LIKE 'Ajuste de reconciliação%'", Long.class, medicamentoId);
+    }
+
+    private long saldoHistorico(UUID medicamentoId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT saldo FROM movimentacoes_saldo_arquivado WHERE medicamento_id = ?), 0) "
+                        + "+ COALESCE((SELECT SUM(CASE WHEN tipo = 'ENTRADA' THEN quantidade ELSE -quantidade END) "
+                        + "FROM movimentacoes_estoque WHERE medicamento_id = ?), 0)",
+                Long.class, medicamentoId, medicamentoId);
+    }
+}
@@ -0,0 +1,64 @@
+package com.farmacia.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Datas em texto nos três formatos da API (JSON, Smile, CBOR): texto válido é lido, vazio vira null e
+ * texto inválido é rejeitado com InvalidFormatException, nunca convertido em null.
+ */
+class JacksonConfigTest {
+
+    private final JacksonConfig config = new JacksonConfig();
+
+    private ObjectMapper mapper(String formato) {
+        return switch (formato) {
+            case "json" -> config.objectMapper(new Jackson2ObjectMapperBuilder());
+            case "smile" -> config.smileObjectMapper(new Jackson2ObjectMapperBuilder());
+            default -> config.cborObjectMapper(new Jackson2ObjectMapperBuilder());
+        };
+    }
+
+    private static byte[] corpo(ObjectMapper mapper, String valor) throws Exception {
+        return mapper.writeValueAsBytes(Map.of("valor", valor));
+    }
+
+    record ComData(LocalDate valor) {
+    }
+
+    record ComDataHora(LocalDateTime valor) {
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json", "smile", "cbor"})
+    void textoValidoEVazio(String formato) throws Exception {
+        ObjectMapper mapper = mapper(formato);
+
+        assertThat(mapper.readValue(corpo(mapper, "15/03/2024"), ComData.class).valor()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(mapper.readValue(corpo(mapper, "2024-03-15T14:30"), ComDataHora.class).valor())
+                .isEqualTo(LocalDateTime.of(2024, 3, 15, 14, 30));
+        assertThat(mapper.readValue(corpo(mapper, " "), ComData.class).valor()).isNull();
+        assertThat(mapper.readValue(corpo(mapper, ""), ComDataHora.class).valor()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"json", "smile", "cbor"})
+    void textoInvalidoRejeitado(String formato) throws Exception {
+        ObjectMapper mapper = mapper(formato);
+
+        assertThatThrownBy(() -> mapper.readValue(corpo(mapper, "31/02/2024"), ComData.class))
+                .isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> mapper.readValue(corpo(mapper, "amanhã"), ComDataHora.class))
+                .isInstanceOf(InvalidFormatException.class);
+    }
+}
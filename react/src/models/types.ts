@@ -24,12 +24,14 @@ export interface Category {
   id: string;
   nome: string;
   descricao?: string;
+  estoqueMinimo?: number;
   createdAt?: string;
 }
 
 export interface CategoryRequest {
   nome: string;
   descricao?: string;
+  estoqueMinimo?: number;
 }
 
 // Medicine Types
@@ -39,6 +41,8 @@ export interface Medicine {
   descricao?: string;
   preco: number;
   quantidadeEstoque: number;
+  estoqueMinimo?: number;
+  limiteEstoqueBaixo?: number;
   validade?: string;
   ativo: boolean;
   categoria?: Category;
@@ -51,6 +55,7 @@ export interface MedicineRequest {
   descricao?: string;
   preco: number;
   quantidadeEstoque: number;
+  estoqueMinimo?: number;
   validade?: string;
   ativo?: boolean;
   categoriaId?: string;
@@ -86,12 +91,42 @@ export interface StockMovement {
   data: string;
   motivo?: string;
   estoqueTotal?: number;
+  loteId?: string;
+  vendaId?: string;
 }
 
 export interface StockRequest {
   medicamentoId: string;
   quantidade: number;
   motivo?: string;
+  numeroLote?: string;
+  validade?: string;
+}
+
+export interface Lot {
+  id: string;
+  medicamentoId: string;
+  numeroLote: string;
+  validade?: string;
+  quantidade: number;
+  vencido: boolean;
+  createdAt: string;
+}
+
+export interface StockPosition {
+  medicamentoId: string;
+  medicamentoNome: string;
+  data: string;
+  quantidade: number;
+  dataSnapshot?: string;
+}
+
+export interface Page<T> {
+  conteudo: T[];
+  pagina: number;
+  tamanho: number;
+  totalItens: number;
+  totalPaginas: number;
 }
 
 export interface StockResponse {